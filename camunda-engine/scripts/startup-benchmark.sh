@@ -0,0 +1,43 @@
+#!/bin/sh
+# Startup benchmark for the camunda-engine image
+#
+# Starts the image several times per variant and prints time-to-ready and
+# RSS as logged by StartupReport ("Ready in ... ms, RSS ... MB").
+#
+#   scripts/startup-benchmark.sh [runs] [image]
+#
+# Variants:
+#   baseline      -Xshare:off, all beans eager
+#   appcds        AppCDS archive from the image build, all beans eager
+#   appcds+lazy   AppCDS archive and the fast-startup profile (image default)
+
+set -eu
+
+RUNS=${1:-5}
+IMAGE=${2:-samrum-camunda-poc:latest}
+
+if ! docker image inspect "$IMAGE" >/dev/null 2>&1; then
+    docker build -t "$IMAGE" "$(dirname "$0")/.."
+fi
+
+run_variant() {
+    name=$1
+    java_options=$2
+    include=$3
+    i=1
+    while [ "$i" -le "$RUNS" ]; do
+        line=$(docker run --rm \
+                -e JDK_JAVA_OPTIONS="$java_options" \
+                -e SPRING_PROFILES_INCLUDE="$include" \
+                "$IMAGE" --samrum.startup.exit-after-ready=true 2>&1 \
+            | grep "Ready in" || true)
+        ready=$(echo "$line" | sed -n 's/.*Ready in \([0-9]*\) ms.*/\1/p')
+        rss=$(echo "$line" | sed -n 's/.*RSS \([0-9]*\) MB.*/\1/p')
+        printf '%-12s run %d  ready %6s ms  rss %5s MB\n' "$name" "$i" "${ready:-?}" "${rss:-?}"
+        i=$((i + 1))
+    done
+}
+
+run_variant baseline "-Xshare:off" ""
+run_variant appcds "" ""
+run_variant appcds+lazy "" "fast-startup"
@@ -0,0 +1,68 @@
+package com.samrum.analytics;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JDBC access to SAMRUM_ANALYTICS_SKETCH. Sketches are stored in their
+ * encoded text form, one row per node and key.
+ */
+@Component
+public class AnalyticsSketchStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AnalyticsSketchStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Overwrites the node's row for the key, creating it on first save.
+     */
+    public void save(String nodeId, String key, String data) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int updated = jdbcTemplate.update("UPDATE SAMRUM_ANALYTICS_SKETCH SET DATA_ = ?, UPDATED_ = ? "
+            + "WHERE NODE_ID_ = ? AND KEY_ = ?", data, now, nodeId, key);
+        if (updated > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO SAMRUM_ANALYTICS_SKETCH (NODE_ID_, KEY_, DATA_, UPDATED_) "
+                + "VALUES (?, ?, ?, ?)", nodeId, key, data, now);
+        } catch (DuplicateKeyException e) {
+            // a second save of the same key raced us; last writer wins as for the update
+            jdbcTemplate.update("UPDATE SAMRUM_ANALYTICS_SKETCH SET DATA_ = ?, UPDATED_ = ? "
+                + "WHERE NODE_ID_ = ? AND KEY_ = ?", data, now, nodeId, key);
+        }
+    }
+
+    /**
+     * Sketches of one node, by key.
+     */
+    public Map<String, String> loadNode(String nodeId) {
+        Map<String, String> sketches = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT KEY_, DATA_ FROM SAMRUM_ANALYTICS_SKETCH WHERE NODE_ID_ = ?",
+            rs -> {
+                sketches.put(rs.getString("KEY_"), rs.getString("DATA_"));
+            }, nodeId);
+        return sketches;
+    }
+
+    /**
+     * Sketches of all other nodes as (nodeId, key) -> data.
+     */
+    public Map<String, Map<String, String>> loadOtherNodes(String nodeId) {
+        Map<String, Map<String, String>> sketches = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT NODE_ID_, KEY_, DATA_ FROM SAMRUM_ANALYTICS_SKETCH WHERE NODE_ID_ <> ?",
+            rs -> {
+                sketches.computeIfAbsent(rs.getString("NODE_ID_"), node -> new LinkedHashMap<>())
+                    .put(rs.getString("KEY_"), rs.getString("DATA_"));
+            }, nodeId);
+        return sketches;
+    }
+}
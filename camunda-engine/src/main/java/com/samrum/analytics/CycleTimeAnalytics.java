@@ -0,0 +1,317 @@
+package com.samrum.analytics;
+
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.impl.history.event.HistoricActivityInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricProcessInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cycle Time Analytics
+ *
+ * Keeps percentile sketches of cycle times up to date from the engine's history
+ * events instead of scanning ACT_HI_* on every request:
+ * - duration of every task and sub process, per activity id
+ * - duration of whole process instances, per outcome (end event id, or the
+ *   termination state for cancelled instances)
+ * - revision loops per finished instance, per outcome, counted from the
+ *   user task end events of the instance as they arrive. Only the visits
+ *   this node saw since its start are counted, so an instance whose tasks
+ *   were completed on other nodes may show fewer loops
+ *
+ * Events are taken after the engine transaction commits and handed to a single
+ * background thread, so the engine never waits for analytics. Each node
+ * periodically saves its sketches to SAMRUM_ANALYTICS_SKETCH; reads merge the
+ * live local sketches with the saved sketches of all other nodes.
+ */
+@Component
+public class CycleTimeAnalytics {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CycleTimeAnalytics.class);
+
+    private static final String ACTIVITY_END = HistoryEventTypes.ACTIVITY_INSTANCE_END.getEventName();
+    private static final String PROCESS_END = HistoryEventTypes.PROCESS_INSTANCE_END.getEventName();
+    private static final String USER_TASK = "userTask";
+
+    @Autowired
+    private AnalyticsSketchStore store;
+
+    @Value("${samrum.analytics.node-id:}")
+    private String nodeId;
+
+    @Value("${samrum.analytics.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${samrum.analytics.remote-refresh-ms:30000}")
+    private long remoteRefreshMs;
+
+    @Value("${samrum.analytics.max-open-instances:100000}")
+    private int maxOpenInstances;
+
+    private final Map<SketchKey, DurationSketch> durations = new ConcurrentHashMap<>();
+    private final Map<SketchKey, LoopHistogram> loops = new ConcurrentHashMap<>();
+    private final Set<SketchKey> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // user task visits per activity id of unfinished instances; only touched by the worker thread
+    private Map<String, Map<String, Integer>> visits;
+
+    private ThreadPoolExecutor worker;
+    private volatile RemoteSketches remote;
+
+    @PostConstruct
+    public void start() {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = hostName();
+        }
+
+        // continue the counts this node saved before a restart
+        for (Map.Entry<String, String> row : store.loadNode(nodeId).entrySet()) {
+            try {
+                SketchKey key = SketchKey.parse(row.getKey());
+                if (key.getKind() == SketchKey.Kind.LOOPS) {
+                    loops.put(key, LoopHistogram.decode(row.getValue()));
+                } else {
+                    durations.put(key, DurationSketch.decode(row.getValue()));
+                }
+            } catch (IllegalArgumentException e) {
+                LOG.warn("Ignoring unreadable analytics sketch {}: {}", row.getKey(), e.getMessage());
+            }
+        }
+
+        // instances that end on another node never drop their counter here; the eldest go first
+        visits = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<String, Integer>> eldest) {
+                return size() > maxOpenInstances;
+            }
+        };
+        worker = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "cycle-time-analytics");
+                thread.setDaemon(true);
+                return thread;
+            },
+            (runnable, executor) -> dropped.incrementAndGet());
+        LOG.info("Cycle time analytics started on node {} ({} saved sketches)", nodeId, durations.size() + loops.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (worker != null) {
+            worker.shutdown();
+            try {
+                worker.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        if (dropped.get() > 0) {
+            LOG.warn("Cycle time analytics dropped {} history events because the queue was full", dropped.get());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivityInstance(HistoricActivityInstanceEventEntity event) {
+        if (!ACTIVITY_END.equals(event.getEventType()) || event.getProcessDefinitionKey() == null) {
+            return;
+        }
+        boolean userTask = USER_TASK.equals(event.getActivityType());
+        boolean timed = event.getDurationInMillis() != null && isTracked(event.getActivityType());
+        if (!userTask && !timed) {
+            return;
+        }
+        String processInstanceId = event.getProcessInstanceId();
+        String activityId = event.getActivityId();
+        SketchKey key = new SketchKey(SketchKey.Kind.ACTIVITY, event.getProcessDefinitionKey(), activityId);
+        long duration = timed ? event.getDurationInMillis() : 0;
+        worker.execute(() -> {
+            if (userTask) {
+                countVisit(processInstanceId, activityId);
+            }
+            if (timed) {
+                recordDuration(key, duration);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProcessInstance(HistoricProcessInstanceEventEntity event) {
+        if (!PROCESS_END.equals(event.getEventType()) || event.getDurationInMillis() == null
+                || event.getProcessDefinitionKey() == null) {
+            return;
+        }
+        String definitionKey = event.getProcessDefinitionKey();
+        String outcome = outcome(event);
+        String processInstanceId = event.getProcessInstanceId();
+        long duration = event.getDurationInMillis();
+        worker.execute(() -> {
+            recordDuration(new SketchKey(SketchKey.Kind.OUTCOME, definitionKey, outcome), duration);
+            recordLoops(new SketchKey(SketchKey.Kind.LOOPS, definitionKey, outcome), processInstanceId);
+        });
+    }
+
+    /**
+     * Duration sketches of all nodes merged, by key.
+     */
+    public Map<SketchKey, DurationSketch> durationSketches() {
+        Map<SketchKey, DurationSketch> merged = new HashMap<>();
+        for (Map.Entry<SketchKey, DurationSketch> entry : remoteSketches().durations.entrySet()) {
+            merged.put(entry.getKey(), entry.getValue().copy());
+        }
+        durations.forEach((key, sketch) -> merged.computeIfAbsent(key, k -> new DurationSketch()).merge(sketch));
+        return merged;
+    }
+
+    /**
+     * Revision loop histograms of all nodes merged, by key.
+     */
+    public Map<SketchKey, LoopHistogram> loopHistograms() {
+        Map<SketchKey, LoopHistogram> merged = new HashMap<>();
+        for (Map.Entry<SketchKey, LoopHistogram> entry : remoteSketches().loops.entrySet()) {
+            merged.put(entry.getKey(), entry.getValue().copy());
+        }
+        loops.forEach((key, histogram) -> merged.computeIfAbsent(key, k -> new LoopHistogram()).merge(histogram));
+        return merged;
+    }
+
+    /**
+     * Saves the sketches that changed since the last flush.
+     */
+    @Scheduled(fixedDelayString = "${samrum.analytics.flush-interval-ms:60000}")
+    public void flush() {
+        int saved = 0;
+        for (SketchKey key : new ArrayList<>(dirty)) {
+            // clear first, so a value recorded while saving marks the key again
+            dirty.remove(key);
+            try {
+                String data = key.getKind() == SketchKey.Kind.LOOPS
+                    ? loops.get(key).encode()
+                    : durations.get(key).encode();
+                store.save(nodeId, key.encode(), data);
+                saved++;
+            } catch (RuntimeException e) {
+                dirty.add(key);
+                LOG.warn("Failed to save analytics sketch {}: {}", key, e.getMessage());
+            }
+        }
+        if (saved > 0) {
+            LOG.debug("Saved {} analytics sketches for node {}", saved, nodeId);
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public int getPendingCount() {
+        return worker.getQueue().size();
+    }
+
+    private void recordDuration(SketchKey key, long duration) {
+        durations.computeIfAbsent(key, k -> new DurationSketch()).record(duration);
+        dirty.add(key);
+    }
+
+    private void countVisit(String processInstanceId, String activityId) {
+        visits.computeIfAbsent(processInstanceId, id -> new HashMap<>()).merge(activityId, 1, Integer::sum);
+    }
+
+    /**
+     * A revision loop is every extra visit of a user task: an instance whose
+     * busiest user task ran three times went through two loops. The instance's
+     * counter is dropped, it has ended.
+     */
+    private void recordLoops(SketchKey key, String processInstanceId) {
+        Map<String, Integer> instanceVisits = visits.remove(processInstanceId);
+        int maxVisits = 0;
+        if (instanceVisits != null) {
+            for (int count : instanceVisits.values()) {
+                maxVisits = Math.max(maxVisits, count);
+            }
+        }
+        loops.computeIfAbsent(key, k -> new LoopHistogram()).record(Math.max(0, maxVisits - 1));
+        dirty.add(key);
+    }
+
+    private RemoteSketches remoteSketches() {
+        RemoteSketches current = remote;
+        if (current != null && System.currentTimeMillis() - current.loadedAt < remoteRefreshMs) {
+            return current;
+        }
+        RemoteSketches loaded = new RemoteSketches();
+        for (Map<String, String> node : store.loadOtherNodes(nodeId).values()) {
+            for (Map.Entry<String, String> row : node.entrySet()) {
+                try {
+                    SketchKey key = SketchKey.parse(row.getKey());
+                    if (key.getKind() == SketchKey.Kind.LOOPS) {
+                        loaded.loops.computeIfAbsent(key, k -> new LoopHistogram())
+                            .merge(LoopHistogram.decode(row.getValue()));
+                    } else {
+                        loaded.durations.computeIfAbsent(key, k -> new DurationSketch())
+                            .merge(DurationSketch.decode(row.getValue()));
+                    }
+                } catch (IllegalArgumentException e) {
+                    LOG.warn("Ignoring unreadable analytics sketch {}: {}", row.getKey(), e.getMessage());
+                }
+            }
+        }
+        remote = loaded;
+        return loaded;
+    }
+
+    private static boolean isTracked(String activityType) {
+        // tasks and (call) sub processes; events and gateways take no time worth tracking
+        if (activityType == null) {
+            return false;
+        }
+        return activityType.toLowerCase(Locale.ROOT).endsWith("task")
+            || "subProcess".equals(activityType)
+            || "callActivity".equals(activityType);
+    }
+
+    private static String outcome(HistoricProcessInstanceEventEntity event) {
+        if (HistoricProcessInstance.STATE_COMPLETED.equals(event.getState()) && event.getEndActivityId() != null) {
+            return event.getEndActivityId();
+        }
+        return event.getState() != null ? event.getState().toLowerCase(Locale.ROOT) : "unknown";
+    }
+
+    private static String hostName() {
+        String host = System.getenv("HOSTNAME");
+        if (host != null && !host.isBlank()) {
+            return host;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "local";
+        }
+    }
+
+    private static final class RemoteSketches {
+        private final long loadedAt = System.currentTimeMillis();
+        private final Map<SketchKey, DurationSketch> durations = new HashMap<>();
+        private final Map<SketchKey, LoopHistogram> loops = new HashMap<>();
+    }
+}
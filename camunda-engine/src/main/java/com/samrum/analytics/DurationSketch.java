@@ -0,0 +1,183 @@
+package com.samrum.analytics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Duration Sketch
+ *
+ * Mergeable quantile sketch for durations in milliseconds. Values are counted
+ * in logarithmic buckets (bucket i holds (gamma^(i-1), gamma^i]), so every
+ * quantile is answered within RELATIVE_ACCURACY of a real value regardless of
+ * how many values were recorded. Two sketches merge by adding bucket counts,
+ * which is what makes per-node sketches combinable.
+ *
+ * Memory is fixed (about 10 KB) and record() is lock-free.
+ */
+public final class DurationSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    // durations above two years land in the last bucket
+    static final long MAX_TRACKED_MILLIS = 2L * 366 * 24 * 60 * 60 * 1000;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final int BUCKETS = (int) Math.ceil(Math.log(MAX_TRACKED_MILLIS) / LOG_GAMMA) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    public void record(long millis) {
+        long value = Math.max(0, millis);
+        counts.incrementAndGet(index(value));
+        sum.addAndGet(value);
+        min.accumulateAndGet(value, Math::min);
+        max.accumulateAndGet(value, Math::max);
+        count.incrementAndGet();
+    }
+
+    /**
+     * Adds all values of the other sketch to this one.
+     */
+    public void merge(DurationSketch other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucket = other.counts.get(i);
+            if (bucket != 0) {
+                counts.addAndGet(i, bucket);
+            }
+        }
+        sum.addAndGet(other.sum.get());
+        min.accumulateAndGet(other.min.get(), Math::min);
+        max.accumulateAndGet(other.max.get(), Math::max);
+        count.addAndGet(other.count.get());
+    }
+
+    public DurationSketch copy() {
+        DurationSketch copy = new DurationSketch();
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * Value at the given quantile (0..1) in milliseconds, or -1 if the sketch is empty.
+     */
+    public long quantile(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return -1;
+        }
+
+        long rank = (long) Math.floor(Math.min(1.0, Math.max(0.0, quantile)) * (total - 1));
+        long cumulative = 0;
+        int bucket = BUCKETS - 1;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += snapshot[i];
+            if (cumulative > rank) {
+                bucket = i;
+                break;
+            }
+        }
+        // the exact extremes are known, keep estimates inside them
+        long estimate = Math.round(value(bucket));
+        return Math.min(getMax(), Math.max(getMin(), estimate));
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getSum() {
+        return sum.get();
+    }
+
+    public long getMin() {
+        long value = min.get();
+        return value == Long.MAX_VALUE ? -1 : value;
+    }
+
+    public long getMax() {
+        long value = max.get();
+        return value == Long.MIN_VALUE ? -1 : value;
+    }
+
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0.0 : (double) sum.get() / n;
+    }
+
+    /**
+     * Compact text form: "count,sum,min,max|index:count index:count ...", non-empty buckets only.
+     */
+    public String encode() {
+        StringBuilder text = new StringBuilder(64);
+        text.append(count.get()).append(',').append(sum.get()).append(',')
+            .append(min.get()).append(',').append(max.get()).append('|');
+        boolean first = true;
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucket = counts.get(i);
+            if (bucket != 0) {
+                if (!first) {
+                    text.append(' ');
+                }
+                text.append(i).append(':').append(bucket);
+                first = false;
+            }
+        }
+        return text.toString();
+    }
+
+    public static DurationSketch decode(String text) {
+        DurationSketch sketch = new DurationSketch();
+        int bar = text.indexOf('|');
+        if (bar < 0) {
+            throw new IllegalArgumentException("Not a duration sketch: " + text);
+        }
+        String[] totals = text.substring(0, bar).split(",");
+        if (totals.length != 4) {
+            throw new IllegalArgumentException("Not a duration sketch: " + text);
+        }
+        sketch.count.set(Long.parseLong(totals[0]));
+        sketch.sum.set(Long.parseLong(totals[1]));
+        sketch.min.set(Long.parseLong(totals[2]));
+        sketch.max.set(Long.parseLong(totals[3]));
+
+        String buckets = text.substring(bar + 1).trim();
+        if (!buckets.isEmpty()) {
+            for (String entry : buckets.split(" ")) {
+                int colon = entry.indexOf(':');
+                int index = Integer.parseInt(entry.substring(0, colon));
+                if (index < 0 || index >= BUCKETS) {
+                    throw new IllegalArgumentException("Bucket out of range: " + entry);
+                }
+                sketch.counts.set(index, Long.parseLong(entry.substring(colon + 1)));
+            }
+        }
+        return sketch;
+    }
+
+    static int index(long millis) {
+        if (millis <= 1) {
+            return 0;
+        }
+        return (int) Math.min(BUCKETS - 1, Math.ceil(Math.log(millis) / LOG_GAMMA));
+    }
+
+    /**
+     * Representative value of a bucket, within RELATIVE_ACCURACY of both bounds.
+     */
+    static double value(int index) {
+        if (index == 0) {
+            return 1.0;
+        }
+        return 2.0 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+}
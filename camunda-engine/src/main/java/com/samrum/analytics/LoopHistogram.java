@@ -0,0 +1,102 @@
+package com.samrum.analytics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Loop Histogram
+ *
+ * Exact distribution of revision loops per finished process instance
+ * (0, 1, 2, ... loops; everything from MAX_LOOPS up shares the last bucket).
+ * Mergeable by adding counts, like DurationSketch.
+ */
+public final class LoopHistogram {
+
+    public static final int MAX_LOOPS = 20;
+
+    private final AtomicLongArray counts = new AtomicLongArray(MAX_LOOPS + 1);
+
+    public void record(int loops) {
+        counts.incrementAndGet(Math.min(MAX_LOOPS, Math.max(0, loops)));
+    }
+
+    public void merge(LoopHistogram other) {
+        for (int i = 0; i <= MAX_LOOPS; i++) {
+            long bucket = other.counts.get(i);
+            if (bucket != 0) {
+                counts.addAndGet(i, bucket);
+            }
+        }
+    }
+
+    public LoopHistogram copy() {
+        LoopHistogram copy = new LoopHistogram();
+        copy.merge(this);
+        return copy;
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i <= MAX_LOOPS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    public double getMean() {
+        long total = 0;
+        long loops = 0;
+        for (int i = 0; i <= MAX_LOOPS; i++) {
+            long bucket = counts.get(i);
+            total += bucket;
+            loops += bucket * i;
+        }
+        return total == 0 ? 0.0 : (double) loops / total;
+    }
+
+    /**
+     * Instances per loop count, e.g. {0=812, 1=143, 2=31}; empty buckets are left out.
+     */
+    public Map<Integer, Long> getDistribution() {
+        Map<Integer, Long> distribution = new LinkedHashMap<>();
+        for (int i = 0; i <= MAX_LOOPS; i++) {
+            long bucket = counts.get(i);
+            if (bucket != 0) {
+                distribution.put(i, bucket);
+            }
+        }
+        return distribution;
+    }
+
+    /**
+     * Text form "loops:count loops:count ...", non-empty buckets only.
+     */
+    public String encode() {
+        StringBuilder text = new StringBuilder(32);
+        for (Map.Entry<Integer, Long> entry : getDistribution().entrySet()) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(entry.getKey()).append(':').append(entry.getValue());
+        }
+        return text.toString();
+    }
+
+    public static LoopHistogram decode(String text) {
+        LoopHistogram histogram = new LoopHistogram();
+        String trimmed = text == null ? "" : text.trim();
+        if (!trimmed.isEmpty()) {
+            for (String entry : trimmed.split(" ")) {
+                int colon = entry.indexOf(':');
+                if (colon < 0) {
+                    throw new IllegalArgumentException("Not a loop histogram entry: " + entry);
+                }
+                int loops = Integer.parseInt(entry.substring(0, colon));
+                histogram.counts.addAndGet(Math.min(MAX_LOOPS, Math.max(0, loops)),
+                    Long.parseLong(entry.substring(colon + 1)));
+            }
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,77 @@
+package com.samrum.analytics;
+
+import java.util.Objects;
+
+/**
+ * Identifies one sketch: "kind|processDefinitionKey|name", where name is the
+ * activity id for ACTIVITY sketches and the process outcome otherwise.
+ */
+public final class SketchKey {
+
+    public enum Kind {
+        /** duration of one activity */
+        ACTIVITY,
+        /** duration of whole process instances ending with an outcome */
+        OUTCOME,
+        /** revision loops of process instances ending with an outcome */
+        LOOPS
+    }
+
+    private final Kind kind;
+    private final String processDefinitionKey;
+    private final String name;
+
+    public SketchKey(Kind kind, String processDefinitionKey, String name) {
+        this.kind = kind;
+        this.processDefinitionKey = processDefinitionKey;
+        this.name = name;
+    }
+
+    public static SketchKey parse(String text) {
+        String[] parts = text.split("\\|", 3);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Not a sketch key: " + text);
+        }
+        return new SketchKey(Kind.valueOf(parts[0]), parts[1], parts[2]);
+    }
+
+    public String encode() {
+        return kind.name() + "|" + processDefinitionKey + "|" + name;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getProcessDefinitionKey() {
+        return processDefinitionKey;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SketchKey)) {
+            return false;
+        }
+        SketchKey other = (SketchKey) o;
+        return kind == other.kind
+            && processDefinitionKey.equals(other.processDefinitionKey)
+            && name.equals(other.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, processDefinitionKey, name);
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
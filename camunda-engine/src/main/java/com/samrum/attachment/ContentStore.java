@@ -0,0 +1,151 @@
+package com.samrum.attachment;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Content Store
+ *
+ * Content-addressed file store for attachment content:
+ *
+ *   {directory}/{sha[0..2]}/{sha}
+ *
+ * - content is streamed through one fixed-size direct buffer into a temp file
+ *   while its SHA-256 is computed, so memory does not depend on the file size
+ * - the temp file is then moved to its hash path; content that is already
+ *   stored is not written twice
+ * - content over the size limit, a failed read or a failed write leaves no
+ *   file behind
+ * - stored files are never modified, so a hash is also a stable ETag
+ */
+@Component
+public class ContentStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ContentStore.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String INCOMING = ".incoming";
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    @Value("${samrum.attachments.directory:./data/attachments}")
+    private String directory;
+
+    private Path root;
+
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(directory).toAbsolutePath();
+        Path incoming = root.resolve(INCOMING);
+        Files.createDirectories(incoming);
+
+        // temp files of uploads interrupted by a restart
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(incoming)) {
+            for (Path leftover : leftovers) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+        LOG.info("Attachment content store at {}", root);
+    }
+
+    /**
+     * Stores the stream's content; the stream is read to the end but not closed.
+     *
+     * @throws ContentTooLargeException as soon as more than maxBytes have been read
+     */
+    public StoredContent store(InputStream content, long maxBytes) throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = root.resolve(INCOMING).resolve(UUID.randomUUID().toString());
+        long size = 0;
+
+        try {
+            ReadableByteChannel in = Channels.newChannel(content);
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                while (in.read(buffer) != -1) {
+                    if (size + buffer.position() > maxBytes) {
+                        throw new ContentTooLargeException(maxBytes);
+                    }
+                    buffer.flip();
+                    digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        size += out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                out.force(false);
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = path(hash);
+            if (Files.exists(target)) {
+                deduplicated.increment();
+                return new StoredContent(hash, size, true);
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // the same content was uploaded concurrently
+                deduplicated.increment();
+                return new StoredContent(hash, size, true);
+            }
+            stored.increment();
+            return new StoredContent(hash, size, false);
+
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Path of stored content, if the hash is well-formed and the content exists.
+     */
+    public Optional<Path> find(String hash) {
+        if (hash == null || !SHA256_HEX.matcher(hash).matches()) {
+            return Optional.empty();
+        }
+        Path path = path(hash);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    public long getStoredCount() {
+        return stored.sum();
+    }
+
+    public long getDeduplicatedCount() {
+        return deduplicated.sum();
+    }
+
+    private Path path(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.samrum.attachment;
+
+/**
+ * Attachment content exceeds samrum.attachments.max-size.
+ */
+public class ContentTooLargeException extends RuntimeException {
+
+    private final long maxBytes;
+
+    public ContentTooLargeException(long maxBytes) {
+        super("Attachment exceeds the maximum size of " + maxBytes + " bytes");
+        this.maxBytes = maxBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
@@ -0,0 +1,106 @@
+package com.samrum.attachment;
+
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.task.Attachment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Process Attachment Service
+ *
+ * Attaches files (design drawings, specifications) to process instances.
+ * The content goes to the ContentStore; the engine only keeps a URL
+ * attachment (ACT_HI_ATTACHMENT) whose URL references the content by hash:
+ *
+ *   cas:sha256:{hash}
+ *
+ * so no file content ends up in ACT_GE_BYTEARRAY or in the heap.
+ */
+@Component
+public class ProcessAttachmentService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProcessAttachmentService.class);
+
+    public static final String URL_PREFIX = "cas:sha256:";
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ContentStore contentStore;
+
+    @Value("${samrum.attachments.max-size:200MB}")
+    private DataSize maxSize;
+
+    /**
+     * Stores the content and links it to the process instance.
+     *
+     * @throws IllegalArgumentException if the process instance is not active
+     * @throws ContentTooLargeException if the content exceeds samrum.attachments.max-size
+     */
+    public Attachment attach(String processInstanceId, String fileName, String contentType,
+                             String description, InputStream content) throws IOException {
+        boolean active = runtimeService.createProcessInstanceQuery()
+            .processInstanceId(processInstanceId)
+            .count() > 0;
+        if (!active) {
+            throw new IllegalArgumentException("No active process instance " + processInstanceId);
+        }
+
+        StoredContent stored = contentStore.store(content, maxSize.toBytes());
+        Attachment attachment = taskService.createAttachment(contentType, null, processInstanceId,
+            fileName, description, URL_PREFIX + stored.getHash());
+
+        LOG.info("📎 {} ({} bytes{}) attached to process {}", fileName, stored.getSize(),
+            stored.isDeduplicated() ? ", already stored" : "", processInstanceId);
+        return attachment;
+    }
+
+    public long getMaxBytes() {
+        return maxSize.toBytes();
+    }
+
+    public List<Attachment> list(String processInstanceId) {
+        return taskService.getProcessInstanceAttachments(processInstanceId);
+    }
+
+    /**
+     * The attachment, if it belongs to the process instance.
+     */
+    public Optional<Attachment> find(String processInstanceId, String attachmentId) {
+        Attachment attachment = taskService.getAttachment(attachmentId);
+        if (attachment == null || !processInstanceId.equals(attachment.getProcessInstanceId())) {
+            return Optional.empty();
+        }
+        return Optional.of(attachment);
+    }
+
+    /**
+     * Stored content of a content-addressed attachment.
+     */
+    public Optional<Path> content(Attachment attachment) {
+        return hash(attachment).flatMap(contentStore::find);
+    }
+
+    public static Optional<String> hash(Attachment attachment) {
+        String url = attachment.getUrl();
+        if (url == null || !url.startsWith(URL_PREFIX)) {
+            return Optional.empty();
+        }
+        return Optional.of(url.substring(URL_PREFIX.length()));
+    }
+}
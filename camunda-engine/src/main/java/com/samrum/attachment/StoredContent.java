@@ -0,0 +1,35 @@
+package com.samrum.attachment;
+
+/**
+ * Content written to the ContentStore, identified by its SHA-256.
+ */
+public class StoredContent {
+
+    private final String hash;
+    private final long size;
+    private final boolean deduplicated;
+
+    public StoredContent(String hash, long size, boolean deduplicated) {
+        this.hash = hash;
+        this.size = size;
+        this.deduplicated = deduplicated;
+    }
+
+    /**
+     * Lowercase hex SHA-256 of the content.
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * True if the same content was already stored and nothing new was written.
+     */
+    public boolean isDeduplicated() {
+        return deduplicated;
+    }
+}
@@ -0,0 +1,123 @@
+package com.samrum.audit;
+
+/**
+ * Line format of the audit journal.
+ *
+ * One event per line, tab separated:
+ * timestamp, type, processInstanceId, activityId, actor, subject, detail.
+ * Tabs, line breaks and backslashes in values are escaped; null is written as \N.
+ */
+final class AuditCodec {
+
+    static final int FIELD_COUNT = 7;
+
+    private AuditCodec() {
+    }
+
+    static void encode(AuditEvent event, StringBuilder line) {
+        line.append(event.getTimestamp()).append('\t')
+            .append(event.getType().name()).append('\t');
+        appendValue(line, event.getProcessInstanceId());
+        line.append('\t');
+        appendValue(line, event.getActivityId());
+        line.append('\t');
+        appendValue(line, event.getActor());
+        line.append('\t');
+        appendValue(line, event.getSubject());
+        line.append('\t');
+        appendValue(line, event.getDetail());
+        line.append('\n');
+    }
+
+    /**
+     * @return the decoded event, or null for a truncated or malformed line
+     */
+    static AuditEvent decode(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != FIELD_COUNT) {
+            return null;
+        }
+        try {
+            return new AuditEvent(
+                Long.parseLong(fields[0]),
+                AuditEventType.valueOf(fields[1]),
+                unescape(fields[2]),
+                unescape(fields[3]),
+                unescape(fields[4]),
+                unescape(fields[5]),
+                unescape(fields[6]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads only the process instance id of a line, without decoding the rest.
+     */
+    static String processInstanceId(String line) {
+        int start = line.indexOf('\t', line.indexOf('\t') + 1) + 1;
+        int end = line.indexOf('\t', start);
+        if (start == 0 || end < 0) {
+            return null;
+        }
+        return unescape(line.substring(start, end));
+    }
+
+    private static void appendValue(StringBuilder line, String value) {
+        if (value == null) {
+            line.append("\\N");
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                default:
+                    line.append(c);
+            }
+        }
+    }
+
+    private static String unescape(String value) {
+        if ("\\N".equals(value)) {
+            return null;
+        }
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                switch (next) {
+                    case 't':
+                        result.append('\t');
+                        break;
+                    case 'n':
+                        result.append('\n');
+                        break;
+                    case 'r':
+                        result.append('\r');
+                        break;
+                    default:
+                        result.append(next);
+                }
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
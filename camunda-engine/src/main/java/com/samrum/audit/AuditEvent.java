@@ -0,0 +1,47 @@
+package com.samrum.audit;
+
+/**
+ * Audit Event
+ *
+ * One immutable entry of the audit journal: what was decided, for which
+ * process instance and activity, by whom, and about what.
+ *
+ * - actor: reviewer or requestor responsible for the decision
+ * - subject: business object the decision is about (project id, work order number)
+ * - detail: free text such as review comments or the rejection reason
+ */
+public class AuditEvent {
+
+    private final long timestamp;
+    private final AuditEventType type;
+    private final String processInstanceId;
+    private final String activityId;
+    private final String actor;
+    private final String subject;
+    private final String detail;
+
+    public AuditEvent(long timestamp, AuditEventType type, String processInstanceId,
+                      String activityId, String actor, String subject, String detail) {
+        this.timestamp = timestamp;
+        this.type = type;
+        this.processInstanceId = processInstanceId;
+        this.activityId = activityId;
+        this.actor = actor;
+        this.subject = subject;
+        this.detail = detail;
+    }
+
+    public static AuditEvent of(AuditEventType type, String processInstanceId, String activityId,
+                                String actor, String subject, String detail) {
+        return new AuditEvent(System.currentTimeMillis(), type, processInstanceId, activityId, actor, subject, detail);
+    }
+
+    // Getters
+    public long getTimestamp() { return timestamp; }
+    public AuditEventType getType() { return type; }
+    public String getProcessInstanceId() { return processInstanceId; }
+    public String getActivityId() { return activityId; }
+    public String getActor() { return actor; }
+    public String getSubject() { return subject; }
+    public String getDetail() { return detail; }
+}
@@ -0,0 +1,11 @@
+package com.samrum.audit;
+
+/**
+ * Types of delegate decisions recorded in the audit journal
+ */
+public enum AuditEventType {
+    APPROVAL,
+    REJECTION,
+    VALIDATION_FAILURE,
+    WORK_ORDER_CREATED
+}
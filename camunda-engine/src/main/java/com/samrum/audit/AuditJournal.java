@@ -0,0 +1,326 @@
+package com.samrum.audit;
+
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit Journal
+ *
+ * Append-only journal of delegate decisions.
+ *
+ * - record() inside an engine command publishes the event when the engine
+ *   transaction commits, so rolled back commands and failed job attempts
+ *   leave no entries
+ * - publishing claims a slot in a lock-free multi-producer ring buffer and
+ *   returns immediately; delegates never touch the disk
+ * - a single writer thread drains the ring, appends events to the current
+ *   segment file and fsyncs in batches every fsync-interval-ms; when the ring
+ *   is empty it parks until a producer wakes it or the next fsync is due
+ * - segments roll over at segment-max-bytes and are never rewritten
+ *
+ * When the ring is full (the disk cannot keep up) events are dropped and
+ * counted rather than blocking the engine.
+ */
+@Component
+public class AuditJournal {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AuditJournal.class);
+
+    @Value("${samrum.audit.directory:./data/audit}")
+    private String directory;
+
+    @Value("${samrum.audit.buffer-capacity:65536}")
+    private int bufferCapacity;
+
+    @Value("${samrum.audit.segment-max-bytes:67108864}")
+    private long segmentMaxBytes;
+
+    @Value("${samrum.audit.fsync-interval-ms:200}")
+    private long fsyncIntervalMs;
+
+    private AtomicReferenceArray<AuditEvent> ring;
+    private int mask;
+
+    // next sequence to claim (producers) / next sequence to read (writer)
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    private AuditSegmentWriter segmentWriter;
+    private Thread writerThread;
+    private volatile boolean running;
+    // set by the writer before it parks; producers unpark it when set
+    private volatile boolean idle;
+
+    @PostConstruct
+    public void start() throws IOException {
+        int capacity = Integer.highestOneBit(Math.max(2, bufferCapacity - 1)) << 1;
+        ring = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+
+        Path path = Paths.get(directory);
+        Files.createDirectories(path);
+        segmentWriter = new AuditSegmentWriter(path, segmentMaxBytes);
+
+        running = true;
+        writerThread = new Thread(this::drainLoop, "audit-journal-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        LOG.info("Audit journal writing to {} (ring capacity {})", path.toAbsolutePath(), capacity);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writerThread != null) {
+            LockSupport.unpark(writerThread);
+            try {
+                writerThread.join(10_000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (dropped.get() > 0) {
+            LOG.warn("Audit journal dropped {} events because the ring buffer was full", dropped.get());
+        }
+    }
+
+    /**
+     * Queues an event for the journal. Never blocks. Inside an engine command
+     * the event is queued once the transaction has committed.
+     *
+     * @return false if the event was dropped because the ring buffer is full
+     *         (always true when deferred to the commit)
+     */
+    public boolean record(AuditEvent event) {
+        CommandContext commandContext = Context.getCommandContext();
+        if (commandContext == null) {
+            return publish(event);
+        }
+        commandContext.getTransactionContext()
+            .addTransactionListener(TransactionState.COMMITTED, context -> publish(event));
+        return true;
+    }
+
+    private boolean publish(AuditEvent event) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed.get() > mask) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        // volatile store before reading idle, so either the writer sees the event or we see it parked
+        ring.set((int) sequence & mask, event);
+        if (idle) {
+            LockSupport.unpark(writerThread);
+        }
+        return true;
+    }
+
+    public boolean record(AuditEventType type, String processInstanceId, String activityId,
+                          String actor, String subject, String detail) {
+        return record(AuditEvent.of(type, processInstanceId, activityId, actor, subject, detail));
+    }
+
+    /**
+     * Events of one process instance within [from, to] (epoch millis), oldest first.
+     * Events become visible once the writer has flushed them (within fsync-interval-ms).
+     */
+    public List<AuditEvent> query(String processInstanceId, long from, long to) throws IOException {
+        return AuditSegmentReader.query(Paths.get(directory), processInstanceId, from, to);
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getPendingCount() {
+        return claimed.get() - consumed.get();
+    }
+
+    private void drainLoop() {
+        long nextSync = System.currentTimeMillis() + fsyncIntervalMs;
+        boolean dirty = false;
+
+        while (true) {
+            AuditEvent event = poll();
+            if (event != null) {
+                try {
+                    segmentWriter.append(event);
+                    written.incrementAndGet();
+                    dirty = true;
+                } catch (IOException | RuntimeException e) {
+                    LOG.error("Failed to append audit event {} for {}", event.getType(), event.getProcessInstanceId(), e);
+                }
+                if (dirty && System.currentTimeMillis() >= nextSync) {
+                    dirty = !sync();
+                    nextSync = System.currentTimeMillis() + fsyncIntervalMs;
+                }
+                continue;
+            }
+
+            if (dirty && System.currentTimeMillis() >= nextSync) {
+                dirty = !sync();
+                nextSync = System.currentTimeMillis() + fsyncIntervalMs;
+            }
+            if (!running && claimed.get() == consumed.get()) {
+                break;
+            }
+            idle = true;
+            if (!published()) {
+                if (dirty) {
+                    LockSupport.parkNanos(this, Math.max(1L, nextSync - System.currentTimeMillis()) * 1_000_000L);
+                } else {
+                    LockSupport.park(this);
+                }
+            }
+            idle = false;
+        }
+
+        sync();
+        try {
+            segmentWriter.close();
+        } catch (IOException e) {
+            LOG.warn("Failed to close audit segment", e);
+        }
+    }
+
+    /**
+     * Takes the next published event, or null if the next slot is not published yet.
+     */
+    private AuditEvent poll() {
+        long sequence = consumed.get();
+        if (sequence == claimed.get()) {
+            return null;
+        }
+        int index = (int) sequence & mask;
+        AuditEvent event = ring.get(index);
+        if (event == null) {
+            // slot claimed but the producer has not stored the event yet
+            return null;
+        }
+        ring.lazySet(index, null);
+        consumed.set(sequence + 1);
+        return event;
+    }
+
+    /**
+     * True if the next event has been stored by its producer.
+     */
+    private boolean published() {
+        long sequence = consumed.get();
+        return sequence != claimed.get() && ring.get((int) sequence & mask) != null;
+    }
+
+    private boolean sync() {
+        try {
+            segmentWriter.flush();
+            return true;
+        } catch (IOException e) {
+            LOG.error("Failed to fsync audit segment", e);
+            return false;
+        }
+    }
+
+    /**
+     * Writes events into size-limited segment files named after their first event.
+     */
+    static final class AuditSegmentWriter {
+
+        private final Path directory;
+        private final long maxBytes;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        private final StringBuilder line = new StringBuilder(256);
+
+        private FileChannel channel;
+        private long segmentBytes;
+        private int segmentCounter;
+
+        AuditSegmentWriter(Path directory, long maxBytes) {
+            this.directory = directory;
+            this.maxBytes = maxBytes;
+        }
+
+        void append(AuditEvent event) throws IOException {
+            line.setLength(0);
+            AuditCodec.encode(event, line);
+            byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+
+            if (channel == null || segmentBytes + buffer.position() + bytes.length > maxBytes) {
+                roll(event.getTimestamp());
+            }
+            if (bytes.length > buffer.remaining()) {
+                writeBuffer();
+            }
+            if (bytes.length > buffer.capacity()) {
+                channel.write(ByteBuffer.wrap(bytes));
+                segmentBytes += bytes.length;
+            } else {
+                buffer.put(bytes);
+            }
+        }
+
+        void flush() throws IOException {
+            if (channel == null) {
+                return;
+            }
+            writeBuffer();
+            channel.force(false);
+        }
+
+        void close() throws IOException {
+            if (channel != null) {
+                flush();
+                channel.close();
+                channel = null;
+            }
+        }
+
+        private void roll(long firstTimestamp) throws IOException {
+            close();
+            Path segment;
+            do {
+                segment = directory.resolve(AuditSegmentReader.segmentName(firstTimestamp, segmentCounter++));
+            } while (Files.exists(segment));
+            channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            segmentBytes = 0;
+            LOG.debug("Audit journal rolled to {}", segment.getFileName());
+        }
+
+        private void writeBuffer() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                segmentBytes += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
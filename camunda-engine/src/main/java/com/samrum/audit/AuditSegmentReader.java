@@ -0,0 +1,85 @@
+package com.samrum.audit;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads events back from the journal segments.
+ *
+ * Segment files are named audit-&lt;first event millis&gt;-&lt;counter&gt;.log, so a
+ * segment only needs to be scanned when its time span [own start, next
+ * segment's start] overlaps the requested range.
+ */
+final class AuditSegmentReader {
+
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".log";
+
+    // events are stamped by the producer, so a segment may hold events slightly
+    // newer than the start of the next one
+    private static final long CLOCK_SKEW_MS = 1000L;
+
+    private AuditSegmentReader() {
+    }
+
+    static String segmentName(long firstTimestamp, int counter) {
+        return String.format("%s%013d-%06d%s", PREFIX, firstTimestamp, counter, SUFFIX);
+    }
+
+    static List<AuditEvent> query(Path directory, String processInstanceId, long from, long to) throws IOException {
+        List<Path> segments = segments(directory);
+        List<AuditEvent> result = new ArrayList<>();
+
+        for (int i = 0; i < segments.size(); i++) {
+            long start = startOf(segments.get(i));
+            long nextStart = i + 1 < segments.size() ? startOf(segments.get(i + 1)) : Long.MAX_VALUE;
+            if (start > to || nextStart < from - CLOCK_SKEW_MS) {
+                continue;
+            }
+            scan(segments.get(i), processInstanceId, from, to, result);
+        }
+        return result;
+    }
+
+    private static void scan(Path segment, String processInstanceId, long from, long to,
+                             List<AuditEvent> result) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (processInstanceId != null && !processInstanceId.equals(AuditCodec.processInstanceId(line))) {
+                    continue;
+                }
+                AuditEvent event = AuditCodec.decode(line);
+                if (event != null && event.getTimestamp() >= from && event.getTimestamp() <= to) {
+                    result.add(event);
+                }
+            }
+        }
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+        // zero-padded names sort chronologically
+        segments.sort((a, b) -> a.getFileName().toString().compareTo(b.getFileName().toString()));
+        return segments;
+    }
+
+    private static long startOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.indexOf('-', PREFIX.length())));
+    }
+}
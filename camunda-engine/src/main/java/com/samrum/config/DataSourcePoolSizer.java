@@ -0,0 +1,68 @@
+package com.samrum.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Data Source Pool Sizer
+ *
+ * Sizes the Hikari pool of the production datasource from the number of
+ * threads that can actually hold a connection at the same time:
+ * - Tomcat request workers (server.tomcat.threads.max)
+ * - Camunda job executor workers (camunda.bpm.job-execution.max-pool-size)
+ * - a small headroom for job acquisition and housekeeping
+ *
+ * A larger pool only adds idle connections on the database side, a smaller one
+ * makes request and job threads queue on connection acquisition.
+ * samrum.datasource.pool-size (DB_POOL_SIZE) or an explicit
+ * spring.datasource.hikari.maximum-pool-size overrides the derived size.
+ */
+@Component
+@Profile("prod")
+public class DataSourcePoolSizer implements BeanPostProcessor, EnvironmentAware {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DataSourcePoolSizer.class);
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof HikariDataSource)) {
+            return bean;
+        }
+        if (environment.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+            return bean;
+        }
+
+        HikariDataSource dataSource = (HikariDataSource) bean;
+        int poolSize = environment.getProperty("samrum.datasource.pool-size", Integer.class, 0);
+        if (poolSize > 0) {
+            LOG.info("Datasource pool set to {} connections (samrum.datasource.pool-size)", poolSize);
+        } else {
+            int webWorkers = environment.getProperty("server.tomcat.threads.max", Integer.class, 200);
+            int jobWorkers = environment.getProperty("camunda.bpm.job-execution.max-pool-size", Integer.class, 10);
+            int headroom = environment.getProperty("samrum.datasource.pool-headroom", Integer.class, 4);
+            poolSize = webWorkers + jobWorkers + headroom;
+            LOG.info("Datasource pool sized to {} connections ({} web + {} job + {} headroom)",
+                poolSize, webWorkers, jobWorkers, headroom);
+        }
+
+        dataSource.setMaximumPoolSize(poolSize);
+        if (dataSource.getMinimumIdle() < 0 || dataSource.getMinimumIdle() > poolSize) {
+            dataSource.setMinimumIdle(poolSize);
+        }
+        return bean;
+    }
+}
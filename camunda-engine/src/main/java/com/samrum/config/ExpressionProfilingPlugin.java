@@ -0,0 +1,38 @@
+package com.samrum.config;
+
+import com.samrum.expression.ExpressionProfiler;
+import com.samrum.expression.ExpressionProfilingParseListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParseListener;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Expression Profiling Plugin
+ *
+ * Registers the parse listener that wraps sequence flow conditions and user
+ * task assignees with fast-path evaluation and per-activity timing.
+ */
+@Component
+public class ExpressionProfilingPlugin extends AbstractProcessEnginePlugin {
+
+    @Autowired
+    private ExpressionProfiler profiler;
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl configuration) {
+        if (!profiler.isProfilingEnabled() && !profiler.isFastPathEnabled()) {
+            return;
+        }
+        List<BpmnParseListener> listeners = configuration.getCustomPostBPMNParseListeners();
+        if (listeners == null) {
+            listeners = new ArrayList<>();
+            configuration.setCustomPostBPMNParseListeners(listeners);
+        }
+        listeners.add(new ExpressionProfilingParseListener(profiler));
+    }
+}
@@ -0,0 +1,83 @@
+package com.samrum.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.Schedules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lazy Initialization Configuration
+ *
+ * The fast-startup profile turns on spring.main.lazy-initialization so that
+ * non-critical beans (Camunda webapp and REST resources, H2 console, Thymeleaf,
+ * JPA repositories, our controllers) are created on first use instead of
+ * during startup. Beans that must run without being asked stay eager:
+ * - the process engine and job executor (everything in org.camunda.bpm
+ *   outside the webapp)
+ * - our engine plugins and infrastructure in com.samrum.config
+ * - beans with @Scheduled methods, whose schedules are only registered when
+ *   the bean is created
+ * - beans listening for ApplicationReadyEvent (task dispatch queue, SLA
+ *   monitor, comment index), which rebuild their state before the node
+ *   takes traffic
+ *
+ * The Docker image includes this profile by default.
+ */
+@Configuration
+@Profile("fast-startup")
+public class LazyInitializationConfiguration {
+
+    private static final String CAMUNDA_PACKAGE = "org.camunda.bpm.";
+    private static final String CAMUNDA_WEBAPP_PACKAGE = "org.camunda.bpm.spring.boot.starter.webapp.";
+    private static final String CONFIG_PACKAGE = "com.samrum.config.";
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerBeansFilter() {
+        return (beanName, beanDefinition, beanType) -> {
+            if (beanType == null) {
+                return false;
+            }
+            String typeName = beanType.getName();
+            if (typeName.startsWith(CAMUNDA_PACKAGE)) {
+                return !typeName.startsWith(CAMUNDA_WEBAPP_PACKAGE);
+            }
+            return typeName.startsWith(CONFIG_PACKAGE) || hasScheduledMethods(beanType)
+                || listensForApplicationReady(beanType);
+        };
+    }
+
+    private static boolean hasScheduledMethods(Class<?> beanType) {
+        return !MethodIntrospector.selectMethods(beanType,
+            (MethodIntrospector.MetadataLookup<Boolean>) method ->
+                AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                    || AnnotatedElementUtils.hasAnnotation(method, Schedules.class) ? Boolean.TRUE : null)
+            .isEmpty();
+    }
+
+    private static boolean listensForApplicationReady(Class<?> beanType) {
+        return !MethodIntrospector.selectMethods(beanType,
+            (MethodIntrospector.MetadataLookup<Boolean>) method -> {
+                EventListener listener = AnnotatedElementUtils.findMergedAnnotation(method, EventListener.class);
+                if (listener == null) {
+                    return null;
+                }
+                List<Class<?>> events = new ArrayList<>(Arrays.asList(listener.classes()));
+                if (events.isEmpty()) {
+                    events.addAll(Arrays.asList(method.getParameterTypes()));
+                }
+                return events.stream().anyMatch(event -> event.isAssignableFrom(ApplicationReadyEvent.class))
+                    ? Boolean.TRUE : null;
+            })
+            .isEmpty();
+    }
+}
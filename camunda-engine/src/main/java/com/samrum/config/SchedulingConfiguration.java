@@ -0,0 +1,12 @@
+package com.samrum.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (history export).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+}
@@ -0,0 +1,202 @@
+package com.samrum.config;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Schema Migration Plugin
+ *
+ * Applies the Samrum-specific SQL scripts (additional indexes and tables on top
+ * of the Camunda schema) once the engine has created or updated its own schema.
+ *
+ * Scripts live in db/samrum/{databaseType}/V{version}__{description}.sql,
+ * where databaseType is the Camunda database type (h2, postgres). Applied
+ * versions are recorded in SAMRUM_SCHEMA_VERSION so every script runs once.
+ *
+ * On PostgreSQL, CREATE INDEX CONCURRENTLY that fails or is interrupted
+ * leaves an INVALID index behind, which IF NOT EXISTS then skips forever.
+ * Nodes therefore migrate one at a time under an advisory lock. Under the
+ * lock an invalid index of a script can only be such a leftover. It is
+ * dropped and the script runs again, also when its version is already
+ * recorded. A script whose indexes are still invalid afterwards fails the
+ * start and is not recorded.
+ */
+@Component
+public class SchemaMigrationPlugin extends AbstractProcessEnginePlugin {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SchemaMigrationPlugin.class);
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    private static final Pattern CONCURRENT_INDEX = Pattern.compile(
+        "CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+CONCURRENTLY\\s+IF\\s+NOT\\s+EXISTS\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    private static final String POSTGRES = "postgres";
+
+    // pg_advisory_lock key serializing migrations across nodes ("SAMRUM")
+    private static final long MIGRATION_LOCK = 0x53414D52554DL;
+
+    private static final String INVALID_INDEXES_SQL = "SELECT C.RELNAME FROM PG_INDEX I "
+        + "JOIN PG_CLASS C ON C.OID = I.INDEXRELID JOIN PG_NAMESPACE N ON N.OID = C.RELNAMESPACE "
+        + "WHERE NOT I.INDISVALID AND N.NSPNAME = CURRENT_SCHEMA() AND C.RELNAME = ?";
+
+    @Value("${samrum.schema.migrations-enabled:true}")
+    private boolean enabled;
+
+    private DataSource dataSource;
+    private String databaseType;
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl configuration) {
+        this.dataSource = configuration.getDataSource();
+    }
+
+    @Override
+    public void postInit(ProcessEngineConfigurationImpl configuration) {
+        // database type is resolved from the connection during engine init
+        this.databaseType = configuration.getDatabaseType();
+    }
+
+    @Override
+    public void postProcessEngineBuild(ProcessEngine processEngine) {
+        if (!enabled) {
+            LOG.info("Samrum schema migrations disabled");
+            return;
+        }
+
+        if (!POSTGRES.equals(databaseType)) {
+            migrate();
+            return;
+        }
+        // one node at a time, so an invalid index is never one that another node is still building
+        try (Connection connection = dataSource.getConnection()) {
+            JdbcTemplate lock = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            lock.queryForObject("SELECT PG_ADVISORY_LOCK(?)", Object.class, MIGRATION_LOCK);
+            try {
+                migrate();
+            } finally {
+                lock.queryForObject("SELECT PG_ADVISORY_UNLOCK(?)", Boolean.class, MIGRATION_LOCK);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to lock Samrum schema migrations", e);
+        }
+    }
+
+    private void migrate() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS SAMRUM_SCHEMA_VERSION ("
+            + "VERSION_ INTEGER NOT NULL PRIMARY KEY, "
+            + "DESCRIPTION_ VARCHAR(255), "
+            + "APPLIED_ TIMESTAMP)");
+
+        Set<Integer> applied = new HashSet<>(
+            jdbcTemplate.queryForList("SELECT VERSION_ FROM SAMRUM_SCHEMA_VERSION", Integer.class));
+
+        for (Map.Entry<Integer, Resource> script : findScripts().entrySet()) {
+            int version = script.getKey();
+            List<String> indexes = POSTGRES.equals(databaseType) ? concurrentIndexes(script.getValue()) : List.of();
+            List<String> invalid = invalidIndexes(jdbcTemplate, indexes);
+            if (applied.contains(version) && invalid.isEmpty()) {
+                continue;
+            }
+
+            String description = description(script.getValue());
+            for (String index : invalid) {
+                LOG.warn("Dropping invalid index {} of Samrum schema migration V{} to build it again", index, version);
+                jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + index);
+            }
+            LOG.info("Applying Samrum schema migration V{} ({}) for {}", version, description, databaseType);
+
+            ResourceDatabasePopulator populator = new ResourceDatabasePopulator(script.getValue());
+            populator.execute(dataSource);
+
+            invalid = invalidIndexes(jdbcTemplate, indexes);
+            if (!invalid.isEmpty()) {
+                throw new IllegalStateException("Samrum schema migration V" + version + " left invalid indexes "
+                    + invalid + "; they are dropped and built again at the next start");
+            }
+            if (applied.contains(version)) {
+                continue;
+            }
+
+            try {
+                jdbcTemplate.update(
+                    "INSERT INTO SAMRUM_SCHEMA_VERSION (VERSION_, DESCRIPTION_, APPLIED_) VALUES (?, ?, ?)",
+                    version, description, new java.sql.Timestamp(System.currentTimeMillis()));
+            } catch (DuplicateKeyException e) {
+                // another node applied the same (idempotent) script concurrently
+                LOG.debug("Schema migration V{} already recorded by another node", version);
+            }
+        }
+    }
+
+    /**
+     * Names of the indexes the script builds with CREATE INDEX CONCURRENTLY,
+     * folded to lower case as PostgreSQL stores unquoted names.
+     */
+    private static List<String> concurrentIndexes(Resource script) {
+        String sql;
+        try (InputStream input = script.getInputStream()) {
+            sql = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read Samrum schema migration " + script.getFilename(), e);
+        }
+        List<String> indexes = new ArrayList<>();
+        Matcher matcher = CONCURRENT_INDEX.matcher(sql);
+        while (matcher.find()) {
+            indexes.add(matcher.group(1).toLowerCase(Locale.ROOT));
+        }
+        return indexes;
+    }
+
+    private static List<String> invalidIndexes(JdbcTemplate jdbcTemplate, List<String> indexes) {
+        List<String> invalid = new ArrayList<>();
+        for (String index : indexes) {
+            invalid.addAll(jdbcTemplate.queryForList(INVALID_INDEXES_SQL, String.class, index));
+        }
+        return invalid;
+    }
+
+    private SortedMap<Integer, Resource> findScripts() {
+        SortedMap<Integer, Resource> scripts = new TreeMap<>();
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver()
+                .getResources("classpath*:db/samrum/" + databaseType + "/V*.sql");
+            for (Resource resource : resources) {
+                Matcher matcher = SCRIPT_NAME.matcher(Objects.requireNonNull(resource.getFilename()));
+                if (matcher.matches()) {
+                    scripts.put(Integer.parseInt(matcher.group(1)), resource);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read Samrum schema migrations for " + databaseType, e);
+        }
+        return scripts;
+    }
+
+    private String description(Resource script) {
+        Matcher matcher = SCRIPT_NAME.matcher(Objects.requireNonNull(script.getFilename()));
+        return matcher.matches() ? matcher.group(2).replace('_', ' ') : script.getFilename();
+    }
+}
@@ -0,0 +1,38 @@
+package com.samrum.config;
+
+import com.samrum.sla.SlaMonitor;
+import com.samrum.sla.SlaParseListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParseListener;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SLA Monitor Plugin
+ *
+ * Registers the parse listener that feeds user task deadlines to the
+ * SlaMonitor.
+ */
+@Component
+public class SlaMonitorPlugin extends AbstractProcessEnginePlugin {
+
+    // lazy: the monitor needs the TaskService, which needs this plugin first
+    @Autowired
+    @Lazy
+    private SlaMonitor monitor;
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl configuration) {
+        List<BpmnParseListener> listeners = configuration.getCustomPostBPMNParseListeners();
+        if (listeners == null) {
+            listeners = new ArrayList<>();
+            configuration.setCustomPostBPMNParseListeners(listeners);
+        }
+        listeners.add(new SlaParseListener(monitor));
+    }
+}
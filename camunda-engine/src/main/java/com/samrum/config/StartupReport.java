@@ -0,0 +1,70 @@
+package com.samrum.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Startup Report
+ *
+ * Logs time-to-ready (JVM start until the application accepts traffic) and
+ * resident memory once the application is ready. The line is what
+ * scripts/startup-benchmark.sh collects.
+ *
+ * With samrum.startup.exit-after-ready=true the application exits right after
+ * the report; the image build uses this for the AppCDS training run.
+ */
+@Component
+public class StartupReport {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StartupReport.class);
+
+    private static final Path PROC_STATUS = Paths.get("/proc/self/status");
+
+    @Value("${samrum.startup.exit-after-ready:false}")
+    private boolean exitAfterReady;
+
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onReady(ApplicationReadyEvent event) {
+        long readyMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        long rssKb = residentSetKb();
+        LOG.info("🚀 Ready in {} ms, RSS {} MB, {} classes loaded",
+            readyMillis,
+            rssKb >= 0 ? rssKb / 1024 : "n/a",
+            ManagementFactory.getClassLoadingMXBean().getLoadedClassCount());
+
+        if (exitAfterReady) {
+            LOG.info("Exiting after startup (samrum.startup.exit-after-ready)");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+
+    /**
+     * VmRSS from /proc/self/status, or -1 where it is not available.
+     */
+    private static long residentSetKb() {
+        try {
+            for (String line : Files.readAllLines(PROC_STATUS)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.substring(6).trim().split("\\s+")[0]);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Resident set size not available: {}", e.getMessage());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,38 @@
+package com.samrum.config;
+
+import com.samrum.dispatch.DispatchParseListener;
+import com.samrum.dispatch.TaskDispatchQueue;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParseListener;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Task Dispatch Plugin
+ *
+ * Registers the parse listener that keeps the per-group "next task" queues
+ * in sync with user task events.
+ */
+@Component
+public class TaskDispatchPlugin extends AbstractProcessEnginePlugin {
+
+    // lazy: the queue needs the TaskService, which needs this plugin first
+    @Autowired
+    @Lazy
+    private TaskDispatchQueue queue;
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl configuration) {
+        List<BpmnParseListener> listeners = configuration.getCustomPostBPMNParseListeners();
+        if (listeners == null) {
+            listeners = new ArrayList<>();
+            configuration.setCustomPostBPMNParseListeners(listeners);
+        }
+        listeners.add(new DispatchParseListener(queue));
+    }
+}
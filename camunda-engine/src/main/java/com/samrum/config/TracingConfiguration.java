@@ -0,0 +1,127 @@
+package com.samrum.config;
+
+import com.samrum.tracing.ControllerTracingInterceptor;
+import com.samrum.tracing.FileSpanExporter;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * OpenTelemetry Tracing
+ *
+ * Builds the OpenTelemetry SDK (W3C propagation, parent-based ratio sampling,
+ * batch export) and registers the controller span interceptor. Engine
+ * commands, delegates and jobs are traced by TracingPlugin.
+ *
+ * Exporters (samrum.tracing.exporter):
+ * - otlp: OTLP/HTTP to samrum.tracing.otlp-endpoint (collector, Jaeger, Tempo)
+ * - file: JSON lines to samrum.tracing.file, for local runs and tests; opt-in,
+ *   stops writing at samrum.tracing.file-max-bytes
+ * - none (default): spans are created and sampled but not exported
+ */
+@Configuration
+public class TracingConfiguration implements WebMvcConfigurer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TracingConfiguration.class);
+
+    @Value("${samrum.tracing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${samrum.tracing.exporter:none}")
+    private String exporter;
+
+    @Value("${samrum.tracing.file:./data/traces/spans.jsonl}")
+    private String file;
+
+    @Value("${samrum.tracing.file-max-bytes:104857600}")
+    private long fileMaxBytes;
+
+    @Value("${samrum.tracing.otlp-endpoint:http://localhost:4318/v1/traces}")
+    private String otlpEndpoint;
+
+    @Value("${samrum.tracing.sampling-ratio:1.0}")
+    private double samplingRatio;
+
+    @Value("${spring.application.name:samrum-camunda-poc}")
+    private String serviceName;
+
+    private SdkTracerProvider tracerProvider;
+
+    @Bean
+    public OpenTelemetry openTelemetry() {
+        if (!enabled) {
+            return OpenTelemetry.noop();
+        }
+        tracerProvider = SdkTracerProvider.builder()
+            .setResource(Resource.getDefault().merge(
+                Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), serviceName))))
+            // follow the caller's sampling decision, sample new traces by ratio
+            .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(samplingRatio)))
+            .addSpanProcessor(BatchSpanProcessor.builder(spanExporter()).build())
+            .build();
+        LOG.info("🔭 Tracing enabled: exporter {}, sampling ratio {}", exporter, samplingRatio);
+        return OpenTelemetrySdk.builder()
+            .setTracerProvider(tracerProvider)
+            .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+            .build();
+    }
+
+    @Bean
+    public Tracer tracer(OpenTelemetry openTelemetry) {
+        return openTelemetry.getTracer("com.samrum");
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (enabled) {
+            OpenTelemetry openTelemetry = openTelemetry();
+            registry.addInterceptor(new ControllerTracingInterceptor(openTelemetry, tracer(openTelemetry)));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (tracerProvider != null) {
+            // exports the spans still buffered in the batch processor
+            tracerProvider.close();
+        }
+    }
+
+    private SpanExporter spanExporter() {
+        switch (exporter) {
+            case "otlp":
+                return OtlpHttpSpanExporter.builder().setEndpoint(otlpEndpoint).build();
+            case "file":
+                try {
+                    return new FileSpanExporter(Paths.get(file), fileMaxBytes);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Could not open span file " + file, e);
+                }
+            case "none":
+                return SpanExporter.composite();
+            default:
+                throw new IllegalArgumentException("Unknown samrum.tracing.exporter: " + exporter);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.samrum.config;
+
+import com.samrum.tracing.CommandTracingInterceptor;
+import com.samrum.tracing.JobTraceContexts;
+import com.samrum.tracing.TracingDelegateInterceptor;
+import com.samrum.tracing.TracingJobHandler;
+import io.opentelemetry.api.trace.Tracer;
+import org.camunda.bpm.engine.impl.batch.BatchJobHandler;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+import org.camunda.bpm.engine.impl.jobexecutor.JobHandler;
+import org.camunda.bpm.engine.impl.jobexecutor.TimerEventJobHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracing Plugin
+ *
+ * Adds spans for engine commands (command interceptor), JavaDelegate calls
+ * (delegate interceptor) and job executions (job handler wrappers). Batch and
+ * timer job handlers are left unwrapped: the engine casts them to
+ * BatchJobHandler and TimerEventJobHandler. Timer jobs still get command spans.
+ */
+@Component
+public class TracingPlugin extends AbstractProcessEnginePlugin {
+
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    private JobTraceContexts jobTraceContexts;
+
+    @Value("${samrum.tracing.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl configuration) {
+        if (!enabled) {
+            return;
+        }
+        List<CommandInterceptor> interceptors = configuration.getCustomPreCommandInterceptorsTxRequired();
+        if (interceptors == null) {
+            interceptors = new ArrayList<>();
+            configuration.setCustomPreCommandInterceptorsTxRequired(interceptors);
+        }
+        interceptors.add(new CommandTracingInterceptor(tracer));
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void postInit(ProcessEngineConfigurationImpl configuration) {
+        if (!enabled) {
+            return;
+        }
+        configuration.setDelegateInterceptor(
+            new TracingDelegateInterceptor(configuration.getDelegateInterceptor(), tracer));
+
+        for (Map.Entry<String, JobHandler> entry : configuration.getJobHandlers().entrySet()) {
+            if (!(entry.getValue() instanceof BatchJobHandler) && !(entry.getValue() instanceof TimerEventJobHandler)) {
+                entry.setValue(new TracingJobHandler(entry.getValue(), tracer, jobTraceContexts));
+            }
+        }
+    }
+}
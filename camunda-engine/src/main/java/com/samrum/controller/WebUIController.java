@@ -1,10 +1,14 @@
 package com.samrum.controller;
 
+import com.samrum.detail.ProcessDetail;
+import com.samrum.detail.ProcessDetailLoader;
 import com.samrum.dto.DoorProcessRequest;
 import com.samrum.dto.TaskCompletionRequest;
+import com.samrum.idempotency.IdempotentStartService;
+import com.samrum.idempotency.StartResult;
+import com.samrum.ui.DashboardFragments;
 import org.camunda.bpm.engine.*;
 import org.camunda.bpm.engine.history.*;
-import org.camunda.bpm.engine.runtime.ProcessInstance;
 import org.camunda.bpm.engine.task.Task;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,46 +42,22 @@ public class WebUIController {
     @Autowired
     private HistoryService historyService;
 
+    @Autowired
+    private DashboardFragments fragments;
+
+    @Autowired
+    private IdempotentStartService idempotentStartService;
+
+    @Autowired
+    private ProcessDetailLoader processDetailLoader;
+
     /**
      * Dashboard - Main landing page
      */
     @GetMapping("/dashboard")
     public String dashboard(Model model) {
-        // Get statistics
-        long activeProcesses = runtimeService.createProcessInstanceQuery()
-                .processDefinitionKey("doorInstallationProcess")
-                .count();
-
-        List<Task> allTasks = taskService.createTaskQuery()
-                .processDefinitionKey("doorInstallationProcess")
-                .list();
-
-        long totalTasks = allTasks.size();
-        long pendingTasks = allTasks.stream().filter(t -> t.getAssignee() == null).count();
-        long assignedTasks = totalTasks - pendingTasks;
-
-        model.addAttribute("activeProcesses", activeProcesses);
-        model.addAttribute("totalTasks", totalTasks);
-        model.addAttribute("pendingTasks", pendingTasks);
-        model.addAttribute("assignedTasks", assignedTasks);
-
-        // Get recent process instances
-        List<ProcessInstance> instances = runtimeService.createProcessInstanceQuery()
-                .processDefinitionKey("doorInstallationProcess")
-                .orderByProcessInstanceId()
-                .asc()
-                .listPage(0, 10);
-
-        List<Map<String, Object>> recentProcesses = new ArrayList<>();
-        for (ProcessInstance pi : instances) {
-            Map<String, Object> procInfo = new HashMap<>();
-            procInfo.put("id", pi.getId());
-            procInfo.put("businessKey", pi.getBusinessKey());
-            procInfo.put("projectId", runtimeService.getVariable(pi.getId(), "projectId"));
-            procInfo.put("doorType", runtimeService.getVariable(pi.getId(), "doorType"));
-            recentProcesses.add(procInfo);
-        }
-        model.addAttribute("recentProcesses", recentProcesses);
+        model.addAllAttributes(fragments.stats());
+        model.addAttribute("recentProcesses", fragments.recentProcesses());
 
         return "dashboard";
     }
@@ -87,7 +67,9 @@ public class WebUIController {
      */
     @GetMapping("/start-process")
     public String startProcessForm(Model model) {
-        model.addAttribute("request", new DoorProcessRequest());
+        DoorProcessRequest request = new DoorProcessRequest();
+        request.setIdempotencyKey(UUID.randomUUID().toString());
+        model.addAttribute("request", request);
         return "start-process";
     }
 
@@ -106,21 +88,24 @@ public class WebUIController {
         variables.put("designerId", request.getDesignerId());
         variables.put("submissionDate", new Date());
 
-        ProcessInstance processInstance = runtimeService.startProcessInstanceByKey(
+        // the form carries a one-time token, so a double submit starts one instance
+        StartResult result = idempotentStartService.start(
+                request.getIdempotencyKey(),
                 "doorInstallationProcess",
                 request.getProjectId(),
                 variables
         );
 
-        LOG.info("✅ Process started: {}", processInstance.getId());
+        LOG.info("✅ Process {}: {}", result.isDuplicate() ? "already started" : "started",
+                result.getProcessInstanceId());
 
         redirectAttributes.addFlashAttribute("success", true);
             redirectAttributes.addFlashAttribute("successMessage", "Task completed successfully!");
             redirectAttributes.addFlashAttribute("successMessage", "Process started successfully!");
-        redirectAttributes.addFlashAttribute("processInstanceId", processInstance.getId());
+        redirectAttributes.addFlashAttribute("processInstanceId", result.getProcessInstanceId());
         redirectAttributes.addFlashAttribute("projectId", request.getProjectId());
 
-        return "redirect:/ui/process-detail/" + processInstance.getId();
+        return "redirect:/ui/process-detail/" + result.getProcessInstanceId();
     }
 
     /**
@@ -128,40 +113,21 @@ public class WebUIController {
      */
     @GetMapping("/tasks")
     public String taskList(@RequestParam(required = false) String userId, Model model) {
-        List<Task> tasks;
-
-        if (userId != null && !userId.isEmpty()) {
-            tasks = taskService.createTaskQuery()
-                    .taskAssignee(userId)
-                    .orderByTaskCreateTime()
-                    .desc()
-                    .list();
-            model.addAttribute("userId", userId);
-        } else {
-            tasks = taskService.createTaskQuery()
-                    .processDefinitionKey("doorInstallationProcess")
-                    .orderByTaskCreateTime()
-                    .desc()
-                    .list();
+        if (userId == null || userId.isEmpty()) {
+            model.addAttribute("tasks", fragments.taskRows());
+            return "task-list";
         }
 
+        List<Task> tasks = taskService.createTaskQuery()
+                .taskAssignee(userId)
+                .orderByTaskCreateTime()
+                .desc()
+                .list();
+        model.addAttribute("userId", userId);
+
         List<Map<String, Object>> taskList = new ArrayList<>();
         for (Task task : tasks) {
-            Map<String, Object> taskInfo = new HashMap<>();
-            taskInfo.put("taskId", task.getId());
-            taskInfo.put("taskName", task.getName());
-            taskInfo.put("assignee", task.getAssignee());
-            taskInfo.put("createTime", task.getCreateTime());
-            taskInfo.put("description", task.getDescription());
-            taskInfo.put("processInstanceId", task.getProcessInstanceId());
-
-            // Get process variables
-            String projectId = (String) runtimeService.getVariable(task.getProcessInstanceId(), "projectId");
-            String doorType = (String) runtimeService.getVariable(task.getProcessInstanceId(), "doorType");
-            taskInfo.put("projectId", projectId);
-            taskInfo.put("doorType", doorType);
-
-            taskList.add(taskInfo);
+            taskList.add(DashboardFragments.taskRow(task, runtimeService));
         }
 
         model.addAttribute("tasks", taskList);
@@ -225,77 +191,32 @@ public class WebUIController {
     }
 
     /**
-     * Process instance detail view
+     * Process instance detail view (active or completed)
+     *
+     * Binary and serialized object variables are only loaded with ?fullValues=true
      */
     @GetMapping("/process-detail/{processInstanceId}")
-public String processDetail(@PathVariable String processInstanceId, Model model) {
-// First try to get from runtime (active processes)
-ProcessInstance pi = runtimeService.createProcessInstanceQuery()
-.processInstanceId(processInstanceId)
-.singleResult();
-
-boolean isCompleted = false;
-if (pi == null) {
-// If not in runtime, check history (completed processes)
-org.camunda.bpm.engine.history.HistoricProcessInstance historicPi = 
-historyService.createHistoricProcessInstanceQuery()
-.processInstanceId(processInstanceId)
-.singleResult();
-
-if (historicPi == null) {
-return "redirect:/ui/dashboard?error=notfound";
-}
-
-// Use historic process instance data
-model.addAttribute("processInstance", null);
-model.addAttribute("historicProcessInstance", historicPi);
-model.addAttribute("processInstanceId", processInstanceId);
-model.addAttribute("businessKey", historicPi.getBusinessKey());
-model.addAttribute("isCompleted", true);
-
-// Get historic variables
-Map<String, Object> variables = new HashMap<>();
-org.camunda.bpm.engine.history.HistoricVariableInstanceQuery varQuery = 
-historyService.createHistoricVariableInstanceQuery()
-.processInstanceId(processInstanceId);
-for (org.camunda.bpm.engine.history.HistoricVariableInstance var : varQuery.list()) {
-variables.put(var.getVariableName(), var.getValue());
-}
-model.addAttribute("variables", variables);
-
-// Get historic tasks
-List<org.camunda.bpm.engine.history.HistoricTaskInstance> historicTasks = 
-historyService.createHistoricTaskInstanceQuery()
-.processInstanceId(processInstanceId)
-.orderByHistoricTaskInstanceEndTime()
-.desc()
-.list();
-model.addAttribute("currentTasks", new ArrayList<>());
-model.addAttribute("historicTasks", historicTasks);
-model.addAttribute("processDefinitionId", historicPi.getProcessDefinitionId());
-
-return "process-detail";
-}
-
-// Active process - original logic
-model.addAttribute("processInstance", pi);
-model.addAttribute("processInstanceId", processInstanceId);
-model.addAttribute("businessKey", pi.getBusinessKey());
-model.addAttribute("isCompleted", false);
-
-// Get variables
-Map<String, Object> variables = runtimeService.getVariables(processInstanceId);
-model.addAttribute("variables", variables);
-
-// Get current tasks
-List<Task> tasks = taskService.createTaskQuery()
-.processInstanceId(processInstanceId)
-.list();
-model.addAttribute("currentTasks", tasks);
-model.addAttribute("historicTasks", new ArrayList<>());
-model.addAttribute("processDefinitionId", pi.getProcessDefinitionId());
-return "process-detail";
-}
+    public String processDetail(@PathVariable String processInstanceId,
+                                @RequestParam(defaultValue = "false") boolean fullValues,
+                                Model model) {
+        Optional<ProcessDetail> loaded = processDetailLoader.load(processInstanceId, fullValues);
+        if (loaded.isEmpty()) {
+            return "redirect:/ui/dashboard?error=notfound";
+        }
+        ProcessDetail detail = loaded.get();
+
+        model.addAttribute("historicProcessInstance", detail.getProcessInstance());
+        model.addAttribute("processInstanceId", processInstanceId);
+        model.addAttribute("businessKey", detail.getProcessInstance().getBusinessKey());
+        model.addAttribute("processDefinitionId", detail.getProcessInstance().getProcessDefinitionId());
+        model.addAttribute("isCompleted", !detail.isActive());
+        model.addAttribute("variables", detail.getVariables());
+        model.addAttribute("deferredVariables", detail.getDeferredVariables());
+        model.addAttribute("currentTasks", detail.getCurrentTasks());
+        model.addAttribute("historicTasks", detail.getHistoricTasks());
+        model.addAttribute("timeline", detail.getTimeline());
+        return "process-detail";
+    }
 
     /**
      * All process instances (active + completed)
@@ -303,67 +224,8 @@ return "process-detail";
     @GetMapping("/processes")
     public String allProcesses(Model model) {
         List<Map<String, Object>> processList = new ArrayList<>();
-
-        // Get active processes
-        List<ProcessInstance> activeInstances = runtimeService.createProcessInstanceQuery()
-                .processDefinitionKey("doorInstallationProcess")
-                .orderByProcessInstanceId()
-                .asc()
-                .list();
-
-        for (ProcessInstance pi : activeInstances) {
-            Map<String, Object> procInfo = new HashMap<>();
-            procInfo.put("id", pi.getId());
-            procInfo.put("businessKey", pi.getBusinessKey());
-            procInfo.put("projectId", runtimeService.getVariable(pi.getId(), "projectId"));
-            procInfo.put("doorType", runtimeService.getVariable(pi.getId(), "doorType"));
-            procInfo.put("status", "ACTIVE");
-            procInfo.put("startTime", null);
-            procInfo.put("endTime", null);
-            procInfo.put("duration", null);
-
-            // Get current tasks count
-            long taskCount = taskService.createTaskQuery()
-                    .processInstanceId(pi.getId())
-                    .count();
-            procInfo.put("taskCount", taskCount);
-
-            processList.add(procInfo);
-        }
-
-        // Get completed processes from history
-        List<HistoricProcessInstance> historicInstances = historyService.createHistoricProcessInstanceQuery()
-                .processDefinitionKey("doorInstallationProcess")
-                .finished()
-                .orderByProcessInstanceEndTime()
-                .desc()
-                .list();
-
-        for (HistoricProcessInstance hpi : historicInstances) {
-            Map<String, Object> procInfo = new HashMap<>();
-            procInfo.put("id", hpi.getId());
-            procInfo.put("businessKey", hpi.getBusinessKey());
-            
-            // Get variables from history
-            HistoricVariableInstanceQuery varQuery = historyService.createHistoricVariableInstanceQuery()
-                    .processInstanceId(hpi.getId());
-            for (HistoricVariableInstance var : varQuery.list()) {
-                if ("projectId".equals(var.getVariableName())) {
-                    procInfo.put("projectId", var.getValue());
-                }
-                if ("doorType".equals(var.getVariableName())) {
-                    procInfo.put("doorType", var.getValue());
-                }
-            }
-            
-            procInfo.put("status", "COMPLETED");
-            procInfo.put("startTime", hpi.getStartTime());
-            procInfo.put("endTime", hpi.getEndTime());
-            procInfo.put("duration", hpi.getDurationInMillis());
-            procInfo.put("taskCount", 0);
-
-            processList.add(procInfo);
-        }
+        processList.addAll(fragments.activeProcessRows());
+        processList.addAll(fragments.historicProcessRows());
 
         model.addAttribute("processes", processList);
         return "process-list";
@@ -0,0 +1,221 @@
+package com.samrum.correlation;
+
+import com.samrum.dto.CorrelationMessage;
+import org.camunda.bpm.engine.MismatchingMessageCorrelationException;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Batch Message Correlation
+ *
+ * Correlates maintenance system callbacks (work order number, message name,
+ * payload) in bulk:
+ * - all work order numbers of the batch are resolved to their process
+ *   instance and waiting message subscriptions with one query per 500
+ *   numbers (SAMRUM_WORK_ORDER_EXECUTION joined with ACT_RU_EVENT_SUBSCR)
+ * - the messages are delivered to the resolved executions in groups, one
+ *   command context and transaction per group
+ * - if a group fails (an instance changed concurrently, a delegate threw),
+ *   its messages are correlated one by one, so one bad message does not
+ *   hold back the others
+ *
+ * Messages that cannot be correlated are reported with a reason instead of
+ * failing the batch.
+ */
+@Component
+public class BatchCorrelationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchCorrelationService.class);
+
+    static final String INVALID = "INVALID";
+    static final String UNKNOWN_WORK_ORDER = "UNKNOWN_WORK_ORDER";
+    static final String NO_SUBSCRIPTION = "NO_SUBSCRIPTION";
+    static final String FAILED = "FAILED";
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private WorkOrderExecutionStore store;
+
+    @Value("${samrum.correlation.group-size:100}")
+    private int groupSize;
+
+    @Value("${samrum.correlation.max-batch-size:10000}")
+    private int maxBatchSize;
+
+    /**
+     * A message resolved to the execution it is delivered to.
+     */
+    private static final class Delivery {
+        final int index;
+        final CorrelationMessage message;
+        final WorkOrderTarget target;
+        final String executionId;
+
+        Delivery(int index, CorrelationMessage message, WorkOrderTarget target, String executionId) {
+            this.index = index;
+            this.message = message;
+            this.target = target;
+            this.executionId = executionId;
+        }
+    }
+
+    /**
+     * Correlates the messages and returns the counts and the unmatched messages
+     * (index in the request, work order number, message, reason).
+     */
+    public Map<String, Object> correlate(List<CorrelationMessage> messages) {
+        if (messages.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " messages per batch");
+        }
+        long started = System.currentTimeMillis();
+        List<Map<String, Object>> unmatched = new ArrayList<>();
+
+        List<String> workOrderNumbers = new ArrayList<>();
+        for (CorrelationMessage message : messages) {
+            if (message != null && message.getWorkOrderNumber() != null) {
+                workOrderNumbers.add(message.getWorkOrderNumber());
+            }
+        }
+        Map<String, WorkOrderTarget> targets = store.resolve(workOrderNumbers);
+
+        // deliveries to a subscription resolved up front go into the groups; a second
+        // message for an already claimed subscription is correlated after the groups
+        List<Delivery> resolved = new ArrayList<>();
+        List<Delivery> deferred = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            CorrelationMessage message = messages.get(i);
+            String invalid = validate(message);
+            if (invalid != null) {
+                unmatched.add(unmatched(i, message, INVALID, invalid));
+                continue;
+            }
+            WorkOrderTarget target = targets.get(message.getWorkOrderNumber());
+            if (target == null) {
+                unmatched.add(unmatched(i, message, UNKNOWN_WORK_ORDER, null));
+            } else if (!target.hasSubscription(message.getMessage())) {
+                unmatched.add(unmatched(i, message, NO_SUBSCRIPTION, null));
+            } else {
+                String executionId = target.claim(message.getMessage());
+                if (executionId != null) {
+                    resolved.add(new Delivery(i, message, target, executionId));
+                } else {
+                    deferred.add(new Delivery(i, message, target, null));
+                }
+            }
+        }
+
+        CommandExecutor commandExecutor = ((ProcessEngineConfigurationImpl) processEngine.getProcessEngineConfiguration())
+            .getCommandExecutorTxRequired();
+        int correlated = 0;
+        int groups = 0;
+        int fallbacks = 0;
+        for (int from = 0; from < resolved.size(); from += groupSize) {
+            List<Delivery> group = resolved.subList(from, Math.min(resolved.size(), from + groupSize));
+            groups++;
+            try {
+                commandExecutor.execute(commandContext -> {
+                    for (Delivery delivery : group) {
+                        runtimeService.messageEventReceived(delivery.message.getMessage(), delivery.executionId,
+                            payload(delivery.message));
+                    }
+                    return null;
+                });
+                correlated += group.size();
+            } catch (RuntimeException e) {
+                LOG.debug("Correlation group of {} failed, correlating one by one: {}", group.size(), e.getMessage());
+                fallbacks++;
+                correlated += correlateEach(group, unmatched);
+            }
+        }
+        correlated += correlateEach(deferred, unmatched);
+
+        unmatched.sort(Comparator.comparing(entry -> (Integer) entry.get("index")));
+        long duration = System.currentTimeMillis() - started;
+        LOG.info("📨 Correlated {} of {} maintenance messages in {} ms ({} groups, {} fallbacks, {} unmatched)",
+            correlated, messages.size(), duration, groups, fallbacks, unmatched.size());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("received", messages.size());
+        response.put("correlated", correlated);
+        response.put("unmatched", unmatched);
+        response.put("groups", groups);
+        response.put("groupFallbacks", fallbacks);
+        response.put("durationMs", duration);
+        return response;
+    }
+
+    /**
+     * Correlates each message in its own transaction, looking up the waiting
+     * execution again.
+     *
+     * @return number of messages correlated
+     */
+    private int correlateEach(List<Delivery> deliveries, List<Map<String, Object>> unmatched) {
+        int correlated = 0;
+        for (Delivery delivery : deliveries) {
+            try {
+                runtimeService.createMessageCorrelation(delivery.message.getMessage())
+                    .processInstanceId(delivery.target.getProcessInstanceId())
+                    .setVariables(payload(delivery.message))
+                    .correlateWithResult();
+                correlated++;
+            } catch (MismatchingMessageCorrelationException e) {
+                unmatched.add(unmatched(delivery.index, delivery.message, NO_SUBSCRIPTION, null));
+            } catch (RuntimeException e) {
+                LOG.warn("Correlation of {} to work order {} failed: {}", delivery.message.getMessage(),
+                    delivery.message.getWorkOrderNumber(), e.getMessage());
+                unmatched.add(unmatched(delivery.index, delivery.message, FAILED, e.getMessage()));
+            }
+        }
+        return correlated;
+    }
+
+    private static String validate(CorrelationMessage message) {
+        if (message == null || message.getWorkOrderNumber() == null || message.getWorkOrderNumber().isBlank()) {
+            return "workOrderNumber is required";
+        }
+        if (message.getMessage() == null || message.getMessage().isBlank()) {
+            return "message is required";
+        }
+        if (message.getPayload() != null) {
+            for (Map.Entry<String, Object> entry : message.getPayload().entrySet()) {
+                Object value = entry.getValue();
+                if (value != null && !(value instanceof String || value instanceof Boolean
+                    || value instanceof Integer || value instanceof Long || value instanceof Double)) {
+                    return "payload." + entry.getKey() + " must be a string, number or boolean";
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, Object> payload(CorrelationMessage message) {
+        return message.getPayload() != null ? message.getPayload() : Collections.emptyMap();
+    }
+
+    private static Map<String, Object> unmatched(int index, CorrelationMessage message, String reason, String detail) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("index", index);
+        entry.put("workOrderNumber", message != null ? message.getWorkOrderNumber() : null);
+        entry.put("message", message != null ? message.getMessage() : null);
+        entry.put("reason", reason);
+        if (detail != null) {
+            entry.put("detail", detail);
+        }
+        return entry;
+    }
+}
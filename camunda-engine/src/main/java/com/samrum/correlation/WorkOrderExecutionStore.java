@@ -0,0 +1,64 @@
+package com.samrum.correlation;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * JDBC access to SAMRUM_WORK_ORDER_EXECUTION, the work order number to
+ * process instance mapping.
+ */
+@Component
+public class WorkOrderExecutionStore {
+
+    // keeps the IN list well below the bind parameter limits of H2 and PostgreSQL
+    private static final int RESOLVE_CHUNK = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WorkOrderExecutionStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records the process instance of a new work order. Joins the current
+     * (engine) transaction, so the row exists exactly when the work order does.
+     */
+    public void register(String workOrderNumber, String processInstanceId) {
+        jdbcTemplate.update(
+            "INSERT INTO SAMRUM_WORK_ORDER_EXECUTION (WORK_ORDER_NUMBER_, PROC_INST_ID_, CREATED_) VALUES (?, ?, ?)",
+            workOrderNumber, processInstanceId, new Timestamp(System.currentTimeMillis()));
+    }
+
+    /**
+     * Resolves work order numbers to their process instance and the executions
+     * of that instance waiting for a message, one query per 500 numbers.
+     * Unknown numbers are missing from the result.
+     */
+    Map<String, WorkOrderTarget> resolve(Collection<String> workOrderNumbers) {
+        Map<String, WorkOrderTarget> targets = new HashMap<>();
+        List<String> numbers = new ArrayList<>(new LinkedHashSet<>(workOrderNumbers));
+        for (int from = 0; from < numbers.size(); from += RESOLVE_CHUNK) {
+            List<String> chunk = numbers.subList(from, Math.min(numbers.size(), from + RESOLVE_CHUNK));
+            String sql = "SELECT W.WORK_ORDER_NUMBER_, W.PROC_INST_ID_, S.EVENT_NAME_, S.EXECUTION_ID_ "
+                + "FROM SAMRUM_WORK_ORDER_EXECUTION W "
+                + "LEFT JOIN ACT_RU_EVENT_SUBSCR S ON S.PROC_INST_ID_ = W.PROC_INST_ID_ AND S.EVENT_TYPE_ = 'message' "
+                + "WHERE W.WORK_ORDER_NUMBER_ IN (" + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+            jdbcTemplate.query(sql, rs -> {
+                String number = rs.getString("WORK_ORDER_NUMBER_");
+                WorkOrderTarget target = targets.get(number);
+                if (target == null) {
+                    target = new WorkOrderTarget(number, rs.getString("PROC_INST_ID_"));
+                    targets.put(number, target);
+                }
+                String messageName = rs.getString("EVENT_NAME_");
+                if (messageName != null) {
+                    target.addSubscription(messageName, rs.getString("EXECUTION_ID_"));
+                }
+            }, chunk.toArray());
+        }
+        return targets;
+    }
+}
@@ -0,0 +1,48 @@
+package com.samrum.correlation;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Process instance of a work order and its executions waiting for a message,
+ * as resolved at the start of a batch.
+ */
+final class WorkOrderTarget {
+
+    private final String workOrderNumber;
+    private final String processInstanceId;
+    private final Map<String, Deque<String>> subscriptions = new HashMap<>();
+
+    WorkOrderTarget(String workOrderNumber, String processInstanceId) {
+        this.workOrderNumber = workOrderNumber;
+        this.processInstanceId = processInstanceId;
+    }
+
+    String getWorkOrderNumber() {
+        return workOrderNumber;
+    }
+
+    String getProcessInstanceId() {
+        return processInstanceId;
+    }
+
+    void addSubscription(String messageName, String executionId) {
+        subscriptions.computeIfAbsent(messageName, name -> new ArrayDeque<>()).add(executionId);
+    }
+
+    boolean hasSubscription(String messageName) {
+        return subscriptions.containsKey(messageName);
+    }
+
+    /**
+     * Takes a waiting execution for the message, or null when there is none
+     * left. Each subscription is handed out once per batch: a second message
+     * of the same name must wait for the first to be delivered.
+     */
+    String claim(String messageName) {
+        Deque<String> executions = subscriptions.get(messageName);
+        return executions != null ? executions.poll() : null;
+    }
+}
@@ -1,9 +1,12 @@
 package com.samrum.delegate;
 
+import com.samrum.audit.AuditEventType;
+import com.samrum.audit.AuditJournal;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
@@ -16,13 +19,16 @@ import org.springframework.stereotype.Component;
  * - Send email notifications to stakeholders
  * - Update the door status in the database
  * - Trigger downstream processes (manufacturing, installation)
- * - Log the approval in audit system
+ * - Log the approval in audit system (done: AuditJournal)
  */
 @Component("approvalNotificationDelegate")
 public class ApprovalNotificationDelegate implements JavaDelegate {
 
     private static final Logger LOG = LoggerFactory.getLogger(ApprovalNotificationDelegate.class);
 
+    @Autowired
+    private AuditJournal auditJournal;
+
     @Override
     public void execute(DelegateExecution execution) throws Exception {
         String processInstanceId = execution.getProcessInstanceId();
@@ -38,6 +44,15 @@ public class ApprovalNotificationDelegate implements JavaDelegate {
         LOG.info("   Reviewed by: {}", reviewerId);
         LOG.info("   Comments: {}", comments != null ? comments : "No comments");
 
+        // null when instantiated via camunda:class by definitions deployed before
+        // the switch to delegateExpression
+        if (auditJournal != null) {
+            auditJournal.record(AuditEventType.APPROVAL, processInstanceId, execution.getCurrentActivityId(),
+                reviewerId, projectId, comments);
+        } else {
+            LOG.warn("Audit journal not injected - approval of {} not journaled", processInstanceId);
+        }
+
         // TODO: Implement actual notification logic
         // Example implementations:
         
@@ -47,10 +62,7 @@ public class ApprovalNotificationDelegate implements JavaDelegate {
         // 2. Update database status
         // doorRepository.updateStatus(projectId, DoorStatus.APPROVED);
         
-        // 3. Log to audit system
-        // auditService.logApproval(processInstanceId, reviewerId, LocalDateTime.now());
-        
-        // 4. Trigger manufacturing process
+        // 3. Trigger manufacturing process
         // manufacturingService.startProduction(projectId);
 
         LOG.info("✅ Approval notifications sent successfully");
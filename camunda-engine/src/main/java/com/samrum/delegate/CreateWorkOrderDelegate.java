@@ -0,0 +1,76 @@
+package com.samrum.delegate;
+
+import com.samrum.audit.AuditEventType;
+import com.samrum.audit.AuditJournal;
+import com.samrum.correlation.WorkOrderExecutionStore;
+import com.samrum.rules.DoorRequestRuleRegistry;
+import com.samrum.workorder.WorkOrderNumberGenerator;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * Create Work Order Delegate
+ *
+ * Service task executed after an approved door design has been announced.
+ * Assigns the installation work order number (WorkOrderNumberGenerator),
+ * records it on the process instance and registers it for maintenance system
+ * callbacks (WorkOrderExecutionStore, same transaction as the instance).
+ * The priority comes from the door request rule matrix (urgency and budget;
+ * requests without them get the default urgency's lowest band).
+ *
+ * Input Variables:
+ * - urgency: LOW, MEDIUM, HIGH, CRITICAL (optional)
+ * - budget: Approved budget (optional)
+ *
+ * Output Variables:
+ * - workOrderNumber: WO-NNNNNNNNNN
+ * - workOrderCreated: Timestamp
+ * - assignedPriority: P1_CRITICAL .. P4_LOW, read by the task dispatch queue
+ */
+@Component("createWorkOrderDelegate")
+public class CreateWorkOrderDelegate implements JavaDelegate {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CreateWorkOrderDelegate.class);
+
+    @Autowired
+    private DoorRequestRuleRegistry ruleRegistry;
+
+    @Autowired
+    private WorkOrderNumberGenerator workOrderNumberGenerator;
+
+    @Autowired
+    private AuditJournal auditJournal;
+
+    @Autowired
+    private WorkOrderExecutionStore workOrderExecutionStore;
+
+    @Override
+    public void execute(DelegateExecution execution) throws Exception {
+        String processInstanceId = execution.getProcessInstanceId();
+        String workOrderNumber = workOrderNumberGenerator.next();
+        String priority = ruleRegistry.current().priorityFor(
+            (String) execution.getVariable("urgency"), (Double) execution.getVariable("budget"));
+
+        execution.setVariable("workOrderNumber", workOrderNumber);
+        execution.setVariable("workOrderCreated", new Date());
+        execution.setVariable("assignedPriority", priority);
+
+        // maintenance system callbacks are correlated by work order number
+        workOrderExecutionStore.register(workOrderNumber, processInstanceId);
+
+        // door management processes carry the requestor, door installation the reviewer
+        Object actor = execution.hasVariable("requestor")
+            ? execution.getVariable("requestor") : execution.getVariable("reviewerId");
+        auditJournal.record(AuditEventType.WORK_ORDER_CREATED, processInstanceId, execution.getCurrentActivityId(),
+            (String) actor, workOrderNumber, "priority=" + priority
+                + ", doorType=" + execution.getVariable("doorType") + ", location=" + execution.getVariable("location"));
+
+        LOG.info("🛠️ Work order {} created for process {} ({})", workOrderNumber, processInstanceId, priority);
+    }
+}
@@ -1,9 +1,12 @@
 package com.samrum.delegate;
 
+import com.samrum.audit.AuditEventType;
+import com.samrum.audit.AuditJournal;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
@@ -15,7 +18,7 @@ import org.springframework.stereotype.Component;
  * In a real implementation, this would:
  * - Send email notifications to designer and stakeholders
  * - Update the door status in the database
- * - Log the rejection with reasons in audit system
+ * - Log the rejection with reasons in audit system (done: AuditJournal)
  * - Possibly trigger a redesign workflow
  */
 @Component("rejectionNotificationDelegate")
@@ -23,6 +26,9 @@ public class RejectionNotificationDelegate implements JavaDelegate {
 
     private static final Logger LOG = LoggerFactory.getLogger(RejectionNotificationDelegate.class);
 
+    @Autowired
+    private AuditJournal auditJournal;
+
     @Override
     public void execute(DelegateExecution execution) throws Exception {
         String processInstanceId = execution.getProcessInstanceId();
@@ -40,6 +46,15 @@ public class RejectionNotificationDelegate implements JavaDelegate {
         LOG.info("   Designer: {}", designerId);
         LOG.info("   Comments: {}", comments != null ? comments : "No comments provided");
 
+        // null when instantiated via camunda:class by definitions deployed before
+        // the switch to delegateExpression
+        if (auditJournal != null) {
+            auditJournal.record(AuditEventType.REJECTION, processInstanceId, execution.getCurrentActivityId(),
+                reviewerId, projectId, comments);
+        } else {
+            LOG.warn("Audit journal not injected - rejection of {} not journaled", processInstanceId);
+        }
+
         // TODO: Implement actual notification logic
         // Example implementations:
         
@@ -49,10 +64,7 @@ public class RejectionNotificationDelegate implements JavaDelegate {
         // 2. Update database status
         // doorRepository.updateStatus(projectId, DoorStatus.REJECTED);
         
-        // 3. Log to audit system with rejection reason
-        // auditService.logRejection(processInstanceId, reviewerId, comments, LocalDateTime.now());
-        
-        // 4. Create task in project management system
+        // 3. Create task in project management system
         // projectService.createRedesignTask(projectId, comments);
 
         LOG.info("✅ Rejection notifications sent successfully");
@@ -0,0 +1,95 @@
+package com.samrum.delegate;
+
+import com.samrum.audit.AuditEventType;
+import com.samrum.audit.AuditJournal;
+import com.samrum.registry.LocationRegistry;
+import com.samrum.rules.DoorRequestRuleRegistry;
+import com.samrum.rules.DoorRequestRules;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Validate Door Request Delegate
+ *
+ * First service task of door-management-process and its parallel-approval
+ * variant. Checks the request against the compiled door request rules
+ * (DoorRequestRuleRegistry):
+ * 1. requestor, door type and location are present
+ * 2. budget is above the minimum; high budgets are flagged for additional approval
+ * 3. door type is supported (case-insensitive)
+ * 4. location exists in the building registry (LocationRegistry, cached)
+ *
+ * Input Variables:
+ * - doorType, location, budget (Double), requestor, urgency (optional)
+ *
+ * Output Variables:
+ * - valid: Boolean indicating validation result
+ * - rejectionReason: Reason for rejection (if invalid)
+ * - requiresAdditionalApproval: true for budgets above the rule threshold
+ * - assignedPriority: priority of a valid request, so the approval tasks are
+ *   dispatched by it before the work order exists
+ */
+@Component("validateDoorRequestDelegate")
+public class ValidateDoorRequestDelegate implements JavaDelegate {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ValidateDoorRequestDelegate.class);
+
+    @Autowired
+    private DoorRequestRuleRegistry ruleRegistry;
+
+    @Autowired
+    private LocationRegistry locationRegistry;
+
+    @Autowired
+    private AuditJournal auditJournal;
+
+    @Override
+    public void execute(DelegateExecution execution) throws Exception {
+        DoorRequestRules rules = ruleRegistry.current();
+        String doorType = (String) execution.getVariable("doorType");
+        String location = (String) execution.getVariable("location");
+        Double budget = (Double) execution.getVariable("budget");
+        String requestor = (String) execution.getVariable("requestor");
+
+        String rejectionReason = null;
+        if (isBlank(doorType)) {
+            rejectionReason = "Door type is required";
+        } else if (isBlank(location)) {
+            rejectionReason = "Installation location is required";
+        } else if (isBlank(requestor)) {
+            rejectionReason = "Requestor information is required";
+        } else if (!rules.isValidBudget(budget)) {
+            rejectionReason = "Valid budget estimate is required";
+        } else if (!rules.isValidDoorType(doorType)) {
+            rejectionReason = "Invalid door type: " + doorType;
+        } else if (!locationRegistry.exists(location)) {
+            rejectionReason = "Location not found in building registry: " + location;
+        }
+
+        boolean valid = rejectionReason == null;
+        execution.setVariable("valid", valid);
+        if (valid) {
+            execution.setVariable("assignedPriority",
+                rules.priorityFor((String) execution.getVariable("urgency"), budget));
+            if (rules.requiresAdditionalApproval(budget)) {
+                LOG.info("💰 High budget request {} for process {}", budget, execution.getProcessInstanceId());
+                execution.setVariable("requiresAdditionalApproval", true);
+            }
+            LOG.info("✅ Door request of process {} valid (rules version {})",
+                execution.getProcessInstanceId(), rules.getVersion());
+        } else {
+            execution.setVariable("rejectionReason", rejectionReason);
+            auditJournal.record(AuditEventType.VALIDATION_FAILURE, execution.getProcessInstanceId(),
+                execution.getCurrentActivityId(), requestor, execution.getProcessBusinessKey(), rejectionReason);
+            LOG.warn("❌ Door request of process {} invalid: {}", execution.getProcessInstanceId(), rejectionReason);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
@@ -0,0 +1,109 @@
+package com.samrum.detail;
+
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.history.HistoricTaskInstance;
+import org.camunda.bpm.engine.history.HistoricVariableInstance;
+import org.camunda.bpm.engine.impl.HistoricActivityInstanceQueryImpl;
+import org.camunda.bpm.engine.impl.HistoricProcessInstanceQueryImpl;
+import org.camunda.bpm.engine.impl.HistoricTaskInstanceQueryImpl;
+import org.camunda.bpm.engine.impl.HistoricVariableInstanceQueryImpl;
+import org.camunda.bpm.engine.impl.TaskQueryImpl;
+import org.camunda.bpm.engine.impl.VariableInstanceQueryImpl;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.variable.serializer.AbstractTypedValueSerializer;
+import org.camunda.bpm.engine.runtime.VariableInstance;
+import org.camunda.bpm.engine.task.Task;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Loads a ProcessDetail in a single command context.
+ *
+ * One query per part (instance, variables, tasks, activity timeline) on one
+ * connection, instead of one command with its own connection and transaction
+ * per service call. The history record decides whether the runtime or the
+ * history tables are read, so there is no runtime-then-history probe.
+ *
+ * Unless fullValues is set, binary and serialized object variables are not
+ * fetched from ACT_GE_BYTEARRAY; only their names are returned.
+ */
+class LoadProcessDetailCmd implements Command<ProcessDetail> {
+
+    private final String processInstanceId;
+    private final boolean fullValues;
+
+    LoadProcessDetailCmd(String processInstanceId, boolean fullValues) {
+        this.processInstanceId = processInstanceId;
+        this.fullValues = fullValues;
+    }
+
+    @Override
+    public ProcessDetail execute(CommandContext commandContext) {
+        HistoricProcessInstanceQueryImpl instanceQuery = new HistoricProcessInstanceQueryImpl();
+        instanceQuery.processInstanceId(processInstanceId);
+        List<HistoricProcessInstance> instances = instanceQuery.executeList(commandContext, null);
+        if (instances.isEmpty()) {
+            return null;
+        }
+        HistoricProcessInstance instance = instances.get(0);
+
+        Map<String, Object> variables = new HashMap<>();
+        Set<String> deferred = new TreeSet<>();
+        List<Task> currentTasks;
+        List<HistoricTaskInstance> historicTasks;
+
+        if (instance.getEndTime() == null) {
+            VariableInstanceQueryImpl variableQuery = new VariableInstanceQueryImpl();
+            variableQuery.variableScopeIdIn(processInstanceId);
+            if (!fullValues) {
+                variableQuery.disableBinaryFetching();
+            }
+            for (VariableInstance variable : variableQuery.executeList(commandContext, null)) {
+                put(variables, deferred, variable.getName(), variable.getTypeName(), variable.getErrorMessage(),
+                    variable::getValue);
+            }
+
+            TaskQueryImpl taskQuery = new TaskQueryImpl();
+            taskQuery.processInstanceId(processInstanceId);
+            currentTasks = taskQuery.executeList(commandContext, null);
+            historicTasks = new ArrayList<>();
+        } else {
+            HistoricVariableInstanceQueryImpl variableQuery = new HistoricVariableInstanceQueryImpl();
+            variableQuery.processInstanceId(processInstanceId);
+            if (!fullValues) {
+                variableQuery.disableBinaryFetching();
+            }
+            for (HistoricVariableInstance variable : variableQuery.executeList(commandContext, null)) {
+                put(variables, deferred, variable.getName(), variable.getTypeName(), variable.getErrorMessage(),
+                    variable::getValue);
+            }
+
+            HistoricTaskInstanceQueryImpl taskQuery = new HistoricTaskInstanceQueryImpl();
+            taskQuery.processInstanceId(processInstanceId);
+            taskQuery.orderByHistoricTaskInstanceEndTime().desc();
+            currentTasks = new ArrayList<>();
+            historicTasks = taskQuery.executeList(commandContext, null);
+        }
+
+        HistoricActivityInstanceQueryImpl activityQuery = new HistoricActivityInstanceQueryImpl();
+        activityQuery.processInstanceId(processInstanceId);
+        activityQuery.orderByHistoricActivityInstanceStartTime().asc().orderPartiallyByOccurrence().asc();
+        List<HistoricActivityInstance> timeline = activityQuery.executeList(commandContext, null);
+
+        return new ProcessDetail(instance, variables, deferred, currentTasks, historicTasks, timeline);
+    }
+
+    private void put(Map<String, Object> variables, Set<String> deferred, String name, String typeName,
+                     String errorMessage, Supplier<Object> value) {
+        if (!fullValues && AbstractTypedValueSerializer.BINARY_VALUE_TYPES.contains(typeName)) {
+            deferred.add(name);
+            variables.put(name, null);
+        } else {
+            // a value that failed to deserialize is shown as missing, as the engine query does
+            variables.put(name, errorMessage == null ? value.get() : null);
+        }
+    }
+}
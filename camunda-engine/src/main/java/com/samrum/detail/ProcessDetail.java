@@ -0,0 +1,83 @@
+package com.samrum.detail;
+
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.history.HistoricTaskInstance;
+import org.camunda.bpm.engine.task.Task;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Everything the process detail views show about one process instance,
+ * loaded together by ProcessDetailLoader.
+ */
+public class ProcessDetail {
+
+    private final HistoricProcessInstance processInstance;
+    private final Map<String, Object> variables;
+    private final Set<String> deferredVariables;
+    private final List<Task> currentTasks;
+    private final List<HistoricTaskInstance> historicTasks;
+    private final List<HistoricActivityInstance> timeline;
+
+    ProcessDetail(HistoricProcessInstance processInstance, Map<String, Object> variables, Set<String> deferredVariables,
+                  List<Task> currentTasks, List<HistoricTaskInstance> historicTasks,
+                  List<HistoricActivityInstance> timeline) {
+        this.processInstance = processInstance;
+        this.variables = variables;
+        this.deferredVariables = deferredVariables;
+        this.currentTasks = currentTasks;
+        this.historicTasks = historicTasks;
+        this.timeline = timeline;
+    }
+
+    /**
+     * History record of the instance; for active instances the end time is null.
+     */
+    public HistoricProcessInstance getProcessInstance() {
+        return processInstance;
+    }
+
+    public boolean isActive() {
+        return processInstance.getEndTime() == null;
+    }
+
+    /**
+     * Process variables; for active instances only the process instance scope,
+     * as RuntimeService.getVariables returns them.
+     */
+    public Map<String, Object> getVariables() {
+        return variables;
+    }
+
+    /**
+     * Names of binary and serialized object variables whose value was not
+     * loaded (their value in getVariables is null).
+     */
+    public Set<String> getDeferredVariables() {
+        return deferredVariables;
+    }
+
+    /**
+     * Open tasks of an active instance, empty for completed ones.
+     */
+    public List<Task> getCurrentTasks() {
+        return currentTasks;
+    }
+
+    /**
+     * Tasks of a completed instance, latest first; empty for active ones.
+     */
+    public List<HistoricTaskInstance> getHistoricTasks() {
+        return historicTasks;
+    }
+
+    /**
+     * Activity instances in the order they were started.
+     */
+    public List<HistoricActivityInstance> getTimeline() {
+        return timeline;
+    }
+}
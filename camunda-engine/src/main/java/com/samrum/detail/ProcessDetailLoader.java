@@ -0,0 +1,32 @@
+package com.samrum.detail;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Process Detail Loader
+ *
+ * Loads instance, variables, tasks and activity timeline of a process
+ * instance for the detail views in one command context (see
+ * LoadProcessDetailCmd). Works for active and completed instances.
+ */
+@Component
+public class ProcessDetailLoader {
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    /**
+     * @param fullValues also load binary and serialized object variable values
+     * @return the detail, or empty if the process instance is unknown
+     */
+    public Optional<ProcessDetail> load(String processInstanceId, boolean fullValues) {
+        return Optional.ofNullable(((ProcessEngineConfigurationImpl) processEngine.getProcessEngineConfiguration())
+            .getCommandExecutorTxRequired()
+            .execute(new LoadProcessDetailCmd(processInstanceId, fullValues)));
+    }
+}
@@ -0,0 +1,40 @@
+package com.samrum.dispatch;
+
+import org.camunda.bpm.engine.delegate.TaskListener;
+import org.camunda.bpm.engine.impl.bpmn.behavior.UserTaskActivityBehavior;
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.pvm.process.ActivityImpl;
+import org.camunda.bpm.engine.impl.pvm.process.ScopeImpl;
+import org.camunda.bpm.engine.impl.task.TaskDefinition;
+import org.camunda.bpm.engine.impl.util.xml.Element;
+
+/**
+ * Attaches the DispatchTaskListener to every user task while a deployment is parsed.
+ */
+public class DispatchParseListener extends AbstractBpmnParseListener {
+
+    private static final String[] EVENTS = {
+        TaskListener.EVENTNAME_CREATE,
+        TaskListener.EVENTNAME_ASSIGNMENT,
+        TaskListener.EVENTNAME_UPDATE,
+        TaskListener.EVENTNAME_COMPLETE,
+        TaskListener.EVENTNAME_DELETE
+    };
+
+    private final DispatchTaskListener listener;
+
+    public DispatchParseListener(TaskDispatchQueue queue) {
+        this.listener = new DispatchTaskListener(queue);
+    }
+
+    @Override
+    public void parseUserTask(Element userTaskElement, ScopeImpl scope, ActivityImpl activity) {
+        if (!(activity.getActivityBehavior() instanceof UserTaskActivityBehavior)) {
+            return;
+        }
+        TaskDefinition taskDefinition = ((UserTaskActivityBehavior) activity.getActivityBehavior()).getTaskDefinition();
+        for (String event : EVENTS) {
+            taskDefinition.addBuiltInTaskListener(event, listener);
+        }
+    }
+}
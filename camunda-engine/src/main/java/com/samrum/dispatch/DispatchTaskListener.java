@@ -0,0 +1,73 @@
+package com.samrum.dispatch;
+
+import org.camunda.bpm.engine.delegate.DelegateTask;
+import org.camunda.bpm.engine.delegate.TaskListener;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.task.IdentityLink;
+import org.camunda.bpm.engine.task.IdentityLinkType;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Mirrors user task lifecycle events into the TaskDispatchQueue once the
+ * engine transaction has committed, so the queue never hands out a task that
+ * was rolled back or not yet visible to other transactions.
+ */
+public class DispatchTaskListener implements TaskListener {
+
+    static final String ASSIGNED_PRIORITY = "assignedPriority";
+
+    private final TaskDispatchQueue queue;
+
+    public DispatchTaskListener(TaskDispatchQueue queue) {
+        this.queue = queue;
+    }
+
+    @Override
+    public void notify(DelegateTask task) {
+        String taskId = task.getId();
+        switch (task.getEventName()) {
+            case EVENTNAME_CREATE:
+            case EVENTNAME_ASSIGNMENT:
+            case EVENTNAME_UPDATE:
+                if (task.getAssignee() == null) {
+                    QueuedTask queued = toQueuedTask(task);
+                    afterCommit(() -> queue.offer(queued));
+                } else {
+                    afterCommit(() -> queue.withdraw(taskId));
+                }
+                break;
+            case EVENTNAME_COMPLETE:
+            case EVENTNAME_DELETE:
+                afterCommit(() -> queue.withdraw(taskId));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static QueuedTask toQueuedTask(DelegateTask task) {
+        Set<String> groups = new HashSet<>();
+        for (IdentityLink link : task.getCandidates()) {
+            if (link.getGroupId() != null && IdentityLinkType.CANDIDATE.equals(link.getType())) {
+                groups.add(link.getGroupId());
+            }
+        }
+        Object priority = task.getVariable(ASSIGNED_PRIORITY);
+        return new QueuedTask(task.getId(), task.getProcessInstanceId(), task.getName(), groups,
+            task.getDueDate(), priority != null ? priority.toString() : null, task.getCreateTime());
+    }
+
+    private static void afterCommit(Runnable action) {
+        CommandContext commandContext = Context.getCommandContext();
+        if (commandContext == null) {
+            action.run();
+            return;
+        }
+        commandContext.getTransactionContext()
+            .addTransactionListener(TransactionState.COMMITTED, context -> action.run());
+    }
+}
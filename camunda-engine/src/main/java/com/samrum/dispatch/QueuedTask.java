@@ -0,0 +1,98 @@
+package com.samrum.dispatch;
+
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An unassigned task waiting in the dispatch queues of its candidate groups.
+ *
+ * Queue order: earliest due date first (tasks without one last), then
+ * assignedPriority (P1_CRITICAL before P4_LOW, unknown last), then oldest.
+ */
+public final class QueuedTask {
+
+    static final Comparator<QueuedTask> ORDER = Comparator
+        .comparingLong((QueuedTask task) -> task.dueMillis)
+        .thenComparingInt(task -> task.priorityRank)
+        .thenComparingLong(task -> task.createMillis)
+        .thenComparingLong(task -> task.sequence);
+
+    private static final int UNKNOWN_PRIORITY_RANK = 9;
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final String taskId;
+    private final String processInstanceId;
+    private final String name;
+    private final Set<String> candidateGroups;
+    private final String assignedPriority;
+    private final long dueMillis;
+    private final int priorityRank;
+    private final long createMillis;
+    private final long sequence = SEQUENCE.incrementAndGet();
+    private final AtomicBoolean taken = new AtomicBoolean();
+
+    public QueuedTask(String taskId, String processInstanceId, String name, Set<String> candidateGroups,
+                      Date dueDate, String assignedPriority, Date createTime) {
+        this.taskId = taskId;
+        this.processInstanceId = processInstanceId;
+        this.name = name;
+        this.candidateGroups = Set.copyOf(candidateGroups);
+        this.assignedPriority = assignedPriority;
+        this.dueMillis = dueDate != null ? dueDate.getTime() : Long.MAX_VALUE;
+        this.priorityRank = priorityRank(assignedPriority);
+        this.createMillis = createTime != null ? createTime.getTime() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Marks the task as handed out or withdrawn; true for exactly one caller.
+     */
+    boolean take() {
+        return taken.compareAndSet(false, true);
+    }
+
+    boolean isTaken() {
+        return taken.get();
+    }
+
+    /**
+     * "P2_HIGH" -> 2; anything else ranks after all known priorities.
+     */
+    static int priorityRank(String assignedPriority) {
+        if (assignedPriority != null && assignedPriority.length() > 1
+                && assignedPriority.charAt(0) == 'P' && Character.isDigit(assignedPriority.charAt(1))) {
+            return Character.digit(assignedPriority.charAt(1), 10);
+        }
+        return UNKNOWN_PRIORITY_RANK;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public String getProcessInstanceId() {
+        return processInstanceId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Set<String> getCandidateGroups() {
+        return candidateGroups;
+    }
+
+    public String getAssignedPriority() {
+        return assignedPriority;
+    }
+
+    public Date getDueDate() {
+        return dueMillis == Long.MAX_VALUE ? null : new Date(dueMillis);
+    }
+
+    public Date getCreateTime() {
+        return createMillis == Long.MAX_VALUE ? null : new Date(createMillis);
+    }
+}
@@ -0,0 +1,207 @@
+package com.samrum.dispatch;
+
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.TaskAlreadyClaimedException;
+import org.camunda.bpm.engine.TaskService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Task Dispatch Queue
+ *
+ * In-memory "next task" queues, one per candidate group, holding the
+ * unassigned tasks of that group in QueuedTask order.
+ *
+ * - DispatchTaskListener keeps the queues in sync: tasks are offered when
+ *   created or unassigned and withdrawn when assigned, completed or deleted,
+ *   always after the engine transaction committed
+ * - the queues are rebuilt from ACT_RU_TASK on startup
+ * - next() pops the head of a group's queue; the pop is atomic, so concurrent
+ *   callers always get different tasks and never race on the same claim
+ *
+ * The queues are per node. With several nodes two callers can still be handed
+ * the same task; the loser's claim fails and it gets the next task instead.
+ */
+@Component
+public class TaskDispatchQueue {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TaskDispatchQueue.class);
+
+    private static final String UNASSIGNED_TASKS_SQL =
+        "SELECT T.ID_, T.PROC_INST_ID_, T.NAME_, T.DUE_DATE_, T.CREATE_TIME_, I.GROUP_ID_, V.TEXT_ AS PRIORITY_ "
+            + "FROM ACT_RU_TASK T "
+            + "JOIN ACT_RU_IDENTITYLINK I ON I.TASK_ID_ = T.ID_ AND I.TYPE_ = 'candidate' AND I.GROUP_ID_ IS NOT NULL "
+            + "LEFT JOIN ACT_RU_VARIABLE V ON V.EXECUTION_ID_ = T.PROC_INST_ID_ AND V.TASK_ID_ IS NULL "
+            + "AND V.NAME_ = 'assignedPriority' "
+            + "WHERE T.ASSIGNEE_ IS NULL AND T.SUSPENSION_STATE_ = 1";
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${samrum.dispatch.max-claim-attempts:10}")
+    private int maxClaimAttempts;
+
+    private final Map<String, ConcurrentSkipListSet<QueuedTask>> queues = new ConcurrentHashMap<>();
+    private final Map<String, QueuedTask> tasks = new ConcurrentHashMap<>();
+
+    /**
+     * Adds or replaces the queued entry of a task.
+     */
+    public void offer(QueuedTask task) {
+        if (task.getCandidateGroups().isEmpty()) {
+            withdraw(task.getTaskId());
+            return;
+        }
+        QueuedTask previous = tasks.put(task.getTaskId(), task);
+        if (previous != null) {
+            unlink(previous);
+        }
+        for (String group : task.getCandidateGroups()) {
+            queues.computeIfAbsent(group, g -> new ConcurrentSkipListSet<>(QueuedTask.ORDER)).add(task);
+        }
+    }
+
+    public void withdraw(String taskId) {
+        QueuedTask task = tasks.remove(taskId);
+        if (task != null) {
+            unlink(task);
+        }
+    }
+
+    /**
+     * Claims the next task of the group for the user.
+     *
+     * @return the claimed task, or empty if the group has no unassigned task
+     */
+    public Optional<QueuedTask> next(String group, String userId) {
+        ConcurrentSkipListSet<QueuedTask> queue = queues.get(group);
+        if (queue == null) {
+            return Optional.empty();
+        }
+        for (int attempt = 0; attempt < maxClaimAttempts; attempt++) {
+            QueuedTask task = queue.pollFirst();
+            if (task == null) {
+                return Optional.empty();
+            }
+            if (!task.take()) {
+                continue;
+            }
+            tasks.remove(task.getTaskId(), task);
+            unlink(task);
+
+            try {
+                taskService.claim(task.getTaskId(), userId);
+                LOG.info("📥 Task {} ({}) of group {} dispatched to {}", task.getTaskId(), task.getName(), group, userId);
+                return Optional.of(task);
+            } catch (TaskAlreadyClaimedException e) {
+                LOG.debug("Task {} was claimed elsewhere, trying next", task.getTaskId());
+            } catch (OptimisticLockingException e) {
+                // the task changed concurrently but may still be free; it goes back to the queue
+                LOG.debug("Task {} changed while claiming, requeued", task.getTaskId());
+                offer(new QueuedTask(task.getTaskId(), task.getProcessInstanceId(), task.getName(),
+                    task.getCandidateGroups(), task.getDueDate(), task.getAssignedPriority(), task.getCreateTime()));
+            } catch (ProcessEngineException e) {
+                LOG.debug("Task {} can no longer be claimed: {}", task.getTaskId(), e.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Queue length per group.
+     */
+    public Map<String, Integer> sizes() {
+        Map<String, Integer> sizes = new TreeMap<>();
+        queues.forEach((group, queue) -> sizes.put(group, queue.size()));
+        return sizes;
+    }
+
+    /**
+     * First entries of a group's queue, in dispatch order.
+     */
+    public List<QueuedTask> peek(String group, int limit) {
+        ConcurrentSkipListSet<QueuedTask> queue = queues.get(group);
+        if (queue == null) {
+            return Collections.emptyList();
+        }
+        List<QueuedTask> head = new ArrayList<>();
+        for (QueuedTask task : queue) {
+            if (head.size() >= limit) {
+                break;
+            }
+            head.add(task);
+        }
+        return head;
+    }
+
+    /**
+     * Loads all unassigned candidate-group tasks. Tasks the listener already
+     * queued since startup are kept as they are.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<String, TaskRow> rows = new LinkedHashMap<>();
+        jdbcTemplate.query(UNASSIGNED_TASKS_SQL, rs -> {
+            TaskRow row = rows.get(rs.getString("ID_"));
+            if (row == null) {
+                row = new TaskRow(rs.getString("PROC_INST_ID_"), rs.getString("NAME_"), rs.getTimestamp("DUE_DATE_"),
+                    rs.getString("PRIORITY_"), rs.getTimestamp("CREATE_TIME_"));
+                rows.put(rs.getString("ID_"), row);
+            }
+            row.groups.add(rs.getString("GROUP_ID_"));
+        });
+
+        int loaded = 0;
+        for (Map.Entry<String, TaskRow> entry : rows.entrySet()) {
+            if (tasks.containsKey(entry.getKey())) {
+                continue;
+            }
+            TaskRow row = entry.getValue();
+            offer(new QueuedTask(entry.getKey(), row.processInstanceId, row.name, row.groups,
+                row.dueDate, row.assignedPriority, row.createTime));
+            loaded++;
+        }
+        LOG.info("Task dispatch queues rebuilt with {} unassigned tasks: {}", loaded, sizes());
+    }
+
+    private void unlink(QueuedTask task) {
+        task.take();
+        for (String group : task.getCandidateGroups()) {
+            ConcurrentSkipListSet<QueuedTask> queue = queues.get(group);
+            if (queue != null) {
+                queue.remove(task);
+            }
+        }
+    }
+
+    private static final class TaskRow {
+        private final String processInstanceId;
+        private final String name;
+        private final Date dueDate;
+        private final String assignedPriority;
+        private final Date createTime;
+        private final Set<String> groups = new HashSet<>();
+
+        TaskRow(String processInstanceId, String name, Date dueDate, String assignedPriority, Date createTime) {
+            this.processInstanceId = processInstanceId;
+            this.name = name;
+            this.dueDate = dueDate;
+            this.assignedPriority = assignedPriority;
+            this.createTime = createTime;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.samrum.dto;
+
+import java.util.Map;
+
+/**
+ * DTO for one maintenance system callback in a batch correlation request
+ */
+public class CorrelationMessage {
+
+    private String workOrderNumber;
+    private String message;               // BPMN message name, e.g. TechnicianAssigned
+    private Map<String, Object> payload;  // process variables; strings, numbers and booleans
+
+    // Default constructor
+    public CorrelationMessage() {}
+
+    public CorrelationMessage(String workOrderNumber, String message, Map<String, Object> payload) {
+        this.workOrderNumber = workOrderNumber;
+        this.message = message;
+        this.payload = payload;
+    }
+
+    // Getters and Setters
+    public String getWorkOrderNumber() { return workOrderNumber; }
+    public void setWorkOrderNumber(String workOrderNumber) { this.workOrderNumber = workOrderNumber; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public Map<String, Object> getPayload() { return payload; }
+    public void setPayload(Map<String, Object> payload) { this.payload = payload; }
+}
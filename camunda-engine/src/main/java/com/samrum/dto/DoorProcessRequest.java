@@ -19,6 +19,9 @@ public class DoorProcessRequest {
     @NotBlank(message = "Designer ID is required")
     private String designerId;
 
+    // Optional; the Idempotency-Key header takes precedence
+    private String idempotencyKey;
+
     // Default constructor
     public DoorProcessRequest() {}
 
@@ -42,4 +45,7 @@ public class DoorProcessRequest {
 
     public String getDesignerId() { return designerId; }
     public void setDesignerId(String designerId) { this.designerId = designerId; }
+
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
 }
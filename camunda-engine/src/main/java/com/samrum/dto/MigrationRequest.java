@@ -0,0 +1,54 @@
+package com.samrum.dto;
+
+/**
+ * DTO for planning or starting a process instance migration
+ *
+ * Either give the definition ids directly, or a process definition key with
+ * versions. A missing target version means the latest deployed version; a
+ * missing source version means the version just before the target.
+ */
+public class MigrationRequest {
+
+    private String processDefinitionKey;
+    private Integer sourceVersion;
+    private Integer targetVersion;
+
+    private String sourceProcessDefinitionId;
+    private String targetProcessDefinitionId;
+
+    private Integer chunkSize;
+    private Integer parallelism;
+    private boolean skipCustomListeners;
+    private boolean skipIoMappings;
+
+    // Default constructor
+    public MigrationRequest() {}
+
+    // Getters and Setters
+    public String getProcessDefinitionKey() { return processDefinitionKey; }
+    public void setProcessDefinitionKey(String processDefinitionKey) { this.processDefinitionKey = processDefinitionKey; }
+
+    public Integer getSourceVersion() { return sourceVersion; }
+    public void setSourceVersion(Integer sourceVersion) { this.sourceVersion = sourceVersion; }
+
+    public Integer getTargetVersion() { return targetVersion; }
+    public void setTargetVersion(Integer targetVersion) { this.targetVersion = targetVersion; }
+
+    public String getSourceProcessDefinitionId() { return sourceProcessDefinitionId; }
+    public void setSourceProcessDefinitionId(String sourceProcessDefinitionId) { this.sourceProcessDefinitionId = sourceProcessDefinitionId; }
+
+    public String getTargetProcessDefinitionId() { return targetProcessDefinitionId; }
+    public void setTargetProcessDefinitionId(String targetProcessDefinitionId) { this.targetProcessDefinitionId = targetProcessDefinitionId; }
+
+    public Integer getChunkSize() { return chunkSize; }
+    public void setChunkSize(Integer chunkSize) { this.chunkSize = chunkSize; }
+
+    public Integer getParallelism() { return parallelism; }
+    public void setParallelism(Integer parallelism) { this.parallelism = parallelism; }
+
+    public boolean isSkipCustomListeners() { return skipCustomListeners; }
+    public void setSkipCustomListeners(boolean skipCustomListeners) { this.skipCustomListeners = skipCustomListeners; }
+
+    public boolean isSkipIoMappings() { return skipIoMappings; }
+    public void setSkipIoMappings(boolean skipIoMappings) { this.skipIoMappings = skipIoMappings; }
+}
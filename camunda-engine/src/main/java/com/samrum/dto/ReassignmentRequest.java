@@ -0,0 +1,39 @@
+package com.samrum.dto;
+
+import javax.validation.constraints.NotBlank;
+import java.util.List;
+
+/**
+ * DTO for moving all work of one user to another
+ */
+public class ReassignmentRequest {
+
+    @NotBlank(message = "fromUserId is required")
+    private String fromUserId;
+
+    @NotBlank(message = "toUserId is required")
+    private String toUserId;
+
+    private List<String> taskDefinitionKeys;  // empty = all tasks of fromUserId
+    private List<String> variableNames;       // default: reviewerId, designerId
+    private Integer chunkSize;
+
+    // Default constructor
+    public ReassignmentRequest() {}
+
+    // Getters and Setters
+    public String getFromUserId() { return fromUserId; }
+    public void setFromUserId(String fromUserId) { this.fromUserId = fromUserId; }
+
+    public String getToUserId() { return toUserId; }
+    public void setToUserId(String toUserId) { this.toUserId = toUserId; }
+
+    public List<String> getTaskDefinitionKeys() { return taskDefinitionKeys; }
+    public void setTaskDefinitionKeys(List<String> taskDefinitionKeys) { this.taskDefinitionKeys = taskDefinitionKeys; }
+
+    public List<String> getVariableNames() { return variableNames; }
+    public void setVariableNames(List<String> variableNames) { this.variableNames = variableNames; }
+
+    public Integer getChunkSize() { return chunkSize; }
+    public void setChunkSize(Integer chunkSize) { this.chunkSize = chunkSize; }
+}
@@ -0,0 +1,100 @@
+package com.samrum.export;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes one partition of one table as one gzip file per column.
+ *
+ * Each column file holds one value per line, in row order; null is written
+ * as \N and tabs, line breaks and backslashes are escaped. A _columns file
+ * lists column names and types, and _rows holds the row count once the
+ * partition is closed. Memory use is a fixed buffer per column.
+ */
+final class ColumnarPartitionWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 32 * 1024;
+
+    private final Path directory;
+    private final List<ExportTable.Column> columns;
+    private final List<Writer> writers = new ArrayList<>();
+    private long rows;
+
+    ColumnarPartitionWriter(Path directory, List<ExportTable.Column> columns) throws IOException {
+        this.directory = directory;
+        this.columns = columns;
+        Files.createDirectories(directory);
+
+        StringBuilder schema = new StringBuilder();
+        for (ExportTable.Column column : columns) {
+            schema.append(column.name).append('\t').append(column.type).append('\n');
+            OutputStream out = new GZIPOutputStream(
+                new FileOutputStream(directory.resolve(column.name + ".gz").toFile()), BUFFER_SIZE);
+            writers.add(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE));
+        }
+        Files.writeString(directory.resolve("_columns"), schema.toString());
+    }
+
+    void write(Object[] values) throws IOException {
+        for (int i = 0; i < writers.size(); i++) {
+            Writer writer = writers.get(i);
+            Object value = values[i];
+            if (value == null) {
+                writer.write("\\N");
+            } else if (columns.get(i).type == ExportTable.ColumnType.STRING) {
+                writeEscaped(writer, value.toString());
+            } else {
+                writer.write(value.toString());
+            }
+            writer.write('\n');
+        }
+        rows++;
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (Writer writer : writers) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        Files.writeString(directory.resolve("_rows"), Long.toString(rows));
+    }
+
+    private static void writeEscaped(Writer writer, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                default:
+                    writer.write(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.samrum.export;
+
+import java.util.List;
+
+/**
+ * One exported dataset: the query that streams it and its columns.
+ *
+ * The query selects the partition timestamp (epoch day is derived from it) as
+ * its first column, followed by the exported columns, ordered by that
+ * timestamp. Its first two parameters are the window bounds (exclusive lower,
+ * inclusive upper), followed by any table-specific parameters.
+ */
+final class ExportTable {
+
+    enum ColumnType { STRING, TIMESTAMP, LONG, DOUBLE }
+
+    static final class Column {
+        final String name;
+        final ColumnType type;
+
+        Column(String name, ColumnType type) {
+            this.name = name;
+            this.type = type;
+        }
+    }
+
+    final String name;
+    final String sql;
+    final List<Column> columns;
+    final List<Object> parameters;
+
+    ExportTable(String name, String sql, List<Column> columns, List<Object> parameters) {
+        this.name = name;
+        this.sql = sql;
+        this.columns = columns;
+        this.parameters = parameters;
+    }
+
+    static Column string(String name) {
+        return new Column(name, ColumnType.STRING);
+    }
+
+    static Column timestamp(String name) {
+        return new Column(name, ColumnType.TIMESTAMP);
+    }
+
+    static Column number(String name) {
+        return new Column(name, ColumnType.LONG);
+    }
+
+    static Column decimal(String name) {
+        return new Column(name, ColumnType.DOUBLE);
+    }
+}
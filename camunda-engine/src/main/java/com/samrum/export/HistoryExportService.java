@@ -0,0 +1,449 @@
+package com.samrum.export;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * History Export Service
+ *
+ * Exports finished door processes for analytics, so reporting does not have
+ * to query ACT_HI_* on the OLTP database:
+ *
+ *   {directory}/{table}/day=YYYY-MM-DD/part-{run}/{column}.gz
+ *
+ * - process_instances: finished process instances
+ * - task_instances: finished task instances
+ * - variables: selected variables of the exported process instances
+ *
+ * Rows are streamed from a read-only cursor (fetch size bounded) in end time
+ * order, so only one partition is open at a time and memory stays constant
+ * regardless of volume. Each run exports the window (watermark, now - lag];
+ * parts are only published (renamed) and the watermark only advanced after
+ * all tables were written, so a failed run is simply repeated.
+ *
+ * Publishing is recorded in a _publishing file first. A run that stopped
+ * while renaming its parts is finished by the next run, so no part is ever
+ * published twice. A day below the watermark can be exported again with
+ * reexport(), which replaces the day's earlier parts.
+ */
+@Component
+public class HistoryExportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HistoryExportService.class);
+
+    private static final String WATERMARK_FILE = "_watermark";
+    private static final String PUBLISHING_FILE = "_publishing";
+    private static final String IN_PROGRESS = ".inprogress";
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss").withZone(ZoneOffset.UTC);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${samrum.export.enabled:true}")
+    private boolean enabled;
+
+    @Value("${samrum.export.directory:./data/export}")
+    private String directory;
+
+    @Value("${samrum.export.fetch-size:1000}")
+    private int fetchSize;
+
+    // finished rows are only exported once they are this old, so late commits are not skipped
+    @Value("${samrum.export.lag-seconds:300}")
+    private long lagSeconds;
+
+    @Value("${samrum.export.variables:projectId,doorType,location,budget,urgency,approvalDecision,allApproved,qualityPass,assignedPriority,workOrderNumber}")
+    private List<String> variables;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Map<String, Object> lastRun = Collections.emptyMap();
+
+    @Scheduled(cron = "${samrum.export.cron:0 30 2 * * *}")
+    public void scheduledExport() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            export();
+        } catch (IllegalStateException e) {
+            LOG.info("History export skipped: {}", e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            LOG.error("❌ History export failed - will retry from the same watermark", e);
+        }
+    }
+
+    /**
+     * Runs one incremental export.
+     *
+     * @return row counts per table and the exported window
+     * @throws IllegalStateException if an export is already running
+     */
+    public Map<String, Object> export() throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("History export already running");
+        }
+        try {
+            return doExport();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Exports one day below the watermark again and replaces the parts earlier
+     * runs wrote for it, e.g. after history of that day was corrected. Running
+     * it twice leaves the same data as running it once; the watermark is kept.
+     *
+     * @return row counts per table and the exported window
+     * @throws IllegalStateException if an export is already running
+     * @throws IllegalArgumentException if the day is not completely below the watermark
+     */
+    public Map<String, Object> reexport(LocalDate day) throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("History export already running");
+        }
+        try {
+            Path root = Paths.get(directory);
+            Files.createDirectories(root);
+            finishPublishing(root);
+            removeUnpublishedParts(root);
+
+            long from = day.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            long to = day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            long watermark = readWatermark(root);
+            if (to > watermark) {
+                throw new IllegalArgumentException("Day " + day + " is not completely exported yet (watermark "
+                    + new Date(watermark) + ")");
+            }
+            // the window's lower bound is exclusive; rows of the previous day that slip in are skipped
+            return run(root, from - 1, to, day, null);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public Map<String, Object> getLastRun() {
+        return lastRun;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private Map<String, Object> doExport() throws IOException {
+        Path root = Paths.get(directory);
+        Files.createDirectories(root);
+        finishPublishing(root);
+        removeUnpublishedParts(root);
+
+        long from = readWatermark(root);
+        long to = System.currentTimeMillis() - lagSeconds * 1000L;
+        if (to <= from) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("from", new Date(from));
+            result.put("to", new Date(to));
+            result.put("rows", Collections.emptyMap());
+            return result;
+        }
+        return run(root, from, to, null, to);
+    }
+
+    /**
+     * Writes all tables for the window and publishes them.
+     *
+     * @param day only rows ending on this day, replacing the day's parts; null for all rows
+     * @param watermark advanced to after publishing; null keeps it
+     */
+    private Map<String, Object> run(Path root, long from, long to, LocalDate day, Long watermark) throws IOException {
+        // unique even for two runs in the same second, e.g. re-exporting one day twice
+        String runId = RUN_ID.format(new Date().toInstant()) + "-" + UUID.randomUUID().toString().substring(0, 8);
+        long started = System.currentTimeMillis();
+        List<Path> parts = new ArrayList<>();
+        Map<String, Long> rows = new LinkedHashMap<>();
+
+        for (ExportTable table : tables()) {
+            rows.put(table.name, exportTable(root, table, runId, from, to, day, parts));
+        }
+
+        writeAtomically(root, PUBLISHING_FILE, runId + "\n" + (watermark != null ? watermark : "") + "\n"
+            + (day != null ? day : "") + "\n");
+        finishPublishing(root);
+
+        long elapsed = System.currentTimeMillis() - started;
+        LOG.info("📦 History export {} finished: {} in {} partitions ({} ms)", runId, rows, parts.size(), elapsed);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", new Date(from));
+        result.put("to", new Date(to));
+        if (day != null) {
+            result.put("day", day.toString());
+        }
+        result.put("runId", runId);
+        result.put("rows", rows);
+        result.put("partitions", parts.size());
+        result.put("durationMs", elapsed);
+        lastRun = result;
+        return result;
+    }
+
+    /**
+     * Completes the run recorded in _publishing: renames its parts, removes
+     * the parts it replaces and advances the watermark. Every step can be
+     * repeated, so a run that stopped half-way is finished by the next one.
+     */
+    private static void finishPublishing(Path root) throws IOException {
+        Path marker = root.resolve(PUBLISHING_FILE);
+        if (!Files.exists(marker)) {
+            return;
+        }
+        List<String> lines = Files.readAllLines(marker);
+        String part = "part-" + lines.get(0);
+        String watermark = lines.size() > 1 ? lines.get(1) : "";
+        String day = lines.size() > 2 ? lines.get(2) : "";
+
+        List<Path> unpublished;
+        try (Stream<Path> paths = Files.walk(root, 3)) {
+            unpublished = paths.filter(path -> path.getFileName().toString().equals(part + IN_PROGRESS))
+                .collect(java.util.stream.Collectors.toList());
+        }
+        for (Path path : unpublished) {
+            Files.move(path, path.resolveSibling(part), StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        if (!day.isEmpty()) {
+            List<Path> replaced = new ArrayList<>();
+            try (DirectoryStream<Path> tables = Files.newDirectoryStream(root, Files::isDirectory)) {
+                for (Path table : tables) {
+                    Path dayDirectory = table.resolve("day=" + day);
+                    if (!Files.isDirectory(dayDirectory)) {
+                        continue;
+                    }
+                    try (DirectoryStream<Path> parts = Files.newDirectoryStream(dayDirectory)) {
+                        for (Path existing : parts) {
+                            if (!existing.getFileName().toString().equals(part)) {
+                                replaced.add(existing);
+                            }
+                        }
+                    }
+                }
+            }
+            for (Path existing : replaced) {
+                deleteRecursively(existing);
+                LOG.info("Removed export part {} replaced by {}", existing, part);
+            }
+        }
+
+        if (!watermark.isEmpty()) {
+            writeWatermark(root, Long.parseLong(watermark));
+        }
+        Files.delete(marker);
+    }
+
+    private long exportTable(Path root, ExportTable table, String runId, long from, long to, LocalDate day,
+                             List<Path> parts) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        return readOnly.execute(status -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.setFetchSize(fetchSize);
+
+            PartitionedRowHandler handler = new PartitionedRowHandler(root.resolve(table.name), table, runId, day, parts);
+            List<Object> parameters = new ArrayList<>();
+            parameters.add(new Timestamp(from));
+            parameters.add(new Timestamp(to));
+            parameters.addAll(table.parameters);
+            try {
+                jdbcTemplate.query(table.sql, handler, parameters.toArray());
+                handler.close();
+            } catch (RuntimeException e) {
+                handler.closeQuietly();
+                throw e;
+            }
+            return handler.rows;
+        });
+    }
+
+    private List<ExportTable> tables() {
+        List<ExportTable> tables = new ArrayList<>();
+        tables.add(new ExportTable("process_instances",
+            "SELECT END_TIME_, ID_, BUSINESS_KEY_, PROC_DEF_KEY_, PROC_DEF_ID_, START_TIME_, END_TIME_, DURATION_, "
+                + "START_USER_ID_, START_ACT_ID_, END_ACT_ID_, STATE_ FROM ACT_HI_PROCINST "
+                + "WHERE END_TIME_ > ? AND END_TIME_ <= ? ORDER BY END_TIME_",
+            List.of(ExportTable.string("ID_"), ExportTable.string("BUSINESS_KEY_"), ExportTable.string("PROC_DEF_KEY_"),
+                ExportTable.string("PROC_DEF_ID_"), ExportTable.timestamp("START_TIME_"), ExportTable.timestamp("END_TIME_"),
+                ExportTable.number("DURATION_"), ExportTable.string("START_USER_ID_"), ExportTable.string("START_ACT_ID_"),
+                ExportTable.string("END_ACT_ID_"), ExportTable.string("STATE_")),
+            List.of()));
+
+        tables.add(new ExportTable("task_instances",
+            "SELECT END_TIME_, ID_, PROC_INST_ID_, PROC_DEF_KEY_, TASK_DEF_KEY_, NAME_, ASSIGNEE_, START_TIME_, "
+                + "END_TIME_, DURATION_, DELETE_REASON_, PRIORITY_, DUE_DATE_ FROM ACT_HI_TASKINST "
+                + "WHERE END_TIME_ > ? AND END_TIME_ <= ? ORDER BY END_TIME_",
+            List.of(ExportTable.string("ID_"), ExportTable.string("PROC_INST_ID_"), ExportTable.string("PROC_DEF_KEY_"),
+                ExportTable.string("TASK_DEF_KEY_"), ExportTable.string("NAME_"), ExportTable.string("ASSIGNEE_"),
+                ExportTable.timestamp("START_TIME_"), ExportTable.timestamp("END_TIME_"), ExportTable.number("DURATION_"),
+                ExportTable.string("DELETE_REASON_"), ExportTable.number("PRIORITY_"), ExportTable.timestamp("DUE_DATE_")),
+            List.of()));
+
+        if (!variables.isEmpty()) {
+            String placeholders = String.join(", ", Collections.nCopies(variables.size(), "?"));
+            tables.add(new ExportTable("variables",
+                "SELECT P.END_TIME_, V.PROC_INST_ID_, V.NAME_, V.VAR_TYPE_, V.TEXT_, V.LONG_, V.DOUBLE_ "
+                    + "FROM ACT_HI_VARINST V JOIN ACT_HI_PROCINST P ON P.ID_ = V.PROC_INST_ID_ "
+                    + "WHERE P.END_TIME_ > ? AND P.END_TIME_ <= ? AND V.NAME_ IN (" + placeholders + ") "
+                    + "ORDER BY P.END_TIME_",
+                List.of(ExportTable.string("PROC_INST_ID_"), ExportTable.string("NAME_"), ExportTable.string("VAR_TYPE_"),
+                    ExportTable.string("TEXT_"), ExportTable.number("LONG_"), ExportTable.decimal("DOUBLE_")),
+                new ArrayList<>(variables)));
+        }
+        return tables;
+    }
+
+    private static long readWatermark(Path root) throws IOException {
+        Path file = root.resolve(WATERMARK_FILE);
+        return Files.exists(file) ? Long.parseLong(Files.readString(file).trim()) : 0L;
+    }
+
+    private static void writeWatermark(Path root, long watermark) throws IOException {
+        writeAtomically(root, WATERMARK_FILE, Long.toString(watermark));
+    }
+
+    private static void writeAtomically(Path root, String name, String content) throws IOException {
+        Path tmp = root.resolve(name + ".tmp");
+        Files.writeString(tmp, content);
+        Files.move(tmp, root.resolve(name), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Deletes parts left behind by a run that did not finish.
+     */
+    private static void removeUnpublishedParts(Path root) throws IOException {
+        List<Path> leftovers;
+        try (Stream<Path> paths = Files.walk(root, 3)) {
+            leftovers = paths.filter(path -> path.getFileName().toString().endsWith(IN_PROGRESS))
+                .collect(java.util.stream.Collectors.toList());
+        }
+        for (Path part : leftovers) {
+            deleteRecursively(part);
+            LOG.warn("Removed unpublished export part {}", part);
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * Writes streamed rows into one partition per end day (rows arrive in end time order).
+     */
+    private static final class PartitionedRowHandler implements RowCallbackHandler {
+
+        private final Path tableDirectory;
+        private final ExportTable table;
+        private final String runId;
+        private final LocalDate onlyDay;
+        private final List<Path> parts;
+        private final Object[] values;
+
+        private LocalDate day;
+        private ColumnarPartitionWriter writer;
+        private long rows;
+
+        PartitionedRowHandler(Path tableDirectory, ExportTable table, String runId, LocalDate onlyDay,
+                              List<Path> parts) {
+            this.tableDirectory = tableDirectory;
+            this.table = table;
+            this.runId = runId;
+            this.onlyDay = onlyDay;
+            this.parts = parts;
+            this.values = new Object[table.columns.size()];
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            LocalDate rowDay = rs.getTimestamp(1).toInstant().atZone(ZoneOffset.UTC).toLocalDate();
+            if (onlyDay != null && !onlyDay.equals(rowDay)) {
+                return;
+            }
+            for (int i = 0; i < values.length; i++) {
+                values[i] = read(rs, i + 2, table.columns.get(i).type);
+            }
+            try {
+                if (!rowDay.equals(day)) {
+                    close();
+                    day = rowDay;
+                    Path part = tableDirectory.resolve("day=" + day).resolve("part-" + runId + IN_PROGRESS);
+                    parts.add(part);
+                    writer = new ColumnarPartitionWriter(part, table.columns);
+                }
+                writer.write(values);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows++;
+        }
+
+        void close() {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                writer = null;
+            }
+        }
+
+        void closeQuietly() {
+            try {
+                close();
+            } catch (UncheckedIOException e) {
+                LOG.debug("Failed to close export partition after error", e);
+            }
+        }
+
+        private static Object read(ResultSet rs, int index, ExportTable.ColumnType type) throws SQLException {
+            switch (type) {
+                case TIMESTAMP:
+                    Timestamp timestamp = rs.getTimestamp(index);
+                    return timestamp != null ? timestamp.getTime() : null;
+                case LONG:
+                    long longValue = rs.getLong(index);
+                    return rs.wasNull() ? null : longValue;
+                case DOUBLE:
+                    double doubleValue = rs.getDouble(index);
+                    return rs.wasNull() ? null : doubleValue;
+                default:
+                    return rs.getString(index);
+            }
+        }
+    }
+}
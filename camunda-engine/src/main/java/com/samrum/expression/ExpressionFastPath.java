@@ -0,0 +1,89 @@
+package com.samrum.expression;
+
+import org.camunda.bpm.engine.delegate.VariableScope;
+
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Direct evaluation of the simple expression shapes used by the door processes:
+ *
+ * - ${name}                       (assignees, boolean conditions)
+ * - ${name == 'LITERAL'} / ${name != 'LITERAL'}   (gateway conditions)
+ *
+ * The fast path only answers when the result is certain to match JUEL: the
+ * variable exists and holds a String (or a Boolean for ${name}). For two
+ * Strings JUEL's == is String.equals, and a variable shadows beans of the same
+ * name. Anything else - missing or null variables, numbers and other types
+ * JUEL would coerce, beans - returns {@link #NO_RESULT} and the caller falls
+ * back to the parsed expression.
+ *
+ * Analysis runs once per parsed condition or assignee; the result lives on
+ * the wrapper of the deployed definition and goes away with it.
+ */
+final class ExpressionFastPath {
+
+    static final Object NO_RESULT = new Object();
+
+    private enum Kind { VARIABLE, EQUALS, NOT_EQUALS }
+
+    private static final String IDENTIFIER = "([A-Za-z_][A-Za-z0-9_]*)";
+    private static final Pattern VARIABLE = Pattern.compile("\\$\\{\\s*" + IDENTIFIER + "\\s*}");
+    private static final Pattern COMPARISON = Pattern.compile(
+        "\\$\\{\\s*" + IDENTIFIER + "\\s*(==|!=)\\s*(?:'([^'\\\\]*)'|\"([^\"\\\\]*)\")\\s*}");
+
+    // JUEL keywords and the names the engine's resolver answers before variables
+    private static final Set<String> RESERVED = Set.of(
+        "true", "false", "null", "empty", "not", "and", "or", "div", "mod", "instanceof",
+        "eq", "ne", "lt", "gt", "le", "ge",
+        "execution", "task", "caseExecution", "externalTask", "authenticatedUserId", "variableScope");
+
+    private final Kind kind;
+    private final String variableName;
+    private final String literal;
+
+    private ExpressionFastPath(Kind kind, String variableName, String literal) {
+        this.kind = kind;
+        this.variableName = variableName;
+        this.literal = literal;
+    }
+
+    /**
+     * @return the fast path for the expression text, or null if it has none
+     */
+    static ExpressionFastPath of(String expressionText) {
+        if (expressionText == null) {
+            return null;
+        }
+        String text = expressionText.trim();
+        Matcher variable = VARIABLE.matcher(text);
+        if (variable.matches() && !RESERVED.contains(variable.group(1))) {
+            return new ExpressionFastPath(Kind.VARIABLE, variable.group(1), null);
+        }
+        Matcher comparison = COMPARISON.matcher(text);
+        if (comparison.matches() && !RESERVED.contains(comparison.group(1))) {
+            String literal = comparison.group(3) != null ? comparison.group(3) : comparison.group(4);
+            Kind kind = "==".equals(comparison.group(2)) ? Kind.EQUALS : Kind.NOT_EQUALS;
+            return new ExpressionFastPath(kind, comparison.group(1), literal);
+        }
+        return null;
+    }
+
+    /**
+     * @return the expression value, or NO_RESULT if the parsed expression must decide
+     */
+    Object evaluate(VariableScope scope) {
+        Object value = scope.getVariable(variableName);
+        switch (kind) {
+            case VARIABLE:
+                return value instanceof String || value instanceof Boolean ? value : NO_RESULT;
+            case EQUALS:
+                return value instanceof String ? Boolean.valueOf(literal.equals(value)) : NO_RESULT;
+            case NOT_EQUALS:
+                return value instanceof String ? Boolean.valueOf(!literal.equals(value)) : NO_RESULT;
+            default:
+                return NO_RESULT;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.samrum.expression;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Expression Profiler
+ *
+ * Registry of per-activity expression statistics, filled by the profiled
+ * conditions and assignee expressions installed at deployment time (see
+ * ExpressionProfilingParseListener).
+ */
+@Component
+public class ExpressionProfiler {
+
+    @Value("${samrum.expressions.profiling-enabled:true}")
+    private boolean profilingEnabled;
+
+    @Value("${samrum.expressions.fast-path-enabled:true}")
+    private boolean fastPathEnabled;
+
+    private final ConcurrentHashMap<String, ExpressionStats> stats = new ConcurrentHashMap<>();
+
+    public boolean isProfilingEnabled() {
+        return profilingEnabled;
+    }
+
+    public boolean isFastPathEnabled() {
+        return fastPathEnabled;
+    }
+
+    ExpressionStats statsFor(String processDefinitionKey, String activityId, String kind, String expressionText) {
+        String key = processDefinitionKey + '\u0000' + activityId + '\u0000' + kind + '\u0000' + expressionText;
+        return stats.computeIfAbsent(key, k -> new ExpressionStats(processDefinitionKey, activityId, kind, expressionText));
+    }
+
+    /**
+     * @return all statistics, most expensive (total time) first
+     */
+    public List<ExpressionStats> snapshot() {
+        List<ExpressionStats> result = new ArrayList<>(stats.values());
+        result.sort(Comparator.comparingLong(ExpressionStats::getTotalNanos).reversed());
+        return result;
+    }
+
+    public void reset() {
+        for (ExpressionStats entry : stats.values()) {
+            entry.reset();
+        }
+    }
+}
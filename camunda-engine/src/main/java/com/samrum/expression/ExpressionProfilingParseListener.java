@@ -0,0 +1,75 @@
+package com.samrum.expression;
+
+import org.camunda.bpm.engine.impl.Condition;
+import org.camunda.bpm.engine.impl.bpmn.behavior.UserTaskActivityBehavior;
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParse;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.impl.pvm.process.ActivityImpl;
+import org.camunda.bpm.engine.impl.pvm.process.ScopeImpl;
+import org.camunda.bpm.engine.impl.pvm.process.TransitionImpl;
+import org.camunda.bpm.engine.impl.task.TaskDefinition;
+import org.camunda.bpm.engine.impl.util.xml.Element;
+
+/**
+ * Installs profiled conditions and assignee expressions while a deployment is
+ * parsed, so wrapping happens once per deployed definition and costs nothing
+ * per instance.
+ *
+ * Conditions are attributed to the gateway (source activity) of the flow.
+ */
+public class ExpressionProfilingParseListener extends AbstractBpmnParseListener {
+
+    static final String CONDITION = "CONDITION";
+    static final String ASSIGNEE = "ASSIGNEE";
+
+    private final ExpressionProfiler profiler;
+
+    public ExpressionProfilingParseListener(ExpressionProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public void parseSequenceFlow(Element sequenceFlowElement, ScopeImpl scopeElement, TransitionImpl transition) {
+        Object condition = transition.getProperty(BpmnParse.PROPERTYNAME_CONDITION);
+        if (!(condition instanceof Condition) || condition instanceof ProfiledCondition) {
+            return;
+        }
+        String text = (String) transition.getProperty(BpmnParse.PROPERTYNAME_CONDITION_TEXT);
+        ExpressionStats stats = profiler.isProfilingEnabled()
+            ? profiler.statsFor(processDefinitionKey(scopeElement), transition.getSource().getId(), CONDITION, text)
+            : null;
+        ExpressionFastPath fastPath = profiler.isFastPathEnabled() ? ExpressionFastPath.of(text) : null;
+        if (stats == null && fastPath == null) {
+            return;
+        }
+        transition.setProperty(BpmnParse.PROPERTYNAME_CONDITION, new ProfiledCondition((Condition) condition, fastPath, stats));
+    }
+
+    @Override
+    public void parseUserTask(Element userTaskElement, ScopeImpl scope, ActivityImpl activity) {
+        if (!(activity.getActivityBehavior() instanceof UserTaskActivityBehavior)) {
+            return;
+        }
+        TaskDefinition taskDefinition = ((UserTaskActivityBehavior) activity.getActivityBehavior()).getTaskDefinition();
+        org.camunda.bpm.engine.delegate.Expression assignee = taskDefinition.getAssigneeExpression();
+        if (assignee == null || assignee.isLiteralText() || assignee instanceof ProfiledExpression) {
+            return;
+        }
+        String text = assignee.getExpressionText();
+        ExpressionStats stats = profiler.isProfilingEnabled()
+            ? profiler.statsFor(processDefinitionKey(scope), activity.getId(), ASSIGNEE, text)
+            : null;
+        ExpressionFastPath fastPath = profiler.isFastPathEnabled() ? ExpressionFastPath.of(text) : null;
+        if (stats == null && fastPath == null) {
+            return;
+        }
+        taskDefinition.setAssigneeExpression(new ProfiledExpression(assignee, fastPath, stats));
+    }
+
+    private static String processDefinitionKey(ScopeImpl scope) {
+        return scope.getProcessDefinition() instanceof ProcessDefinitionEntity
+            ? ((ProcessDefinitionEntity) scope.getProcessDefinition()).getKey()
+            : null;
+    }
+}
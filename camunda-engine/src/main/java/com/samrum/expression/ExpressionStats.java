@@ -0,0 +1,53 @@
+package com.samrum.expression;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Evaluation counters of one expression at one activity.
+ */
+public class ExpressionStats {
+
+    private final String processDefinitionKey;
+    private final String activityId;
+    private final String kind;
+    private final String expressionText;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder fastPathCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+    ExpressionStats(String processDefinitionKey, String activityId, String kind, String expressionText) {
+        this.processDefinitionKey = processDefinitionKey;
+        this.activityId = activityId;
+        this.kind = kind;
+        this.expressionText = expressionText;
+    }
+
+    void record(long nanos, boolean fastPath) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        if (fastPath) {
+            fastPathCount.increment();
+        }
+    }
+
+    void reset() {
+        count.reset();
+        fastPathCount.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    // Getters
+    public String getProcessDefinitionKey() { return processDefinitionKey; }
+    public String getActivityId() { return activityId; }
+    public String getKind() { return kind; }
+    public String getExpressionText() { return expressionText; }
+    public long getCount() { return count.sum(); }
+    public long getFastPathCount() { return fastPathCount.sum(); }
+    public long getTotalNanos() { return totalNanos.sum(); }
+    public long getMaxNanos() { return maxNanos.get(); }
+}
@@ -0,0 +1,73 @@
+package com.samrum.expression;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.VariableScope;
+import org.camunda.bpm.engine.impl.Condition;
+
+/**
+ * Sequence flow condition wrapper: tries the fast path, falls back to the
+ * parsed condition, and records the evaluation time.
+ */
+class ProfiledCondition implements Condition {
+
+    private final Condition delegate;
+    private final ExpressionFastPath fastPath;
+    private final ExpressionStats stats;
+
+    ProfiledCondition(Condition delegate, ExpressionFastPath fastPath, ExpressionStats stats) {
+        this.delegate = delegate;
+        this.fastPath = fastPath;
+        this.stats = stats;
+    }
+
+    @Override
+    public boolean evaluate(DelegateExecution execution) {
+        return evaluate(execution, execution);
+    }
+
+    @Override
+    public boolean evaluate(VariableScope scope, DelegateExecution execution) {
+        long start = System.nanoTime();
+        boolean fast = false;
+        try {
+            Boolean result = tryFastPath(scope);
+            if (result != null) {
+                fast = true;
+                return result;
+            }
+            return delegate.evaluate(scope, execution);
+        } finally {
+            record(start, fast);
+        }
+    }
+
+    @Override
+    public boolean tryEvaluate(VariableScope scope, DelegateExecution execution) {
+        long start = System.nanoTime();
+        boolean fast = false;
+        try {
+            Boolean result = tryFastPath(scope);
+            if (result != null) {
+                fast = true;
+                return result;
+            }
+            return delegate.tryEvaluate(scope, execution);
+        } finally {
+            record(start, fast);
+        }
+    }
+
+    private Boolean tryFastPath(VariableScope scope) {
+        if (fastPath == null) {
+            return null;
+        }
+        Object value = fastPath.evaluate(scope);
+        return value instanceof Boolean ? (Boolean) value : null;
+    }
+
+    private void record(long start, boolean fast) {
+        if (stats != null) {
+            stats.record(System.nanoTime() - start, fast);
+        }
+    }
+}
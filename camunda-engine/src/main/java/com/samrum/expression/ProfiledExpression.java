@@ -0,0 +1,75 @@
+package com.samrum.expression;
+
+import org.camunda.bpm.engine.delegate.BaseDelegateExecution;
+import org.camunda.bpm.engine.delegate.VariableScope;
+import org.camunda.bpm.engine.impl.el.Expression;
+
+/**
+ * Task attribute expression wrapper (e.g. assignee ${reviewerId}): tries the
+ * fast path, falls back to the parsed expression, and records the evaluation time.
+ */
+class ProfiledExpression implements Expression {
+
+    private final org.camunda.bpm.engine.delegate.Expression delegate;
+    private final ExpressionFastPath fastPath;
+    private final ExpressionStats stats;
+
+    ProfiledExpression(org.camunda.bpm.engine.delegate.Expression delegate, ExpressionFastPath fastPath,
+                       ExpressionStats stats) {
+        this.delegate = delegate;
+        this.fastPath = fastPath;
+        this.stats = stats;
+    }
+
+    @Override
+    public Object getValue(VariableScope variableScope) {
+        return getValue(variableScope, null);
+    }
+
+    @Override
+    public Object getValue(VariableScope variableScope, BaseDelegateExecution contextExecution) {
+        long start = System.nanoTime();
+        boolean fast = false;
+        try {
+            if (fastPath != null) {
+                Object value = fastPath.evaluate(variableScope);
+                if (value != ExpressionFastPath.NO_RESULT) {
+                    fast = true;
+                    return value;
+                }
+            }
+            if (contextExecution != null && delegate instanceof Expression) {
+                return ((Expression) delegate).getValue(variableScope, contextExecution);
+            }
+            return delegate.getValue(variableScope);
+        } finally {
+            if (stats != null) {
+                stats.record(System.nanoTime() - start, fast);
+            }
+        }
+    }
+
+    @Override
+    public void setValue(Object value, VariableScope variableScope) {
+        delegate.setValue(value, variableScope);
+    }
+
+    @Override
+    public void setValue(Object value, VariableScope variableScope, BaseDelegateExecution contextExecution) {
+        if (delegate instanceof Expression) {
+            ((Expression) delegate).setValue(value, variableScope, contextExecution);
+        } else {
+            delegate.setValue(value, variableScope);
+        }
+    }
+
+    @Override
+    public String getExpressionText() {
+        return delegate.getExpressionText();
+    }
+
+    @Override
+    public boolean isLiteralText() {
+        return delegate.isLiteralText();
+    }
+}
@@ -0,0 +1,302 @@
+package com.samrum.fixture;
+
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.pvm.runtime.ActivityInstanceState;
+import org.camunda.bpm.engine.impl.util.BitMaskUtil;
+
+import java.sql.*;
+import java.util.Date;
+
+/**
+ * Fixture Batch Writer
+ *
+ * Writes engine rows (runtime + history) for generated process instances with
+ * JDBC batch inserts on a single connection. Statements are flushed and
+ * committed every {@code batchSize} instances, in foreign key order.
+ *
+ * Column lists follow the Camunda 7.19 schema.
+ */
+class FixtureBatchWriter implements AutoCloseable {
+
+    private static final int CACHED_ENTITY_STATE = BitMaskUtil.setBitOn(
+        BitMaskUtil.setBitOn(0, ExecutionEntity.TASKS_STATE_BIT), ExecutionEntity.VARIABLES_STATE_BIT);
+
+    private static final int ACTIVE_STATE = 1;
+    private static final int DEFAULT_PRIORITY = 50;
+
+    private final Connection connection;
+    private final int batchSize;
+
+    private final PreparedStatement execution;
+    private final PreparedStatement task;
+    private final PreparedStatement identityLink;
+    private final PreparedStatement variable;
+    private final PreparedStatement historicProcessInstance;
+    private final PreparedStatement historicTask;
+    private final PreparedStatement historicActivity;
+    private final PreparedStatement historicVariable;
+
+    private int pendingInstances;
+    private long writtenInstances;
+
+    FixtureBatchWriter(Connection connection, int batchSize) throws SQLException {
+        this.connection = connection;
+        this.batchSize = batchSize;
+        connection.setAutoCommit(false);
+
+        execution = connection.prepareStatement("INSERT INTO ACT_RU_EXECUTION "
+            + "(ID_, REV_, ROOT_PROC_INST_ID_, PROC_INST_ID_, BUSINESS_KEY_, PROC_DEF_ID_, ACT_ID_, ACT_INST_ID_, "
+            + "IS_ACTIVE_, IS_CONCURRENT_, IS_SCOPE_, IS_EVENT_SCOPE_, SUSPENSION_STATE_, CACHED_ENT_STATE_, SEQUENCE_COUNTER_) "
+            + "VALUES (?, 1, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 1)");
+        task = connection.prepareStatement("INSERT INTO ACT_RU_TASK "
+            + "(ID_, REV_, EXECUTION_ID_, PROC_INST_ID_, PROC_DEF_ID_, NAME_, TASK_DEF_KEY_, ASSIGNEE_, "
+            + "PRIORITY_, CREATE_TIME_, LAST_UPDATED_, DUE_DATE_, SUSPENSION_STATE_) "
+            + "VALUES (?, 1, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        identityLink = connection.prepareStatement("INSERT INTO ACT_RU_IDENTITYLINK "
+            + "(ID_, REV_, GROUP_ID_, TYPE_, TASK_ID_) VALUES (?, 1, ?, 'candidate', ?)");
+        variable = connection.prepareStatement("INSERT INTO ACT_RU_VARIABLE "
+            + "(ID_, REV_, TYPE_, NAME_, EXECUTION_ID_, PROC_INST_ID_, PROC_DEF_ID_, DOUBLE_, LONG_, TEXT_, "
+            + "VAR_SCOPE_, SEQUENCE_COUNTER_, IS_CONCURRENT_LOCAL_) "
+            + "VALUES (?, 1, ?, ?, ?, ?, ?, ?, ?, ?, ?, 1, ?)");
+        historicProcessInstance = connection.prepareStatement("INSERT INTO ACT_HI_PROCINST "
+            + "(ID_, PROC_INST_ID_, BUSINESS_KEY_, PROC_DEF_KEY_, PROC_DEF_ID_, START_TIME_, END_TIME_, DURATION_, "
+            + "START_ACT_ID_, END_ACT_ID_, ROOT_PROC_INST_ID_, STATE_) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        historicTask = connection.prepareStatement("INSERT INTO ACT_HI_TASKINST "
+            + "(ID_, TASK_DEF_KEY_, PROC_DEF_KEY_, PROC_DEF_ID_, ROOT_PROC_INST_ID_, PROC_INST_ID_, EXECUTION_ID_, "
+            + "ACT_INST_ID_, NAME_, ASSIGNEE_, START_TIME_, END_TIME_, DURATION_, DELETE_REASON_, PRIORITY_, DUE_DATE_) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        historicActivity = connection.prepareStatement("INSERT INTO ACT_HI_ACTINST "
+            + "(ID_, PARENT_ACT_INST_ID_, PROC_DEF_KEY_, PROC_DEF_ID_, ROOT_PROC_INST_ID_, PROC_INST_ID_, EXECUTION_ID_, "
+            + "ACT_ID_, TASK_ID_, ACT_NAME_, ACT_TYPE_, ASSIGNEE_, START_TIME_, END_TIME_, DURATION_, "
+            + "ACT_INST_STATE_, SEQUENCE_COUNTER_) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        historicVariable = connection.prepareStatement("INSERT INTO ACT_HI_VARINST "
+            + "(ID_, PROC_DEF_KEY_, PROC_DEF_ID_, ROOT_PROC_INST_ID_, PROC_INST_ID_, EXECUTION_ID_, ACT_INST_ID_, "
+            + "NAME_, VAR_TYPE_, CREATE_TIME_, REV_, DOUBLE_, LONG_, TEXT_, STATE_) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?, ?, 'CREATED')");
+    }
+
+    void execution(String processInstanceId, String businessKey, String processDefinitionId,
+                   String activityId, String activityInstanceId) throws SQLException {
+        execution.setString(1, processInstanceId);
+        execution.setString(2, processInstanceId);
+        execution.setString(3, processInstanceId);
+        execution.setString(4, businessKey);
+        execution.setString(5, processDefinitionId);
+        execution.setString(6, activityId);
+        execution.setString(7, activityInstanceId);
+        execution.setBoolean(8, true);
+        execution.setBoolean(9, false);
+        execution.setBoolean(10, true);
+        execution.setBoolean(11, false);
+        execution.setInt(12, ACTIVE_STATE);
+        execution.setInt(13, CACHED_ENTITY_STATE);
+        execution.addBatch();
+    }
+
+    void task(String taskId, String processInstanceId, String processDefinitionId, String name,
+              String taskDefinitionKey, String assignee, Date createTime, Date dueDate) throws SQLException {
+        task.setString(1, taskId);
+        task.setString(2, processInstanceId);
+        task.setString(3, processInstanceId);
+        task.setString(4, processDefinitionId);
+        task.setString(5, name);
+        task.setString(6, taskDefinitionKey);
+        task.setString(7, assignee);
+        task.setInt(8, DEFAULT_PRIORITY);
+        task.setTimestamp(9, timestamp(createTime));
+        task.setTimestamp(10, timestamp(createTime));
+        task.setTimestamp(11, timestamp(dueDate));
+        task.setInt(12, ACTIVE_STATE);
+        task.addBatch();
+    }
+
+    void candidateGroup(String linkId, String groupId, String taskId) throws SQLException {
+        identityLink.setString(1, linkId);
+        identityLink.setString(2, groupId);
+        identityLink.setString(3, taskId);
+        identityLink.addBatch();
+    }
+
+    void variable(String variableId, String name, Object value,
+                  String processInstanceId, String processDefinitionId) throws SQLException {
+        variable.setString(1, variableId);
+        variable.setString(2, typeName(value));
+        variable.setString(3, name);
+        variable.setString(4, processInstanceId);
+        variable.setString(5, processInstanceId);
+        variable.setString(6, processDefinitionId);
+        bindValue(variable, 7, value);
+        variable.setString(10, processInstanceId);
+        variable.setBoolean(11, false);
+        variable.addBatch();
+    }
+
+    void historicProcessInstance(String processInstanceId, String businessKey, String processDefinitionKey,
+                                 String processDefinitionId, Date startTime, Date endTime,
+                                 String startActivityId, String endActivityId, String state) throws SQLException {
+        historicProcessInstance.setString(1, processInstanceId);
+        historicProcessInstance.setString(2, processInstanceId);
+        historicProcessInstance.setString(3, businessKey);
+        historicProcessInstance.setString(4, processDefinitionKey);
+        historicProcessInstance.setString(5, processDefinitionId);
+        historicProcessInstance.setTimestamp(6, timestamp(startTime));
+        historicProcessInstance.setTimestamp(7, timestamp(endTime));
+        setLong(historicProcessInstance, 8, duration(startTime, endTime));
+        historicProcessInstance.setString(9, startActivityId);
+        historicProcessInstance.setString(10, endActivityId);
+        historicProcessInstance.setString(11, processInstanceId);
+        historicProcessInstance.setString(12, state);
+        historicProcessInstance.addBatch();
+    }
+
+    void historicTask(String taskId, String taskDefinitionKey, String processDefinitionKey,
+                      String processDefinitionId, String processInstanceId, String activityInstanceId,
+                      String name, String assignee, Date startTime, Date endTime, Date dueDate) throws SQLException {
+        historicTask.setString(1, taskId);
+        historicTask.setString(2, taskDefinitionKey);
+        historicTask.setString(3, processDefinitionKey);
+        historicTask.setString(4, processDefinitionId);
+        historicTask.setString(5, processInstanceId);
+        historicTask.setString(6, processInstanceId);
+        historicTask.setString(7, processInstanceId);
+        historicTask.setString(8, activityInstanceId);
+        historicTask.setString(9, name);
+        historicTask.setString(10, assignee);
+        historicTask.setTimestamp(11, timestamp(startTime));
+        historicTask.setTimestamp(12, timestamp(endTime));
+        setLong(historicTask, 13, duration(startTime, endTime));
+        historicTask.setString(14, endTime != null ? "completed" : null);
+        historicTask.setInt(15, DEFAULT_PRIORITY);
+        historicTask.setTimestamp(16, timestamp(dueDate));
+        historicTask.addBatch();
+    }
+
+    void historicActivity(String activityInstanceId, String processDefinitionKey, String processDefinitionId,
+                          String processInstanceId, String activityId, String taskId, String name,
+                          String type, String assignee, Date startTime, Date endTime,
+                          int sequenceCounter) throws SQLException {
+        historicActivity.setString(1, activityInstanceId);
+        historicActivity.setString(2, processInstanceId);
+        historicActivity.setString(3, processDefinitionKey);
+        historicActivity.setString(4, processDefinitionId);
+        historicActivity.setString(5, processInstanceId);
+        historicActivity.setString(6, processInstanceId);
+        historicActivity.setString(7, processInstanceId);
+        historicActivity.setString(8, activityId);
+        historicActivity.setString(9, taskId);
+        historicActivity.setString(10, name);
+        historicActivity.setString(11, type);
+        historicActivity.setString(12, assignee);
+        historicActivity.setTimestamp(13, timestamp(startTime));
+        historicActivity.setTimestamp(14, timestamp(endTime));
+        setLong(historicActivity, 15, duration(startTime, endTime));
+        historicActivity.setInt(16, ActivityInstanceState.DEFAULT.getStateCode());
+        historicActivity.setInt(17, sequenceCounter);
+        historicActivity.addBatch();
+    }
+
+    void historicVariable(String variableId, String name, Object value, String processDefinitionKey,
+                          String processDefinitionId, String processInstanceId, Date createTime) throws SQLException {
+        historicVariable.setString(1, variableId);
+        historicVariable.setString(2, processDefinitionKey);
+        historicVariable.setString(3, processDefinitionId);
+        historicVariable.setString(4, processInstanceId);
+        historicVariable.setString(5, processInstanceId);
+        historicVariable.setString(6, processInstanceId);
+        historicVariable.setString(7, processInstanceId);
+        historicVariable.setString(8, name);
+        historicVariable.setString(9, typeName(value));
+        historicVariable.setTimestamp(10, timestamp(createTime));
+        bindValue(historicVariable, 11, value);
+        historicVariable.addBatch();
+    }
+
+    /**
+     * Marks the end of one generated instance; flushes once a batch is full.
+     */
+    void instanceWritten() throws SQLException {
+        writtenInstances++;
+        if (++pendingInstances >= batchSize) {
+            flush();
+        }
+    }
+
+    long getWrittenInstances() {
+        return writtenInstances;
+    }
+
+    void flush() throws SQLException {
+        if (pendingInstances == 0) {
+            return;
+        }
+        // foreign key order: execution <- task <- identity link, execution <- variable
+        execution.executeBatch();
+        task.executeBatch();
+        identityLink.executeBatch();
+        variable.executeBatch();
+        historicProcessInstance.executeBatch();
+        historicTask.executeBatch();
+        historicActivity.executeBatch();
+        historicVariable.executeBatch();
+        connection.commit();
+        pendingInstances = 0;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            flush();
+        } finally {
+            connection.close();
+        }
+    }
+
+    private static String typeName(Object value) {
+        if (value instanceof String) return "string";
+        if (value instanceof Double) return "double";
+        if (value instanceof Boolean) return "boolean";
+        if (value instanceof Date) return "date";
+        if (value instanceof Integer) return "integer";
+        if (value instanceof Long) return "long";
+        throw new IllegalArgumentException("Unsupported fixture variable type: " + value.getClass());
+    }
+
+    /**
+     * Binds DOUBLE_, LONG_ and TEXT_ starting at the given parameter index.
+     */
+    private static void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+        statement.setNull(index, Types.DOUBLE);
+        statement.setNull(index + 1, Types.BIGINT);
+        statement.setNull(index + 2, Types.VARCHAR);
+
+        if (value instanceof String) {
+            statement.setString(index + 2, (String) value);
+        } else if (value instanceof Double) {
+            statement.setDouble(index, (Double) value);
+        } else if (value instanceof Boolean) {
+            statement.setLong(index + 1, (Boolean) value ? 1L : 0L);
+        } else if (value instanceof Date) {
+            statement.setLong(index + 1, ((Date) value).getTime());
+        } else {
+            statement.setLong(index + 1, ((Number) value).longValue());
+        }
+    }
+
+    private static Timestamp timestamp(Date date) {
+        return date != null ? new Timestamp(date.getTime()) : null;
+    }
+
+    private static Long duration(Date start, Date end) {
+        return end != null ? end.getTime() - start.getTime() : null;
+    }
+
+    private static void setLong(PreparedStatement statement, int index, Long value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, value);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.samrum.fixture;
+
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.repository.ProcessDefinition;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.camunda.bpm.model.bpmn.instance.UserTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fixture Generator
+ *
+ * Bulk-loads large engine state for benchmarks and scaling tests: N active and
+ * M historic instances of doorInstallationProcess and door-management-process,
+ * with runtime rows (execution, task, candidate groups, variables) and history
+ * rows (process, task, activity and variable instances).
+ *
+ * Rows are written directly with JDBC batch inserts instead of going through
+ * the engine API, so a million-instance dataset loads in minutes. Only enabled
+ * with the "fixtures" profile:
+ *
+ *   java -jar app.jar --spring.profiles.active=fixtures \
+ *     --samrum.fixtures.active-instances=100000 \
+ *     --samrum.fixtures.historic-instances=1000000
+ *
+ * Definitions that are not deployed are skipped.
+ */
+@Component
+@Profile("fixtures")
+public class FixtureGenerator implements CommandLineRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FixtureGenerator.class);
+
+    private static final Pattern VARIABLE_EXPRESSION = Pattern.compile("\\$\\{\\s*(\\w+)\\s*}");
+    private static final long DAY = 24L * 60L * 60L * 1000L;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private RepositoryService repositoryService;
+
+    @Value("${samrum.fixtures.active-instances:1000}")
+    private long activeInstances;
+
+    @Value("${samrum.fixtures.historic-instances:10000}")
+    private long historicInstances;
+
+    @Value("${samrum.fixtures.batch-size:500}")
+    private int batchSize;
+
+    @Value("${samrum.fixtures.history-days:365}")
+    private int historyDays;
+
+    @Value("${samrum.fixtures.seed:42}")
+    private long seed;
+
+    /**
+     * User task attributes needed to write task rows.
+     */
+    private static class UserTaskInfo {
+        final String name;
+        final String assignee;
+        final List<String> candidateGroups;
+
+        UserTaskInfo(UserTask userTask) {
+            this.name = userTask.getName();
+            this.assignee = userTask.getCamundaAssignee();
+            this.candidateGroups = userTask.getCamundaCandidateGroupsList();
+        }
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        List<FixtureProfile> profiles = new ArrayList<>();
+        Map<FixtureProfile, ProcessDefinition> definitions = new HashMap<>();
+        for (FixtureProfile profile : FixtureProfile.defaults()) {
+            ProcessDefinition definition = repositoryService.createProcessDefinitionQuery()
+                .processDefinitionKey(profile.processDefinitionKey())
+                .latestVersion()
+                .singleResult();
+            if (definition == null) {
+                LOG.warn("Process definition {} not deployed - skipping fixtures", profile.processDefinitionKey());
+                continue;
+            }
+            profiles.add(profile);
+            definitions.put(profile, definition);
+        }
+
+        if (profiles.isEmpty()) {
+            LOG.error("❌ No door process definitions deployed - nothing to generate");
+            return;
+        }
+
+        LOG.info("🏗️ Generating {} active and {} historic instances across {} definitions",
+            activeInstances, historicInstances, profiles.size());
+
+        Random random = new Random(seed);
+        long started = System.currentTimeMillis();
+        long nextIndex = 1;
+
+        try (FixtureBatchWriter writer = new FixtureBatchWriter(dataSource.getConnection(), batchSize)) {
+            for (int i = 0; i < profiles.size(); i++) {
+                FixtureProfile profile = profiles.get(i);
+                ProcessDefinition definition = definitions.get(profile);
+                Map<String, UserTaskInfo> userTasks = userTasks(definition);
+
+                long active = share(activeInstances, profiles.size(), i);
+                long historic = share(historicInstances, profiles.size(), i);
+
+                for (long n = 0; n < historic; n++) {
+                    writeInstance(writer, random, profile, definition, userTasks, nextIndex++, false);
+                }
+                for (long n = 0; n < active; n++) {
+                    writeInstance(writer, random, profile, definition, userTasks, nextIndex++, true);
+                }
+                writer.flush();
+
+                LOG.info("✅ {}: {} active, {} historic instances written",
+                    profile.processDefinitionKey(), active, historic);
+            }
+
+            long elapsed = Math.max(1, System.currentTimeMillis() - started);
+            LOG.info("✅ Fixture generation finished: {} instances in {} s ({} instances/s)",
+                writer.getWrittenInstances(), elapsed / 1000, writer.getWrittenInstances() * 1000 / elapsed);
+        }
+    }
+
+    private void writeInstance(FixtureBatchWriter writer, Random random, FixtureProfile profile,
+                               ProcessDefinition definition, Map<String, UserTaskInfo> userTasks,
+                               long index, boolean active) throws Exception {
+        String processInstanceId = UUID.randomUUID().toString();
+        String key = definition.getKey();
+        String definitionId = definition.getId();
+
+        FixtureProfile.Scenario scenario = profile.scenario(random);
+
+        // active instances stop somewhere along the sampled path
+        int completedSteps = active ? random.nextInt(scenario.path.size()) : scenario.path.size();
+        long[] durations = new long[completedSteps];
+        long totalDuration = 0;
+        for (int step = 0; step < completedSteps; step++) {
+            durations[step] = profile.taskDurationMillis(random, scenario.path.get(step));
+            totalDuration += durations[step];
+        }
+
+        // every completed step (and the end of historic instances) lies in the past
+        long now = System.currentTimeMillis();
+        long startMillis = now - totalDuration - (long) (random.nextDouble() * historyDays * DAY);
+        Date startTime = new Date(startMillis);
+
+        Map<String, Object> variables = profile.variables(random, index, startTime);
+        String businessKey = profile.businessKey(variables, index);
+        if (!active) {
+            variables.putAll(scenario.outcomeVariables);
+        }
+
+        long clock = startMillis;
+        int sequence = 1;
+        for (int step = 0; step < completedSteps; step++) {
+            long end = clock + durations[step];
+            writeUserTask(writer, definition, userTasks, variables, processInstanceId,
+                scenario.path.get(step), new Date(clock), new Date(end), sequence++);
+            clock = end;
+        }
+
+        Date endTime = active ? null : new Date(clock);
+        writer.historicProcessInstance(processInstanceId, businessKey, key, definitionId, startTime, endTime,
+            profile.startActivityId(), active ? null : scenario.endActivityId, active ? "ACTIVE" : "COMPLETED");
+
+        for (Map.Entry<String, Object> variable : variables.entrySet()) {
+            String variableId = UUID.randomUUID().toString();
+            writer.historicVariable(variableId, variable.getKey(), variable.getValue(),
+                key, definitionId, processInstanceId, startTime);
+            if (active) {
+                writer.variable(variableId, variable.getKey(), variable.getValue(), processInstanceId, definitionId);
+            }
+        }
+
+        if (active) {
+            String activityId = scenario.path.get(completedSteps);
+            UserTaskInfo userTask = userTasks.get(activityId);
+            String activityInstanceId = activityId + ":" + UUID.randomUUID();
+            String taskId = UUID.randomUUID().toString();
+            String assignee = resolve(userTask.assignee, variables);
+            Date created = new Date(clock);
+            Date dueDate = (Date) variables.get("dueDate");
+
+            writer.execution(processInstanceId, businessKey, definitionId, activityId, activityInstanceId);
+            writer.task(taskId, processInstanceId, definitionId, userTask.name, activityId, assignee, created, dueDate);
+            for (String group : userTask.candidateGroups) {
+                writer.candidateGroup(UUID.randomUUID().toString(), group, taskId);
+            }
+            writer.historicTask(taskId, activityId, key, definitionId, processInstanceId, activityInstanceId,
+                userTask.name, assignee, created, null, dueDate);
+            writer.historicActivity(activityInstanceId, key, definitionId, processInstanceId, activityId, taskId,
+                userTask.name, "userTask", assignee, created, null, sequence);
+        }
+
+        writer.instanceWritten();
+    }
+
+    private void writeUserTask(FixtureBatchWriter writer, ProcessDefinition definition,
+                               Map<String, UserTaskInfo> userTasks, Map<String, Object> variables,
+                               String processInstanceId, String activityId, Date start, Date end,
+                               int sequence) throws Exception {
+        UserTaskInfo userTask = userTasks.get(activityId);
+        String activityInstanceId = activityId + ":" + UUID.randomUUID();
+        String taskId = UUID.randomUUID().toString();
+        String assignee = resolve(userTask.assignee, variables);
+
+        writer.historicTask(taskId, activityId, definition.getKey(), definition.getId(), processInstanceId,
+            activityInstanceId, userTask.name, assignee, start, end, (Date) variables.get("dueDate"));
+        writer.historicActivity(activityInstanceId, definition.getKey(), definition.getId(), processInstanceId,
+            activityId, taskId, userTask.name, "userTask", assignee, start, end, sequence);
+    }
+
+    private Map<String, UserTaskInfo> userTasks(ProcessDefinition definition) {
+        BpmnModelInstance model = repositoryService.getBpmnModelInstance(definition.getId());
+        Map<String, UserTaskInfo> userTasks = new HashMap<>();
+        for (UserTask userTask : model.getModelElementsByType(UserTask.class)) {
+            userTasks.put(userTask.getId(), new UserTaskInfo(userTask));
+        }
+        return userTasks;
+    }
+
+    /**
+     * Resolves simple ${variable} assignee expressions against the generated variables.
+     */
+    private static String resolve(String expression, Map<String, Object> variables) {
+        if (expression == null) {
+            return null;
+        }
+        Matcher matcher = VARIABLE_EXPRESSION.matcher(expression);
+        if (matcher.matches()) {
+            Object value = variables.get(matcher.group(1));
+            return value != null ? value.toString() : null;
+        }
+        return expression;
+    }
+
+    private static long share(long total, int parts, int part) {
+        return total / parts + (part < total % parts ? 1 : 0);
+    }
+}
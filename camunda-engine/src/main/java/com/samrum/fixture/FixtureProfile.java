@@ -0,0 +1,253 @@
+package com.samrum.fixture;
+
+import java.util.*;
+
+/**
+ * Fixture Profile
+ *
+ * Describes how instances of one process definition look in production:
+ * the variables they carry, the user task path they take (including revision
+ * and rework loops) and the end event they finish in.
+ */
+abstract class FixtureProfile {
+
+    private static final long HOUR = 60L * 60L * 1000L;
+
+    /**
+     * One sampled run through the process.
+     */
+    static class Scenario {
+        final List<String> path = new ArrayList<>();
+        final Map<String, Object> outcomeVariables = new LinkedHashMap<>();
+        String endActivityId;
+    }
+
+    abstract String processDefinitionKey();
+
+    abstract String startActivityId();
+
+    abstract Map<String, Object> variables(Random random, long index, Date startTime);
+
+    abstract Scenario scenario(Random random);
+
+    abstract double meanTaskHours(String activityId);
+
+    String businessKey(Map<String, Object> variables, long index) {
+        return String.valueOf(index);
+    }
+
+    /**
+     * Exponentially distributed task duration around the activity's mean.
+     */
+    long taskDurationMillis(Random random, String activityId) {
+        double mean = meanTaskHours(activityId) * HOUR;
+        return Math.max(60_000L, (long) (-mean * Math.log(1.0 - random.nextDouble())));
+    }
+
+    static List<FixtureProfile> defaults() {
+        return List.of(new DoorInstallation(), new DoorManagement());
+    }
+
+    static <T> T pick(Random random, T[] values, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < values.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return values[i];
+            }
+        }
+        return values[values.length - 1];
+    }
+
+    /**
+     * Number of extra loops, each taken with the given probability.
+     */
+    static int loops(Random random, double probability, int max) {
+        int loops = 0;
+        while (loops < max && random.nextDouble() < probability) {
+            loops++;
+        }
+        return loops;
+    }
+
+    /**
+     * doorInstallationProcess: design review with revision loops
+     */
+    static class DoorInstallation extends FixtureProfile {
+
+        private static final String[] DOOR_TYPES = {
+            "Fire Door Type A", "Fire Door Type B", "Standard Interior", "Security Door", "Glass Door"
+        };
+        private static final int[] DOOR_TYPE_WEIGHTS = {30, 15, 35, 12, 8};
+
+        private static final String[] COMMENTS = {
+            "Looks good!", "Approved as specified", "Fire rating documentation missing",
+            "Please update hinge specification", "Frame dimensions do not match drawing",
+            "Does not meet fire safety requirements", "Approved with minor remarks"
+        };
+
+        @Override
+        String processDefinitionKey() {
+            return "doorInstallationProcess";
+        }
+
+        @Override
+        String startActivityId() {
+            return "startEvent";
+        }
+
+        @Override
+        String businessKey(Map<String, Object> variables, long index) {
+            return (String) variables.get("projectId");
+        }
+
+        @Override
+        Map<String, Object> variables(Random random, long index, Date startTime) {
+            Map<String, Object> variables = new LinkedHashMap<>();
+            variables.put("projectId", String.format("PROJ-%07d", index));
+            variables.put("doorType", pick(random, DOOR_TYPES, DOOR_TYPE_WEIGHTS));
+            variables.put("reviewerId", "engineer" + (1 + random.nextInt(40)));
+            variables.put("designerId", "designer" + (1 + random.nextInt(25)));
+            variables.put("submissionDate", startTime);
+            return variables;
+        }
+
+        @Override
+        Scenario scenario(Random random) {
+            Scenario scenario = new Scenario();
+            scenario.path.add("designReview");
+            scenario.path.add("reviewDecision");
+            int revisions = loops(random, 0.35, 5);
+            for (int i = 0; i < revisions; i++) {
+                scenario.path.add("reviseDesign");
+                scenario.path.add("designReview");
+                scenario.path.add("reviewDecision");
+            }
+
+            boolean approved = random.nextInt(100) < 85;
+            scenario.endActivityId = approved ? "approvedEnd" : "rejectedEnd";
+            scenario.outcomeVariables.put("approvalDecision", approved ? "APPROVED" : "REJECTED");
+            scenario.outcomeVariables.put("comments", COMMENTS[random.nextInt(COMMENTS.length)]);
+            scenario.outcomeVariables.put(approved ? "approvalNotificationSent" : "rejectionNotificationSent", true);
+            return scenario;
+        }
+
+        @Override
+        double meanTaskHours(String activityId) {
+            switch (activityId) {
+                case "designReview":
+                    return 20;
+                case "reviewDecision":
+                    return 4;
+                case "reviseDesign":
+                    return 30;
+                default:
+                    return 8;
+            }
+        }
+    }
+
+    /**
+     * door-management-process: approvals, work order, installation with rework
+     */
+    static class DoorManagement extends FixtureProfile {
+
+        private static final String[] DOOR_TYPES = {
+            "SINGLE_STANDARD", "DOUBLE_STANDARD", "FIRE_RATED_SINGLE", "FIRE_RATED_DOUBLE",
+            "SECURITY_DOOR", "ACCESS_CONTROL_DOOR", "EMERGENCY_EXIT"
+        };
+        private static final int[] DOOR_TYPE_WEIGHTS = {35, 15, 15, 8, 10, 12, 5};
+
+        private static final String[] URGENCIES = {"LOW", "MEDIUM", "HIGH", "CRITICAL"};
+        private static final int[] URGENCY_WEIGHTS = {30, 45, 20, 5};
+
+        @Override
+        String processDefinitionKey() {
+            return "door-management-process";
+        }
+
+        @Override
+        String startActivityId() {
+            return "StartEvent_DoorRequest";
+        }
+
+        @Override
+        String businessKey(Map<String, Object> variables, long index) {
+            return String.format("DR-%07d", index);
+        }
+
+        @Override
+        Map<String, Object> variables(Random random, long index, Date startTime) {
+            Map<String, Object> variables = new LinkedHashMap<>();
+            variables.put("doorType", pick(random, DOOR_TYPES, DOOR_TYPE_WEIGHTS));
+            variables.put("location", String.format("B%02d-F%d-R%03d",
+                1 + random.nextInt(40), random.nextInt(8), 1 + random.nextInt(250)));
+            // log-normal budget around 12k SEK, long tail above the 25k/50k thresholds
+            double budget = Math.exp(Math.log(12_000) + 0.8 * random.nextGaussian());
+            variables.put("budget", Math.round(budget * 100.0) / 100.0);
+            variables.put("urgency", pick(random, URGENCIES, URGENCY_WEIGHTS));
+            variables.put("requestor", "requestor" + (1 + random.nextInt(500)));
+            variables.put("facilityManager", "facility" + (1 + random.nextInt(15)));
+            variables.put("securityManager", "security" + (1 + random.nextInt(8)));
+            variables.put("workOrderManager", "workorder" + (1 + random.nextInt(6)));
+            variables.put("technician", "technician" + (1 + random.nextInt(60)));
+            variables.put("qualityInspector", "inspector" + (1 + random.nextInt(12)));
+            variables.put("dueDate", new Date(startTime.getTime() + 7L * 24L * HOUR));
+            return variables;
+        }
+
+        @Override
+        Scenario scenario(Random random) {
+            Scenario scenario = new Scenario();
+            boolean valid = random.nextInt(100) < 92;
+            scenario.outcomeVariables.put("valid", valid);
+
+            if (!valid) {
+                scenario.path.add("UserTask_Reject");
+                scenario.endActivityId = "EndEvent_Rejected";
+                scenario.outcomeVariables.put("rejectionReason", "Valid budget estimate is required");
+                return scenario;
+            }
+
+            scenario.path.add("UserTask_FacilityApproval");
+            scenario.path.add("UserTask_SecurityApproval");
+            scenario.path.add("UserTask_AssignTechnician");
+            scenario.path.add("UserTask_InstallDoor");
+            scenario.path.add("UserTask_QualityCheck");
+            int reworks = loops(random, 0.2, 3);
+            for (int i = 0; i < reworks; i++) {
+                scenario.path.add("UserTask_InstallDoor");
+                scenario.path.add("UserTask_QualityCheck");
+            }
+
+            scenario.endActivityId = "EndEvent_Completed";
+            scenario.outcomeVariables.put("allApproved", true);
+            scenario.outcomeVariables.put("qualityPass", true);
+            // own prefix: never collides with WorkOrderNumberGenerator numbers in the same database
+            scenario.outcomeVariables.put("workOrderNumber", String.format("WO-FX-%010d", random.nextInt(Integer.MAX_VALUE)));
+            return scenario;
+        }
+
+        @Override
+        double meanTaskHours(String activityId) {
+            switch (activityId) {
+                case "UserTask_FacilityApproval":
+                    return 16;
+                case "UserTask_SecurityApproval":
+                    return 12;
+                case "UserTask_AssignTechnician":
+                    return 6;
+                case "UserTask_InstallDoor":
+                    return 48;
+                case "UserTask_QualityCheck":
+                    return 10;
+                default:
+                    return 8;
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.samrum.idempotency;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * JDBC access to SAMRUM_IDEMPOTENCY_KEY.
+ */
+@Component
+public class IdempotencyKeyStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdempotencyKeyStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Claims a key. Throws DuplicateKeyException if the key is already taken; while
+     * another transaction holds an uncommitted claim of the same key the insert waits
+     * for it to commit or roll back.
+     */
+    public void claim(String key, String processDefinitionKey) {
+        jdbcTemplate.update("INSERT INTO SAMRUM_IDEMPOTENCY_KEY (KEY_, PROC_DEF_KEY_, CREATED_) VALUES (?, ?, ?)",
+            key, processDefinitionKey, new Timestamp(System.currentTimeMillis()));
+    }
+
+    public void attach(String key, String processInstanceId) {
+        jdbcTemplate.update("UPDATE SAMRUM_IDEMPOTENCY_KEY SET PROC_INST_ID_ = ? WHERE KEY_ = ?",
+            processInstanceId, key);
+    }
+
+    /**
+     * Process instance started for the key, if the key is taken.
+     */
+    public Optional<String> findProcessInstanceId(String key) {
+        List<String> ids = jdbcTemplate.queryForList(
+            "SELECT PROC_INST_ID_ FROM SAMRUM_IDEMPOTENCY_KEY WHERE KEY_ = ?", String.class, key);
+        return ids.stream().filter(id -> id != null).findFirst();
+    }
+
+    /**
+     * Streams all keys, for warming the in-memory filter.
+     */
+    public void forEachKey(Consumer<String> consumer) {
+        jdbcTemplate.query("SELECT KEY_ FROM SAMRUM_IDEMPOTENCY_KEY", rs -> {
+            consumer.accept(rs.getString(1));
+        });
+    }
+}
@@ -0,0 +1,176 @@
+package com.samrum.idempotency;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Idempotent Start Service
+ *
+ * Starts a process at most once per idempotency key. The key is an
+ * Idempotency-Key header (or form token) or, with
+ * samrum.idempotency.business-key-unique, the business key itself.
+ *
+ * - the key is claimed in SAMRUM_IDEMPOTENCY_KEY in the same transaction as
+ *   the process start; the primary key makes a concurrent retry on any node
+ *   wait for that transaction and then fail, so only one instance is started
+ * - a retry gets the instance the first request started
+ * - a Bloom filter of known keys sits in front of the table: a key the filter
+ *   has never seen goes straight to the claim without a lookup; only possible
+ *   duplicates are looked up first
+ */
+@Component
+public class IdempotentStartService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IdempotentStartService.class);
+
+    public static final int MAX_KEY_LENGTH = 200;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private HistoryService historyService;
+
+    @Autowired
+    private IdempotencyKeyStore store;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${samrum.idempotency.business-key-unique:false}")
+    private boolean businessKeyUnique;
+
+    @Value("${samrum.idempotency.expected-keys:1000000}")
+    private long expectedKeys;
+
+    @Value("${samrum.idempotency.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private BloomFilter knownKeys;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+
+    @PostConstruct
+    public void loadKeys() {
+        knownKeys = new BloomFilter(expectedKeys, falsePositiveRate);
+        long[] count = new long[1];
+        store.forEachKey(key -> {
+            knownKeys.put(key);
+            count[0]++;
+        });
+        LOG.info("Idempotency filter loaded with {} keys ({} bits, {} hashes)",
+            count[0], knownKeys.getBitCount(), knownKeys.getHashCount());
+    }
+
+    /**
+     * Starts the process unless a request with the same key already did.
+     *
+     * @param idempotencyKey client-supplied key, may be null
+     * @throws IllegalArgumentException if the key is too long
+     */
+    public StartResult start(String idempotencyKey, String processDefinitionKey,
+                             String businessKey, Map<String, Object> variables) {
+        String key = resolveKey(idempotencyKey, processDefinitionKey, businessKey);
+        if (key == null) {
+            ProcessInstance instance = runtimeService.startProcessInstanceByKey(processDefinitionKey, businessKey, variables);
+            return started(instance);
+        }
+
+        if (knownKeys.mightContain(key)) {
+            lookups.increment();
+            Optional<String> existing = store.findProcessInstanceId(key);
+            if (existing.isPresent()) {
+                return duplicate(key, existing.get());
+            }
+        }
+
+        try {
+            ProcessInstance instance = new TransactionTemplate(transactionManager).execute(status -> {
+                store.claim(key, processDefinitionKey);
+                ProcessInstance started = runtimeService.startProcessInstanceByKey(
+                    processDefinitionKey, businessKey, variables);
+                store.attach(key, started.getId());
+                return started;
+            });
+            knownKeys.put(key);
+            return started(instance);
+
+        } catch (DuplicateKeyException e) {
+            // a concurrent request with the same key committed first
+            knownKeys.put(key);
+            String processInstanceId = store.findProcessInstanceId(key)
+                .orElseThrow(() -> new IllegalStateException("Idempotency key " + key + " has no process instance"));
+            return duplicate(key, processInstanceId);
+        }
+    }
+
+    public boolean isBusinessKeyUnique() {
+        return businessKeyUnique;
+    }
+
+    public long getLookupCount() {
+        return lookups.sum();
+    }
+
+    public long getDuplicateCount() {
+        return duplicates.sum();
+    }
+
+    private String resolveKey(String idempotencyKey, String processDefinitionKey, String businessKey) {
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+                throw new IllegalArgumentException("Idempotency key longer than " + MAX_KEY_LENGTH + " characters");
+            }
+            return "key:" + processDefinitionKey + ":" + idempotencyKey;
+        }
+        if (businessKeyUnique && businessKey != null && !businessKey.isBlank()) {
+            if (businessKey.length() > MAX_KEY_LENGTH) {
+                throw new IllegalArgumentException("Business key longer than " + MAX_KEY_LENGTH + " characters");
+            }
+            return "bk:" + processDefinitionKey + ":" + businessKey;
+        }
+        return null;
+    }
+
+    private static StartResult started(ProcessInstance instance) {
+        return new StartResult(instance.getId(), instance.getBusinessKey(), instance.getProcessDefinitionId(),
+            false, instance.isEnded());
+    }
+
+    private StartResult duplicate(String key, String processInstanceId) {
+        duplicates.increment();
+        LOG.info("🔁 Duplicate start for {} - returning process {}", key, processInstanceId);
+
+        ProcessInstance instance = runtimeService.createProcessInstanceQuery()
+            .processInstanceId(processInstanceId)
+            .singleResult();
+        if (instance != null) {
+            return new StartResult(instance.getId(), instance.getBusinessKey(), instance.getProcessDefinitionId(),
+                true, false);
+        }
+        HistoricProcessInstance historic = historyService.createHistoricProcessInstanceQuery()
+            .processInstanceId(processInstanceId)
+            .singleResult();
+        if (historic != null) {
+            return new StartResult(historic.getId(), historic.getBusinessKey(), historic.getProcessDefinitionId(),
+                true, true);
+        }
+        return new StartResult(processInstanceId, null, null, true, true);
+    }
+}
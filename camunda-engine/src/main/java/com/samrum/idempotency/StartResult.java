@@ -0,0 +1,46 @@
+package com.samrum.idempotency;
+
+/**
+ * Outcome of an idempotent process start: either a newly started instance or
+ * the instance an earlier request with the same key started.
+ */
+public class StartResult {
+
+    private final String processInstanceId;
+    private final String businessKey;
+    private final String processDefinitionId;
+    private final boolean duplicate;
+    private final boolean ended;
+
+    public StartResult(String processInstanceId, String businessKey, String processDefinitionId,
+                       boolean duplicate, boolean ended) {
+        this.processInstanceId = processInstanceId;
+        this.businessKey = businessKey;
+        this.processDefinitionId = processDefinitionId;
+        this.duplicate = duplicate;
+        this.ended = ended;
+    }
+
+    public String getProcessInstanceId() {
+        return processInstanceId;
+    }
+
+    public String getBusinessKey() {
+        return businessKey;
+    }
+
+    public String getProcessDefinitionId() {
+        return processDefinitionId;
+    }
+
+    /**
+     * True if the key was used before and no new instance was started.
+     */
+    public boolean isDuplicate() {
+        return duplicate;
+    }
+
+    public boolean isEnded() {
+        return ended;
+    }
+}
@@ -0,0 +1,83 @@
+package com.samrum.migration;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Migration Run
+ *
+ * State and running totals of one migration from a source to a target
+ * process definition. Persisted in SAMRUM_MIGRATION_RUN.
+ */
+public class MigrationRun {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        COMPLETED_WITH_FAILURES,
+        CANCELLED,
+        FAILED
+    }
+
+    private final String id;
+    private final String sourceProcessDefinitionId;
+    private final String targetProcessDefinitionId;
+    private final int chunkSize;
+    private final int parallelism;
+    private final boolean skipCustomListeners;
+    private final boolean skipIoMappings;
+    private final long total;
+    private final Date started;
+
+    private final AtomicLong migrated;
+    private final AtomicLong failed;
+    private volatile State state;
+    private volatile Date ended;
+
+    public MigrationRun(String id, String sourceProcessDefinitionId, String targetProcessDefinitionId,
+                        int chunkSize, int parallelism, boolean skipCustomListeners, boolean skipIoMappings,
+                        long total, long migrated, long failed, State state, Date started, Date ended) {
+        this.id = id;
+        this.sourceProcessDefinitionId = sourceProcessDefinitionId;
+        this.targetProcessDefinitionId = targetProcessDefinitionId;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.skipCustomListeners = skipCustomListeners;
+        this.skipIoMappings = skipIoMappings;
+        this.total = total;
+        this.migrated = new AtomicLong(migrated);
+        this.failed = new AtomicLong(failed);
+        this.state = state;
+        this.started = started;
+        this.ended = ended;
+    }
+
+    /**
+     * Migrated instances per second since the run started (or over the whole run once ended).
+     */
+    public double getThroughput() {
+        long end = ended != null ? ended.getTime() : System.currentTimeMillis();
+        long elapsed = Math.max(1L, end - started.getTime());
+        return migrated.get() * 1000.0 / elapsed;
+    }
+
+    void addMigrated(long count) { migrated.addAndGet(count); }
+    void addFailed(long count) { failed.addAndGet(count); }
+    void setState(State state) { this.state = state; }
+    void setEnded(Date ended) { this.ended = ended; }
+
+    // Getters
+    public String getId() { return id; }
+    public String getSourceProcessDefinitionId() { return sourceProcessDefinitionId; }
+    public String getTargetProcessDefinitionId() { return targetProcessDefinitionId; }
+    public int getChunkSize() { return chunkSize; }
+    public int getParallelism() { return parallelism; }
+    public boolean isSkipCustomListeners() { return skipCustomListeners; }
+    public boolean isSkipIoMappings() { return skipIoMappings; }
+    public long getTotal() { return total; }
+    public long getMigrated() { return migrated.get(); }
+    public long getFailed() { return failed.get(); }
+    public State getState() { return state; }
+    public Date getStarted() { return started; }
+    public Date getEnded() { return ended; }
+}
@@ -0,0 +1,145 @@
+package com.samrum.migration;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * JDBC access to SAMRUM_MIGRATION_RUN / SAMRUM_MIGRATION_FAILURE and to the
+ * process instances still waiting on a source definition.
+ */
+@Component
+public class MigrationRunStore {
+
+    private static final int MAX_MESSAGE_LENGTH = 4000;
+
+    private static final RowMapper<MigrationRun> RUN_MAPPER = (rs, rowNum) -> new MigrationRun(
+        rs.getString("ID_"),
+        rs.getString("SOURCE_DEF_ID_"),
+        rs.getString("TARGET_DEF_ID_"),
+        rs.getInt("CHUNK_SIZE_"),
+        rs.getInt("PARALLELISM_"),
+        rs.getBoolean("SKIP_LISTENERS_"),
+        rs.getBoolean("SKIP_IO_MAPPINGS_"),
+        rs.getLong("TOTAL_"),
+        rs.getLong("MIGRATED_"),
+        rs.getLong("FAILED_"),
+        MigrationRun.State.valueOf(rs.getString("STATE_")),
+        rs.getTimestamp("STARTED_"),
+        rs.getTimestamp("ENDED_"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MigrationRunStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts a new run owned by the given node until leaseUntil.
+     */
+    public void insert(MigrationRun run, String owner, Date leaseUntil) {
+        jdbcTemplate.update("INSERT INTO SAMRUM_MIGRATION_RUN (ID_, SOURCE_DEF_ID_, TARGET_DEF_ID_, STATE_, "
+                + "CHUNK_SIZE_, PARALLELISM_, SKIP_LISTENERS_, SKIP_IO_MAPPINGS_, TOTAL_, MIGRATED_, FAILED_, STARTED_, "
+                + "OWNER_, LEASE_UNTIL_) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            run.getId(), run.getSourceProcessDefinitionId(), run.getTargetProcessDefinitionId(),
+            run.getState().name(), run.getChunkSize(), run.getParallelism(),
+            run.isSkipCustomListeners(), run.isSkipIoMappings(),
+            run.getTotal(), run.getMigrated(), run.getFailed(), new Timestamp(run.getStarted().getTime()),
+            owner, new Timestamp(leaseUntil.getTime()));
+    }
+
+    /**
+     * Takes over a RUNNING run that has no owner, is owned by this node (from
+     * before a restart) or whose lease has expired. The conditional update
+     * lets exactly one node win when several resume at the same time.
+     *
+     * @return true if this node now owns the run
+     */
+    public boolean acquire(String runId, String owner, Date leaseUntil) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        return jdbcTemplate.update("UPDATE SAMRUM_MIGRATION_RUN SET OWNER_ = ?, LEASE_UNTIL_ = ? "
+                + "WHERE ID_ = ? AND STATE_ = ? AND (OWNER_ IS NULL OR OWNER_ = ? OR LEASE_UNTIL_ IS NULL OR LEASE_UNTIL_ < ?)",
+            owner, new Timestamp(leaseUntil.getTime()), runId, MigrationRun.State.RUNNING.name(), owner, now) == 1;
+    }
+
+    /**
+     * Writes the current totals, state and end time of the run and renews the
+     * lease of its owner.
+     *
+     * @return false if the run is no longer owned by this node
+     */
+    public boolean update(MigrationRun run, String owner, Date leaseUntil) {
+        return jdbcTemplate.update("UPDATE SAMRUM_MIGRATION_RUN SET STATE_ = ?, MIGRATED_ = ?, FAILED_ = ?, ENDED_ = ?, "
+                + "LEASE_UNTIL_ = ? WHERE ID_ = ? AND OWNER_ = ?",
+            run.getState().name(), run.getMigrated(), run.getFailed(),
+            run.getEnded() != null ? new Timestamp(run.getEnded().getTime()) : null,
+            new Timestamp(leaseUntil.getTime()), run.getId(), owner) == 1;
+    }
+
+    public Optional<MigrationRun> find(String id) {
+        List<MigrationRun> runs = jdbcTemplate.query("SELECT * FROM SAMRUM_MIGRATION_RUN WHERE ID_ = ?", RUN_MAPPER, id);
+        return runs.stream().findFirst();
+    }
+
+    public List<MigrationRun> findAll() {
+        return jdbcTemplate.query("SELECT * FROM SAMRUM_MIGRATION_RUN ORDER BY STARTED_ DESC", RUN_MAPPER);
+    }
+
+    public List<MigrationRun> findRunning() {
+        return jdbcTemplate.query("SELECT * FROM SAMRUM_MIGRATION_RUN WHERE STATE_ = ?", RUN_MAPPER,
+            MigrationRun.State.RUNNING.name());
+    }
+
+    /**
+     * Records an instance that could not be migrated.
+     *
+     * @return false if the instance was already recorded for this run
+     */
+    public boolean addFailure(String runId, String processInstanceId, String message) {
+        String truncated = message != null && message.length() > MAX_MESSAGE_LENGTH
+            ? message.substring(0, MAX_MESSAGE_LENGTH) : message;
+        try {
+            jdbcTemplate.update("INSERT INTO SAMRUM_MIGRATION_FAILURE (RUN_ID_, PROC_INST_ID_, MESSAGE_, TIME_) "
+                    + "VALUES (?, ?, ?, ?)",
+                runId, processInstanceId, truncated, new Timestamp(System.currentTimeMillis()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public List<Map<String, Object>> failures(String runId, int limit) {
+        return jdbcTemplate.query("SELECT PROC_INST_ID_, MESSAGE_, TIME_ FROM SAMRUM_MIGRATION_FAILURE "
+                + "WHERE RUN_ID_ = ? ORDER BY TIME_",
+            rs -> {
+                List<Map<String, Object>> result = new ArrayList<>();
+                while (rs.next() && result.size() < limit) {
+                    Map<String, Object> failure = new HashMap<>();
+                    failure.put("processInstanceId", rs.getString("PROC_INST_ID_"));
+                    failure.put("message", rs.getString("MESSAGE_"));
+                    failure.put("time", rs.getTimestamp("TIME_"));
+                    result.add(failure);
+                }
+                return result;
+            }, runId);
+    }
+
+    public Set<String> failedInstanceIds(String runId) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT PROC_INST_ID_ FROM SAMRUM_MIGRATION_FAILURE WHERE RUN_ID_ = ?", String.class, runId));
+    }
+
+    /**
+     * Next page of process instances on the definition, keyset-paginated by id.
+     * Instances migrate away while paging, so an offset would skip rows.
+     */
+    public List<String> nextInstanceIds(String processDefinitionId, String afterId, int limit) {
+        return jdbcTemplate.queryForList("SELECT ID_ FROM ACT_RU_EXECUTION "
+                + "WHERE PROC_DEF_ID_ = ? AND ID_ = PROC_INST_ID_ AND ID_ > ? ORDER BY ID_ LIMIT ?",
+            String.class, processDefinitionId, afterId, limit);
+    }
+}
@@ -0,0 +1,397 @@
+package com.samrum.migration;
+
+import com.samrum.dto.MigrationRequest;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.migration.MigrationPlan;
+import org.camunda.bpm.engine.migration.MigrationPlanExecutionBuilder;
+import org.camunda.bpm.engine.repository.ProcessDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Process Migration Service
+ *
+ * Moves running instances from one version of a process definition to another.
+ *
+ * - The migration plan maps equal activities and is validated when built
+ * - Source instances are paged by id and migrated in chunks on a pool of
+ *   parallelism worker threads; each chunk is one engine transaction
+ * - When a chunk fails, its instances are retried one by one so a single bad
+ *   instance only fails itself; failures are recorded per instance
+ * - Run state and totals are persisted, and runs still RUNNING at startup are
+ *   resumed: migrated instances are no longer on the source definition and
+ *   recorded failures are skipped, so a resumed run picks up where it stopped
+ * - A run is owned by one node at a time through a lease on its row, renewed
+ *   with every progress update. On startup and every lease period a node takes
+ *   over RUNNING runs that are its own or whose lease expired, so a run is
+ *   resumed exactly once in a cluster
+ */
+@Component
+public class ProcessMigrationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProcessMigrationService.class);
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private RepositoryService repositoryService;
+
+    @Autowired
+    private MigrationRunStore store;
+
+    @Value("${samrum.migration.chunk-size:200}")
+    private int defaultChunkSize;
+
+    @Value("${samrum.migration.parallelism:4}")
+    private int defaultParallelism;
+
+    @Value("${samrum.migration.max-parallelism:16}")
+    private int maxParallelism;
+
+    @Value("${samrum.migration.node-id:}")
+    private String nodeId;
+
+    @Value("${samrum.migration.lease-ms:300000}")
+    private long leaseMs;
+
+    private final Map<String, MigrationRun> activeRuns = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = hostName();
+        }
+    }
+
+    /**
+     * Resolves source and target definitions and builds (validates) the plan.
+     *
+     * @throws org.camunda.bpm.engine.migration.MigrationPlanValidationException if the plan is invalid
+     */
+    public MigrationPlan plan(MigrationRequest request) {
+        ProcessDefinition target = resolveTarget(request);
+        ProcessDefinition source = resolveSource(request, target);
+        return buildPlan(source.getId(), target.getId());
+    }
+
+    public long countInstances(String processDefinitionId) {
+        return runtimeService.createProcessInstanceQuery().processDefinitionId(processDefinitionId).count();
+    }
+
+    /**
+     * Validates the plan and starts migrating in the background.
+     */
+    public MigrationRun start(MigrationRequest request) {
+        MigrationPlan plan = plan(request);
+        for (MigrationRun active : activeRuns.values()) {
+            if (active.getSourceProcessDefinitionId().equals(plan.getSourceProcessDefinitionId())) {
+                throw new IllegalStateException("Migration " + active.getId() + " is already running for "
+                    + plan.getSourceProcessDefinitionId());
+            }
+        }
+
+        int chunkSize = request.getChunkSize() != null ? Math.max(1, request.getChunkSize()) : defaultChunkSize;
+        int parallelism = request.getParallelism() != null
+            ? Math.max(1, Math.min(maxParallelism, request.getParallelism())) : defaultParallelism;
+
+        MigrationRun run = new MigrationRun(UUID.randomUUID().toString(),
+            plan.getSourceProcessDefinitionId(), plan.getTargetProcessDefinitionId(),
+            chunkSize, parallelism, request.isSkipCustomListeners(), request.isSkipIoMappings(),
+            countInstances(plan.getSourceProcessDefinitionId()), 0, 0,
+            MigrationRun.State.RUNNING, new Date(), null);
+        store.insert(run, nodeId, leaseUntil());
+
+        LOG.info("🔀 Starting migration {}: {} instances {} -> {} (chunk size {}, parallelism {})",
+            run.getId(), run.getTotal(), run.getSourceProcessDefinitionId(), run.getTargetProcessDefinitionId(),
+            chunkSize, parallelism);
+        launch(run, plan);
+        return run;
+    }
+
+    /**
+     * Stops handing out new chunks; chunks already running complete.
+     */
+    public boolean cancel(String runId) {
+        MigrationRun run = activeRuns.get(runId);
+        if (run == null) {
+            return false;
+        }
+        run.setState(MigrationRun.State.CANCELLED);
+        return true;
+    }
+
+    public Optional<MigrationRun> find(String runId) {
+        MigrationRun active = activeRuns.get(runId);
+        return active != null ? Optional.of(active) : store.find(runId);
+    }
+
+    public List<MigrationRun> findAll() {
+        List<MigrationRun> runs = new ArrayList<>();
+        for (MigrationRun run : store.findAll()) {
+            runs.add(activeRuns.getOrDefault(run.getId(), run));
+        }
+        return runs;
+    }
+
+    public List<Map<String, Object>> failures(String runId, int limit) {
+        return store.failures(runId, limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        resumeRunningMigrations();
+    }
+
+    /**
+     * Picks up runs of nodes that stopped without finishing them.
+     */
+    @Scheduled(initialDelayString = "${samrum.migration.lease-ms:300000}",
+        fixedDelayString = "${samrum.migration.lease-ms:300000}")
+    public void takeOverExpiredMigrations() {
+        resumeRunningMigrations();
+    }
+
+    synchronized void resumeRunningMigrations() {
+        for (MigrationRun run : store.findRunning()) {
+            if (activeRuns.containsKey(run.getId())) {
+                continue;
+            }
+            if (!store.acquire(run.getId(), nodeId, leaseUntil())) {
+                LOG.debug("Migration {} is owned by another node", run.getId());
+                continue;
+            }
+            try {
+                MigrationPlan plan = buildPlan(run.getSourceProcessDefinitionId(), run.getTargetProcessDefinitionId());
+                LOG.info("🔀 Resuming migration {} ({} of {} migrated)", run.getId(), run.getMigrated(), run.getTotal());
+                launch(run, plan);
+            } catch (RuntimeException e) {
+                LOG.error("Cannot resume migration {} - marking it failed", run.getId(), e);
+                run.setState(MigrationRun.State.FAILED);
+                run.setEnded(new Date());
+                store.update(run, nodeId, new Date());
+            }
+        }
+    }
+
+    private MigrationPlan buildPlan(String sourceDefinitionId, String targetDefinitionId) {
+        return runtimeService.createMigrationPlan(sourceDefinitionId, targetDefinitionId)
+            .mapEqualActivities()
+            .updateEventTriggers()
+            .build();
+    }
+
+    private void launch(MigrationRun run, MigrationPlan plan) {
+        activeRuns.put(run.getId(), run);
+        Thread driver = new Thread(() -> execute(run, plan), "migration-" + run.getId().substring(0, 8));
+        driver.setDaemon(true);
+        driver.start();
+    }
+
+    private void execute(MigrationRun run, MigrationPlan plan) {
+        ExecutorService workers = Executors.newFixedThreadPool(run.getParallelism(), runnable -> {
+            Thread thread = new Thread(runnable, "migration-worker-" + run.getId().substring(0, 8));
+            thread.setDaemon(true);
+            return thread;
+        });
+        // bounds the ids held in memory to a few chunks per worker
+        Semaphore inFlight = new Semaphore(run.getParallelism() * 2);
+        long startedAt = System.currentTimeMillis();
+        long migratedBefore = run.getMigrated();
+
+        try {
+            Set<String> skip = store.failedInstanceIds(run.getId());
+            int pageSize = run.getChunkSize() * run.getParallelism();
+            String afterId = "";
+
+            while (run.getState() == MigrationRun.State.RUNNING) {
+                List<String> page = store.nextInstanceIds(run.getSourceProcessDefinitionId(), afterId, pageSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                afterId = page.get(page.size() - 1);
+
+                List<String> chunk = new ArrayList<>(run.getChunkSize());
+                for (String id : page) {
+                    if (skip.contains(id)) {
+                        continue;
+                    }
+                    chunk.add(id);
+                    if (chunk.size() == run.getChunkSize()) {
+                        submit(workers, inFlight, run, plan, chunk);
+                        chunk = new ArrayList<>(run.getChunkSize());
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    submit(workers, inFlight, run, plan, chunk);
+                }
+            }
+
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+
+            if (run.getState() == MigrationRun.State.RUNNING) {
+                run.setState(run.getFailed() > 0 ? MigrationRun.State.COMPLETED_WITH_FAILURES : MigrationRun.State.COMPLETED);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.setState(MigrationRun.State.FAILED);
+        } catch (RuntimeException e) {
+            LOG.error("Migration {} aborted", run.getId(), e);
+            run.setState(MigrationRun.State.FAILED);
+        } finally {
+            workers.shutdownNow();
+            run.setEnded(new Date());
+            try {
+                synchronized (run) {
+                    store.update(run, nodeId, new Date());
+                }
+            } catch (RuntimeException e) {
+                // stays RUNNING; resumed once the lease expires
+                LOG.error("Cannot record the end of migration {}", run.getId(), e);
+            } finally {
+                activeRuns.remove(run.getId());
+            }
+        }
+
+        long elapsed = Math.max(1L, System.currentTimeMillis() - startedAt);
+        long migrated = run.getMigrated() - migratedBefore;
+        LOG.info("✅ Migration {} {}: {} migrated, {} failed in {} ms ({} instances/s)",
+            run.getId(), run.getState(), migrated, run.getFailed(), elapsed, migrated * 1000L / elapsed);
+    }
+
+    private void submit(ExecutorService workers, Semaphore inFlight, MigrationRun run,
+                        MigrationPlan plan, List<String> chunk) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            workers.execute(() -> {
+                try {
+                    migrateChunk(run, plan, chunk);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private void migrateChunk(MigrationRun run, MigrationPlan plan, List<String> chunk) {
+        try {
+            execution(run, plan, chunk).execute();
+            run.addMigrated(chunk.size());
+        } catch (RuntimeException chunkFailure) {
+            if (chunk.size() == 1) {
+                recordFailure(run, chunk.get(0), chunkFailure);
+            } else {
+                LOG.debug("Migration chunk of {} failed - retrying instances one by one", chunk.size(), chunkFailure);
+                for (String processInstanceId : chunk) {
+                    try {
+                        execution(run, plan, Collections.singletonList(processInstanceId)).execute();
+                        run.addMigrated(1);
+                    } catch (RuntimeException e) {
+                        recordFailure(run, processInstanceId, e);
+                    }
+                }
+            }
+        }
+
+        synchronized (run) {
+            if (!store.update(run, nodeId, leaseUntil()) && run.getState() == MigrationRun.State.RUNNING) {
+                LOG.warn("Migration {} was taken over by another node - stopping", run.getId());
+                run.setState(MigrationRun.State.CANCELLED);
+            }
+        }
+    }
+
+    private Date leaseUntil() {
+        return new Date(System.currentTimeMillis() + leaseMs);
+    }
+
+    private MigrationPlanExecutionBuilder execution(MigrationRun run, MigrationPlan plan, List<String> processInstanceIds) {
+        MigrationPlanExecutionBuilder builder = runtimeService.newMigration(plan).processInstanceIds(processInstanceIds);
+        if (run.isSkipCustomListeners()) {
+            builder.skipCustomListeners();
+        }
+        if (run.isSkipIoMappings()) {
+            builder.skipIoMappings();
+        }
+        return builder;
+    }
+
+    private void recordFailure(MigrationRun run, String processInstanceId, RuntimeException e) {
+        LOG.warn("Failed to migrate process instance {}: {}", processInstanceId, e.getMessage());
+        if (store.addFailure(run.getId(), processInstanceId, e.getMessage())) {
+            run.addFailed(1);
+        }
+    }
+
+    private ProcessDefinition resolveTarget(MigrationRequest request) {
+        if (request.getTargetProcessDefinitionId() != null) {
+            return repositoryService.getProcessDefinition(request.getTargetProcessDefinitionId());
+        }
+        requireKey(request);
+        ProcessDefinition target = request.getTargetVersion() != null
+            ? repositoryService.createProcessDefinitionQuery()
+                .processDefinitionKey(request.getProcessDefinitionKey())
+                .processDefinitionVersion(request.getTargetVersion())
+                .singleResult()
+            : repositoryService.createProcessDefinitionQuery()
+                .processDefinitionKey(request.getProcessDefinitionKey())
+                .latestVersion()
+                .singleResult();
+        if (target == null) {
+            throw new IllegalArgumentException("Target version not found for " + request.getProcessDefinitionKey());
+        }
+        return target;
+    }
+
+    private ProcessDefinition resolveSource(MigrationRequest request, ProcessDefinition target) {
+        if (request.getSourceProcessDefinitionId() != null) {
+            return repositoryService.getProcessDefinition(request.getSourceProcessDefinitionId());
+        }
+        requireKey(request);
+        int version = request.getSourceVersion() != null ? request.getSourceVersion() : target.getVersion() - 1;
+        ProcessDefinition source = repositoryService.createProcessDefinitionQuery()
+            .processDefinitionKey(request.getProcessDefinitionKey())
+            .processDefinitionVersion(version)
+            .singleResult();
+        if (source == null) {
+            throw new IllegalArgumentException("Source version " + version + " not found for "
+                + request.getProcessDefinitionKey());
+        }
+        return source;
+    }
+
+    private static String hostName() {
+        String host = System.getenv("HOSTNAME");
+        if (host != null && !host.isBlank()) {
+            return host;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "local";
+        }
+    }
+
+    private static void requireKey(MigrationRequest request) {
+        if (request.getProcessDefinitionKey() == null) {
+            throw new IllegalArgumentException("processDefinitionKey or process definition ids are required");
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.samrum.reassign;
+
+import com.samrum.dto.ReassignmentRequest;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.SuspendedEntityInteractionException;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.task.TaskQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Bulk Reassignment Service
+ *
+ * Moves the work of one user (e.g. an engineer on leave) to another:
+ * - current tasks assigned to the user are reassigned
+ * - user-id process variables (reviewerId, designerId) are rewritten, so tasks
+ *   created later from ${reviewerId}/${designerId} go to the new user as well
+ *
+ * Work is done in chunks, one transaction per chunk, with set-based loading
+ * inside each chunk (see ReassignTasksCmd and ReassignVariablesCmd).
+ *
+ * Suspended tasks stay with the user and are reported, so a suspended
+ * instance never fails a reassignment halfway. Variables are only rewritten
+ * on the process instances of process-definition-keys.
+ */
+@Component
+public class BulkReassignmentService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkReassignmentService.class);
+
+    static final List<String> DEFAULT_VARIABLES = List.of("reviewerId", "designerId");
+
+    private static final int MAX_REPORTED_TASKS = 100;
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    @Value("${samrum.reassignment.chunk-size:500}")
+    private int defaultChunkSize;
+
+    @Value("${samrum.reassignment.process-definition-keys:doorInstallationProcess,door-management-process,door-management-parallel-process}")
+    private String[] processDefinitionKeys;
+
+    /**
+     * Runs the reassignment and returns the counts per kind of change.
+     */
+    public Map<String, Object> reassign(ReassignmentRequest request) {
+        if (request.getFromUserId().equals(request.getToUserId())) {
+            throw new IllegalArgumentException("fromUserId and toUserId must differ");
+        }
+        CommandExecutor commandExecutor = ((ProcessEngineConfigurationImpl) processEngine.getProcessEngineConfiguration())
+            .getCommandExecutorTxRequired();
+        int chunkSize = request.getChunkSize() != null ? Math.max(1, request.getChunkSize()) : defaultChunkSize;
+        String[] taskDefinitionKeys = request.getTaskDefinitionKeys() != null
+            ? request.getTaskDefinitionKeys().toArray(new String[0]) : null;
+        List<String> variableNames = request.getVariableNames() != null && !request.getVariableNames().isEmpty()
+            ? request.getVariableNames() : DEFAULT_VARIABLES;
+
+        long start = System.currentTimeMillis();
+        int chunks = 0;
+
+        long tasks = 0;
+        int count;
+        do {
+            try {
+                count = commandExecutor.execute(
+                    new ReassignTasksCmd(request.getFromUserId(), request.getToUserId(), taskDefinitionKeys, chunkSize));
+            } catch (SuspendedEntityInteractionException e) {
+                // suspended after the chunk was loaded; the next attempt no longer loads it
+                LOG.debug("Task suspended during reassignment, retrying chunk: {}", e.getMessage());
+                count = chunkSize;
+                continue;
+            }
+            tasks += count;
+            chunks++;
+        } while (count == chunkSize);
+
+        TaskQuery suspendedQuery = processEngine.getTaskService().createTaskQuery()
+            .taskAssignee(request.getFromUserId())
+            .suspended();
+        if (taskDefinitionKeys != null && taskDefinitionKeys.length > 0) {
+            suspendedQuery.taskDefinitionKeyIn(taskDefinitionKeys);
+        }
+        long suspended = suspendedQuery.count();
+        List<String> suspendedTaskIds = new ArrayList<>();
+        if (suspended > 0) {
+            for (Task task : suspendedQuery.orderByTaskId().asc().listPage(0, MAX_REPORTED_TASKS)) {
+                suspendedTaskIds.add(task.getId());
+            }
+        }
+
+        Map<String, Long> variables = new LinkedHashMap<>();
+        for (String variableName : variableNames) {
+            long updated = 0;
+            int firstResult = 0;
+            int[] chunk;
+            do {
+                chunk = commandExecutor.execute(new ReassignVariablesCmd(variableName, request.getFromUserId(),
+                    request.getToUserId(), processDefinitionKeys, firstResult, chunkSize));
+                updated += chunk[1];
+                // instances matching only through a local variable stay in the result
+                firstResult += chunk[0] - chunk[1];
+                chunks++;
+            } while (chunk[0] == chunkSize);
+            variables.put(variableName, updated);
+        }
+
+        long duration = System.currentTimeMillis() - start;
+        LOG.info("👥 Reassigned {} -> {}: {} tasks ({} suspended skipped), variables {} in {} chunks ({} ms)",
+            request.getFromUserId(), request.getToUserId(), tasks, suspended, variables, chunks, duration);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("fromUserId", request.getFromUserId());
+        result.put("toUserId", request.getToUserId());
+        result.put("tasksReassigned", tasks);
+        result.put("suspendedTasksSkipped", suspended);
+        result.put("suspendedTaskIds", suspendedTaskIds);
+        result.put("variablesUpdated", variables);
+        result.put("chunks", chunks);
+        result.put("durationMs", duration);
+        return result;
+    }
+}
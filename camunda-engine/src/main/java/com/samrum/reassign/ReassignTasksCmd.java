@@ -0,0 +1,55 @@
+package com.samrum.reassign;
+
+import org.camunda.bpm.engine.impl.Page;
+import org.camunda.bpm.engine.impl.TaskQueryImpl;
+import org.camunda.bpm.engine.impl.cmd.AssignTaskCmd;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.task.Task;
+
+import java.util.List;
+
+/**
+ * Reassigns one chunk of tasks from one user to another in a single transaction.
+ *
+ * The chunk is loaded with one query; the per-task AssignTaskCmd then finds
+ * each task in the command context's entity cache, so assignment listeners and
+ * history still run but no further SELECTs are issued. The task updates are
+ * flushed together when the command completes.
+ *
+ * Suspended tasks cannot be assigned; they are left out of the chunks and
+ * reported by the caller.
+ */
+class ReassignTasksCmd implements Command<Integer> {
+
+    private final String fromUserId;
+    private final String toUserId;
+    private final String[] taskDefinitionKeys;
+    private final int chunkSize;
+
+    ReassignTasksCmd(String fromUserId, String toUserId, String[] taskDefinitionKeys, int chunkSize) {
+        this.fromUserId = fromUserId;
+        this.toUserId = toUserId;
+        this.taskDefinitionKeys = taskDefinitionKeys;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public Integer execute(CommandContext commandContext) {
+        TaskQueryImpl query = new TaskQueryImpl();
+        query.taskAssignee(fromUserId);
+        query.active();
+        if (taskDefinitionKeys != null && taskDefinitionKeys.length > 0) {
+            query.taskDefinitionKeyIn(taskDefinitionKeys);
+        }
+        query.orderByTaskId().asc();
+        query.setMaxResults(chunkSize);
+
+        // reassigned tasks drop out of the result, so the next chunk is always the first page
+        List<Task> tasks = query.executeList(commandContext, new Page(0, chunkSize));
+        for (Task task : tasks) {
+            new AssignTaskCmd(task.getId(), toUserId).execute(commandContext);
+        }
+        return tasks.size();
+    }
+}
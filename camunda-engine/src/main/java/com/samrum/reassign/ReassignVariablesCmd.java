@@ -0,0 +1,82 @@
+package com.samrum.reassign;
+
+import org.camunda.bpm.engine.impl.Page;
+import org.camunda.bpm.engine.impl.ProcessInstanceQueryImpl;
+import org.camunda.bpm.engine.impl.VariableInstanceQueryImpl;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceHistoryListener;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.runtime.VariableInstance;
+import org.camunda.bpm.engine.variable.Variables;
+
+import java.util.List;
+
+/**
+ * Rewrites one chunk of a user-id process variable (e.g. reviewerId) from one
+ * user to another in a single transaction.
+ *
+ * Only process-instance variables of instances of the given process
+ * definitions are rewritten; local variables of the same name (a sub-process,
+ * a task form) and other processes keep their value. The matching process
+ * instances are loaded with one query and their variables with a second one,
+ * so the owning executions come from the entity cache. The variable rows are
+ * updated in place and a variable update history event is produced for each,
+ * as setVariable would.
+ *
+ * Returns {process instances loaded, variables updated}. Updated instances no
+ * longer match; instances that matched only through a local variable do, so
+ * the caller advances firstResult by the difference.
+ */
+class ReassignVariablesCmd implements Command<int[]> {
+
+    private final String variableName;
+    private final String fromUserId;
+    private final String toUserId;
+    private final String[] processDefinitionKeys;
+    private final int firstResult;
+    private final int chunkSize;
+
+    ReassignVariablesCmd(String variableName, String fromUserId, String toUserId, String[] processDefinitionKeys,
+                         int firstResult, int chunkSize) {
+        this.variableName = variableName;
+        this.fromUserId = fromUserId;
+        this.toUserId = toUserId;
+        this.processDefinitionKeys = processDefinitionKeys;
+        this.firstResult = firstResult;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public int[] execute(CommandContext commandContext) {
+        // also matches local variables anywhere in the instance; the variable query below does not
+        ProcessInstanceQueryImpl processInstances = new ProcessInstanceQueryImpl();
+        processInstances.processDefinitionKeyIn(processDefinitionKeys);
+        processInstances.variableValueEquals(variableName, fromUserId);
+        processInstances.orderByProcessInstanceId().asc();
+        processInstances.setFirstResult(firstResult);
+        processInstances.setMaxResults(chunkSize);
+
+        List<ProcessInstance> instances = processInstances.executeList(commandContext, new Page(firstResult, chunkSize));
+        if (instances.isEmpty()) {
+            return new int[] {0, 0};
+        }
+        String[] processInstanceIds = instances.stream().map(ProcessInstance::getId).toArray(String[]::new);
+
+        VariableInstanceQueryImpl query = new VariableInstanceQueryImpl();
+        query.variableScopeIdIn(processInstanceIds);
+        query.variableValueEquals(variableName, fromUserId);
+        query.disableBinaryFetching();
+        query.disableCustomObjectDeserialization();
+        query.setMaxResults(processInstanceIds.length);
+        List<VariableInstance> variables = query.executeList(commandContext, new Page(0, processInstanceIds.length));
+
+        for (VariableInstance variable : variables) {
+            VariableInstanceEntity entity = (VariableInstanceEntity) variable;
+            entity.setValue(Variables.stringValue(toUserId));
+            VariableInstanceHistoryListener.INSTANCE.onUpdate(entity, entity.getExecution());
+        }
+        return new int[] {instances.size(), variables.size()};
+    }
+}
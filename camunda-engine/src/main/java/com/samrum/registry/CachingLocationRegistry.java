@@ -0,0 +1,234 @@
+package com.samrum.registry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caching layer in front of a (remote) building registry.
+ *
+ * - In-memory index with separate TTLs for existing and unknown locations
+ *   (negative caching), bounded to a maximum number of entries (oldest
+ *   entries are evicted first, under the cache lock)
+ * - Bulk preload of all known locations at startup and on a fixed interval
+ * - Expired entries are served stale while a background thread refreshes
+ *   them, so a validation never waits on a refresh; entries that expire
+ *   together are refreshed with one bulk call to the source
+ * - Cache misses of a bulk lookup are resolved with one call to the source
+ *
+ * Only a location never seen before costs a synchronous source lookup.
+ */
+public class CachingLocationRegistry implements LocationRegistry, AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CachingLocationRegistry.class);
+
+    private static final class Entry {
+        final boolean exists;
+        final long expiresAt;
+
+        Entry(boolean exists, long expiresAt) {
+            this.exists = exists;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final LocationRegistry source;
+    private final long positiveTtlMs;
+    private final long negativeTtlMs;
+    private final int maxSize;
+
+    // insertion ordered, guarded by itself
+    private final LinkedHashMap<String, Entry> cache;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    private final ScheduledExecutorService refresher;
+
+    public CachingLocationRegistry(LocationRegistry source, long positiveTtlMs, long negativeTtlMs, int maxSize) {
+        this.source = source;
+        this.positiveTtlMs = positiveTtlMs;
+        this.negativeTtlMs = negativeTtlMs;
+        this.maxSize = maxSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "location-registry-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Preloads all locations now and again every preloadIntervalMs (0 = only once).
+     */
+    public void start(long preloadIntervalMs) {
+        preload();
+        if (preloadIntervalMs > 0) {
+            refresher.scheduleWithFixedDelay(this::preloadQuietly,
+                preloadIntervalMs, preloadIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    @Override
+    public boolean exists(String location) {
+        String key = normalize(location);
+        if (key == null) {
+            return false;
+        }
+
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(key);
+        }
+        if (entry != null) {
+            if (entry.expiresAt <= System.currentTimeMillis()) {
+                scheduleRefresh(key);
+            }
+            return entry.exists;
+        }
+
+        boolean exists = source.exists(key);
+        put(key, exists);
+        return exists;
+    }
+
+    @Override
+    public Map<String, Boolean> existsAll(Collection<String> locations) {
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        Set<String> misses = new LinkedHashSet<>();
+        List<String> stale = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        synchronized (cache) {
+            for (String location : locations) {
+                String key = normalize(location);
+                if (key == null) {
+                    result.put(location, false);
+                    continue;
+                }
+                Entry entry = cache.get(key);
+                if (entry == null) {
+                    // resolved below, the placeholder keeps the caller's order
+                    result.put(location, null);
+                    misses.add(key);
+                    continue;
+                }
+                if (entry.expiresAt <= now) {
+                    stale.add(key);
+                }
+                result.put(location, entry.exists);
+            }
+        }
+        stale.forEach(this::scheduleRefresh);
+
+        if (!misses.isEmpty()) {
+            Map<String, Boolean> loaded = source.existsAll(misses);
+            for (String key : misses) {
+                put(key, Boolean.TRUE.equals(loaded.get(key)));
+            }
+            for (Map.Entry<String, Boolean> entry : result.entrySet()) {
+                if (entry.getValue() == null) {
+                    entry.setValue(Boolean.TRUE.equals(loaded.get(normalize(entry.getKey()))));
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Set<String> allLocations() {
+        return source.allLocations();
+    }
+
+    /**
+     * Loads every location the source can list into the cache.
+     */
+    public void preload() {
+        Set<String> locations = source.allLocations();
+        if (locations == null) {
+            LOG.info("Location registry source cannot list locations - cache fills on demand");
+            return;
+        }
+        for (String location : locations) {
+            put(location, true);
+        }
+        LOG.info("Location registry cache preloaded with {} locations", locations.size());
+        if (locations.size() > maxSize) {
+            LOG.warn("Location registry has {} locations but the cache holds {}", locations.size(), maxSize);
+        }
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private void preloadQuietly() {
+        try {
+            preload();
+        } catch (RuntimeException e) {
+            LOG.warn("Location registry preload failed - keeping cached entries", e);
+        }
+    }
+
+    private void scheduleRefresh(String key) {
+        if (!refreshing.add(key) || !refreshQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refresher.execute(this::refreshStale);
+        } catch (RejectedExecutionException e) {
+            refreshing.clear();
+            refreshQueued.set(false);
+        }
+    }
+
+    /**
+     * Refreshes every key queued since the last run with one bulk lookup.
+     */
+    private void refreshStale() {
+        refreshQueued.set(false);
+        List<String> keys = new ArrayList<>(refreshing);
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, Boolean> loaded = source.existsAll(keys);
+            for (String key : keys) {
+                put(key, Boolean.TRUE.equals(loaded.get(key)));
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Location registry refresh failed for {} locations - serving cached values", keys.size(), e);
+        } finally {
+            refreshing.removeAll(keys);
+        }
+    }
+
+    private void put(String key, boolean exists) {
+        long ttl = exists ? positiveTtlMs : negativeTtlMs;
+        synchronized (cache) {
+            // replacing an entry keeps its position, so refreshed entries still age out first
+            cache.put(key, new Entry(exists, System.currentTimeMillis() + ttl));
+        }
+    }
+
+    private static String normalize(String location) {
+        if (location == null) {
+            return null;
+        }
+        String key = location.trim();
+        return key.isEmpty() ? null : key;
+    }
+}
@@ -0,0 +1,48 @@
+package com.samrum.registry;
+
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Local file-backed building registry.
+ *
+ * Reads one location code per line; blank lines and lines starting with '#'
+ * are ignored. Used in development and tests in place of the asset
+ * management system.
+ */
+public class FileLocationRegistry implements LocationRegistry {
+
+    private final Set<String> locations;
+
+    public FileLocationRegistry(Resource resource) throws IOException {
+        Set<String> loaded = new HashSet<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    loaded.add(line);
+                }
+            }
+        }
+        this.locations = Collections.unmodifiableSet(loaded);
+    }
+
+    @Override
+    public boolean exists(String location) {
+        return location != null && locations.contains(location.trim());
+    }
+
+    @Override
+    public Set<String> allLocations() {
+        return locations;
+    }
+}
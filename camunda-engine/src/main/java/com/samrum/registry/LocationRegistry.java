@@ -0,0 +1,41 @@
+package com.samrum.registry;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Building registry lookup for installation locations.
+ *
+ * Implementations range from the local file-backed registry used in
+ * development and tests to the asset management system in production.
+ */
+public interface LocationRegistry {
+
+    /**
+     * Checks if location exists in building registry
+     */
+    boolean exists(String location);
+
+    /**
+     * Checks several locations in one lookup. Implementations backed by a
+     * remote system should override this with a single bulk call.
+     */
+    default Map<String, Boolean> existsAll(Collection<String> locations) {
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        for (String location : locations) {
+            result.put(location, exists(location));
+        }
+        return result;
+    }
+
+    /**
+     * All known locations, used to preload caches at startup.
+     *
+     * @return the complete location set, or null if the registry cannot list its content
+     */
+    default Set<String> allLocations() {
+        return null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.samrum.registry;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+
+/**
+ * Wires the building registry used by location validation.
+ *
+ * The source registry depends on the profile:
+ * - dev, test: the local file (samrum.location-registry.file)
+ * - any other profile: NonBlankLocationRegistry, until the asset management
+ *   client is available; replace the source bean with it there
+ *
+ * Delegates always see the caching layer.
+ */
+@Configuration
+public class LocationRegistryConfiguration {
+
+    @Bean("locationRegistrySource")
+    @Profile({"dev", "test"})
+    public LocationRegistry fileLocationRegistry(
+            ResourceLoader resourceLoader,
+            @Value("${samrum.location-registry.file:classpath:registry/locations.txt}") String file) throws IOException {
+        return new FileLocationRegistry(resourceLoader.getResource(file));
+    }
+
+    @Bean("locationRegistrySource")
+    @Profile("!dev & !test")
+    public LocationRegistry assetManagementLocationRegistry() {
+        return new NonBlankLocationRegistry();
+    }
+
+    @Bean(destroyMethod = "close")
+    @Primary
+    public CachingLocationRegistry locationRegistry(
+            @Qualifier("locationRegistrySource") LocationRegistry source,
+            @Value("${samrum.location-registry.cache.ttl-ms:3600000}") long positiveTtlMs,
+            @Value("${samrum.location-registry.cache.negative-ttl-ms:300000}") long negativeTtlMs,
+            @Value("${samrum.location-registry.cache.max-size:100000}") int maxSize,
+            @Value("${samrum.location-registry.cache.preload-interval-ms:3600000}") long preloadIntervalMs) {
+        CachingLocationRegistry registry = new CachingLocationRegistry(source, positiveTtlMs, negativeTtlMs, maxSize);
+        registry.start(preloadIntervalMs);
+        return registry;
+    }
+}
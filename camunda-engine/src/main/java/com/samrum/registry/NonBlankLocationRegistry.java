@@ -0,0 +1,17 @@
+package com.samrum.registry;
+
+/**
+ * Accepts every non-blank location code.
+ *
+ * The check location validation did before the building registry was
+ * connected; the source outside development and tests until the asset
+ * management client replaces it, so no location that used to be accepted is
+ * rejected.
+ */
+public class NonBlankLocationRegistry implements LocationRegistry {
+
+    @Override
+    public boolean exists(String location) {
+        return location != null && !location.trim().isEmpty();
+    }
+}
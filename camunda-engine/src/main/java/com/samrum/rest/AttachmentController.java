@@ -0,0 +1,240 @@
+package com.samrum.rest;
+
+import com.samrum.attachment.ContentTooLargeException;
+import com.samrum.attachment.ProcessAttachmentService;
+import org.camunda.bpm.engine.task.Attachment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.*;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * REST Controller for process attachments (design drawings, specifications)
+ *
+ * Uploads are streamed into the content store, downloads are sent with
+ * sendfile when the connector supports it (FileChannel.transferTo otherwise)
+ * and support single byte ranges, so neither direction holds a file in memory.
+ */
+@RestController
+@RequestMapping("/api/door-process/instance/{processInstanceId}/attachments")
+@CrossOrigin(origins = "*")
+public class AttachmentController {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AttachmentController.class);
+
+    // Tomcat sendfile request attributes (org.apache.catalina.Globals)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private ProcessAttachmentService attachmentService;
+
+    /**
+     * Upload an attachment as multipart form data
+     *
+     * POST /api/door-process/instance/{processInstanceId}/attachments
+     * Form: file=@drawing.pdf, description=... (optional)
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Map<String, Object>> upload(
+            @PathVariable String processInstanceId,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String description) throws IOException {
+
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : file.getName();
+        try (InputStream content = file.getInputStream()) {
+            return attach(processInstanceId, fileName, file.getContentType(), description, content);
+        }
+    }
+
+    /**
+     * Upload an attachment as the raw request body
+     *
+     * POST /api/door-process/instance/{processInstanceId}/attachments/{fileName}?description=...
+     * Content-Type: application/pdf
+     *
+     * Bodies over samrum.attachments.max-size are rejected with 413, up front
+     * when Content-Length says so, otherwise as soon as the limit is passed.
+     */
+    @PostMapping(value = "/{fileName}", consumes = "!" + MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<Map<String, Object>> uploadRaw(
+            @PathVariable String processInstanceId,
+            @PathVariable String fileName,
+            @RequestParam(required = false) String description,
+            HttpServletRequest request) throws IOException {
+
+        if (request.getContentLengthLong() > attachmentService.getMaxBytes()) {
+            return tooLarge(new ContentTooLargeException(attachmentService.getMaxBytes()));
+        }
+        return attach(processInstanceId, fileName, request.getContentType(), description, request.getInputStream());
+    }
+
+    /**
+     * List the attachments of a process instance
+     *
+     * GET /api/door-process/instance/{processInstanceId}/attachments
+     */
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> list(@PathVariable String processInstanceId) {
+        List<Map<String, Object>> response = new ArrayList<>();
+        for (Attachment attachment : attachmentService.list(processInstanceId)) {
+            response.add(toMap(attachment));
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Download attachment content, optionally a single byte range
+     *
+     * GET /api/door-process/instance/{processInstanceId}/attachments/{attachmentId}/content
+     * Header (optional): Range: bytes=0-1048575
+     */
+    @GetMapping("/{attachmentId}/content")
+    public void download(@PathVariable String processInstanceId,
+                         @PathVariable String attachmentId,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+
+        Optional<Attachment> attachment = attachmentService.find(processInstanceId, attachmentId);
+        Optional<Path> content = attachment.flatMap(attachmentService::content);
+        if (content.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Path path = content.get();
+        long length = Files.size(path);
+
+        // content is addressed by its hash and never changes
+        String etag = "\"" + ProcessAttachmentService.hash(attachment.get()).orElseThrow() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=86400");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                // multiple ranges are answered with the whole content
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    if (start >= length || start > end) {
+                        throw new IllegalArgumentException("Range " + range + " not satisfiable");
+                    }
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+        }
+
+        response.setContentType(mediaType(attachment.get().getType()));
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+            .filename(attachment.get().getName(), StandardCharsets.UTF_8)
+            .build()
+            .toString());
+        response.setContentLengthLong(end - start + 1);
+        send(request, response, path, start, end + 1);
+    }
+
+    private ResponseEntity<Map<String, Object>> attach(String processInstanceId, String fileName, String contentType,
+                                                       String description, InputStream content) throws IOException {
+        if (fileName == null || fileName.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "File name is required"));
+        }
+        try {
+            Attachment attachment = attachmentService.attach(processInstanceId, fileName,
+                contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE, description, content);
+            return ResponseEntity.status(HttpStatus.CREATED).body(toMap(attachment));
+        } catch (ContentTooLargeException e) {
+            return tooLarge(e);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private static ResponseEntity<Map<String, Object>> tooLarge(ContentTooLargeException e) {
+        // the rest of the body is not read; the connection is not reused
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+            .header(HttpHeaders.CONNECTION, "close")
+            .body(Map.of("error", e.getMessage(), "maxBytes", e.getMaxBytes()));
+    }
+
+    /**
+     * Sends [start, end) of the file. With sendfile the connector copies the
+     * file to the socket in the kernel after this method returns.
+     */
+    private void send(HttpServletRequest request, HttpServletResponse response,
+                      Path path, long start, long end) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                position += file.transferTo(position, end - position, out);
+            }
+        } catch (IOException e) {
+            // mostly clients aborting a download
+            LOG.debug("Attachment download of {} aborted: {}", path.getFileName(), e.getMessage());
+        }
+    }
+
+    private Map<String, Object> toMap(Attachment attachment) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("attachmentId", attachment.getId());
+        map.put("name", attachment.getName());
+        map.put("description", attachment.getDescription());
+        map.put("type", attachment.getType());
+        map.put("createTime", attachment.getCreateTime());
+        ProcessAttachmentService.hash(attachment).ifPresent(hash -> map.put("sha256", hash));
+        attachmentService.content(attachment).ifPresent(path -> {
+            try {
+                map.put("size", Files.size(path));
+            } catch (IOException e) {
+                LOG.debug("Size of {} not available: {}", path.getFileName(), e.getMessage());
+            }
+        });
+        return map;
+    }
+
+    private static String mediaType(String type) {
+        try {
+            return MediaType.parseMediaType(type).toString();
+        } catch (IllegalArgumentException e) {
+            return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        }
+    }
+}
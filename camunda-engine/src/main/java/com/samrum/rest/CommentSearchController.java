@@ -0,0 +1,80 @@
+package com.samrum.rest;
+
+import com.samrum.search.CommentDoc;
+import com.samrum.search.CommentIndex;
+import com.samrum.search.CommentSearchResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+
+/**
+ * REST Controller for searching review comments and rejection reasons
+ *
+ * Served from the in-memory CommentIndex; no historic variables are loaded.
+ */
+@RestController
+@RequestMapping("/api/door-process/search")
+@CrossOrigin(origins = "*")
+public class CommentSearchController {
+
+    private static final int MAX_LIMIT = 500;
+
+    @Autowired
+    private CommentIndex commentIndex;
+
+    /**
+     * Search comments
+     *
+     * GET /api/door-process/search/comments?q=hinge frame*&processDefinitionKey=...
+     *     &outcome=...&from=...&to=...&limit=20
+     * (from/to in epoch millis, all filters optional)
+     *
+     * All terms must match; a term ending in * matches as a prefix. Returns
+     * the latest matching comment of each process instance, newest first.
+     */
+    @GetMapping("/comments")
+    public ResponseEntity<Map<String, Object>> searchComments(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) String processDefinitionKey,
+            @RequestParam(required = false) String outcome,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return ResponseEntity.badRequest().body(Map.of("error", "limit must be between 1 and " + MAX_LIMIT));
+        }
+
+        long started = System.nanoTime();
+        CommentSearchResult result;
+        try {
+            result = commentIndex.search(query, processDefinitionKey, outcome, from, to, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        List<Map<String, Object>> hits = new ArrayList<>();
+        for (CommentDoc doc : result.getHits()) {
+            Map<String, Object> hit = new HashMap<>();
+            hit.put("processInstanceId", doc.getProcessInstanceId());
+            hit.put("businessKey", doc.getBusinessKey());
+            hit.put("processDefinitionKey", doc.getProcessDefinitionKey());
+            hit.put("outcome", doc.getOutcome());
+            hit.put("variable", doc.getVariableName());
+            hit.put("text", doc.getText());
+            hit.put("time", doc.getDate());
+            hits.add(hit);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("query", query);
+        response.put("totalInstances", result.getTotalInstances());
+        response.put("totalComments", result.getTotalComments());
+        response.put("results", hits);
+        response.put("indexReady", commentIndex.isReady());
+        response.put("tookMs", (System.nanoTime() - started) / 1_000_000.0);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,114 @@
+package com.samrum.rest;
+
+import com.samrum.analytics.CycleTimeAnalytics;
+import com.samrum.analytics.DurationSketch;
+import com.samrum.analytics.LoopHistogram;
+import com.samrum.analytics.SketchKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+
+/**
+ * REST Controller for cycle time analytics
+ *
+ * Serves p50/p90/p99 cycle times per activity and per process outcome, and
+ * revision loop counts, from the sketches kept by CycleTimeAnalytics. No
+ * history table is read to answer these requests.
+ */
+@RestController
+@RequestMapping("/api/door-process/analytics")
+@CrossOrigin(origins = "*")
+public class CycleTimeController {
+
+    @Autowired
+    private CycleTimeAnalytics analytics;
+
+    /**
+     * GET /api/door-process/analytics/cycle-times?processDefinitionKey=...&kind=ACTIVITY|OUTCOME
+     */
+    @GetMapping("/cycle-times")
+    public ResponseEntity<?> getCycleTimes(
+            @RequestParam(required = false) String processDefinitionKey,
+            @RequestParam(required = false) String kind) {
+
+        SketchKey.Kind kindFilter = null;
+        if (kind != null) {
+            try {
+                kindFilter = SketchKey.Kind.valueOf(kind.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Unknown kind: " + kind));
+            }
+        }
+
+        List<Map<String, Object>> response = new ArrayList<>();
+        for (Map.Entry<SketchKey, DurationSketch> entry : analytics.durationSketches().entrySet()) {
+            SketchKey key = entry.getKey();
+            if (!matches(key, processDefinitionKey) || (kindFilter != null && key.getKind() != kindFilter)) {
+                continue;
+            }
+            DurationSketch sketch = entry.getValue();
+            Map<String, Object> result = new HashMap<>();
+            result.put("kind", key.getKind().name());
+            result.put("processDefinitionKey", key.getProcessDefinitionKey());
+            result.put(key.getKind() == SketchKey.Kind.ACTIVITY ? "activityId" : "outcome", key.getName());
+            result.put("count", sketch.getCount());
+            result.put("meanMillis", Math.round(sketch.getMean()));
+            result.put("minMillis", sketch.getMin());
+            result.put("p50Millis", sketch.quantile(0.50));
+            result.put("p90Millis", sketch.quantile(0.90));
+            result.put("p99Millis", sketch.quantile(0.99));
+            result.put("maxMillis", sketch.getMax());
+            response.add(result);
+        }
+        response.sort(Comparator.comparing((Map<String, Object> m) -> (String) m.get("processDefinitionKey"))
+            .thenComparing(m -> (String) m.get("kind"))
+            .thenComparing(m -> String.valueOf(m.getOrDefault("activityId", m.get("outcome")))));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * GET /api/door-process/analytics/revision-loops?processDefinitionKey=...
+     */
+    @GetMapping("/revision-loops")
+    public ResponseEntity<List<Map<String, Object>>> getRevisionLoops(
+            @RequestParam(required = false) String processDefinitionKey) {
+
+        List<Map<String, Object>> response = new ArrayList<>();
+        for (Map.Entry<SketchKey, LoopHistogram> entry : analytics.loopHistograms().entrySet()) {
+            SketchKey key = entry.getKey();
+            if (!matches(key, processDefinitionKey)) {
+                continue;
+            }
+            LoopHistogram histogram = entry.getValue();
+            Map<String, Object> result = new HashMap<>();
+            result.put("processDefinitionKey", key.getProcessDefinitionKey());
+            result.put("outcome", key.getName());
+            result.put("count", histogram.getCount());
+            result.put("meanLoops", Math.round(histogram.getMean() * 100.0) / 100.0);
+            result.put("distribution", histogram.getDistribution());
+            response.add(result);
+        }
+        response.sort(Comparator.comparing((Map<String, Object> m) -> (String) m.get("processDefinitionKey"))
+            .thenComparing(m -> (String) m.get("outcome")));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * GET /api/door-process/analytics/status
+     */
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("nodeId", analytics.getNodeId());
+        response.put("pendingEvents", analytics.getPendingCount());
+        response.put("droppedEvents", analytics.getDroppedCount());
+        response.put("relativeAccuracy", DurationSketch.RELATIVE_ACCURACY);
+        return ResponseEntity.ok(response);
+    }
+
+    private static boolean matches(SketchKey key, String processDefinitionKey) {
+        return processDefinitionKey == null || processDefinitionKey.equals(key.getProcessDefinitionKey());
+    }
+}
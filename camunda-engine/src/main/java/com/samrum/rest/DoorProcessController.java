@@ -1,8 +1,17 @@
 package com.samrum.rest;
 
+import com.samrum.audit.AuditEvent;
+import com.samrum.audit.AuditJournal;
+import com.samrum.detail.ProcessDetail;
+import com.samrum.detail.ProcessDetailLoader;
 import com.samrum.dto.DoorProcessRequest;
+import com.samrum.dto.ReassignmentRequest;
 import com.samrum.dto.TaskCompletionRequest;
+import com.samrum.idempotency.IdempotentStartService;
+import com.samrum.idempotency.StartResult;
+import com.samrum.reassign.BulkReassignmentService;
 import org.camunda.bpm.engine.*;
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
 import org.camunda.bpm.engine.rest.dto.VariableValueDto;
 import org.camunda.bpm.engine.rest.dto.runtime.ProcessInstanceDto;
 import org.camunda.bpm.engine.rest.dto.task.TaskDto;
@@ -44,19 +53,37 @@ public class DoorProcessController {
     @Autowired
     private HistoryService historyService;
 
+    @Autowired
+    private AuditJournal auditJournal;
+
+    @Autowired
+    private BulkReassignmentService reassignmentService;
+
+    @Autowired
+    private IdempotentStartService idempotentStartService;
+
+    @Autowired
+    private ProcessDetailLoader processDetailLoader;
+
     /**
      * Start a new door installation process
      * 
      * POST /api/door-process/start
+     * Header (optional): Idempotency-Key: 5f0c...
      * Body: {
      *   "projectId": "PROJ-001",
      *   "doorType": "Fire Door A",
      *   "reviewerId": "engineer1",
      *   "designerId": "designer1"
      * }
+     *
+     * A retry with the same Idempotency-Key returns the instance the first
+     * request started, with "duplicate": true.
      */
     @PostMapping("/start")
-    public ResponseEntity<Map<String, Object>> startProcess(@RequestBody DoorProcessRequest request) {
+    public ResponseEntity<Map<String, Object>> startProcess(
+            @RequestBody DoorProcessRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         LOG.info("🚀 Starting door installation process for project: {}", request.getProjectId());
 
         Map<String, Object> variables = new HashMap<>();
@@ -66,23 +93,33 @@ public class DoorProcessController {
         variables.put("designerId", request.getDesignerId());
         variables.put("submissionDate", new Date());
 
-        ProcessInstance processInstance = runtimeService.startProcessInstanceByKey(
-            "doorInstallationProcess",
-            request.getProjectId(),  // business key
-            variables
-        );
-
-        LOG.info("✅ Process started: {}", processInstance.getId());
+        StartResult result;
+        try {
+            result = idempotentStartService.start(
+                idempotencyKey != null ? idempotencyKey : request.getIdempotencyKey(),
+                "doorInstallationProcess",
+                request.getProjectId(),  // business key
+                variables
+            );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
 
         Map<String, Object> response = new HashMap<>();
-        response.put("processInstanceId", processInstance.getId());
-        response.put("businessKey", processInstance.getBusinessKey());
-        response.put("processDefinitionId", processInstance.getProcessDefinitionId());
-        response.put("variables", variables);
+        response.put("processInstanceId", result.getProcessInstanceId());
+        response.put("businessKey", result.getBusinessKey());
+        response.put("processDefinitionId", result.getProcessDefinitionId());
+        response.put("duplicate", result.isDuplicate());
+        if (result.isDuplicate()) {
+            LOG.info("✅ Process already started: {}", result.getProcessInstanceId());
+        } else {
+            LOG.info("✅ Process started: {}", result.getProcessInstanceId());
+            response.put("variables", variables);
+        }
 
         // Get the first task
         Task currentTask = taskService.createTaskQuery()
-            .processInstanceId(processInstance.getId())
+            .processInstanceId(result.getProcessInstanceId())
             .singleResult();
 
         if (currentTask != null) {
@@ -194,40 +231,60 @@ public class DoorProcessController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Move all tasks and reviewer/designer assignments of one user to another
+     * 
+     * POST /api/door-process/reassignments
+     * Body: {
+     *   "fromUserId": "engineer1",
+     *   "toUserId": "engineer2",
+     *   "taskDefinitionKeys": ["designReview", "reviewDecision"]  // optional
+     * }
+     */
+    @PostMapping("/reassignments")
+    public ResponseEntity<Map<String, Object>> reassign(@RequestBody ReassignmentRequest request) {
+        if (request.getFromUserId() == null || request.getToUserId() == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "fromUserId and toUserId are required"));
+        }
+
+        LOG.info("👥 Reassigning work from {} to {}", request.getFromUserId(), request.getToUserId());
+        try {
+            return ResponseEntity.ok(reassignmentService.reassign(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Get process instance details
      * 
-     * GET /api/door-process/instance/{processInstanceId}
+     * GET /api/door-process/instance/{processInstanceId}?fullValues=false
+     * (binary and serialized object variables are listed in deferredVariables
+     * unless fullValues=true)
      */
     @GetMapping("/instance/{processInstanceId}")
     public ResponseEntity<Map<String, Object>> getProcessInstance(
-            @PathVariable String processInstanceId) {
+            @PathVariable String processInstanceId,
+            @RequestParam(defaultValue = "false") boolean fullValues) {
 
-        ProcessInstance pi = runtimeService.createProcessInstanceQuery()
-            .processInstanceId(processInstanceId)
-            .singleResult();
+        ProcessDetail detail = processDetailLoader.load(processInstanceId, fullValues)
+            .filter(ProcessDetail::isActive)
+            .orElse(null);
 
-        if (pi == null) {
+        if (detail == null) {
             return ResponseEntity.notFound().build();
         }
 
         Map<String, Object> response = new HashMap<>();
-        response.put("processInstanceId", pi.getId());
-        response.put("businessKey", pi.getBusinessKey());
-        response.put("processDefinitionId", pi.getProcessDefinitionId());
+        response.put("processInstanceId", detail.getProcessInstance().getId());
+        response.put("businessKey", detail.getProcessInstance().getBusinessKey());
+        response.put("processDefinitionId", detail.getProcessInstance().getProcessDefinitionId());
         response.put("isActive", true);
-
-        // Get variables
-        Map<String, Object> variables = runtimeService.getVariables(processInstanceId);
-        response.put("variables", variables);
-
-        // Get current tasks
-        List<Task> tasks = taskService.createTaskQuery()
-            .processInstanceId(processInstanceId)
-            .list();
+        response.put("variables", detail.getVariables());
+        response.put("deferredVariables", detail.getDeferredVariables());
 
         List<Map<String, String>> currentTasks = new ArrayList<>();
-        for (Task task : tasks) {
+        for (Task task : detail.getCurrentTasks()) {
             Map<String, String> taskInfo = new HashMap<>();
             taskInfo.put("taskId", task.getId());
             taskInfo.put("taskName", task.getName());
@@ -236,6 +293,51 @@ public class DoorProcessController {
         }
         response.put("currentTasks", currentTasks);
 
+        List<Map<String, Object>> timeline = new ArrayList<>();
+        for (HistoricActivityInstance activity : detail.getTimeline()) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("activityId", activity.getActivityId());
+            entry.put("activityName", activity.getActivityName());
+            entry.put("activityType", activity.getActivityType());
+            entry.put("assignee", activity.getAssignee());
+            entry.put("startTime", activity.getStartTime());
+            entry.put("endTime", activity.getEndTime());
+            entry.put("durationInMillis", activity.getDurationInMillis());
+            timeline.add(entry);
+        }
+        response.put("timeline", timeline);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get audit journal entries of a process instance
+     * 
+     * GET /api/door-process/instance/{processInstanceId}/audit?from=...&to=...
+     * (from/to in epoch millis, both optional)
+     */
+    @GetMapping("/instance/{processInstanceId}/audit")
+    public ResponseEntity<List<Map<String, Object>>> getAuditTrail(
+            @PathVariable String processInstanceId,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to) throws java.io.IOException {
+
+        List<AuditEvent> events = auditJournal.query(processInstanceId,
+            from != null ? from : 0L,
+            to != null ? to : Long.MAX_VALUE);
+
+        List<Map<String, Object>> response = new ArrayList<>();
+        for (AuditEvent event : events) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("timestamp", new Date(event.getTimestamp()));
+            entry.put("type", event.getType().name());
+            entry.put("activityId", event.getActivityId());
+            entry.put("actor", event.getActor());
+            entry.put("subject", event.getSubject());
+            entry.put("detail", event.getDetail());
+            response.add(entry);
+        }
+
         return ResponseEntity.ok(response);
     }
 
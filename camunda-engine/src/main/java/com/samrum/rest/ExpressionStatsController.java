@@ -0,0 +1,61 @@
+package com.samrum.rest;
+
+import com.samrum.expression.ExpressionProfiler;
+import com.samrum.expression.ExpressionStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+
+/**
+ * REST Controller for BPMN expression evaluation statistics
+ *
+ * Shows how often each gateway condition and task assignee expression is
+ * evaluated, how long it takes, and how often the fast path answered.
+ */
+@RestController
+@RequestMapping("/api/door-process/expressions")
+@CrossOrigin(origins = "*")
+public class ExpressionStatsController {
+
+    @Autowired
+    private ExpressionProfiler profiler;
+
+    /**
+     * GET /api/door-process/expressions/stats?processDefinitionKey=...
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<List<Map<String, Object>>> getStats(
+            @RequestParam(required = false) String processDefinitionKey) {
+
+        List<Map<String, Object>> response = new ArrayList<>();
+        for (ExpressionStats stats : profiler.snapshot()) {
+            if (processDefinitionKey != null && !processDefinitionKey.equals(stats.getProcessDefinitionKey())) {
+                continue;
+            }
+            long count = stats.getCount();
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("processDefinitionKey", stats.getProcessDefinitionKey());
+            entry.put("activityId", stats.getActivityId());
+            entry.put("kind", stats.getKind());
+            entry.put("expression", stats.getExpressionText());
+            entry.put("count", count);
+            entry.put("fastPathCount", stats.getFastPathCount());
+            entry.put("totalMicros", stats.getTotalNanos() / 1000);
+            entry.put("avgNanos", count > 0 ? stats.getTotalNanos() / count : 0);
+            entry.put("maxNanos", stats.getMaxNanos());
+            response.add(entry);
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * DELETE /api/door-process/expressions/stats
+     */
+    @DeleteMapping("/stats")
+    public ResponseEntity<Map<String, Object>> resetStats() {
+        profiler.reset();
+        return ResponseEntity.ok(Map.of("reset", true));
+    }
+}
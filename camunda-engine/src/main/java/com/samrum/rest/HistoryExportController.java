@@ -0,0 +1,80 @@
+package com.samrum.rest;
+
+import com.samrum.export.HistoryExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * REST Controller for the analytics history export
+ *
+ * The export runs on a schedule (samrum.export.cron); these endpoints trigger
+ * an incremental run or the re-export of one day on demand and show the
+ * result of the last run.
+ */
+@RestController
+@RequestMapping("/api/door-process/exports")
+@CrossOrigin(origins = "*")
+public class HistoryExportController {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HistoryExportController.class);
+
+    @Autowired
+    private HistoryExportService exportService;
+
+    /**
+     * POST /api/door-process/exports
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> runExport() {
+        LOG.info("📦 History export requested");
+        try {
+            return ResponseEntity.ok(exportService.export());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            LOG.error("History export failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/door-process/exports/days/{day}
+     *
+     * Re-exports one already exported day (yyyy-MM-dd, UTC), replacing its parts.
+     */
+    @PostMapping("/days/{day}")
+    public ResponseEntity<Map<String, Object>> reexportDay(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day) {
+        LOG.info("📦 Re-export of {} requested", day);
+        try {
+            return ResponseEntity.ok(exportService.reexport(day));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            LOG.error("History re-export of {} failed", day, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/door-process/exports/last
+     */
+    @GetMapping("/last")
+    public ResponseEntity<Map<String, Object>> getLastExport() {
+        Map<String, Object> response = new HashMap<>(exportService.getLastRun());
+        response.put("running", exportService.isRunning());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,40 @@
+package com.samrum.rest;
+
+import com.samrum.correlation.BatchCorrelationService;
+import com.samrum.dto.CorrelationMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller for maintenance system callbacks
+ */
+@RestController
+@RequestMapping("/api/door-process/messages")
+@CrossOrigin(origins = "*")
+public class MessageCorrelationController {
+
+    @Autowired
+    private BatchCorrelationService batchCorrelationService;
+
+    /**
+     * Correlate a batch of messages by work order number; messages that
+     * could not be correlated are listed under "unmatched"
+     *
+     * POST /api/door-process/messages/correlate
+     */
+    @PostMapping("/correlate")
+    public ResponseEntity<Map<String, Object>> correlate(@RequestBody List<CorrelationMessage> messages) {
+        if (messages == null || messages.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "No messages"));
+        }
+        try {
+            return ResponseEntity.ok(batchCorrelationService.correlate(messages));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.samrum.rest;
+
+import com.samrum.dto.MigrationRequest;
+import com.samrum.migration.MigrationRun;
+import com.samrum.migration.ProcessMigrationService;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.migration.MigrationInstruction;
+import org.camunda.bpm.engine.migration.MigrationInstructionValidationReport;
+import org.camunda.bpm.engine.migration.MigrationPlan;
+import org.camunda.bpm.engine.migration.MigrationPlanValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+
+/**
+ * REST Controller for process instance migration
+ *
+ * Provides APIs to:
+ * - Validate a migration plan between two process definition versions
+ * - Start a migration run and follow its progress
+ * - List instances that failed to migrate
+ * - Cancel a running migration
+ */
+@RestController
+@RequestMapping("/api/door-process/migrations")
+@CrossOrigin(origins = "*")
+public class MigrationController {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MigrationController.class);
+
+    @Autowired
+    private ProcessMigrationService migrationService;
+
+    /**
+     * Build and validate a migration plan without migrating anything
+     *
+     * POST /api/door-process/migrations/plan
+     * Body: {
+     *   "processDefinitionKey": "door-management-process",
+     *   "sourceVersion": 1,
+     *   "targetVersion": 2
+     * }
+     */
+    @PostMapping("/plan")
+    public ResponseEntity<Map<String, Object>> validatePlan(@RequestBody MigrationRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            MigrationPlan plan = migrationService.plan(request);
+            response.put("valid", true);
+            response.put("sourceProcessDefinitionId", plan.getSourceProcessDefinitionId());
+            response.put("targetProcessDefinitionId", plan.getTargetProcessDefinitionId());
+            response.put("instanceCount", migrationService.countInstances(plan.getSourceProcessDefinitionId()));
+
+            List<Map<String, Object>> instructions = new ArrayList<>();
+            for (MigrationInstruction instruction : plan.getInstructions()) {
+                instructions.add(instruction(instruction));
+            }
+            response.put("instructions", instructions);
+            return ResponseEntity.ok(response);
+
+        } catch (MigrationPlanValidationException e) {
+            response.put("valid", false);
+            List<Map<String, Object>> failures = new ArrayList<>();
+            for (MigrationInstructionValidationReport report : e.getValidationReport().getInstructionReports()) {
+                Map<String, Object> failure = instruction(report.getMigrationInstruction());
+                failure.put("failures", report.getFailures());
+                failures.add(failure);
+            }
+            response.put("failures", failures);
+            return ResponseEntity.badRequest().body(response);
+
+        } catch (IllegalArgumentException | ProcessEngineException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Start migrating all instances of the source version
+     *
+     * POST /api/door-process/migrations
+     * Body: {
+     *   "processDefinitionKey": "door-management-process",
+     *   "chunkSize": 200,
+     *   "parallelism": 8
+     * }
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> startMigration(@RequestBody MigrationRequest request) {
+        try {
+            MigrationRun run = migrationService.start(request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(toMap(run));
+        } catch (MigrationPlanValidationException e) {
+            LOG.warn("Invalid migration plan: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException | ProcessEngineException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/door-process/migrations
+     */
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> getMigrations() {
+        List<Map<String, Object>> response = new ArrayList<>();
+        for (MigrationRun run : migrationService.findAll()) {
+            response.add(toMap(run));
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * GET /api/door-process/migrations/{runId}
+     */
+    @GetMapping("/{runId}")
+    public ResponseEntity<Map<String, Object>> getMigration(@PathVariable String runId) {
+        return migrationService.find(runId)
+            .map(run -> ResponseEntity.ok(toMap(run)))
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /api/door-process/migrations/{runId}/failures?limit=100
+     */
+    @GetMapping("/{runId}/failures")
+    public ResponseEntity<List<Map<String, Object>>> getFailures(
+            @PathVariable String runId,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(migrationService.failures(runId, limit));
+    }
+
+    /**
+     * POST /api/door-process/migrations/{runId}/cancel
+     */
+    @PostMapping("/{runId}/cancel")
+    public ResponseEntity<Map<String, Object>> cancelMigration(@PathVariable String runId) {
+        if (!migrationService.cancel(runId)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Migration is not running"));
+        }
+        LOG.info("🛑 Migration {} cancelled", runId);
+        return ResponseEntity.ok(Map.of("runId", runId, "state", MigrationRun.State.CANCELLED.name()));
+    }
+
+    private static Map<String, Object> instruction(MigrationInstruction instruction) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("sourceActivityId", instruction.getSourceActivityId());
+        result.put("targetActivityId", instruction.getTargetActivityId());
+        result.put("updateEventTrigger", instruction.isUpdateEventTrigger());
+        return result;
+    }
+
+    private static Map<String, Object> toMap(MigrationRun run) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("runId", run.getId());
+        result.put("state", run.getState().name());
+        result.put("sourceProcessDefinitionId", run.getSourceProcessDefinitionId());
+        result.put("targetProcessDefinitionId", run.getTargetProcessDefinitionId());
+        result.put("chunkSize", run.getChunkSize());
+        result.put("parallelism", run.getParallelism());
+        result.put("total", run.getTotal());
+        result.put("migrated", run.getMigrated());
+        result.put("failed", run.getFailed());
+        result.put("started", run.getStarted());
+        result.put("ended", run.getEnded());
+        result.put("instancesPerSecond", Math.round(run.getThroughput() * 10.0) / 10.0);
+        return result;
+    }
+}
@@ -0,0 +1,53 @@
+package com.samrum.rest;
+
+import com.samrum.sla.SlaMonitor;
+import com.samrum.sla.SlaStage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * REST Controller for the user task SLA monitor
+ */
+@RestController
+@RequestMapping("/api/door-process/sla")
+@CrossOrigin(origins = "*")
+public class SlaController {
+
+    @Autowired
+    private SlaMonitor slaMonitor;
+
+    /**
+     * GET /api/door-process/sla
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(slaMonitor.getStatus());
+    }
+
+    /**
+     * Deadline and next escalation of a task
+     *
+     * GET /api/door-process/sla/tasks/{taskId}
+     */
+    @GetMapping("/tasks/{taskId}")
+    public ResponseEntity<Map<String, Object>> getTask(@PathVariable String taskId) {
+        return slaMonitor.getTimer(taskId)
+            .map(timer -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("taskId", timer.getTaskId());
+                response.put("taskDefinitionKey", timer.getTaskDefinitionKey());
+                response.put("deadline", new Date(timer.getDeadline()));
+                response.put("stagesDone", timer.getStage());
+                SlaStage next = SlaStage.after(timer.getStage());
+                response.put("nextStage", next != null ? next.name() : null);
+                response.put("nextStageAt", new Date(timer.getFireAt()));
+                return ResponseEntity.ok(response);
+            })
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,84 @@
+package com.samrum.rest;
+
+import com.samrum.dispatch.QueuedTask;
+import com.samrum.dispatch.TaskDispatchQueue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+
+/**
+ * REST Controller for candidate group task dispatch
+ *
+ * Hands out the next unassigned task of a candidate group (engineers,
+ * designers, facility-managers, technicians, quality-inspectors, ...) and
+ * claims it for the caller, instead of every user querying and claiming.
+ */
+@RestController
+@RequestMapping("/api/door-process/groups")
+@CrossOrigin(origins = "*")
+public class TaskDispatchController {
+
+    @Autowired
+    private TaskDispatchQueue dispatchQueue;
+
+    /**
+     * Claim the next task of a group
+     *
+     * POST /api/door-process/groups/{group}/next?userId=technician1
+     *
+     * 200 with the claimed task, 204 if the group has no unassigned task.
+     */
+    @PostMapping("/{group}/next")
+    public ResponseEntity<Map<String, Object>> nextTask(
+            @PathVariable String group,
+            @RequestParam String userId) {
+
+        if (userId.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "userId is required"));
+        }
+        return dispatchQueue.next(group, userId)
+            .map(task -> {
+                Map<String, Object> response = toMap(task);
+                response.put("assignee", userId);
+                response.put("group", group);
+                return ResponseEntity.ok(response);
+            })
+            .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    /**
+     * GET /api/door-process/groups
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Integer>> getQueueSizes() {
+        return ResponseEntity.ok(dispatchQueue.sizes());
+    }
+
+    /**
+     * GET /api/door-process/groups/{group}/queue?limit=20
+     */
+    @GetMapping("/{group}/queue")
+    public ResponseEntity<List<Map<String, Object>>> getQueue(
+            @PathVariable String group,
+            @RequestParam(defaultValue = "20") int limit) {
+        List<Map<String, Object>> response = new ArrayList<>();
+        for (QueuedTask task : dispatchQueue.peek(group, limit)) {
+            response.add(toMap(task));
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    private static Map<String, Object> toMap(QueuedTask task) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("taskId", task.getTaskId());
+        result.put("taskName", task.getName());
+        result.put("processInstanceId", task.getProcessInstanceId());
+        result.put("candidateGroups", task.getCandidateGroups());
+        result.put("dueDate", task.getDueDate());
+        result.put("assignedPriority", task.getAssignedPriority());
+        result.put("createTime", task.getCreateTime());
+        return result;
+    }
+}
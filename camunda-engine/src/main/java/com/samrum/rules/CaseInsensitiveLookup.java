@@ -0,0 +1,83 @@
+package com.samrum.rules;
+
+import java.util.List;
+
+/**
+ * Immutable, case-insensitive string to index lookup.
+ *
+ * Open-addressing table built once from a list of keys. Lookups hash the
+ * case-folded characters in place and compare with regionMatches, so matching
+ * a value needs neither toUpperCase() copies nor iteration over all keys.
+ */
+final class CaseInsensitiveLookup {
+
+    private final String[] keys;
+    private final int[] indexes;
+    private final int mask;
+
+    private CaseInsensitiveLookup(String[] keys, int[] indexes) {
+        this.keys = keys;
+        this.indexes = indexes;
+        this.mask = keys.length - 1;
+    }
+
+    /**
+     * Builds a lookup where each key maps to its position in the list.
+     */
+    static CaseInsensitiveLookup of(List<String> values) {
+        int capacity = Integer.highestOneBit(Math.max(2, values.size() * 2 - 1)) << 1;
+        String[] keys = new String[capacity];
+        int[] indexes = new int[capacity];
+
+        for (int i = 0; i < values.size(); i++) {
+            String key = values.get(i);
+            int slot = hash(key) & (capacity - 1);
+            while (keys[slot] != null) {
+                if (matches(keys[slot], key)) {
+                    throw new IllegalArgumentException("Duplicate rule key: " + key);
+                }
+                slot = (slot + 1) & (capacity - 1);
+            }
+            keys[slot] = key;
+            indexes[slot] = i;
+        }
+        return new CaseInsensitiveLookup(keys, indexes);
+    }
+
+    /**
+     * @return index of the matching key, or -1 if value is null or unknown
+     */
+    int indexOf(String value) {
+        if (value == null) {
+            return -1;
+        }
+        int slot = hash(value) & mask;
+        String key;
+        while ((key = keys[slot]) != null) {
+            if (matches(key, value)) {
+                return indexes[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    boolean contains(String value) {
+        return indexOf(value) >= 0;
+    }
+
+    private static boolean matches(String key, String value) {
+        return key.length() == value.length() && key.regionMatches(true, 0, value, 0, value.length());
+    }
+
+    /**
+     * Hash over case-folded characters, consistent with String.equalsIgnoreCase.
+     */
+    private static int hash(String value) {
+        int hash = 0;
+        for (int i = 0; i < value.length(); i++) {
+            hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(value.charAt(i)));
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
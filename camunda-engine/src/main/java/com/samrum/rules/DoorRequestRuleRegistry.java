@@ -0,0 +1,106 @@
+package com.samrum.rules;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the current compiled door request rules.
+ *
+ * Rules are loaded from samrum.rules.door-request.location (default: the
+ * versioned rule file on the classpath). When the location is a file on disk
+ * it is polled for changes and recompiled in the background; delegates always
+ * read the latest successfully compiled snapshot through {@link #current()}.
+ * A rule file that fails to compile is logged and the previous rules stay active.
+ */
+@Component
+public class DoorRequestRuleRegistry {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DoorRequestRuleRegistry.class);
+
+    private final ResourceLoader resourceLoader;
+
+    @Value("${samrum.rules.door-request.location:classpath:rules/door-request-rules.properties}")
+    private String location;
+
+    @Value("${samrum.rules.door-request.reload-interval-ms:5000}")
+    private long reloadIntervalMs;
+
+    private volatile DoorRequestRules rules;
+    private volatile long lastModified;
+    private ScheduledExecutorService reloader;
+
+    public DoorRequestRuleRegistry(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Resource resource = resourceLoader.getResource(location);
+        rules = load(resource);
+        LOG.info("Door request rules version {} loaded from {}", rules.getVersion(), location);
+
+        if (resource.isFile() && reloadIntervalMs > 0) {
+            File file = resource.getFile();
+            lastModified = file.lastModified();
+            reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "door-rules-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reloader.scheduleWithFixedDelay(() -> reloadIfChanged(resource, file),
+                reloadIntervalMs, reloadIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the latest compiled rules, never null
+     */
+    public DoorRequestRules current() {
+        return rules;
+    }
+
+    private void reloadIfChanged(Resource resource, File file) {
+        long modified = file.lastModified();
+        if (modified == lastModified) {
+            return;
+        }
+        lastModified = modified;
+        try {
+            DoorRequestRules reloaded = load(resource);
+            String previous = rules.getVersion();
+            rules = reloaded;
+            LOG.info("Door request rules reloaded: version {} -> {}", previous, reloaded.getVersion());
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Invalid door request rules in {} - keeping version {}", location, rules.getVersion(), e);
+        }
+    }
+
+    private static DoorRequestRules load(Resource resource) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = resource.getInputStream()) {
+            properties.load(input);
+        }
+        return DoorRequestRules.compile(properties);
+    }
+}
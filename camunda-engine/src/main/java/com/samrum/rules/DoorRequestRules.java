@@ -0,0 +1,177 @@
+package com.samrum.rules;
+
+import java.util.*;
+
+/**
+ * Compiled door request rules.
+ *
+ * Immutable snapshot of the validation and priority rules, precomputed from
+ * the rule file so that evaluating a request does no parsing, no string
+ * normalisation and no allocation:
+ * - supported door types as a case-insensitive lookup table
+ * - budget thresholds (minimum, additional approval)
+ * - priority matrix indexed by urgency and budget band
+ *
+ * Rule file format (properties):
+ *
+ *   rules.version=3
+ *   door-types=SINGLE_STANDARD,DOUBLE_STANDARD,...
+ *   budget.minimum=0
+ *   budget.additional-approval-threshold=50000
+ *   priority.budget-bands=25000
+ *   priority.default-urgency=MEDIUM
+ *   priority.fallback=P3_MEDIUM
+ *   priority.matrix.HIGH=P2_HIGH,P1_CRITICAL
+ *
+ * A priority matrix row has one priority per budget band: the first applies
+ * up to and including the first band limit, the last above the highest one.
+ */
+public final class DoorRequestRules {
+
+    private final String version;
+    private final CaseInsensitiveLookup doorTypes;
+    private final double minimumBudget;
+    private final double additionalApprovalThreshold;
+    private final double[] budgetBands;
+    private final CaseInsensitiveLookup urgencies;
+    private final String[][] priorityMatrix;
+    private final int defaultUrgency;
+    private final String fallbackPriority;
+
+    private DoorRequestRules(String version, CaseInsensitiveLookup doorTypes, double minimumBudget,
+                             double additionalApprovalThreshold, double[] budgetBands,
+                             CaseInsensitiveLookup urgencies, String[][] priorityMatrix,
+                             int defaultUrgency, String fallbackPriority) {
+        this.version = version;
+        this.doorTypes = doorTypes;
+        this.minimumBudget = minimumBudget;
+        this.additionalApprovalThreshold = additionalApprovalThreshold;
+        this.budgetBands = budgetBands;
+        this.urgencies = urgencies;
+        this.priorityMatrix = priorityMatrix;
+        this.defaultUrgency = defaultUrgency;
+        this.fallbackPriority = fallbackPriority;
+    }
+
+    /**
+     * Compiles rules from their properties representation.
+     *
+     * @throws IllegalArgumentException if the rule file is incomplete or inconsistent
+     */
+    public static DoorRequestRules compile(Properties properties) {
+        String version = required(properties, "rules.version");
+        List<String> doorTypes = list(required(properties, "door-types"));
+        double minimumBudget = Double.parseDouble(properties.getProperty("budget.minimum", "0"));
+        double additionalApproval = Double.parseDouble(required(properties, "budget.additional-approval-threshold"));
+
+        List<String> bandValues = list(properties.getProperty("priority.budget-bands", ""));
+        double[] bands = new double[bandValues.size()];
+        for (int i = 0; i < bands.length; i++) {
+            bands[i] = Double.parseDouble(bandValues.get(i));
+            if (i > 0 && bands[i] <= bands[i - 1]) {
+                throw new IllegalArgumentException("priority.budget-bands must be ascending");
+            }
+        }
+
+        String matrixPrefix = "priority.matrix.";
+        List<String> urgencies = new ArrayList<>();
+        List<String[]> rows = new ArrayList<>();
+        for (String name : new TreeSet<>(properties.stringPropertyNames())) {
+            if (!name.startsWith(matrixPrefix)) {
+                continue;
+            }
+            List<String> row = list(properties.getProperty(name));
+            if (row.size() != bands.length + 1) {
+                throw new IllegalArgumentException(name + " needs " + (bands.length + 1) + " priorities");
+            }
+            urgencies.add(name.substring(matrixPrefix.length()));
+            rows.add(row.toArray(new String[0]));
+        }
+        if (urgencies.isEmpty()) {
+            throw new IllegalArgumentException("No priority.matrix.* entries defined");
+        }
+
+        CaseInsensitiveLookup urgencyLookup = CaseInsensitiveLookup.of(urgencies);
+        int defaultUrgency = urgencyLookup.indexOf(properties.getProperty("priority.default-urgency", "MEDIUM"));
+        if (defaultUrgency < 0) {
+            throw new IllegalArgumentException("priority.default-urgency is not part of the priority matrix");
+        }
+
+        return new DoorRequestRules(
+            version,
+            CaseInsensitiveLookup.of(doorTypes),
+            minimumBudget,
+            additionalApproval,
+            bands,
+            urgencyLookup,
+            rows.toArray(new String[0][]),
+            defaultUrgency,
+            required(properties, "priority.fallback"));
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Validates if the door type is supported (case-insensitive)
+     */
+    public boolean isValidDoorType(String doorType) {
+        return doorTypes.contains(doorType);
+    }
+
+    /**
+     * Budget must be present and above the configured minimum
+     */
+    public boolean isValidBudget(Double budget) {
+        return budget != null && budget > minimumBudget;
+    }
+
+    /**
+     * High budget requests require additional approval
+     */
+    public boolean requiresAdditionalApproval(double budget) {
+        return budget > additionalApprovalThreshold;
+    }
+
+    /**
+     * Calculates priority based on urgency and budget
+     */
+    public String priorityFor(String urgency, Double budget) {
+        int row = urgency == null ? defaultUrgency : urgencies.indexOf(urgency);
+        if (row < 0) {
+            return fallbackPriority;
+        }
+        return priorityMatrix[row][budgetBand(budget)];
+    }
+
+    private int budgetBand(Double budget) {
+        if (budget == null) {
+            return 0;
+        }
+        double value = budget;
+        int band = 0;
+        while (band < budgetBands.length && value > budgetBands[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    private static String required(Properties properties, String name) {
+        String value = properties.getProperty(name);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing rule property: " + name);
+        }
+        return value.trim();
+    }
+
+    private static List<String> list(String value) {
+        List<String> values = new ArrayList<>();
+        for (String item : value.split(",")) {
+            if (!item.trim().isEmpty()) {
+                values.add(item.trim());
+            }
+        }
+        return values;
+    }
+}
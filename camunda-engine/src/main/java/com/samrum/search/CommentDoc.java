@@ -0,0 +1,99 @@
+package com.samrum.search;
+
+import java.util.Date;
+
+/**
+ * One indexed comment: the value of a text variable (comments,
+ * rejectionReason) of a process instance.
+ */
+public class CommentDoc {
+
+    private final int docId;
+    private final String variableInstanceId;
+    private final String variableName;
+    private final String text;
+    private final long time;
+    private final ProcessInfo process;
+
+    CommentDoc(int docId, String variableInstanceId, String variableName, String text, long time, ProcessInfo process) {
+        this.docId = docId;
+        this.variableInstanceId = variableInstanceId;
+        this.variableName = variableName;
+        this.text = text;
+        this.time = time;
+        this.process = process;
+    }
+
+    int getDocId() {
+        return docId;
+    }
+
+    ProcessInfo getProcess() {
+        return process;
+    }
+
+    public String getVariableInstanceId() {
+        return variableInstanceId;
+    }
+
+    public String getVariableName() {
+        return variableName;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * When the comment was written (epoch millis).
+     */
+    public long getTime() {
+        return time;
+    }
+
+    public Date getDate() {
+        return new Date(time);
+    }
+
+    public String getProcessInstanceId() {
+        return process.processInstanceId;
+    }
+
+    public String getProcessDefinitionKey() {
+        return process.processDefinitionKey;
+    }
+
+    public String getBusinessKey() {
+        return process.businessKey;
+    }
+
+    /**
+     * End event id of a completed instance, the lowercased end state of a
+     * cancelled one, or "active".
+     */
+    public String getOutcome() {
+        return process.outcome;
+    }
+
+    /**
+     * Index data shared by all comments of a process instance.
+     */
+    static final class ProcessInfo {
+
+        final String processInstanceId;
+        final String processDefinitionKey;
+        volatile String businessKey;
+        volatile boolean businessKeyLoaded;
+        volatile String outcome;
+        // epoch millis, 0 while the instance is active
+        volatile long endTime;
+        // live comments of the instance, guarded by the CommentIndex
+        int commentCount;
+
+        ProcessInfo(String processInstanceId, String processDefinitionKey, String outcome) {
+            this.processInstanceId = processInstanceId;
+            this.processDefinitionKey = processDefinitionKey;
+            this.outcome = outcome;
+        }
+    }
+}
@@ -0,0 +1,508 @@
+package com.samrum.search;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.impl.history.event.HistoricProcessInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricVariableUpdateEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comment Index
+ *
+ * Embedded inverted index over free-text process variables (review comments,
+ * rejection reasons), so they can be searched without loading historic
+ * variables:
+ *
+ *   term -> sorted ids of the comments containing it
+ *
+ * - kept up to date from variable create/update/delete history events after
+ *   the engine transaction committed; process end events set the outcome
+ * - rebuilt from ACT_HI_VARINST in the background on startup
+ * - string variables and bytes variables (UTF-8 text too long for TEXT_)
+ * - comments of processes that ended more than ended-retention-days ago are
+ *   evicted, and the doc table is compacted once most of its slots are free
+ * - all query terms must match; a term ending in * matches as a prefix
+ *   (the term dictionary is a sorted map, so a prefix is a range scan)
+ *
+ * The index lives in memory on every node and is not persisted.
+ */
+@Component
+public class CommentIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CommentIndex.class);
+
+    private static final String VARIABLE_CREATE = HistoryEventTypes.VARIABLE_INSTANCE_CREATE.getEventName();
+    private static final String VARIABLE_UPDATE = HistoryEventTypes.VARIABLE_INSTANCE_UPDATE.getEventName();
+    private static final String VARIABLE_DELETE = HistoryEventTypes.VARIABLE_INSTANCE_DELETE.getEventName();
+    private static final String PROCESS_END = HistoryEventTypes.PROCESS_INSTANCE_END.getEventName();
+
+    private static final String ACTIVE = "active";
+    private static final String STRING_TYPE = "string";
+    private static final String BYTES_TYPE = "bytes";
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final String COMMENTS_SQL =
+        "SELECT V.ID_, V.NAME_, V.VAR_TYPE_, V.TEXT_, B.BYTES_, V.PROC_INST_ID_, V.PROC_DEF_KEY_, V.CREATE_TIME_, "
+            + "P.BUSINESS_KEY_, P.END_ACT_ID_, P.STATE_, P.END_TIME_ "
+            + "FROM ACT_HI_VARINST V JOIN ACT_HI_PROCINST P ON P.ID_ = V.PROC_INST_ID_ "
+            + "LEFT JOIN ACT_GE_BYTEARRAY B ON B.ID_ = V.BYTEARRAY_ID_ "
+            + "WHERE V.STATE_ = 'CREATED' AND V.NAME_ IN (%s) "
+            + "AND ((V.VAR_TYPE_ = '" + STRING_TYPE + "' AND V.TEXT_ IS NOT NULL) "
+            + "OR (V.VAR_TYPE_ = '" + BYTES_TYPE + "' AND V.BYTEARRAY_ID_ IS NOT NULL)) "
+            + "AND (P.END_TIME_ IS NULL OR P.END_TIME_ >= ?) "
+            + "ORDER BY V.CREATE_TIME_";
+
+    @Autowired
+    private HistoryService historyService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${samrum.search.variables:comments,rejectionReason}")
+    private Set<String> variables;
+
+    @Value("${samrum.search.fetch-size:1000}")
+    private int fetchSize;
+
+    // prefix terms expanding to more dictionary entries than this are rejected
+    @Value("${samrum.search.max-prefix-terms:10000}")
+    private int maxPrefixTerms;
+
+    // comments of processes that ended longer ago than this are evicted
+    @Value("${samrum.search.ended-retention-days:90}")
+    private int endedRetentionDays;
+
+    // searches read the current segment; writers hold the index lock
+    private volatile Segment segment = new Segment(INITIAL_CAPACITY);
+    private volatile int commentCount;
+    private int nextDocId;
+    private final Map<String, Integer> docsByVariable = new HashMap<>();
+    private final Map<String, CommentDoc.ProcessInfo> processes = new ConcurrentHashMap<>();
+
+    // variables deleted while the rebuild runs must not be re-added by it
+    private final Set<String> deletedDuringRebuild = new HashSet<>();
+    private volatile boolean rebuilding;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void startRebuild() {
+        // one rebuild per node, also when several contexts publish the event
+        if (rebuilding || ready) {
+            return;
+        }
+        rebuilding = true;
+        Thread thread = new Thread(this::rebuild, "comment-index-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVariable(HistoricVariableUpdateEventEntity event) {
+        if (event.getProcessInstanceId() == null || !variables.contains(event.getVariableName())) {
+            return;
+        }
+        String eventType = event.getEventType();
+        if (VARIABLE_DELETE.equals(eventType)) {
+            delete(event.getVariableInstanceId());
+        } else if (VARIABLE_CREATE.equals(eventType) || VARIABLE_UPDATE.equals(eventType)) {
+            long time = event.getTimestamp() != null ? event.getTimestamp().getTime() : System.currentTimeMillis();
+            index(event.getVariableInstanceId(), event.getVariableName(),
+                text(event.getSerializerName(), event.getTextValue(), event.getByteValue()), time,
+                event.getProcessInstanceId(), event.getProcessDefinitionKey());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProcessInstance(HistoricProcessInstanceEventEntity event) {
+        if (!PROCESS_END.equals(event.getEventType())) {
+            return;
+        }
+        CommentDoc.ProcessInfo process = processes.get(event.getProcessInstanceId());
+        if (process != null) {
+            process.outcome = outcome(event.getState(), event.getEndActivityId());
+            process.endTime = event.getEndTime() != null ? event.getEndTime().getTime() : System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Evicts the comments of processes that ended before the retention window
+     * and compacts the doc table when less than half of its ids are live.
+     */
+    @Scheduled(fixedDelayString = "${samrum.search.prune-interval-ms:3600000}")
+    public synchronized void prune() {
+        long cutoff = retentionCutoff();
+        CommentDoc[] table = segment.docs;
+        List<String> evicted = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : docsByVariable.entrySet()) {
+            long endTime = table[entry.getValue()].getProcess().endTime;
+            if (endTime != 0 && endTime < cutoff) {
+                evicted.add(entry.getKey());
+            }
+        }
+        evicted.forEach(this::remove);
+        int freed = nextDocId - commentCount;
+        if (nextDocId > INITIAL_CAPACITY && freed > nextDocId / 2) {
+            compact();
+        }
+        if (!evicted.isEmpty() || freed > 0) {
+            LOG.debug("Comment index pruned: {} comments of ended processes evicted, {} live", evicted.size(), commentCount);
+        }
+    }
+
+    /**
+     * Finds the process instances with a comment matching all query terms.
+     *
+     * @param processDefinitionKey optional filter
+     * @param outcome              optional filter, see CommentDoc.getOutcome()
+     * @param from                 optional, earliest comment time (epoch millis)
+     * @param to                   optional, latest comment time (epoch millis)
+     * @throws IllegalArgumentException if the query has no searchable term
+     */
+    public CommentSearchResult search(String query, String processDefinitionKey, String outcome,
+                                      Long from, Long to, int limit) {
+        Segment current = segment;
+        List<int[]> matches = new ArrayList<>();
+        for (String part : query.trim().split("\\s+")) {
+            boolean prefix = part.endsWith("*");
+            List<String> partTerms = new ArrayList<>(CommentTokenizer.tokenize(prefix ? part.substring(0, part.length() - 1) : part));
+            for (int i = 0; i < partTerms.size(); i++) {
+                String term = partTerms.get(i);
+                matches.add(prefix && i == partTerms.size() - 1
+                    ? prefixMatches(current, term)
+                    : exactMatches(current, term));
+            }
+        }
+        if (matches.isEmpty()) {
+            throw new IllegalArgumentException("Query has no searchable terms (at least "
+                + CommentTokenizer.MIN_LENGTH + " letters or digits)");
+        }
+
+        matches.sort(Comparator.comparingInt(ids -> ids.length));
+        int[] candidates = matches.get(0);
+        for (int i = 1; i < matches.size() && candidates.length > 0; i++) {
+            candidates = intersect(candidates, matches.get(i));
+        }
+
+        CommentDoc[] table = current.docs;
+        Map<CommentDoc.ProcessInfo, CommentDoc> latest = new HashMap<>();
+        int totalComments = 0;
+        for (int id : candidates) {
+            CommentDoc doc = id < table.length ? table[id] : null;
+            if (doc == null || !accepts(doc, processDefinitionKey, outcome, from, to)) {
+                continue;
+            }
+            totalComments++;
+            latest.merge(doc.getProcess(), doc, (a, b) -> a.getTime() >= b.getTime() ? a : b);
+        }
+
+        // newest first; only the page is ordered
+        Comparator<CommentDoc> newestFirst = Comparator.comparingLong(CommentDoc::getTime).reversed()
+            .thenComparing(CommentDoc::getProcessInstanceId);
+        PriorityQueue<CommentDoc> page = new PriorityQueue<>(limit + 1, newestFirst.reversed());
+        for (CommentDoc doc : latest.values()) {
+            page.add(doc);
+            if (page.size() > limit) {
+                page.poll();
+            }
+        }
+        List<CommentDoc> hits = new ArrayList<>(page);
+        hits.sort(newestFirst);
+        fillBusinessKeys(hits);
+        return new CommentSearchResult(latest.size(), totalComments, hits);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int getCommentCount() {
+        return commentCount;
+    }
+
+    public int getTermCount() {
+        return segment.terms.size();
+    }
+
+    int getProcessCount() {
+        return processes.size();
+    }
+
+    /**
+     * Replaces the comment of a variable; a blank text only removes it.
+     *
+     * @return the process the comment was indexed for, null if it was blank
+     */
+    private synchronized CommentDoc.ProcessInfo index(String variableInstanceId, String variableName, String text,
+                                                      long time, String processInstanceId, String processDefinitionKey) {
+        remove(variableInstanceId);
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        CommentDoc.ProcessInfo process = processes.computeIfAbsent(processInstanceId,
+            id -> new CommentDoc.ProcessInfo(id, processDefinitionKey, ACTIVE));
+        add(segment, new CommentDoc(nextDocId++, variableInstanceId, variableName, text, time, process));
+        commentCount++;
+        process.commentCount++;
+        return process;
+    }
+
+    private synchronized void delete(String variableInstanceId) {
+        if (rebuilding) {
+            deletedDuringRebuild.add(variableInstanceId);
+        }
+        remove(variableInstanceId);
+    }
+
+    private synchronized void remove(String variableInstanceId) {
+        Integer docId = docsByVariable.remove(variableInstanceId);
+        if (docId == null) {
+            return;
+        }
+        Segment current = segment;
+        CommentDoc doc = current.docs[docId];
+        current.docs[docId] = null;
+        commentCount--;
+        for (String term : CommentTokenizer.tokenize(doc.getText())) {
+            Postings postings = current.terms.get(term);
+            if (postings != null) {
+                postings.remove(docId);
+                if (postings.size() == 0) {
+                    current.terms.remove(term, postings);
+                }
+            }
+        }
+        CommentDoc.ProcessInfo process = doc.getProcess();
+        if (--process.commentCount == 0) {
+            processes.remove(process.processInstanceId, process);
+        }
+    }
+
+    /**
+     * Slot first, then postings: a search that saw the id in a postings
+     * snapshot also sees the slot.
+     */
+    private void add(Segment target, CommentDoc doc) {
+        int docId = doc.getDocId();
+        if (docId >= target.docs.length) {
+            target.docs = Arrays.copyOf(target.docs, Math.max(target.docs.length * 2, docId + 1));
+        }
+        target.docs[docId] = doc;
+        docsByVariable.put(doc.getVariableInstanceId(), docId);
+        for (String term : CommentTokenizer.tokenize(doc.getText())) {
+            target.terms.computeIfAbsent(term, t -> new Postings()).add(docId);
+        }
+    }
+
+    /**
+     * Renumbers the live comments into a new segment. Searches running on the
+     * old segment finish on it; ids of the two are never mixed.
+     */
+    private void compact() {
+        CommentDoc[] table = segment.docs;
+        Segment compacted = new Segment(Math.max(INITIAL_CAPACITY, commentCount * 2));
+        int docId = 0;
+        for (int i = 0; i < nextDocId; i++) {
+            CommentDoc doc = table[i];
+            if (doc != null) {
+                add(compacted, new CommentDoc(docId++, doc.getVariableInstanceId(), doc.getVariableName(),
+                    doc.getText(), doc.getTime(), doc.getProcess()));
+            }
+        }
+        nextDocId = docId;
+        segment = compacted;
+    }
+
+    private void rebuild() {
+        long started = System.currentTimeMillis();
+        int[] loaded = new int[1];
+        try {
+            String placeholders = String.join(",", Collections.nCopies(variables.size(), "?"));
+            List<Object> args = new ArrayList<>(variables);
+            args.add(new Timestamp(retentionCutoff()));
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            readOnly.executeWithoutResult(status -> {
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+                jdbcTemplate.setFetchSize(fetchSize);
+                jdbcTemplate.query(String.format(COMMENTS_SQL, placeholders), rs -> {
+                    String variableInstanceId = rs.getString("ID_");
+                    String text = text(rs.getString("VAR_TYPE_"), rs.getString("TEXT_"), rs.getBytes("BYTES_"));
+                    String state = rs.getString("STATE_");
+                    String outcome = state == null || HistoricProcessInstance.STATE_ACTIVE.equals(state)
+                        ? ACTIVE
+                        : outcome(state, rs.getString("END_ACT_ID_"));
+                    Timestamp ended = rs.getTimestamp("END_TIME_");
+                    Timestamp created = rs.getTimestamp("CREATE_TIME_");
+
+                    // checked under the same lock as the events, so a comment
+                    // updated or deleted meanwhile is not overwritten by its old row
+                    synchronized (this) {
+                        if (docsByVariable.containsKey(variableInstanceId) || deletedDuringRebuild.contains(variableInstanceId)) {
+                            return;
+                        }
+                        CommentDoc.ProcessInfo process = index(variableInstanceId, rs.getString("NAME_"), text,
+                            created != null ? created.getTime() : 0L,
+                            rs.getString("PROC_INST_ID_"), rs.getString("PROC_DEF_KEY_"));
+                        if (process == null) {
+                            return;
+                        }
+                        if (!process.businessKeyLoaded) {
+                            process.businessKey = rs.getString("BUSINESS_KEY_");
+                            process.businessKeyLoaded = true;
+                        }
+                        if (ACTIVE.equals(process.outcome)) {
+                            process.outcome = outcome;
+                            process.endTime = ended != null ? ended.getTime() : 0L;
+                        }
+                    }
+                    loaded[0]++;
+                }, args.toArray());
+            });
+            ready = true;
+            LOG.info("🔎 Comment index rebuilt: {} comments, {} terms in {} ms",
+                loaded[0], getTermCount(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            LOG.error("❌ Comment index rebuild failed after {} comments - search only covers new comments", loaded[0], e);
+        } finally {
+            synchronized (this) {
+                rebuilding = false;
+                deletedDuringRebuild.clear();
+            }
+        }
+    }
+
+    private long retentionCutoff() {
+        return System.currentTimeMillis() - TimeUnit.DAYS.toMillis(endedRetentionDays);
+    }
+
+    /**
+     * Text of a string variable, or of a bytes variable read as UTF-8; other
+     * types are not indexed.
+     */
+    private static String text(String type, String textValue, byte[] bytes) {
+        if (BYTES_TYPE.equals(type)) {
+            return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+        }
+        return STRING_TYPE.equals(type) ? textValue : null;
+    }
+
+    private static int[] exactMatches(Segment segment, String term) {
+        Postings postings = segment.terms.get(term);
+        return postings != null ? postings.snapshot() : new int[0];
+    }
+
+    private int[] prefixMatches(Segment segment, String prefix) {
+        NavigableMap<String, Postings> range = segment.terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        BitSet union = new BitSet();
+        int expanded = 0;
+        for (Postings postings : range.values()) {
+            if (++expanded > maxPrefixTerms) {
+                throw new IllegalArgumentException("Prefix " + prefix + "* matches too many terms");
+            }
+            for (int id : postings.snapshot()) {
+                union.set(id);
+            }
+        }
+        return union.stream().toArray();
+    }
+
+    /**
+     * Intersection of two sorted id arrays, galloping through the longer one.
+     */
+    private static int[] intersect(int[] shorter, int[] longer) {
+        int[] result = new int[shorter.length];
+        int size = 0;
+        int from = 0;
+        for (int id : shorter) {
+            int position = Arrays.binarySearch(longer, from, longer.length, id);
+            if (position >= 0) {
+                result[size++] = id;
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+            if (from >= longer.length) {
+                break;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static boolean accepts(CommentDoc doc, String processDefinitionKey, String outcome, Long from, Long to) {
+        return (processDefinitionKey == null || processDefinitionKey.equals(doc.getProcessDefinitionKey()))
+            && (outcome == null || outcome.equalsIgnoreCase(doc.getOutcome()))
+            && (from == null || doc.getTime() >= from)
+            && (to == null || doc.getTime() <= to);
+    }
+
+    /**
+     * Comments indexed from events do not know the business key of their
+     * process; it is looked up once for the instances on a result page.
+     */
+    private void fillBusinessKeys(List<CommentDoc> hits) {
+        Set<String> missing = new HashSet<>();
+        for (CommentDoc hit : hits) {
+            if (!hit.getProcess().businessKeyLoaded) {
+                missing.add(hit.getProcessInstanceId());
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        for (HistoricProcessInstance instance : historyService.createHistoricProcessInstanceQuery()
+                .processInstanceIds(missing)
+                .list()) {
+            CommentDoc.ProcessInfo process = processes.get(instance.getId());
+            if (process != null) {
+                process.businessKey = instance.getBusinessKey();
+            }
+        }
+        for (CommentDoc hit : hits) {
+            hit.getProcess().businessKeyLoaded = true;
+        }
+    }
+
+    private static String outcome(String state, String endActivityId) {
+        if (HistoricProcessInstance.STATE_COMPLETED.equals(state) && endActivityId != null) {
+            return endActivityId;
+        }
+        return state != null ? state.toLowerCase(Locale.ROOT) : "unknown";
+    }
+
+    /**
+     * Term dictionary and doc table; compaction swaps in a new one as a whole.
+     */
+    private static final class Segment {
+
+        final ConcurrentSkipListMap<String, Postings> terms = new ConcurrentSkipListMap<>();
+        // slot per doc id
+        volatile CommentDoc[] docs;
+
+        Segment(int capacity) {
+            docs = new CommentDoc[capacity];
+        }
+    }
+}
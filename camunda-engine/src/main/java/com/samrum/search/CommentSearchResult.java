@@ -0,0 +1,32 @@
+package com.samrum.search;
+
+import java.util.List;
+
+/**
+ * Result page of a comment search: the latest matching comment of each
+ * matching process instance, newest first.
+ */
+public class CommentSearchResult {
+
+    private final int totalInstances;
+    private final int totalComments;
+    private final List<CommentDoc> hits;
+
+    public CommentSearchResult(int totalInstances, int totalComments, List<CommentDoc> hits) {
+        this.totalInstances = totalInstances;
+        this.totalComments = totalComments;
+        this.hits = hits;
+    }
+
+    public int getTotalInstances() {
+        return totalInstances;
+    }
+
+    public int getTotalComments() {
+        return totalComments;
+    }
+
+    public List<CommentDoc> getHits() {
+        return hits;
+    }
+}
@@ -0,0 +1,48 @@
+package com.samrum.search;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Comment Tokenizer
+ *
+ * Splits text into lowercase terms at every character that is neither a
+ * letter nor a digit ("Fire-door A2, OK?" -> fire, door, a2, ok). Terms
+ * shorter than MIN_LENGTH are dropped, longer than MAX_LENGTH truncated.
+ * The same rules are applied to indexed text and to queries.
+ */
+public final class CommentTokenizer {
+
+    public static final int MIN_LENGTH = 2;
+    public static final int MAX_LENGTH = 40;
+
+    private CommentTokenizer() {
+    }
+
+    /**
+     * Distinct terms of the text, in order of first occurrence.
+     */
+    public static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean termChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (termChar && start < 0) {
+                start = i;
+            } else if (!termChar && start >= 0) {
+                if (i - start >= MIN_LENGTH) {
+                    terms.add(normalized.substring(start, Math.min(i, start + MAX_LENGTH)));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,50 @@
+package com.samrum.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted document ids of one term. Ids are mostly appended in increasing
+ * order, so add() is usually O(1); snapshot() gives readers a stable copy.
+ */
+final class Postings {
+
+    private int[] ids = new int[2];
+    private int size;
+
+    synchronized void add(int id) {
+        if (size > 0 && ids[size - 1] >= id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            insert(-position - 1, id);
+            return;
+        }
+        insert(size, id);
+    }
+
+    synchronized void remove(int id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0) {
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized int[] snapshot() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    private void insert(int position, int id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+        }
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        ids[position] = id;
+        size++;
+    }
+}
@@ -0,0 +1,57 @@
+package com.samrum.sla;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * JDBC access to the 'sla-monitor' row of SAMRUM_NODE_LEASE, which elects
+ * the one node that escalates overdue tasks.
+ */
+@Component
+public class SlaLeaseStore {
+
+    static final String LEASE = "sla-monitor";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SlaLeaseStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Takes or renews the lease if it is free, already ours or expired. The
+     * conditional update lets exactly one node win when several ask at once.
+     *
+     * @return true if this node holds the lease until leaseUntil
+     */
+    public boolean acquire(String owner, Date leaseUntil) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Timestamp until = new Timestamp(leaseUntil.getTime());
+        int updated = jdbcTemplate.update("UPDATE SAMRUM_NODE_LEASE SET OWNER_ = ?, LEASE_UNTIL_ = ? "
+                + "WHERE NAME_ = ? AND (OWNER_ IS NULL OR OWNER_ = ? OR LEASE_UNTIL_ IS NULL OR LEASE_UNTIL_ < ?)",
+            owner, until, LEASE, owner, now);
+        if (updated > 0) {
+            return true;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO SAMRUM_NODE_LEASE (NAME_, OWNER_, LEASE_UNTIL_) VALUES (?, ?, ?)",
+                LEASE, owner, until);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // the row exists and is held by another node
+            return false;
+        }
+    }
+
+    /**
+     * Gives the lease up so another node can take over without waiting for it to expire.
+     */
+    public void release(String owner) {
+        jdbcTemplate.update("UPDATE SAMRUM_NODE_LEASE SET OWNER_ = NULL, LEASE_UNTIL_ = NULL "
+            + "WHERE NAME_ = ? AND OWNER_ = ?", LEASE, owner);
+    }
+}
@@ -0,0 +1,543 @@
+package com.samrum.sla;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.task.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * SLA Monitor
+ *
+ * Watches the deadlines of all open user tasks without a timer job per task.
+ * The deadline of a task is its due date or, without one, its create time
+ * plus the default SLA of its task definition key (samrum.sla.defaults).
+ *
+ * - SlaTaskListener tracks tasks on create/update and drops them on
+ *   complete/delete, after the engine transaction committed; on startup the
+ *   open tasks are loaded from ACT_RU_TASK
+ * - tasks created on other nodes (requests or job executors) do not pass
+ *   through this node's listeners: every rescan-interval the tasks created
+ *   since the last scan (minus rescan-overlap for clock skew) are loaded
+ * - before a task is escalated its deadline is computed again from the task
+ *   row, so a due date changed on another node reschedules instead of firing
+ * - the deadlines sit in a TimingWheel ticked by one background thread
+ * - overdue tasks are escalated in SlaStage order (reminder comment, priority
+ *   bump, release to the candidate groups), batch-size tasks per transaction
+ *   and at most max-actions-per-tick per tick, so a burst of overdue tasks
+ *   never stalls the tick
+ *
+ * Every enabled node (samrum.sla.enabled) competes for a lease in
+ * SAMRUM_NODE_LEASE (SlaLeaseStore). Only the holder tracks and escalates; it
+ * renews the lease every lease-ms / 3 and stops escalating as soon as its
+ * lease ran out. A node that takes over rebuilds from ACT_RU_TASK, where the
+ * stages already done are kept in slaEscalation, so no stage runs twice.
+ */
+@Component
+public class SlaMonitor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SlaMonitor.class);
+
+    public static final String STAGE_VARIABLE = "slaEscalation";
+
+    private static final int MAX_PRIORITY = 100;
+
+    private static final String OPEN_TASKS_SQL =
+        "SELECT T.ID_, T.PROC_INST_ID_, T.TASK_DEF_KEY_, T.DUE_DATE_, T.CREATE_TIME_, V.LONG_ AS STAGE_ "
+            + "FROM ACT_RU_TASK T "
+            + "LEFT JOIN ACT_RU_VARIABLE V ON V.TASK_ID_ = T.ID_ AND V.NAME_ = '" + STAGE_VARIABLE + "'";
+
+    private static final String NEW_TASKS_SQL = OPEN_TASKS_SQL + " WHERE T.CREATE_TIME_ >= ?";
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SlaLeaseStore leaseStore;
+
+    @Value("${samrum.sla.enabled:true}")
+    private boolean enabled;
+
+    // lease owner; defaults to the host name
+    @Value("${samrum.sla.node-id:}")
+    private String nodeId;
+
+    @Value("${samrum.sla.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${samrum.sla.tick-ms:1000}")
+    private long tickMillis;
+
+    // taskDefinitionKey=duration, for tasks without a due date
+    @Value("${samrum.sla.defaults:designReview=48h,reviewDecision=24h,reviseDesign=72h}")
+    private List<String> defaults;
+
+    @Value("${samrum.sla.priority-after:4h}")
+    private String priorityAfter;
+
+    @Value("${samrum.sla.reassign-after:24h}")
+    private String reassignAfter;
+
+    @Value("${samrum.sla.priority-bump:20}")
+    private int priorityBump;
+
+    // candidate group added when a task is released, none if blank
+    @Value("${samrum.sla.escalation-group:}")
+    private String escalationGroup;
+
+    @Value("${samrum.sla.batch-size:200}")
+    private int batchSize;
+
+    @Value("${samrum.sla.max-actions-per-tick:1000}")
+    private int maxActionsPerTick;
+
+    @Value("${samrum.sla.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${samrum.sla.rescan-interval:30s}")
+    private String rescanInterval;
+
+    @Value("${samrum.sla.rescan-overlap:5m}")
+    private String rescanOverlap;
+
+    private final Map<String, Long> defaultSlaMillis = new HashMap<>();
+    private final long[] stageOffsets = new long[SlaStage.values().length];
+    private final Map<String, SlaTimer> timers = new ConcurrentHashMap<>();
+    private final AtomicLongArray escalations = new AtomicLongArray(SlaStage.values().length);
+
+    private TimingWheel wheel;
+    private ScheduledExecutorService ticker;
+
+    // only touched by the ticker thread
+    private final Deque<SlaTimer> due = new ArrayDeque<>();
+
+    // start of the last scan of ACT_RU_TASK, only touched by the ticker thread
+    private long lastScan;
+
+    // lease state, written by the ticker thread
+    private volatile boolean leader;
+    private volatile long leaseUntil;
+
+    private volatile int backlog;
+    private volatile long lastTickMicros;
+    private volatile long maxTickMicros;
+
+    @PostConstruct
+    public void init() {
+        for (String entry : defaults) {
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("samrum.sla.defaults entry must be key=duration: " + entry);
+            }
+            defaultSlaMillis.put(entry.substring(0, separator).trim(),
+                DurationStyle.detectAndParse(entry.substring(separator + 1).trim()).toMillis());
+        }
+        stageOffsets[SlaStage.REMINDER.ordinal()] = 0L;
+        stageOffsets[SlaStage.PRIORITY.ordinal()] = DurationStyle.detectAndParse(priorityAfter).toMillis();
+        stageOffsets[SlaStage.REASSIGN.ordinal()] = DurationStyle.detectAndParse(reassignAfter).toMillis();
+        wheel = new TimingWheel(tickMillis, System.currentTimeMillis());
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = hostName();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            LOG.info("SLA monitor disabled on this node");
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sla-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::checkLease, 0, Math.max(tickMillis, leaseMs / 3), TimeUnit.MILLISECONDS);
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        long rescanMillis = DurationStyle.detectAndParse(rescanInterval).toMillis();
+        ticker.scheduleWithFixedDelay(this::rescan, rescanMillis, rescanMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        if (leader) {
+            leader = false;
+            try {
+                leaseStore.release(nodeId);
+            } catch (RuntimeException e) {
+                LOG.warn("SLA monitor lease of {} not released, it expires on its own: {}", nodeId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Starts or updates monitoring of a task. A task keeps its escalation
+     * stage unless its deadline changed; it is dropped if it has no deadline
+     * or all stages are done.
+     *
+     * @param storedStage stages done according to the task variable, or null
+     */
+    public void track(String taskId, String processInstanceId, String taskDefinitionKey,
+                      Date dueDate, Date createTime, Integer storedStage) {
+        if (!enabled || !leader) {
+            return;
+        }
+        Long deadline = deadline(taskDefinitionKey, dueDate, createTime);
+        SlaTimer existing = timers.get(taskId);
+        if (deadline == null) {
+            untrack(taskId);
+            return;
+        }
+        if (existing != null && existing.getDeadline() == deadline) {
+            return;
+        }
+
+        int stage = existing != null ? existing.getStage() : storedStage != null ? storedStage : 0;
+        SlaStage next = SlaStage.after(stage);
+        if (next == null) {
+            untrack(taskId);
+            return;
+        }
+        SlaTimer timer = new SlaTimer(taskId, processInstanceId, taskDefinitionKey, deadline, stage);
+        timer.setFireAt(deadline + stageOffsets[next.ordinal()]);
+        SlaTimer previous = timers.put(taskId, timer);
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+        wheel.schedule(timer);
+    }
+
+    public void untrack(String taskId) {
+        SlaTimer timer = timers.remove(taskId);
+        if (timer != null) {
+            wheel.cancel(timer);
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("nodeId", nodeId);
+        status.put("leader", leader);
+        status.put("trackedTasks", timers.size());
+        status.put("scheduledTimers", wheel.size());
+        status.put("backlog", backlog);
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (SlaStage stage : SlaStage.values()) {
+            counts.put(stage.name(), escalations.get(stage.ordinal()));
+        }
+        status.put("escalations", counts);
+        status.put("lastTickMicros", lastTickMicros);
+        status.put("maxTickMicros", maxTickMicros);
+        return status;
+    }
+
+    /**
+     * The timer of a tracked task, if any.
+     */
+    public Optional<SlaTimer> getTimer(String taskId) {
+        return Optional.ofNullable(timers.get(taskId));
+    }
+
+    /**
+     * Takes, renews or gives up the lease. Gaining it, or renewing one that
+     * ran out in between, starts over from the open tasks in the database.
+     */
+    private void checkLease() {
+        long now = System.currentTimeMillis();
+        boolean held;
+        try {
+            held = leaseStore.acquire(nodeId, new Date(now + leaseMs));
+        } catch (RuntimeException e) {
+            // escalation stops by itself once the lease runs out
+            LOG.warn("SLA monitor lease check failed: {}", e.getMessage());
+            return;
+        }
+        if (held) {
+            boolean lapsed = now >= leaseUntil;
+            leaseUntil = now + leaseMs;
+            if (!leader || lapsed) {
+                clear();
+                leader = true;
+                LOG.info("⏰ SLA monitor lease taken by {}", nodeId);
+                rebuild();
+            }
+        } else if (leader) {
+            leader = false;
+            clear();
+            LOG.info("⏰ SLA monitor lease lost by {} - another node escalates", nodeId);
+        }
+    }
+
+    private boolean holdsLease() {
+        return leader && System.currentTimeMillis() < leaseUntil;
+    }
+
+    private void clear() {
+        for (SlaTimer timer : timers.values()) {
+            untrack(timer.getTaskId());
+        }
+        due.clear();
+        backlog = 0;
+    }
+
+    private void tick() {
+        if (!holdsLease()) {
+            return;
+        }
+        try {
+            long started = System.nanoTime();
+            wheel.advanceTo(System.currentTimeMillis(), due::add);
+            long micros = (System.nanoTime() - started) / 1000;
+            lastTickMicros = micros;
+            maxTickMicros = Math.max(maxTickMicros, micros);
+
+            int budget = maxActionsPerTick;
+            while (!due.isEmpty() && budget > 0 && holdsLease()) {
+                List<SlaTimer> batch = new ArrayList<>();
+                while (!due.isEmpty() && batch.size() < Math.min(batchSize, budget)) {
+                    SlaTimer timer = due.poll();
+                    // skip timers replaced or dropped since they fired
+                    if (timers.get(timer.getTaskId()) == timer) {
+                        batch.add(timer);
+                    }
+                }
+                budget -= batch.size();
+                if (!batch.isEmpty()) {
+                    escalate(batch);
+                }
+            }
+            backlog = due.size();
+        } catch (RuntimeException e) {
+            LOG.error("❌ SLA monitor tick failed", e);
+        }
+    }
+
+    private void escalate(List<SlaTimer> batch) {
+        // one command context per batch: the engine calls in apply share it and flush once
+        CommandExecutor commandExecutor = ((ProcessEngineConfigurationImpl) processEngine.getProcessEngineConfiguration())
+            .getCommandExecutorTxRequired();
+        Set<String> gone;
+        Map<String, Task> moved = new HashMap<>();
+        try {
+            gone = commandExecutor.execute(commandContext -> apply(batch, moved));
+        } catch (RuntimeException e) {
+            // one task changed concurrently or failed; retry one by one so the rest still escalate
+            LOG.debug("SLA escalation batch of {} failed, retrying per task: {}", batch.size(), e.getMessage());
+            gone = new HashSet<>();
+            moved.clear();
+            for (SlaTimer timer : batch) {
+                try {
+                    gone.addAll(commandExecutor.execute(commandContext -> apply(List.of(timer), moved)));
+                } catch (RuntimeException single) {
+                    LOG.warn("SLA escalation of task {} failed: {}", timer.getTaskId(), single.getMessage());
+                    gone.add(timer.getTaskId());
+                }
+            }
+        }
+
+        int[] done = new int[SlaStage.values().length];
+        for (SlaTimer timer : batch) {
+            if (gone.contains(timer.getTaskId())) {
+                timers.remove(timer.getTaskId(), timer);
+                continue;
+            }
+            Task task = moved.get(timer.getTaskId());
+            if (task != null) {
+                track(task.getId(), task.getProcessInstanceId(), task.getTaskDefinitionKey(),
+                    task.getDueDate(), task.getCreateTime(), timer.getStage());
+                continue;
+            }
+            int stage = SlaStage.after(timer.getStage()).ordinal();
+            escalations.incrementAndGet(stage);
+            done[stage]++;
+            timer.setStage(timer.getStage() + 1);
+            SlaStage next = SlaStage.after(timer.getStage());
+            if (next == null) {
+                timers.remove(timer.getTaskId(), timer);
+            } else if (timers.get(timer.getTaskId()) == timer) {
+                timer.setFireAt(timer.getDeadline() + stageOffsets[next.ordinal()]);
+                wheel.schedule(timer);
+            }
+        }
+        LOG.info("⏰ SLA escalation: {} reminders, {} priority bumps, {} released, {} tasks gone, {} rescheduled",
+            done[SlaStage.REMINDER.ordinal()], done[SlaStage.PRIORITY.ordinal()], done[SlaStage.REASSIGN.ordinal()],
+            gone.size(), moved.size());
+    }
+
+    /**
+     * Carries out the next stage of every timer in one transaction. Tasks whose
+     * deadline is no longer the one the timer was scheduled for are not
+     * escalated but added to moved.
+     *
+     * @return ids of tasks that no longer exist
+     */
+    private Set<String> apply(List<SlaTimer> batch, Map<String, Task> moved) {
+        String[] ids = batch.stream().map(SlaTimer::getTaskId).toArray(String[]::new);
+        Map<String, Task> tasks = new HashMap<>();
+        for (Task task : taskService.createTaskQuery().taskIdIn(ids).list()) {
+            tasks.put(task.getId(), task);
+        }
+
+        Set<String> gone = new HashSet<>();
+        for (SlaTimer timer : batch) {
+            Task task = tasks.get(timer.getTaskId());
+            if (task == null) {
+                gone.add(timer.getTaskId());
+                continue;
+            }
+            Long deadline = deadline(task.getTaskDefinitionKey(), task.getDueDate(), task.getCreateTime());
+            if (deadline == null || deadline != timer.getDeadline()) {
+                moved.put(task.getId(), task);
+                continue;
+            }
+            switch (SlaStage.after(timer.getStage())) {
+                case REMINDER:
+                    taskService.createComment(task.getId(), task.getProcessInstanceId(),
+                        "SLA reminder: " + task.getName() + " was due " + Instant.ofEpochMilli(timer.getDeadline())
+                            + (task.getAssignee() != null ? " (assigned to " + task.getAssignee() + ")" : ""));
+                    LOG.debug("Task {} ({}) overdue since {}", task.getId(), task.getName(),
+                        Instant.ofEpochMilli(timer.getDeadline()));
+                    break;
+                case PRIORITY:
+                    taskService.setPriority(task.getId(), Math.min(MAX_PRIORITY, task.getPriority() + priorityBump));
+                    break;
+                case REASSIGN:
+                    if (task.getAssignee() != null) {
+                        taskService.setAssignee(task.getId(), null);
+                    }
+                    if (escalationGroup != null && !escalationGroup.isBlank()) {
+                        taskService.addCandidateGroup(task.getId(), escalationGroup);
+                    }
+                    LOG.debug("Task {} ({}) released from {} after missing its SLA", task.getId(), task.getName(),
+                        task.getAssignee());
+                    break;
+                default:
+                    break;
+            }
+            taskService.setVariableLocal(task.getId(), STAGE_VARIABLE, timer.getStage() + 1);
+        }
+        return gone;
+    }
+
+    private void rebuild() {
+        long started = System.currentTimeMillis();
+        lastScan = started;
+        try {
+            int loaded = load(OPEN_TASKS_SQL);
+            LOG.info("⏰ SLA monitor watching {} tasks ({} loaded in {} ms)",
+                timers.size(), loaded, System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            LOG.error("❌ SLA monitor could not load open tasks - only new tasks are watched", e);
+        }
+    }
+
+    /**
+     * Loads the tasks created since the last scan, including those created
+     * on other nodes.
+     */
+    private void rescan() {
+        if (!holdsLease()) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        Timestamp since = new Timestamp(lastScan - DurationStyle.detectAndParse(rescanOverlap).toMillis());
+        try {
+            int loaded = load(NEW_TASKS_SQL, since);
+            lastScan = started;
+            if (loaded > 0) {
+                LOG.debug("SLA rescan found {} new tasks in {} ms", loaded, System.currentTimeMillis() - started);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("SLA rescan failed, retrying at the next interval: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Tracks the open tasks returned by the query that are not tracked yet.
+     *
+     * @return number of tasks added
+     */
+    private int load(String sql, Object... args) {
+        int[] loaded = new int[1];
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.setFetchSize(fetchSize);
+            jdbcTemplate.query(sql, rs -> {
+                String taskId = rs.getString("ID_");
+                if (timers.containsKey(taskId)) {
+                    return;
+                }
+                long stage = rs.getLong("STAGE_");
+                Timestamp dueDate = rs.getTimestamp("DUE_DATE_");
+                Timestamp createTime = rs.getTimestamp("CREATE_TIME_");
+                track(taskId, rs.getString("PROC_INST_ID_"), rs.getString("TASK_DEF_KEY_"),
+                    dueDate, createTime, (int) stage);
+                loaded[0]++;
+            }, args);
+        });
+        return loaded[0];
+    }
+
+    private static String hostName() {
+        String host = System.getenv("HOSTNAME");
+        if (host != null && !host.isBlank()) {
+            return host;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "local";
+        }
+    }
+
+    private Long deadline(String taskDefinitionKey, Date dueDate, Date createTime) {
+        if (dueDate != null) {
+            return dueDate.getTime();
+        }
+        Long sla = taskDefinitionKey != null ? defaultSlaMillis.get(taskDefinitionKey) : null;
+        if (sla == null || createTime == null) {
+            return null;
+        }
+        return createTime.getTime() + sla;
+    }
+}
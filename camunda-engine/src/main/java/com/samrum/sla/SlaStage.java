@@ -0,0 +1,26 @@
+package com.samrum.sla;
+
+/**
+ * Escalation stages of an overdue task, carried out in order. The number of
+ * stages done is kept in the task-local variable slaEscalation.
+ */
+public enum SlaStage {
+
+    /** At the deadline: a reminder comment on the task. */
+    REMINDER,
+
+    /** priority-after past the deadline: the task priority is raised. */
+    PRIORITY,
+
+    /** reassign-after past the deadline: the task is released to its candidate groups. */
+    REASSIGN;
+
+    private static final SlaStage[] STAGES = values();
+
+    /**
+     * The stage that follows the given number of completed stages, or null.
+     */
+    public static SlaStage after(int completed) {
+        return completed < STAGES.length ? STAGES[completed] : null;
+    }
+}
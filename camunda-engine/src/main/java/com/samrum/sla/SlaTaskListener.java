@@ -0,0 +1,62 @@
+package com.samrum.sla;
+
+import org.camunda.bpm.engine.delegate.DelegateTask;
+import org.camunda.bpm.engine.delegate.TaskListener;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+
+import java.util.Date;
+
+/**
+ * Mirrors user task lifecycle events into the SlaMonitor once the engine
+ * transaction has committed.
+ */
+public class SlaTaskListener implements TaskListener {
+
+    private final SlaMonitor monitor;
+
+    public SlaTaskListener(SlaMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @Override
+    public void notify(DelegateTask task) {
+        String taskId = task.getId();
+        switch (task.getEventName()) {
+            case EVENTNAME_CREATE:
+                track(task, 0);
+                break;
+            case EVENTNAME_UPDATE:
+                // the due date may have changed; the stage survives restarts in a task variable
+                Object stage = task.getVariableLocal(SlaMonitor.STAGE_VARIABLE);
+                track(task, stage instanceof Number ? ((Number) stage).intValue() : null);
+                break;
+            case EVENTNAME_COMPLETE:
+            case EVENTNAME_DELETE:
+                afterCommit(() -> monitor.untrack(taskId));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void track(DelegateTask task, Integer stage) {
+        String taskId = task.getId();
+        String processInstanceId = task.getProcessInstanceId();
+        String taskDefinitionKey = task.getTaskDefinitionKey();
+        Date dueDate = task.getDueDate();
+        Date createTime = task.getCreateTime();
+        afterCommit(() -> monitor.track(taskId, processInstanceId, taskDefinitionKey, dueDate, createTime, stage));
+    }
+
+    private static void afterCommit(Runnable action) {
+        CommandContext commandContext = Context.getCommandContext();
+        if (commandContext == null) {
+            action.run();
+            return;
+        }
+        commandContext.getTransactionContext()
+            .addTransactionListener(TransactionState.COMMITTED, context -> action.run());
+    }
+}
@@ -0,0 +1,86 @@
+package com.samrum.sla;
+
+/**
+ * SLA timer of one open user task: when the next escalation stage is due.
+ * Also a node of the TimingWheel bucket it is linked into.
+ */
+public final class SlaTimer {
+
+    private final String taskId;
+    private final String processInstanceId;
+    private final String taskDefinitionKey;
+    private final long deadline;
+    private volatile int stage;
+    private volatile long fireAt;
+    private long fireTick;
+
+    // TimingWheel links, guarded by the wheel's monitor
+    SlaTimer prev;
+    SlaTimer next;
+    SlaTimer bucket;
+
+    SlaTimer(String taskId, String processInstanceId, String taskDefinitionKey, long deadline, int stage) {
+        this.taskId = taskId;
+        this.processInstanceId = processInstanceId;
+        this.taskDefinitionKey = taskDefinitionKey;
+        this.deadline = deadline;
+        this.stage = stage;
+    }
+
+    static SlaTimer sentinel() {
+        SlaTimer head = new SlaTimer(null, null, null, 0L, 0);
+        head.prev = head;
+        head.next = head;
+        return head;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public String getProcessInstanceId() {
+        return processInstanceId;
+    }
+
+    public String getTaskDefinitionKey() {
+        return taskDefinitionKey;
+    }
+
+    /**
+     * Due date of the task, or create time plus the default SLA (epoch millis).
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Number of escalation stages already carried out.
+     */
+    public int getStage() {
+        return stage;
+    }
+
+    void setStage(int stage) {
+        this.stage = stage;
+    }
+
+    public long getFireAt() {
+        return fireAt;
+    }
+
+    void setFireAt(long fireAt) {
+        this.fireAt = fireAt;
+    }
+
+    long getFireTick() {
+        return fireTick;
+    }
+
+    void setFireTick(long fireTick) {
+        this.fireTick = fireTick;
+    }
+
+    boolean isScheduled() {
+        return bucket != null;
+    }
+}
@@ -0,0 +1,147 @@
+package com.samrum.sla;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical Timing Wheel
+ *
+ * Holds SlaTimers in LEVELS wheels of SLOTS buckets each. Level 0 has one
+ * bucket per tick, every higher level covers SLOTS times the span of the
+ * level below (1 s ticks: 4.3 min, 18.2 h, 194 days, 136 years).
+ *
+ * - schedule and cancel are O(1): a timer is linked into one bucket
+ * - a tick expires the timers of one level 0 bucket; when a level wraps, one
+ *   bucket of the level above is cascaded into the levels below. Every timer
+ *   is moved at most once per level, so the work per tick is constant plus
+ *   the timers that expire, independent of how many timers are pending
+ *
+ * Thread-safe; all operations hold the wheel's monitor.
+ */
+final class TimingWheel {
+
+    static final int LEVELS = 4;
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final SlaTimer[][] buckets = new SlaTimer[LEVELS][SLOTS];
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        for (SlaTimer[] level : buckets) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                level[slot] = SlaTimer.sentinel();
+            }
+        }
+    }
+
+    /**
+     * Links the timer for its fireAt time; a timer that is already due fires
+     * on the next tick.
+     */
+    synchronized void schedule(SlaTimer timer) {
+        if (timer.isScheduled()) {
+            unlink(timer);
+        }
+        link(timer, Math.max(currentTick + 1, ceilTick(timer.getFireAt())));
+        size++;
+    }
+
+    synchronized void cancel(SlaTimer timer) {
+        if (timer.isScheduled()) {
+            unlink(timer);
+        }
+    }
+
+    /**
+     * Advances the wheel to the given time and hands every timer that became
+     * due to the consumer, already unlinked.
+     *
+     * @return number of ticks advanced
+     */
+    synchronized int advanceTo(long nowMillis, Consumer<SlaTimer> expired) {
+        long targetTick = nowMillis / tickMillis;
+        int ticks = 0;
+        while (currentTick < targetTick) {
+            currentTick++;
+            ticks++;
+            cascade();
+            SlaTimer head = buckets[0][(int) (currentTick & SLOT_MASK)];
+            while (head.next != head) {
+                SlaTimer timer = head.next;
+                unlink(timer);
+                expired.accept(timer);
+            }
+        }
+        return ticks;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * When level 0 wraps to slot 0, the next bucket of level 1 is due to be
+     * spread over level 0, and so on upwards while the levels keep wrapping.
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if (((currentTick >>> (SLOT_BITS * (level - 1))) & SLOT_MASK) != 0) {
+                return;
+            }
+            SlaTimer head = buckets[level][(int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+            if (head.next == head) {
+                continue;
+            }
+            // detach the whole bucket, then re-link each timer at its finer level
+            SlaTimer timer = head.next;
+            head.prev.next = null;
+            head.next = head;
+            head.prev = head;
+            while (timer != null) {
+                SlaTimer next = timer.next;
+                timer.prev = null;
+                timer.next = null;
+                timer.bucket = null;
+                link(timer, Math.max(currentTick, timer.getFireTick()));
+                timer = next;
+            }
+        }
+    }
+
+    private void link(SlaTimer timer, long fireTick) {
+        timer.setFireTick(fireTick);
+        int level = 0;
+        long delta = fireTick - currentTick;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        if (level == LEVELS - 1 && delta >= 1L << (SLOT_BITS * LEVELS)) {
+            // beyond the top level: park in the last bucket, it is cascaded again when reached
+            fireTick = currentTick + (1L << (SLOT_BITS * LEVELS)) - 1;
+        }
+        SlaTimer head = buckets[level][(int) ((fireTick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+        timer.bucket = head;
+        timer.prev = head.prev;
+        timer.next = head;
+        head.prev.next = timer;
+        head.prev = timer;
+    }
+
+    private void unlink(SlaTimer timer) {
+        timer.prev.next = timer.next;
+        timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+        timer.bucket = null;
+        size--;
+    }
+
+    private long ceilTick(long millis) {
+        return Math.floorDiv(millis + tickMillis - 1, tickMillis);
+    }
+}
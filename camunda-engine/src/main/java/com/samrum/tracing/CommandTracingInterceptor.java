@@ -0,0 +1,63 @@
+package com.samrum.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import org.camunda.bpm.engine.impl.cmd.AcquireJobsCmd;
+import org.camunda.bpm.engine.impl.cmd.ExecuteJobsCmd;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+import org.camunda.bpm.engine.impl.jobexecutor.FailedJobListener;
+import org.camunda.bpm.engine.impl.jobexecutor.SuccessfulJobListener;
+
+import java.util.Set;
+
+/**
+ * Engine command interceptor that wraps every command in a span named after
+ * the command class (CompleteTaskCmd, TaskQueryImpl, ...).
+ *
+ * Registered before the transaction interceptor, so the span includes the
+ * flush and commit. Nested service calls inside a command become child spans.
+ * Job acquisition polling and the job executor's bookkeeping commands are
+ * not traced; job execution is traced by TracingJobHandler, which knows the
+ * job and its originating trace.
+ */
+public class CommandTracingInterceptor extends CommandInterceptor {
+
+    private static final Set<Class<?>> UNTRACED = Set.of(AcquireJobsCmd.class, ExecuteJobsCmd.class,
+        SuccessfulJobListener.class, FailedJobListener.class);
+
+    private final Tracer tracer;
+
+    public CommandTracingInterceptor(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public <T> T execute(Command<T> command) {
+        if (UNTRACED.contains(command.getClass())) {
+            return next.execute(command);
+        }
+        String name = commandName(command);
+        Span span = tracer.spanBuilder(name)
+            .setAttribute(SpanAttributes.COMMAND, name)
+            .startSpan();
+        try (Scope scope = span.makeCurrent()) {
+            return next.execute(command);
+        } catch (RuntimeException e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private static String commandName(Command<?> command) {
+        // lambda commands: SlaMonitor$$Lambda/0x... -> SlaMonitor
+        String name = command.getClass().getSimpleName();
+        int lambda = name.indexOf("$$");
+        return lambda > 0 ? name.substring(0, lambda) : name;
+    }
+}
@@ -0,0 +1,113 @@
+package com.samrum.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Spring MVC interceptor that runs each controller method in a SERVER span
+ * (DoorProcessController.completeTask, ...).
+ *
+ * The parent is taken from the W3C traceparent header, so callers that trace
+ * themselves see the engine work inside their trace. The span is current
+ * while the handler runs, so engine commands and delegates become children.
+ */
+public class ControllerTracingInterceptor implements HandlerInterceptor {
+
+    private static final String SPAN = ControllerTracingInterceptor.class.getName() + ".span";
+    private static final String SCOPE = ControllerTracingInterceptor.class.getName() + ".scope";
+
+    private static final AttributeKey<String> HTTP_METHOD = AttributeKey.stringKey("http.request.method");
+    private static final AttributeKey<String> HTTP_ROUTE = AttributeKey.stringKey("http.route");
+    private static final AttributeKey<Long> HTTP_STATUS = AttributeKey.longKey("http.response.status_code");
+
+    private static final TextMapGetter<HttpServletRequest> HEADERS = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(HttpServletRequest request) {
+            return Collections.list(request.getHeaderNames());
+        }
+
+        @Override
+        public String get(HttpServletRequest request, String key) {
+            return request == null ? null : request.getHeader(key);
+        }
+    };
+
+    private final OpenTelemetry openTelemetry;
+    private final Tracer tracer;
+
+    public ControllerTracingInterceptor(OpenTelemetry openTelemetry, Tracer tracer) {
+        this.openTelemetry = openTelemetry;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        HandlerMethod method = (HandlerMethod) handler;
+        Context parent = openTelemetry.getPropagators().getTextMapPropagator()
+            .extract(Context.current(), request, HEADERS);
+
+        Span span = tracer.spanBuilder(method.getBeanType().getSimpleName() + "." + method.getMethod().getName())
+            .setParent(parent)
+            .setSpanKind(SpanKind.SERVER)
+            .setAttribute(HTTP_METHOD, request.getMethod())
+            .startSpan();
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (route != null) {
+            span.setAttribute(HTTP_ROUTE, route.toString());
+        }
+        Object uriVariables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (uriVariables instanceof Map) {
+            Map<?, ?> variables = (Map<?, ?>) uriVariables;
+            if (variables.get("processInstanceId") != null) {
+                span.setAttribute(SpanAttributes.PROCESS_INSTANCE_ID, variables.get("processInstanceId").toString());
+            }
+            if (variables.get("taskId") != null) {
+                span.setAttribute(SpanAttributes.TASK_ID, variables.get("taskId").toString());
+            }
+        }
+        request.setAttribute(SPAN, span);
+        request.setAttribute(SCOPE, span.makeCurrent());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Span span = (Span) request.getAttribute(SPAN);
+        if (span == null) {
+            return;
+        }
+        Scope scope = (Scope) request.getAttribute(SCOPE);
+        if (scope != null) {
+            scope.close();
+        }
+        span.setAttribute(HTTP_STATUS, (long) response.getStatus());
+        if (ex != null) {
+            span.recordException(ex);
+            span.setStatus(StatusCode.ERROR);
+        } else if (response.getStatus() >= 500) {
+            span.setStatus(StatusCode.ERROR);
+        }
+        span.end();
+        request.removeAttribute(SPAN);
+        request.removeAttribute(SCOPE);
+    }
+}
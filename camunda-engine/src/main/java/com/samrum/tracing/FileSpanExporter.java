@@ -0,0 +1,110 @@
+package com.samrum.tracing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Span exporter for local runs and tests: appends one JSON object per span
+ * to a file (trace and span ids, parent, name, start, duration, attributes).
+ *
+ * Once the file reaches maxBytes further spans are dropped (and counted), so
+ * a forgotten local setting cannot fill the disk.
+ */
+public class FileSpanExporter implements SpanExporter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileSpanExporter.class);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final BufferedWriter writer;
+    private final long maxBytes;
+    private long bytes;
+    private long dropped;
+
+    public FileSpanExporter(Path file, long maxBytes) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.maxBytes = maxBytes;
+        this.bytes = Files.size(file);
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        try {
+            for (SpanData span : spans) {
+                String line = toJson(span);
+                // counts characters, not UTF-8 bytes; close enough for a size cap
+                if (bytes + line.length() + 1 > maxBytes) {
+                    if (dropped++ == 0) {
+                        LOG.warn("Span file reached {} bytes, dropping further spans", maxBytes);
+                    }
+                    continue;
+                }
+                writer.write(line);
+                writer.newLine();
+                bytes += line.length() + 1;
+            }
+            writer.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            LOG.warn("Could not write {} spans: {}", spans.size(), e.getMessage());
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public synchronized CompletableResultCode flush() {
+        try {
+            writer.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        if (dropped > 0) {
+            LOG.warn("Dropped {} spans because the span file was full", dropped);
+        }
+        try {
+            writer.close();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    private String toJson(SpanData span) throws JsonProcessingException {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("traceId", span.getTraceId());
+        json.put("spanId", span.getSpanId());
+        json.put("parentSpanId", span.getParentSpanContext().isValid() ? span.getParentSpanId() : null);
+        json.put("name", span.getName());
+        json.put("kind", span.getKind().name());
+        json.put("startEpochMicros", span.getStartEpochNanos() / 1_000);
+        json.put("durationMicros", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1_000);
+        json.put("status", span.getStatus().getStatusCode().name());
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), value));
+        json.put("attributes", attributes);
+        return mapper.writeValueAsString(json);
+    }
+}
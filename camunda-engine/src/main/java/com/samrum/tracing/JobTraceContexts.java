@@ -0,0 +1,73 @@
+package com.samrum.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.context.Context;
+import org.camunda.bpm.engine.impl.history.event.HistoricJobLogEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Trace context of pending jobs, so that an async continuation or timer runs
+ * in the trace of the request that created it.
+ *
+ * The job-created history event is published on the creating thread while
+ * the creating span is current; its span context is kept until the job
+ * succeeds or is deleted. Failed jobs keep it for their retries.
+ *
+ * In memory and bounded (oldest entries are dropped): a job executed on
+ * another node, after a restart or after eviction starts a new trace.
+ */
+@Component
+public class JobTraceContexts {
+
+    private final Map<String, SpanContext> pending;
+
+    public JobTraceContexts(@Value("${samrum.tracing.max-pending-jobs:10000}") int maxPendingJobs) {
+        this.pending = new LinkedHashMap<>(1024, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SpanContext> eldest) {
+                return size() > maxPendingJobs;
+            }
+        };
+    }
+
+    @EventListener
+    public void onJobLog(HistoricJobLogEvent event) {
+        // job log events carry no event type, only the job state
+        if (event.isCreationLog()) {
+            SpanContext spanContext = Span.current().getSpanContext();
+            if (spanContext.isValid()) {
+                synchronized (pending) {
+                    pending.put(event.getJobId(), spanContext);
+                }
+            }
+        } else if (event.isSuccessLog() || event.isDeletionLog()) {
+            synchronized (pending) {
+                pending.remove(event.getJobId());
+            }
+        }
+    }
+
+    /**
+     * Parent context for the execution of a job: the trace that created it,
+     * or the current context if it is not known.
+     */
+    public Context parentOf(String jobId) {
+        SpanContext spanContext;
+        synchronized (pending) {
+            spanContext = jobId != null ? pending.get(jobId) : null;
+        }
+        return spanContext != null ? Context.root().with(Span.wrap(spanContext)) : Context.current();
+    }
+
+    public int size() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.samrum.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+
+/**
+ * Span attribute keys used by the Samrum instrumentation.
+ */
+public final class SpanAttributes {
+
+    public static final AttributeKey<String> PROCESS_INSTANCE_ID = AttributeKey.stringKey("camunda.process_instance_id");
+    public static final AttributeKey<String> ACTIVITY_ID = AttributeKey.stringKey("camunda.activity_id");
+    public static final AttributeKey<String> TASK_ID = AttributeKey.stringKey("camunda.task_id");
+    public static final AttributeKey<String> COMMAND = AttributeKey.stringKey("camunda.command");
+    public static final AttributeKey<String> DELEGATE = AttributeKey.stringKey("camunda.delegate");
+    public static final AttributeKey<String> JOB_ID = AttributeKey.stringKey("camunda.job_id");
+    public static final AttributeKey<String> JOB_TYPE = AttributeKey.stringKey("camunda.job_type");
+
+    private SpanAttributes() {
+    }
+}
@@ -0,0 +1,81 @@
+package com.samrum.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.impl.bpmn.delegate.JavaDelegateInvocation;
+import org.camunda.bpm.engine.impl.delegate.DelegateInvocation;
+import org.camunda.bpm.engine.impl.interceptor.DelegateInterceptor;
+
+import java.lang.reflect.Field;
+
+/**
+ * Delegate interceptor that runs every JavaDelegate.execute in a span named
+ * after the delegate class, with process instance and activity id. Other
+ * invocations (listeners, expressions) go straight to the wrapped interceptor.
+ */
+public class TracingDelegateInterceptor implements DelegateInterceptor {
+
+    private static final Field DELEGATE_INSTANCE = delegateInstanceField();
+
+    private final DelegateInterceptor next;
+    private final Tracer tracer;
+
+    public TracingDelegateInterceptor(DelegateInterceptor next, Tracer tracer) {
+        this.next = next;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public void handleInvocation(DelegateInvocation invocation) throws Exception {
+        if (!(invocation instanceof JavaDelegateInvocation)) {
+            next.handleInvocation(invocation);
+            return;
+        }
+        DelegateExecution execution = (DelegateExecution) invocation.getContextExecution();
+        String delegate = delegateName(invocation, execution);
+        Span span = tracer.spanBuilder(delegate + ".execute")
+            .setAttribute(SpanAttributes.DELEGATE, delegate)
+            .setAttribute(SpanAttributes.PROCESS_INSTANCE_ID, execution.getProcessInstanceId())
+            .setAttribute(SpanAttributes.ACTIVITY_ID, execution.getCurrentActivityId())
+            .startSpan();
+        try (Scope scope = span.makeCurrent()) {
+            next.handleInvocation(invocation);
+        } catch (Exception e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private static String delegateName(DelegateInvocation invocation, DelegateExecution execution) {
+        if (DELEGATE_INSTANCE != null) {
+            try {
+                Object delegate = DELEGATE_INSTANCE.get(invocation);
+                if (delegate != null) {
+                    return delegate.getClass().getSimpleName();
+                }
+            } catch (IllegalAccessException e) {
+                // fall through to the activity id
+            }
+        }
+        return execution.getCurrentActivityId();
+    }
+
+    /**
+     * JavaDelegateInvocation keeps the delegate in a protected field without getter.
+     */
+    private static Field delegateInstanceField() {
+        try {
+            Field field = JavaDelegateInvocation.class.getDeclaredField("delegateInstance");
+            field.setAccessible(true);
+            return field;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.samrum.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutorContext;
+import org.camunda.bpm.engine.impl.jobexecutor.JobHandler;
+import org.camunda.bpm.engine.impl.jobexecutor.JobHandlerConfiguration;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+
+/**
+ * Wraps a JobHandler so each job execution is a span, parented to the trace
+ * that created the job (see JobTraceContexts).
+ */
+public class TracingJobHandler implements JobHandler<JobHandlerConfiguration> {
+
+    private final JobHandler<JobHandlerConfiguration> delegate;
+    private final Tracer tracer;
+    private final JobTraceContexts jobTraceContexts;
+
+    @SuppressWarnings("unchecked")
+    public TracingJobHandler(JobHandler<?> delegate, Tracer tracer, JobTraceContexts jobTraceContexts) {
+        this.delegate = (JobHandler<JobHandlerConfiguration>) delegate;
+        this.tracer = tracer;
+        this.jobTraceContexts = jobTraceContexts;
+    }
+
+    @Override
+    public String getType() {
+        return delegate.getType();
+    }
+
+    @Override
+    public void execute(JobHandlerConfiguration configuration, ExecutionEntity execution,
+                        CommandContext commandContext, String tenantId) {
+        // set by the job executor; null when run through ManagementService.executeJob
+        JobExecutorContext jobExecutorContext = Context.getJobExecutorContext();
+        JobEntity job = jobExecutorContext != null ? jobExecutorContext.getCurrentJob() : null;
+
+        Span span = tracer.spanBuilder("job " + getType())
+            .setParent(jobTraceContexts.parentOf(job != null ? job.getId() : null))
+            .setSpanKind(SpanKind.CONSUMER)
+            .setAttribute(SpanAttributes.JOB_TYPE, getType())
+            .startSpan();
+        if (job != null) {
+            span.setAttribute(SpanAttributes.JOB_ID, job.getId());
+            if (job.getActivityId() != null) {
+                span.setAttribute(SpanAttributes.ACTIVITY_ID, job.getActivityId());
+            }
+        }
+        if (execution != null) {
+            span.setAttribute(SpanAttributes.PROCESS_INSTANCE_ID, execution.getProcessInstanceId());
+        }
+        try (Scope scope = span.makeCurrent()) {
+            delegate.execute(configuration, execution, commandContext, tenantId);
+        } catch (RuntimeException e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    @Override
+    public JobHandlerConfiguration newConfiguration(String canonicalString) {
+        return delegate.newConfiguration(canonicalString);
+    }
+
+    @Override
+    public void onDelete(JobHandlerConfiguration configuration, JobEntity jobEntity) {
+        delegate.onDelete(configuration, jobEntity);
+    }
+}
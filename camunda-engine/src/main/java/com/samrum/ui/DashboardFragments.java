@@ -0,0 +1,252 @@
+package com.samrum.ui;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.history.HistoricVariableInstance;
+import org.camunda.bpm.engine.impl.history.event.HistoricProcessInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricTaskInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.task.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * Dashboard Fragments
+ *
+ * Data for the cacheable fragments of the UI pages (stats panel, recent
+ * processes table, active and historic process rows, open task rows), loaded
+ * through a FragmentCache so that many users opening the same page at once
+ * cost one round of engine queries.
+ *
+ * Live fragments expire after samrum.ui.cache.ttl-ms. Historic rows only change
+ * when a process ends, so they are kept for samrum.ui.cache.history-ttl-ms and
+ * dropped on the process end history event; starting or ending a process also
+ * drops the live fragments. Task history events (create, complete, delete and
+ * updates such as claim and assign) drop the fragments that show tasks.
+ */
+@Component
+public class DashboardFragments {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DashboardFragments.class);
+
+    static final String PROCESS_DEFINITION_KEY = "doorInstallationProcess";
+
+    static final String STATS = "stats";
+    static final String RECENT_PROCESSES = "recent-processes";
+    static final String ACTIVE_PROCESS_ROWS = "active-process-rows";
+    static final String HISTORIC_PROCESS_ROWS = "historic-process-rows";
+    static final String TASK_ROWS = "task-rows";
+
+    private static final String PROCESS_START = HistoryEventTypes.PROCESS_INSTANCE_START.getEventName();
+    private static final String PROCESS_END = HistoryEventTypes.PROCESS_INSTANCE_END.getEventName();
+    private static final String TASK_UPDATE = HistoryEventTypes.TASK_INSTANCE_UPDATE.getEventName();
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private HistoryService historyService;
+
+    @Value("${samrum.ui.cache.ttl-ms:2000}")
+    private long ttlMillis;
+
+    @Value("${samrum.ui.cache.history-ttl-ms:60000}")
+    private long historyTtlMillis;
+
+    private final FragmentCache cache = new FragmentCache();
+
+    /**
+     * activeProcesses, totalTasks, pendingTasks, assignedTasks
+     */
+    public Map<String, Long> stats() {
+        return cache.get(STATS, ttlMillis, () -> {
+            long activeProcesses = runtimeService.createProcessInstanceQuery()
+                    .processDefinitionKey(PROCESS_DEFINITION_KEY)
+                    .count();
+            long totalTasks = taskService.createTaskQuery()
+                    .processDefinitionKey(PROCESS_DEFINITION_KEY)
+                    .count();
+            long pendingTasks = taskService.createTaskQuery()
+                    .processDefinitionKey(PROCESS_DEFINITION_KEY)
+                    .taskUnassigned()
+                    .count();
+
+            Map<String, Long> stats = new HashMap<>();
+            stats.put("activeProcesses", activeProcesses);
+            stats.put("totalTasks", totalTasks);
+            stats.put("pendingTasks", pendingTasks);
+            stats.put("assignedTasks", totalTasks - pendingTasks);
+            return Collections.unmodifiableMap(stats);
+        });
+    }
+
+    public List<Map<String, Object>> recentProcesses() {
+        return cache.get(RECENT_PROCESSES, ttlMillis, () -> {
+            List<ProcessInstance> instances = runtimeService.createProcessInstanceQuery()
+                    .processDefinitionKey(PROCESS_DEFINITION_KEY)
+                    .orderByProcessInstanceId()
+                    .asc()
+                    .listPage(0, 10);
+
+            List<Map<String, Object>> recentProcesses = new ArrayList<>();
+            for (ProcessInstance pi : instances) {
+                Map<String, Object> procInfo = new HashMap<>();
+                procInfo.put("id", pi.getId());
+                procInfo.put("businessKey", pi.getBusinessKey());
+                procInfo.put("projectId", runtimeService.getVariable(pi.getId(), "projectId"));
+                procInfo.put("doorType", runtimeService.getVariable(pi.getId(), "doorType"));
+                recentProcesses.add(procInfo);
+            }
+            return Collections.unmodifiableList(recentProcesses);
+        });
+    }
+
+    public List<Map<String, Object>> activeProcessRows() {
+        return cache.get(ACTIVE_PROCESS_ROWS, ttlMillis, () -> {
+            List<ProcessInstance> activeInstances = runtimeService.createProcessInstanceQuery()
+                    .processDefinitionKey(PROCESS_DEFINITION_KEY)
+                    .orderByProcessInstanceId()
+                    .asc()
+                    .list();
+
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (ProcessInstance pi : activeInstances) {
+                Map<String, Object> procInfo = new HashMap<>();
+                procInfo.put("id", pi.getId());
+                procInfo.put("businessKey", pi.getBusinessKey());
+                procInfo.put("projectId", runtimeService.getVariable(pi.getId(), "projectId"));
+                procInfo.put("doorType", runtimeService.getVariable(pi.getId(), "doorType"));
+                procInfo.put("status", "ACTIVE");
+                procInfo.put("startTime", null);
+                procInfo.put("endTime", null);
+                procInfo.put("duration", null);
+
+                // Get current tasks count
+                long taskCount = taskService.createTaskQuery()
+                        .processInstanceId(pi.getId())
+                        .count();
+                procInfo.put("taskCount", taskCount);
+
+                rows.add(procInfo);
+            }
+            return Collections.unmodifiableList(rows);
+        });
+    }
+
+    public List<Map<String, Object>> historicProcessRows() {
+        return cache.get(HISTORIC_PROCESS_ROWS, historyTtlMillis, () -> {
+            List<HistoricProcessInstance> historicInstances = historyService.createHistoricProcessInstanceQuery()
+                    .processDefinitionKey(PROCESS_DEFINITION_KEY)
+                    .finished()
+                    .orderByProcessInstanceEndTime()
+                    .desc()
+                    .list();
+
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (HistoricProcessInstance hpi : historicInstances) {
+                Map<String, Object> procInfo = new HashMap<>();
+                procInfo.put("id", hpi.getId());
+                procInfo.put("businessKey", hpi.getBusinessKey());
+
+                // Get variables from history
+                for (HistoricVariableInstance var : historyService.createHistoricVariableInstanceQuery()
+                        .processInstanceId(hpi.getId())
+                        .variableNameIn("projectId", "doorType")
+                        .list()) {
+                    procInfo.put(var.getVariableName(), var.getValue());
+                }
+
+                procInfo.put("status", "COMPLETED");
+                procInfo.put("startTime", hpi.getStartTime());
+                procInfo.put("endTime", hpi.getEndTime());
+                procInfo.put("duration", hpi.getDurationInMillis());
+                procInfo.put("taskCount", 0);
+
+                rows.add(procInfo);
+            }
+            return Collections.unmodifiableList(rows);
+        });
+    }
+
+    /**
+     * All open tasks of the process, newest first.
+     */
+    public List<Map<String, Object>> taskRows() {
+        return cache.get(TASK_ROWS, ttlMillis, () -> {
+            List<Task> tasks = taskService.createTaskQuery()
+                    .processDefinitionKey(PROCESS_DEFINITION_KEY)
+                    .orderByTaskCreateTime()
+                    .desc()
+                    .list();
+
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (Task task : tasks) {
+                rows.add(taskRow(task, runtimeService));
+            }
+            return Collections.unmodifiableList(rows);
+        });
+    }
+
+    public static Map<String, Object> taskRow(Task task, RuntimeService runtimeService) {
+        Map<String, Object> taskInfo = new HashMap<>();
+        taskInfo.put("taskId", task.getId());
+        taskInfo.put("taskName", task.getName());
+        taskInfo.put("assignee", task.getAssignee());
+        taskInfo.put("createTime", task.getCreateTime());
+        taskInfo.put("description", task.getDescription());
+        taskInfo.put("processInstanceId", task.getProcessInstanceId());
+
+        // Get process variables
+        taskInfo.put("projectId", runtimeService.getVariable(task.getProcessInstanceId(), "projectId"));
+        taskInfo.put("doorType", runtimeService.getVariable(task.getProcessInstanceId(), "doorType"));
+        return taskInfo;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProcessInstance(HistoricProcessInstanceEventEntity event) {
+        if (!PROCESS_DEFINITION_KEY.equals(event.getProcessDefinitionKey())) {
+            return;
+        }
+        String eventType = event.getEventType();
+        if (PROCESS_END.equals(eventType)) {
+            cache.invalidate(HISTORIC_PROCESS_ROWS);
+        } else if (!PROCESS_START.equals(eventType)) {
+            return;
+        }
+        cache.invalidate(STATS);
+        cache.invalidate(RECENT_PROCESSES);
+        cache.invalidate(ACTIVE_PROCESS_ROWS);
+        cache.invalidate(TASK_ROWS);
+        LOG.debug("UI fragments invalidated by process {} {}", event.getProcessInstanceId(), eventType);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskInstance(HistoricTaskInstanceEventEntity event) {
+        if (!PROCESS_DEFINITION_KEY.equals(event.getProcessDefinitionKey())) {
+            return;
+        }
+        cache.invalidate(STATS);
+        cache.invalidate(TASK_ROWS);
+        if (!TASK_UPDATE.equals(event.getEventType())) {
+            // task count per process
+            cache.invalidate(ACTIVE_PROCESS_ROWS);
+        }
+        LOG.debug("UI fragments invalidated by task {} {}", event.getTaskId(), event.getEventType());
+    }
+
+    public FragmentCache getCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,105 @@
+package com.samrum.ui;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Fragment Cache
+ *
+ * Short-lived cache for the data behind UI page fragments.
+ * - an entry is served until ttl has passed since it was loaded
+ * - concurrent misses for the same fragment are coalesced: the first caller
+ *   runs the loader, everybody else waits for its result
+ * - a failed load is not cached; all waiting callers get the exception
+ */
+public class FragmentCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String fragment, long ttlMillis, Supplier<T> loader) {
+        long now = System.currentTimeMillis();
+        Entry current = entries.get(fragment);
+        if (current != null && !current.isExpired(now)) {
+            (current.future.isDone() ? hits : coalesced).increment();
+            return (T) join(current);
+        }
+
+        Entry fresh = new Entry();
+        Entry winner = entries.compute(fragment,
+            (key, existing) -> existing != null && !existing.isExpired(now) ? existing : fresh);
+        if (winner != fresh) {
+            coalesced.increment();
+            return (T) join(winner);
+        }
+
+        misses.increment();
+        try {
+            T value = loader.get();
+            fresh.expiresAt = System.currentTimeMillis() + ttlMillis;
+            fresh.future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            entries.remove(fragment, fresh);
+            fresh.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Drops a fragment; a load in progress still completes for its waiters.
+     */
+    public void invalidate(String fragment) {
+        entries.remove(fragment);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    private static Object join(Entry entry) {
+        try {
+            return entry.future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry {
+
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        boolean isExpired(long now) {
+            // entries still loading never expire, so their waiters stay coalesced
+            return future.isDone() && now >= expiresAt;
+        }
+    }
+}
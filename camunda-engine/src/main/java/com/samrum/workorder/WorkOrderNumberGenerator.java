@@ -0,0 +1,120 @@
+package com.samrum.workorder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cluster-safe work order number generator (hi/lo).
+ *
+ * Each node reserves a block of numbers from the SAMRUM_SEQUENCE table in its
+ * own short transaction; the row lock taken by the UPDATE serialises
+ * reservations across nodes, so blocks never overlap. Numbers are then handed
+ * out from the reserved block with a single atomic increment - threads only
+ * synchronise when a block runs out.
+ *
+ * Format: WO-NNNNNNNNNN (10 digits, zero padded)
+ */
+@Component
+public class WorkOrderNumberGenerator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WorkOrderNumberGenerator.class);
+
+    static final String SEQUENCE_NAME = "WORK_ORDER";
+
+    private static final char[] PREFIX = {'W', 'O', '-'};
+    private static final int DIGITS = 10;
+
+    /**
+     * A reserved range [next, end) of numbers.
+     */
+    private static final class Block {
+        final AtomicLong next;
+        final long end;
+
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate reserveTransaction;
+
+    @Value("${samrum.work-order.number-block-size:1000}")
+    private int blockSize;
+
+    private volatile Block block;
+
+    public WorkOrderNumberGenerator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.reserveTransaction = new TransactionTemplate(transactionManager);
+        this.reserveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Generates unique work order number
+     */
+    public String next() {
+        return format(nextValue());
+    }
+
+    long nextValue() {
+        while (true) {
+            Block current = block;
+            if (current != null) {
+                long value = current.next.getAndIncrement();
+                if (value < current.end) {
+                    return value;
+                }
+            }
+            refill(current);
+        }
+    }
+
+    private synchronized void refill(Block exhausted) {
+        if (block != exhausted) {
+            // another thread already reserved a new block
+            return;
+        }
+        block = reserveBlock();
+    }
+
+    private Block reserveBlock() {
+        Long end = reserveTransaction.execute(status -> {
+            int updated = jdbcTemplate.update(
+                "UPDATE SAMRUM_SEQUENCE SET NEXT_VALUE_ = NEXT_VALUE_ + ? WHERE NAME_ = ?",
+                blockSize, SEQUENCE_NAME);
+            if (updated != 1) {
+                throw new IllegalStateException("Sequence " + SEQUENCE_NAME + " missing in SAMRUM_SEQUENCE");
+            }
+            return jdbcTemplate.queryForObject(
+                "SELECT NEXT_VALUE_ FROM SAMRUM_SEQUENCE WHERE NAME_ = ?", Long.class, SEQUENCE_NAME);
+        });
+
+        long start = end - blockSize;
+        LOG.debug("Reserved work order numbers {} - {}", start, end - 1);
+        return new Block(start, end);
+    }
+
+    static String format(long value) {
+        char[] chars = new char[PREFIX.length + DIGITS];
+        System.arraycopy(PREFIX, 0, chars, 0, PREFIX.length);
+        long remaining = value;
+        for (int i = chars.length - 1; i >= PREFIX.length; i--) {
+            chars[i] = (char) ('0' + (remaining % 10));
+            remaining /= 10;
+        }
+        if (remaining != 0) {
+            throw new IllegalStateException("Work order number overflow: " + value);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,21 @@
+-- Samrum index pack V1: door process query patterns
+-- Complements the default Camunda 7.19 indexes for the queries issued by
+-- DoorProcessController and WebUIController.
+
+-- Task list per user: taskAssignee(..).orderByTaskCreateTime().desc()
+CREATE INDEX IF NOT EXISTS SAMRUM_IDX_TASK_ASSIGNEE_CREATE ON ACT_RU_TASK(ASSIGNEE_, CREATE_TIME_);
+
+-- Task list / dashboard per process definition key (resolved to PROC_DEF_ID_), ordered by create time
+CREATE INDEX IF NOT EXISTS SAMRUM_IDX_TASK_PROCDEF_CREATE ON ACT_RU_TASK(PROC_DEF_ID_, CREATE_TIME_);
+
+-- Active instances per process definition key, ordered by id
+CREATE INDEX IF NOT EXISTS SAMRUM_IDX_EXE_PROCDEF_ID ON ACT_RU_EXECUTION(PROC_DEF_ID_, ID_);
+
+-- Runtime variable lookup by process instance and name (projectId, doorType, ...)
+CREATE INDEX IF NOT EXISTS SAMRUM_IDX_VAR_PROCINST_NAME ON ACT_RU_VARIABLE(PROC_INST_ID_, NAME_);
+
+-- Finished instances per definition key ordered by end time (process list)
+CREATE INDEX IF NOT EXISTS SAMRUM_IDX_HI_PI_KEY_END ON ACT_HI_PROCINST(PROC_DEF_KEY_, END_TIME_);
+
+-- Historic tasks of an instance ordered by end time (process detail)
+CREATE INDEX IF NOT EXISTS SAMRUM_IDX_HI_TASK_PI_END ON ACT_HI_TASKINST(PROC_INST_ID_, END_TIME_);
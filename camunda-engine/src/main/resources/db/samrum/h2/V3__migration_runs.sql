@@ -0,0 +1,29 @@
+-- Samrum V3: process instance migration runs
+-- One row per migration run between two process definition versions, with
+-- running totals, plus one row per instance that could not be migrated.
+-- Runs left in state RUNNING are resumed on startup.
+
+CREATE TABLE IF NOT EXISTS SAMRUM_MIGRATION_RUN (
+    ID_ VARCHAR(64) NOT NULL,
+    SOURCE_DEF_ID_ VARCHAR(64) NOT NULL,
+    TARGET_DEF_ID_ VARCHAR(64) NOT NULL,
+    STATE_ VARCHAR(16) NOT NULL,
+    CHUNK_SIZE_ INTEGER NOT NULL,
+    PARALLELISM_ INTEGER NOT NULL,
+    SKIP_LISTENERS_ BOOLEAN NOT NULL,
+    SKIP_IO_MAPPINGS_ BOOLEAN NOT NULL,
+    TOTAL_ BIGINT NOT NULL,
+    MIGRATED_ BIGINT NOT NULL,
+    FAILED_ BIGINT NOT NULL,
+    STARTED_ TIMESTAMP NOT NULL,
+    ENDED_ TIMESTAMP,
+    PRIMARY KEY (ID_)
+);
+
+CREATE TABLE IF NOT EXISTS SAMRUM_MIGRATION_FAILURE (
+    RUN_ID_ VARCHAR(64) NOT NULL,
+    PROC_INST_ID_ VARCHAR(64) NOT NULL,
+    MESSAGE_ VARCHAR(4000),
+    TIME_ TIMESTAMP NOT NULL,
+    PRIMARY KEY (RUN_ID_, PROC_INST_ID_)
+);
@@ -0,0 +1,13 @@
+-- Samrum V5: idempotent process start
+-- One row per idempotency key (Idempotency-Key header, form token or unique
+-- business key). The primary key makes concurrent starts with the same key
+-- on any node serialize on the insert; the row is written in the same
+-- transaction as the process start, so it always points to a started instance.
+
+CREATE TABLE IF NOT EXISTS SAMRUM_IDEMPOTENCY_KEY (
+    KEY_ VARCHAR(255) NOT NULL,
+    PROC_DEF_KEY_ VARCHAR(255) NOT NULL,
+    PROC_INST_ID_ VARCHAR(64),
+    CREATED_ TIMESTAMP NOT NULL,
+    PRIMARY KEY (KEY_)
+);
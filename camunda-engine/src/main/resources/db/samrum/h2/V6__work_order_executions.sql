@@ -0,0 +1,16 @@
+-- Samrum V6: work order number -> process instance
+-- Written by CreateWorkOrderDelegate in the engine transaction that creates
+-- the work order, so callbacks of the maintenance system are resolved with
+-- a primary key lookup instead of a workOrderNumber variable scan.
+
+CREATE TABLE IF NOT EXISTS SAMRUM_WORK_ORDER_EXECUTION (
+    WORK_ORDER_NUMBER_ VARCHAR(64) NOT NULL,
+    PROC_INST_ID_ VARCHAR(64) NOT NULL,
+    CREATED_ TIMESTAMP NOT NULL,
+    PRIMARY KEY (WORK_ORDER_NUMBER_)
+);
+
+CREATE INDEX IF NOT EXISTS SAMRUM_IDX_WO_EXE_PROCINST ON SAMRUM_WORK_ORDER_EXECUTION(PROC_INST_ID_);
+
+-- Message subscriptions of the resolved instances (batch correlation join)
+CREATE INDEX IF NOT EXISTS SAMRUM_IDX_EVT_SUBSCR_PROCINST ON ACT_RU_EVENT_SUBSCR(PROC_INST_ID_, EVENT_TYPE_);
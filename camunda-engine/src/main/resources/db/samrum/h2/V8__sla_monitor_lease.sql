@@ -0,0 +1,12 @@
+-- Samrum V8: SLA monitor ownership
+-- Every node with samrum.sla.enabled competes for the 'sla-monitor' row;
+-- only the node in OWNER_ tracks and escalates overdue tasks while
+-- LEASE_UNTIL_ lies in the future, and renews it well before it expires.
+-- The row is created by the first node that asks for the lease.
+
+CREATE TABLE IF NOT EXISTS SAMRUM_NODE_LEASE (
+    NAME_ VARCHAR(64) NOT NULL,
+    OWNER_ VARCHAR(255),
+    LEASE_UNTIL_ TIMESTAMP,
+    PRIMARY KEY (NAME_)
+);
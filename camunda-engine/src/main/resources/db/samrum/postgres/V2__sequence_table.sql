@@ -0,0 +1,12 @@
+-- Samrum V2: block-allocated sequences (hi/lo)
+-- Each node reserves a block of values by advancing NEXT_VALUE_ in its own
+-- transaction and then hands out numbers from that block in memory.
+
+CREATE TABLE IF NOT EXISTS SAMRUM_SEQUENCE (
+    NAME_ VARCHAR(64) NOT NULL,
+    NEXT_VALUE_ BIGINT NOT NULL,
+    PRIMARY KEY (NAME_)
+);
+
+INSERT INTO SAMRUM_SEQUENCE (NAME_, NEXT_VALUE_)
+SELECT 'WORK_ORDER', 1 WHERE NOT EXISTS (SELECT 1 FROM SAMRUM_SEQUENCE WHERE NAME_ = 'WORK_ORDER');
@@ -0,0 +1,12 @@
+-- Samrum V4: cycle-time analytics sketches
+-- One row per node and sketch key (activity durations, process durations per
+-- outcome, revision loop counts). Each node overwrites only its own rows;
+-- readers merge the rows of all nodes.
+
+CREATE TABLE IF NOT EXISTS SAMRUM_ANALYTICS_SKETCH (
+    NODE_ID_ VARCHAR(255) NOT NULL,
+    KEY_ VARCHAR(512) NOT NULL,
+    DATA_ TEXT NOT NULL,
+    UPDATED_ TIMESTAMP NOT NULL,
+    PRIMARY KEY (NODE_ID_, KEY_)
+);
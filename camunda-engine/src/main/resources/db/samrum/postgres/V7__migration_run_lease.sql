@@ -0,0 +1,8 @@
+-- Samrum V7: migration run ownership
+-- STATE_ must hold COMPLETED_WITH_FAILURES. A RUNNING run is executed by the
+-- node in OWNER_ while LEASE_UNTIL_ lies in the future; it renews the lease
+-- with every progress update, and any node may take over an expired lease.
+
+ALTER TABLE SAMRUM_MIGRATION_RUN ALTER COLUMN STATE_ TYPE VARCHAR(32);
+ALTER TABLE SAMRUM_MIGRATION_RUN ADD COLUMN IF NOT EXISTS OWNER_ VARCHAR(255);
+ALTER TABLE SAMRUM_MIGRATION_RUN ADD COLUMN IF NOT EXISTS LEASE_UNTIL_ TIMESTAMP;
@@ -0,0 +1,130 @@
+package com.samrum;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.engine.task.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The parallel approval variant from processes/, deployed as is: each approval
+ * completes with its own decision (facilityApproved, securityApproved), both
+ * approvals join, the first rejection cancels the other approval and requests
+ * both again.
+ */
+class DoorManagementParallelProcessTest {
+
+    private static final Path BPMN = Path.of("..", "processes", "door-management-parallel.bpmn");
+    private static final String PROCESS_KEY = "door-management-parallel-process";
+
+    private InMemoryEngine engine;
+    private TaskService taskService;
+
+    @BeforeEach
+    void start() throws Exception {
+        Map<String, Object> beans = new HashMap<>();
+        beans.put("validateDoorRequestDelegate", (JavaDelegate) execution -> execution.setVariable("valid", true));
+        beans.put("createWorkOrderDelegate", (JavaDelegate) execution -> execution.setVariable("workOrderNumber", "WO-1"));
+        engine = InMemoryEngine.start(beans);
+        try (InputStream bpmn = Files.newInputStream(BPMN)) {
+            engine.processEngine().getRepositoryService().createDeployment()
+                .addInputStream("door-management-parallel.bpmn", bpmn)
+                .deploy();
+        }
+        taskService = engine.processEngine().getTaskService();
+    }
+
+    @AfterEach
+    void close() {
+        engine.close();
+    }
+
+    @Test
+    void bothApprovalsJoinAndCreateTheWorkOrder() {
+        String id = startInstance();
+        assertThat(approvals(id)).containsExactlyInAnyOrder("UserTask_FacilityApproval", "UserTask_SecurityApproval");
+
+        complete(id, "UserTask_FacilityApproval", true);
+        assertThat(approvals(id)).containsExactly("UserTask_SecurityApproval");
+        complete(id, "UserTask_SecurityApproval", true);
+
+        ProcessEngine processEngine = engine.processEngine();
+        assertThat(processEngine.getRuntimeService().getVariables(id))
+            .containsEntry("facilityApproved", true)
+            .containsEntry("securityApproved", true)
+            .doesNotContainKey("allApproved");
+        Job createWorkOrder = processEngine.getManagementService().createJobQuery().processInstanceId(id).singleResult();
+        assertThat(createWorkOrder).isNotNull();
+        processEngine.getManagementService().executeJob(createWorkOrder.getId());
+        assertThat(taskService.createTaskQuery().processInstanceId(id).singleResult().getTaskDefinitionKey())
+            .isEqualTo("UserTask_AssignTechnician");
+    }
+
+    @Test
+    void rejectionCancelsTheOtherApprovalAndRequestsBothAgain() {
+        String id = startInstance();
+        String facilityTaskId = task(id, "UserTask_FacilityApproval").getId();
+
+        complete(id, "UserTask_SecurityApproval", false);
+
+        assertThat(taskService.createTaskQuery().taskId(facilityTaskId).count()).isZero();
+        assertThat(approvals(id)).containsExactlyInAnyOrder("UserTask_FacilityApproval", "UserTask_SecurityApproval");
+        assertThat(engine.processEngine().getManagementService().createJobQuery().processInstanceId(id).count())
+            .isZero();
+    }
+
+    @Test
+    void secondRoundAfterARejectionReadsTheNewDecisions() {
+        String id = startInstance();
+        complete(id, "UserTask_FacilityApproval", false);
+
+        // facilityApproved stays false from the rejection until the facility approval is completed again
+        complete(id, "UserTask_SecurityApproval", true);
+        assertThat(approvals(id)).containsExactly("UserTask_FacilityApproval");
+        complete(id, "UserTask_FacilityApproval", true);
+
+        assertThat(approvals(id)).isEmpty();
+        assertThat(engine.processEngine().getManagementService().createJobQuery().processInstanceId(id).count())
+            .isEqualTo(1);
+    }
+
+    private String startInstance() {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("requestor", "requestor1");
+        variables.put("facilityManager", "facility1");
+        variables.put("securityManager", "security1");
+        variables.put("workOrderManager", "workorders1");
+        variables.put("dueDate", null);
+        return engine.processEngine().getRuntimeService()
+            .startProcessInstanceByKey(PROCESS_KEY, variables).getId();
+    }
+
+    private void complete(String processInstanceId, String taskDefinitionKey, boolean approved) {
+        String decision = taskDefinitionKey.equals("UserTask_FacilityApproval") ? "facilityApproved" : "securityApproved";
+        taskService.complete(task(processInstanceId, taskDefinitionKey).getId(), Map.of(decision, approved));
+    }
+
+    private Task task(String processInstanceId, String taskDefinitionKey) {
+        return taskService.createTaskQuery().processInstanceId(processInstanceId)
+            .taskDefinitionKey(taskDefinitionKey).singleResult();
+    }
+
+    private List<String> approvals(String processInstanceId) {
+        return taskService.createTaskQuery().processInstanceId(processInstanceId).list().stream()
+            .map(Task::getTaskDefinitionKey)
+            .filter(key -> key.endsWith("Approval"))
+            .toList();
+    }
+}
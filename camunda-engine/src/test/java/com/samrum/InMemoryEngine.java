@@ -0,0 +1,78 @@
+package com.samrum;
+
+import com.samrum.config.SchemaMigrationPlugin;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.impl.cfg.ProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.persistence.StrongUuidGenerator;
+import org.camunda.bpm.engine.spring.SpringProcessEngineConfiguration;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.*;
+
+/**
+ * Process engine on a private in-memory H2 database with the Samrum schema
+ * migrations applied, configured like the Spring Boot starter (Spring
+ * transactions, UUID ids, full history).
+ */
+public final class InMemoryEngine {
+
+    private final DataSource dataSource;
+    private final ProcessEngine processEngine;
+
+    private InMemoryEngine(DataSource dataSource, ProcessEngine processEngine) {
+        this.dataSource = dataSource;
+        this.processEngine = processEngine;
+    }
+
+    public static InMemoryEngine start() {
+        return start(new HashMap<>());
+    }
+
+    /**
+     * @param beans resolvable in expressions (delegateExpression="${name}")
+     */
+    public static InMemoryEngine start(Map<String, Object> beans, ProcessEnginePlugin... plugins) {
+        String name = "test-" + UUID.randomUUID();
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+
+        SchemaMigrationPlugin schemaMigrations = new SchemaMigrationPlugin();
+        ReflectionTestUtils.setField(schemaMigrations, "enabled", true);
+        List<ProcessEnginePlugin> allPlugins = new ArrayList<>();
+        allPlugins.add(schemaMigrations);
+        allPlugins.addAll(Arrays.asList(plugins));
+
+        SpringProcessEngineConfiguration configuration = new SpringProcessEngineConfiguration();
+        configuration.setProcessEngineName(name);
+        configuration.setDataSource(dataSource);
+        configuration.setTransactionManager(new DataSourceTransactionManager(dataSource));
+        configuration.setDatabaseSchemaUpdate("true");
+        configuration.setHistory("full");
+        configuration.setIdGenerator(new StrongUuidGenerator());
+        configuration.setJobExecutorActivate(false);
+        configuration.setBeans(new HashMap<>(beans));
+        configuration.setProcessEnginePlugins(allPlugins);
+        return new InMemoryEngine(dataSource, configuration.buildProcessEngine());
+    }
+
+    public ProcessEngine processEngine() {
+        return processEngine;
+    }
+
+    public DataSource dataSource() {
+        return dataSource;
+    }
+
+    public JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(dataSource);
+    }
+
+    public void close() {
+        processEngine.close();
+        jdbcTemplate().execute("SHUTDOWN");
+    }
+}
@@ -0,0 +1,148 @@
+package com.samrum.analytics;
+
+import com.samrum.InMemoryEngine;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.impl.history.event.HistoricActivityInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricProcessInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * History events are handed in directly, as the engine's Spring eventing
+ * publishes them after commit.
+ */
+class CycleTimeAnalyticsTest {
+
+    private static final SketchKey REVIEW = new SketchKey(SketchKey.Kind.ACTIVITY, "door", "review");
+    private static final SketchKey APPROVED = new SketchKey(SketchKey.Kind.OUTCOME, "door", "approved");
+    private static final SketchKey APPROVED_LOOPS = new SketchKey(SketchKey.Kind.LOOPS, "door", "approved");
+
+    private InMemoryEngine engine;
+    private AnalyticsSketchStore store;
+    private final List<CycleTimeAnalytics> nodes = new ArrayList<>();
+
+    @BeforeEach
+    void start() {
+        engine = InMemoryEngine.start();
+        store = new AnalyticsSketchStore(engine.jdbcTemplate());
+    }
+
+    @AfterEach
+    void close() {
+        nodes.forEach(CycleTimeAnalytics::stop);
+        engine.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void revisionLoopsAreCountedFromTheStreamedTaskEnds() throws InterruptedException {
+        CycleTimeAnalytics analytics = node("node-a");
+        // p1 is reviewed three times, p2 once; p3 is still running
+        for (String activityId : List.of("review", "review", "approve", "review")) {
+            analytics.onActivityInstance(activityEnd("p1", activityId, "userTask", 60_000L));
+        }
+        analytics.onActivityInstance(activityEnd("p1", "checkLocation", "serviceTask", 20L));
+        analytics.onActivityInstance(activityEnd("p2", "review", "userTask", 30_000L));
+        analytics.onActivityInstance(activityEnd("p3", "review", "userTask", 30_000L));
+        analytics.onProcessInstance(processEnd("p1", 500_000L));
+        analytics.onProcessInstance(processEnd("p2", 100_000L));
+        awaitIdle(analytics);
+
+        assertThat(analytics.loopHistograms().get(APPROVED_LOOPS).getDistribution())
+            .containsExactly(Map.entry(0, 1L), Map.entry(2, 1L));
+        assertThat(analytics.durationSketches().get(REVIEW).getCount()).isEqualTo(5);
+        assertThat(analytics.durationSketches().get(APPROVED).getCount()).isEqualTo(2);
+        // counters of ended instances are dropped
+        Map<String, ?> visits = (Map<String, ?>) ReflectionTestUtils.getField(analytics, "visits");
+        assertThat(visits).containsOnlyKeys("p3");
+    }
+
+    @Test
+    void savedSketchesAreRestoredAfterARestartAndMergedAcrossNodes() throws InterruptedException {
+        CycleTimeAnalytics nodeA = node("node-a");
+        nodeA.onActivityInstance(activityEnd("p1", "review", "userTask", 60_000L));
+        nodeA.onActivityInstance(activityEnd("p1", "review", "userTask", 120_000L));
+        nodeA.onProcessInstance(processEnd("p1", 500_000L));
+        awaitIdle(nodeA);
+        nodeA.stop();
+        nodes.remove(nodeA);
+
+        assertThat(store.loadNode("node-a"))
+            .containsOnlyKeys(REVIEW.encode(), APPROVED.encode(), APPROVED_LOOPS.encode())
+            .containsEntry(APPROVED_LOOPS.encode(), "1:1");
+        assertThat(DurationSketch.decode(store.loadNode("node-a").get(REVIEW.encode())).getMax()).isEqualTo(120_000L);
+
+        CycleTimeAnalytics restarted = node("node-a");
+        CycleTimeAnalytics nodeB = node("node-b");
+        assertThat(restarted.durationSketches().get(REVIEW).getCount()).isEqualTo(2);
+
+        restarted.onActivityInstance(activityEnd("p2", "review", "userTask", 30_000L));
+        nodeB.onActivityInstance(activityEnd("p3", "review", "userTask", 90_000L));
+        nodeB.onProcessInstance(processEnd("p3", 200_000L));
+        awaitIdle(restarted);
+        awaitIdle(nodeB);
+        restarted.flush();
+
+        // the restarted node continued its own sketch; node b reads it merged with its own
+        assertThat(store.loadOtherNodes("node-b")).containsOnlyKeys("node-a");
+        DurationSketch review = nodeB.durationSketches().get(REVIEW);
+        assertThat(review.getCount()).isEqualTo(4);
+        assertThat(review.getMin()).isEqualTo(30_000L);
+        assertThat(nodeB.loopHistograms().get(APPROVED_LOOPS).getDistribution())
+            .containsExactly(Map.entry(0, 1L), Map.entry(1, 1L));
+    }
+
+    private CycleTimeAnalytics node(String nodeId) {
+        CycleTimeAnalytics analytics = new CycleTimeAnalytics();
+        ReflectionTestUtils.setField(analytics, "store", store);
+        ReflectionTestUtils.setField(analytics, "nodeId", nodeId);
+        ReflectionTestUtils.setField(analytics, "queueCapacity", 1000);
+        ReflectionTestUtils.setField(analytics, "remoteRefreshMs", 0L);
+        ReflectionTestUtils.setField(analytics, "maxOpenInstances", 100);
+        analytics.start();
+        nodes.add(analytics);
+        return analytics;
+    }
+
+    private static void awaitIdle(CycleTimeAnalytics analytics) throws InterruptedException {
+        ThreadPoolExecutor worker = (ThreadPoolExecutor) ReflectionTestUtils.getField(analytics, "worker");
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (worker.getCompletedTaskCount() < worker.getTaskCount() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(worker.getCompletedTaskCount()).isEqualTo(worker.getTaskCount());
+    }
+
+    private static HistoricActivityInstanceEventEntity activityEnd(String processInstanceId, String activityId,
+                                                                   String activityType, Long duration) {
+        HistoricActivityInstanceEventEntity event = new HistoricActivityInstanceEventEntity();
+        event.setEventType(HistoryEventTypes.ACTIVITY_INSTANCE_END.getEventName());
+        event.setProcessDefinitionKey("door");
+        event.setProcessInstanceId(processInstanceId);
+        event.setActivityId(activityId);
+        event.setActivityType(activityType);
+        event.setDurationInMillis(duration);
+        return event;
+    }
+
+    private static HistoricProcessInstanceEventEntity processEnd(String processInstanceId, long duration) {
+        HistoricProcessInstanceEventEntity event = new HistoricProcessInstanceEventEntity();
+        event.setEventType(HistoryEventTypes.PROCESS_INSTANCE_END.getEventName());
+        event.setProcessDefinitionKey("door");
+        event.setProcessInstanceId(processInstanceId);
+        event.setState(HistoricProcessInstance.STATE_COMPLETED);
+        event.setEndActivityId("approved");
+        event.setDurationInMillis(duration);
+        return event;
+    }
+}
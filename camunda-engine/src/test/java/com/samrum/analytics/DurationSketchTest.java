@@ -0,0 +1,81 @@
+package com.samrum.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class DurationSketchTest {
+
+    private static final double[] QUANTILES = {0.0, 0.01, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 0.999, 1.0};
+
+    @Test
+    void quantilesStayWithinTheRelativeAccuracy() {
+        Random random = new Random(7);
+        // task durations: log-normal around an hour, from seconds to weeks
+        long[] skewed = new long[100_000];
+        for (int i = 0; i < skewed.length; i++) {
+            skewed[i] = Math.max(1_000, (long) Math.exp(15 + 1.5 * random.nextGaussian()));
+        }
+        long[] uniform = new long[10_000];
+        for (int i = 0; i < uniform.length; i++) {
+            uniform[i] = 1 + random.nextInt(86_400_000);
+        }
+
+        for (long[] values : new long[][]{skewed, uniform}) {
+            DurationSketch sketch = new DurationSketch();
+            Arrays.stream(values).forEach(sketch::record);
+            long[] sorted = values.clone();
+            Arrays.sort(sorted);
+
+            assertThat(sketch.getCount()).isEqualTo(values.length);
+            assertThat(sketch.getMin()).isEqualTo(sorted[0]);
+            assertThat(sketch.getMax()).isEqualTo(sorted[sorted.length - 1]);
+            for (double quantile : QUANTILES) {
+                long exact = sorted[(int) Math.floor(quantile * (sorted.length - 1))];
+                // one millisecond of slack for rounding the estimate
+                assertThat((double) sketch.quantile(quantile)).as("q%s", quantile)
+                    .isCloseTo(exact, within(exact * DurationSketch.RELATIVE_ACCURACY + 1));
+            }
+        }
+    }
+
+    @Test
+    void mergedSketchesEqualOneSketchOfAllValues() {
+        Random random = new Random(11);
+        DurationSketch all = new DurationSketch();
+        DurationSketch nodeA = new DurationSketch();
+        DurationSketch nodeB = new DurationSketch();
+        for (int i = 0; i < 20_000; i++) {
+            long value = (long) (random.nextDouble() * (i % 2 == 0 ? 60_000 : 86_400_000));
+            all.record(value);
+            (i % 3 == 0 ? nodeA : nodeB).record(value);
+        }
+
+        DurationSketch merged = nodeA.copy();
+        merged.merge(nodeB);
+
+        assertThat(merged.encode()).isEqualTo(all.encode());
+        for (double quantile : QUANTILES) {
+            assertThat(merged.quantile(quantile)).isEqualTo(all.quantile(quantile));
+        }
+        assertThat(nodeA.getCount() + nodeB.getCount()).isEqualTo(merged.getCount());
+    }
+
+    @Test
+    void encodedSketchesDecodeToTheSameSketch() {
+        DurationSketch sketch = new DurationSketch();
+        for (long value : new long[]{0, 1, 2, 999, 60_000, 3_600_000, DurationSketch.MAX_TRACKED_MILLIS * 2}) {
+            sketch.record(value);
+        }
+        DurationSketch decoded = DurationSketch.decode(sketch.encode());
+
+        assertThat(decoded.encode()).isEqualTo(sketch.encode());
+        assertThat(decoded.quantile(0.5)).isEqualTo(sketch.quantile(0.5));
+        assertThat(decoded.getMean()).isEqualTo(sketch.getMean());
+        assertThat(DurationSketch.decode(new DurationSketch().encode()).quantile(0.5)).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,88 @@
+package com.samrum.audit;
+
+import com.samrum.InMemoryEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuditJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private AuditJournal journal;
+    private InMemoryEngine engine;
+    private final List<String> recordedFor = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void start() throws Exception {
+        journal = new AuditJournal();
+        ReflectionTestUtils.setField(journal, "directory", directory.toString());
+        ReflectionTestUtils.setField(journal, "bufferCapacity", 1024);
+        ReflectionTestUtils.setField(journal, "segmentMaxBytes", 1L << 20);
+        ReflectionTestUtils.setField(journal, "fsyncIntervalMs", 50L);
+        journal.start();
+
+        JavaDelegate approve = execution -> {
+            recordedFor.add(execution.getProcessInstanceId());
+            journal.record(AuditEventType.APPROVAL, execution.getProcessInstanceId(), execution.getCurrentActivityId(),
+                "engineer1", "PROJ-1", null);
+            if (Boolean.TRUE.equals(execution.getVariable("fail"))) {
+                throw new IllegalStateException("notification failed");
+            }
+        };
+        engine = InMemoryEngine.start(Map.of("approve", approve));
+        engine.processEngine().getRepositoryService().createDeployment()
+            .addModelInstance("audit.bpmn", Bpmn.createExecutableProcess("audit")
+                .startEvent().serviceTask().camundaDelegateExpression("${approve}").endEvent().done())
+            .deploy();
+    }
+
+    @AfterEach
+    void stop() {
+        journal.stop();
+        engine.close();
+    }
+
+    @Test
+    void eventsOfRolledBackCommandsAreNotJournaled() throws Exception {
+        RuntimeService runtimeService = engine.processEngine().getRuntimeService();
+        assertThatThrownBy(() -> runtimeService.startProcessInstanceByKey("audit", Map.of("fail", true)))
+            .hasMessageContaining("notification failed");
+        String committed = runtimeService.startProcessInstanceByKey("audit", Map.of("fail", false)).getId();
+        journal.stop();
+
+        assertThat(recordedFor).hasSize(2);
+        assertThat(journal.query(recordedFor.get(0), 0, Long.MAX_VALUE)).isEmpty();
+        assertThat(journal.query(committed, 0, Long.MAX_VALUE))
+            .extracting(AuditEvent::getType).containsExactly(AuditEventType.APPROVAL);
+        assertThat(journal.getWrittenCount()).isEqualTo(1);
+    }
+
+    @Test
+    void idleWriterWakesUpForNewEvents() throws Exception {
+        // let the writer park on the empty ring
+        Thread.sleep(200);
+        assertThat(journal.record(AuditEventType.REJECTION, "instance-1", "task", "engineer1", "PROJ-1", null)).isTrue();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (journal.getWrittenCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(journal.getWrittenCount()).isEqualTo(1);
+        assertThat(journal.getPendingCount()).isZero();
+    }
+}
@@ -0,0 +1,155 @@
+package com.samrum.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.impl.persistence.StrongUuidGenerator;
+import org.camunda.bpm.engine.spring.SpringProcessEngineConfiguration;
+import org.camunda.bpm.engine.task.Task;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Complete-task latency on PostgreSQL with driver/pool defaults and with the
+ * prod datasource settings from application.yml.
+ *
+ * Not part of the regular build (class name does not end in Test, needs a
+ * database). Run against an empty, disposable PostgreSQL database - the public
+ * schema is dropped before each configuration:
+ *
+ *   mvn test -Dtest=CompleteTaskLatencyBenchmark \
+ *     -Dsamrum.bench.jdbc-url=jdbc:postgresql://localhost:5432/bench \
+ *     -Dsamrum.bench.username=postgres -Dsamrum.bench.password=postgres
+ */
+@EnabledIfSystemProperty(named = "samrum.bench.jdbc-url", matches = ".+")
+class CompleteTaskLatencyBenchmark {
+
+    private static final int WEB_WORKERS = 32;
+    private static final int JOB_WORKERS = 8;
+    // concurrent task completions; the pool is still sized for WEB_WORKERS
+    private static final int CLIENTS = Integer.getInteger("samrum.bench.clients", WEB_WORKERS);
+    private static final int INSTANCES = Integer.getInteger("samrum.bench.instances", 4000);
+    private static final int WARM_UP = INSTANCES / 5;
+
+    @Test
+    void compareDefaultAndTunedDatasource() throws Exception {
+        Map<String, Object> defaults = run("defaults", dataSource(10, new Properties()));
+
+        Properties tuned = new Properties();
+        tuned.setProperty("prepareThreshold", "3");
+        tuned.setProperty("preparedStatementCacheQueries", "512");
+        tuned.setProperty("preparedStatementCacheSizeMiB", "8");
+        tuned.setProperty("defaultRowFetchSize", "500");
+        tuned.setProperty("reWriteBatchedInserts", "true");
+        // DataSourcePoolSizer: web workers + job workers + headroom
+        Map<String, Object> prod = run("prod settings", dataSource(WEB_WORKERS + JOB_WORKERS + 4, tuned));
+
+        System.out.println(defaults);
+        System.out.println(prod);
+        assertThat(defaults.get("completed")).isEqualTo(INSTANCES - WARM_UP);
+        assertThat(prod.get("completed")).isEqualTo(INSTANCES - WARM_UP);
+    }
+
+    private static HikariDataSource dataSource(int poolSize, Properties driverProperties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getProperty("samrum.bench.jdbc-url"));
+        dataSource.setUsername(System.getProperty("samrum.bench.username", "postgres"));
+        dataSource.setPassword(System.getProperty("samrum.bench.password", ""));
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setDataSourceProperties(driverProperties);
+        return dataSource;
+    }
+
+    private static Map<String, Object> run(String name, HikariDataSource dataSource) throws Exception {
+        try (HikariDataSource ds = dataSource) {
+            new JdbcTemplate(ds).execute("DROP SCHEMA public CASCADE; CREATE SCHEMA public");
+
+            SpringProcessEngineConfiguration configuration = new SpringProcessEngineConfiguration();
+            configuration.setProcessEngineName("bench-" + name.replace(' ', '-'));
+            configuration.setDataSource(ds);
+            configuration.setTransactionManager(new DataSourceTransactionManager(ds));
+            configuration.setDatabaseSchemaUpdate("true");
+            configuration.setHistory("full");
+            configuration.setJdbcBatchProcessing(true);
+            configuration.setJobExecutorActivate(false);
+            // as configured by the Spring Boot starter
+            configuration.setIdGenerator(new StrongUuidGenerator());
+            configuration.setBeans(new HashMap<>());
+            ProcessEngine engine = configuration.buildProcessEngine();
+            try {
+                engine.getRepositoryService().createDeployment()
+                    .addClasspathResource("processes/door-installation.bpmn").deploy();
+                for (int i = 0; i < INSTANCES; i++) {
+                    Map<String, Object> variables = new HashMap<>();
+                    variables.put("projectId", "BENCH-" + i);
+                    variables.put("doorType", "FIRE_DOOR");
+                    variables.put("reviewerId", "reviewer" + (i % 50));
+                    variables.put("designerId", "designer" + (i % 50));
+                    engine.getRuntimeService().startProcessInstanceByKey("doorInstallationProcess", "BENCH-" + i, variables);
+                }
+                return completeAll(name, engine.getTaskService());
+            } finally {
+                engine.close();
+            }
+        }
+    }
+
+    private static Map<String, Object> completeAll(String name, TaskService taskService) throws Exception {
+        List<String> taskIds = new ArrayList<>();
+        for (Task task : taskService.createTaskQuery().taskDefinitionKey("designReview").list()) {
+            taskIds.add(task.getId());
+        }
+
+        // warm up JIT, statement caches and server-side prepares
+        for (String taskId : taskIds.subList(0, WARM_UP)) {
+            complete(taskService, taskId);
+        }
+
+        Queue<String> pending = new ConcurrentLinkedQueue<>(taskIds.subList(WARM_UP, taskIds.size()));
+        Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+        ExecutorService workers = Executors.newFixedThreadPool(CLIENTS);
+        long started = System.nanoTime();
+        for (int i = 0; i < CLIENTS; i++) {
+            workers.execute(() -> {
+                String taskId;
+                while ((taskId = pending.poll()) != null) {
+                    long t = System.nanoTime();
+                    complete(taskService, taskId);
+                    latencies.add(System.nanoTime() - t);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - started;
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("config", name);
+        result.put("clients", CLIENTS);
+        result.put("completed", sorted.length);
+        result.put("p50Ms", percentile(sorted, 0.50));
+        result.put("p95Ms", percentile(sorted, 0.95));
+        result.put("p99Ms", percentile(sorted, 0.99));
+        result.put("tasksPerSecond", Math.round(sorted.length / (elapsed / 1e9)));
+        return result;
+    }
+
+    private static void complete(TaskService taskService, String taskId) {
+        // the task list page reads the task before the form is submitted
+        taskService.createTaskQuery().taskId(taskId).singleResult();
+        taskService.complete(taskId, Map.of("reviewNotes", "ok"));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        long nanos = sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+        return Math.round(nanos / 1e4) / 100.0;
+    }
+}
@@ -0,0 +1,222 @@
+package com.samrum.config;
+
+import com.samrum.fixture.FixtureGenerator;
+import com.zaxxer.hikari.HikariDataSource;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.impl.persistence.StrongUuidGenerator;
+import org.camunda.bpm.engine.spring.SpringProcessEngineConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Query plans and latency of the door process queries on PostgreSQL without
+ * and with the V1 index pack, on a FixtureGenerator dataset (1M historic
+ * instances by default). In between, one index of the pack is left INVALID
+ * by a failed concurrent build, and SchemaMigrationPlugin has to drop and
+ * rebuild it.
+ *
+ * The SQL mirrors what the task, process list and process detail queries of
+ * DoorProcessController and WebUIController issue.
+ *
+ * Not part of the regular build. Loading the default dataset takes several
+ * minutes. Run against an empty, disposable PostgreSQL database - the public
+ * schema is dropped first:
+ *
+ *   mvn test -Dtest=IndexPackBenchmark \
+ *     -Dsamrum.bench.jdbc-url=jdbc:postgresql://localhost:5432/bench \
+ *     -Dsamrum.bench.username=postgres -Dsamrum.bench.password=postgres \
+ *     -Dsamrum.bench.historic-instances=1000000
+ */
+@EnabledIfSystemProperty(named = "samrum.bench.jdbc-url", matches = ".+")
+class IndexPackBenchmark {
+
+    private static final long HISTORIC_INSTANCES = Long.getLong("samrum.bench.historic-instances", 1_000_000L);
+    private static final long ACTIVE_INSTANCES = Long.getLong("samrum.bench.active-instances", 50_000L);
+    private static final int SAMPLES = Integer.getInteger("samrum.bench.samples", 200);
+
+    private static final List<String> INDEX_PACK = List.of(
+        "samrum_idx_task_assignee_create", "samrum_idx_task_procdef_create", "samrum_idx_exe_procdef_id",
+        "samrum_idx_var_procinst_name", "samrum_idx_hi_pi_key_end", "samrum_idx_hi_task_pi_end");
+
+    /**
+     * A query and the SQL sampling its parameters from the dataset.
+     */
+    private static final class Query {
+        final String name;
+        final String sql;
+        final String parameters;
+
+        Query(String name, String sql, String parameters) {
+            this.name = name;
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+    }
+
+    private static final List<Query> QUERIES = List.of(
+        new Query("taskListPerAssignee",
+            "SELECT * FROM ACT_RU_TASK WHERE ASSIGNEE_ = ? ORDER BY CREATE_TIME_ DESC LIMIT 50",
+            "SELECT DISTINCT ASSIGNEE_ FROM ACT_RU_TASK WHERE ASSIGNEE_ IS NOT NULL"),
+        new Query("taskListPerDefinition",
+            "SELECT * FROM ACT_RU_TASK WHERE PROC_DEF_ID_ = ? ORDER BY CREATE_TIME_ DESC LIMIT 50",
+            "SELECT ID_ FROM ACT_RE_PROCDEF"),
+        new Query("activeInstancesPerDefinition",
+            "SELECT * FROM ACT_RU_EXECUTION WHERE PROC_DEF_ID_ = ? AND PARENT_ID_ IS NULL ORDER BY ID_ LIMIT 50",
+            "SELECT ID_ FROM ACT_RE_PROCDEF"),
+        new Query("instanceVariable",
+            "SELECT * FROM ACT_RU_VARIABLE WHERE PROC_INST_ID_ = ? AND NAME_ = ?",
+            "SELECT PROC_INST_ID_, NAME_ FROM ACT_RU_VARIABLE ORDER BY RANDOM() LIMIT " + SAMPLES),
+        new Query("finishedInstancesPerKey",
+            "SELECT * FROM ACT_HI_PROCINST WHERE PROC_DEF_KEY_ = ? AND END_TIME_ IS NOT NULL "
+                + "ORDER BY END_TIME_ DESC LIMIT 50",
+            "SELECT DISTINCT KEY_ FROM ACT_RE_PROCDEF"),
+        new Query("historicTasksOfInstance",
+            "SELECT * FROM ACT_HI_TASKINST WHERE PROC_INST_ID_ = ? ORDER BY END_TIME_",
+            "SELECT PROC_INST_ID_ FROM ACT_HI_PROCINST WHERE END_TIME_ IS NOT NULL ORDER BY RANDOM() LIMIT " + SAMPLES));
+
+    @Test
+    void compareQueriesWithoutAndWithTheIndexPack() throws Exception {
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl(System.getProperty("samrum.bench.jdbc-url"));
+            dataSource.setUsername(System.getProperty("samrum.bench.username", "postgres"));
+            dataSource.setPassword(System.getProperty("samrum.bench.password", ""));
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("DROP SCHEMA public CASCADE; CREATE SCHEMA public");
+
+            SchemaMigrationPlugin schemaMigrations = new SchemaMigrationPlugin();
+            ReflectionTestUtils.setField(schemaMigrations, "enabled", true);
+            SpringProcessEngineConfiguration configuration = new SpringProcessEngineConfiguration();
+            configuration.setProcessEngineName("index-pack-bench");
+            configuration.setDataSource(dataSource);
+            configuration.setTransactionManager(new DataSourceTransactionManager(dataSource));
+            configuration.setDatabaseSchemaUpdate("true");
+            configuration.setHistory("full");
+            configuration.setJobExecutorActivate(false);
+            configuration.setIdGenerator(new StrongUuidGenerator());
+            configuration.setBeans(new HashMap<>());
+            configuration.setProcessEnginePlugins(List.of(schemaMigrations));
+            ProcessEngine engine = configuration.buildProcessEngine();
+            try {
+                // load without the pack, as on a database that predates it
+                dropIndexPack(jdbcTemplate);
+                load(engine, dataSource);
+                jdbcTemplate.execute("ANALYZE");
+                Map<String, String> without = measure(jdbcTemplate);
+
+                // V1 stays recorded; a concurrent build that failed half-way left an INVALID index behind
+                assertThatThrownBy(() -> jdbcTemplate.execute(
+                    "CREATE UNIQUE INDEX CONCURRENTLY SAMRUM_IDX_HI_TASK_PI_END ON ACT_HI_TASKINST(PROC_INST_ID_)"))
+                    .isInstanceOf(DataAccessException.class);
+                assertThat(invalidIndexes(jdbcTemplate)).containsExactly("samrum_idx_hi_task_pi_end");
+
+                long started = System.currentTimeMillis();
+                schemaMigrations.postProcessEngineBuild(engine);
+                long buildMs = System.currentTimeMillis() - started;
+                assertThat(invalidIndexes(jdbcTemplate)).isEmpty();
+                assertThat(jdbcTemplate.queryForList("SELECT INDEXNAME FROM PG_INDEXES WHERE SCHEMANAME = "
+                    + "CURRENT_SCHEMA() AND INDEXNAME LIKE 'samrum_idx_%'", String.class)).containsAll(INDEX_PACK);
+                jdbcTemplate.execute("ANALYZE");
+                Map<String, String> with = measure(jdbcTemplate);
+
+                System.out.println("historicInstances=" + HISTORIC_INSTANCES + " activeInstances=" + ACTIVE_INSTANCES
+                    + " indexPackBuildMs=" + buildMs);
+                for (Query query : QUERIES) {
+                    System.out.println(query.name + "\n  without: " + without.get(query.name)
+                        + "\n  with:    " + with.get(query.name));
+                }
+            } finally {
+                engine.close();
+            }
+        }
+    }
+
+    private static void load(ProcessEngine engine, HikariDataSource dataSource) throws Exception {
+        try {
+            engine.getRepositoryService().createDeployment()
+                .addInputStream("door-installation.bpmn",
+                    new FileSystemResource("src/main/resources/processes/door-installation.bpmn").getInputStream())
+                .addInputStream("door-management.bpmn",
+                    new FileSystemResource("../processes/door-management.bpmn").getInputStream())
+                .deploy();
+        } catch (IOException e) {
+            throw new IllegalStateException("Run from camunda-engine so the process models resolve", e);
+        }
+
+        FixtureGenerator generator = new FixtureGenerator();
+        ReflectionTestUtils.setField(generator, "dataSource", dataSource);
+        ReflectionTestUtils.setField(generator, "repositoryService", engine.getRepositoryService());
+        ReflectionTestUtils.setField(generator, "activeInstances", ACTIVE_INSTANCES);
+        ReflectionTestUtils.setField(generator, "historicInstances", HISTORIC_INSTANCES);
+        ReflectionTestUtils.setField(generator, "batchSize", 1_000);
+        ReflectionTestUtils.setField(generator, "historyDays", 365);
+        ReflectionTestUtils.setField(generator, "seed", 42L);
+        generator.run();
+    }
+
+    private static void dropIndexPack(JdbcTemplate jdbcTemplate) {
+        for (String index : INDEX_PACK) {
+            jdbcTemplate.execute("DROP INDEX IF EXISTS " + index);
+        }
+    }
+
+    private static List<String> invalidIndexes(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForList("SELECT C.RELNAME FROM PG_INDEX I JOIN PG_CLASS C ON C.OID = I.INDEXRELID "
+            + "WHERE NOT I.INDISVALID AND C.RELNAME LIKE 'samrum_idx_%'", String.class);
+    }
+
+    /**
+     * Top plan node of the first sample plus median and p95 latency over all samples.
+     */
+    private static Map<String, String> measure(JdbcTemplate jdbcTemplate) {
+        Map<String, String> results = new LinkedHashMap<>();
+        for (Query query : QUERIES) {
+            List<Object[]> parameters = jdbcTemplate.query(query.parameters, (rs, row) -> {
+                Object[] values = new Object[rs.getMetaData().getColumnCount()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = rs.getObject(i + 1);
+                }
+                return values;
+            });
+            assertThat(parameters).as(query.name).isNotEmpty();
+
+            List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + query.sql, String.class, parameters.get(0));
+            // warm the buffer cache so both runs measure the plan, not the first disk read
+            for (Object[] values : parameters) {
+                jdbcTemplate.queryForList(query.sql, values);
+            }
+            long[] micros = new long[SAMPLES];
+            for (int i = 0; i < SAMPLES; i++) {
+                long started = System.nanoTime();
+                jdbcTemplate.queryForList(query.sql, parameters.get(i % parameters.size()));
+                micros[i] = (System.nanoTime() - started) / 1_000;
+            }
+            Arrays.sort(micros);
+            results.put(query.name, String.format("p50=%dus p95=%dus plan=%s",
+                micros[SAMPLES / 2], micros[SAMPLES * 95 / 100], planSummary(plan)));
+        }
+        return results;
+    }
+
+    private static String planSummary(List<String> plan) {
+        StringJoiner nodes = new StringJoiner(" > ");
+        for (String line : plan) {
+            String node = line.replaceFirst("^[\\s\\->]*", "");
+            if (!line.trim().startsWith("->") && nodes.length() > 0) {
+                continue;
+            }
+            nodes.add(node.replaceFirst("\\s+\\(cost=.*", ""));
+        }
+        return nodes.toString();
+    }
+}
@@ -0,0 +1,51 @@
+package com.samrum.config;
+
+import com.samrum.dispatch.TaskDispatchQueue;
+import com.samrum.rest.CommentSearchController;
+import com.samrum.rest.DoorProcessController;
+import com.samrum.search.CommentIndex;
+import com.samrum.sla.SlaMonitor;
+import com.samrum.ui.DashboardFragments;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.spring.ProcessEngineFactoryBean;
+import org.camunda.bpm.engine.spring.components.jobexecutor.SpringJobExecutor;
+import org.camunda.bpm.spring.boot.starter.webapp.CamundaBpmWebappAutoConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LazyInitializationConfigurationTest {
+
+    private final LazyInitializationExcludeFilter filter = LazyInitializationConfiguration.eagerBeansFilter();
+
+    @Test
+    void engineAndJobExecutorStayEager() {
+        assertThat(eager(ProcessEngineFactoryBean.class)).isTrue();
+        assertThat(eager(ProcessEngine.class)).isTrue();
+        assertThat(eager(JobExecutor.class)).isTrue();
+        assertThat(eager(SpringJobExecutor.class)).isTrue();
+    }
+
+    @Test
+    void applicationReadyListenersStayEager() {
+        assertThat(eager(TaskDispatchQueue.class)).isTrue();
+        assertThat(eager(SlaMonitor.class)).isTrue();
+        assertThat(eager(CommentIndex.class)).isTrue();
+    }
+
+    @Test
+    void webappControllersAndCachesAreLazy() {
+        assertThat(eager(CamundaBpmWebappAutoConfiguration.class)).isFalse();
+        assertThat(eager(DoorProcessController.class)).isFalse();
+        assertThat(eager(CommentSearchController.class)).isFalse();
+        // listens for transaction events only, which need no eager bean
+        assertThat(eager(DashboardFragments.class)).isFalse();
+    }
+
+    private boolean eager(Class<?> beanType) {
+        return filter.isExcluded(beanType.getSimpleName(), new RootBeanDefinition(beanType), beanType);
+    }
+}
@@ -0,0 +1,174 @@
+package com.samrum.config;
+
+import com.samrum.InMemoryEngine;
+import com.samrum.tracing.FileSpanExporter;
+import com.samrum.tracing.JobTraceContexts;
+import com.samrum.tracing.TracingJobHandler;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.batch.BatchJobHandler;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.jobexecutor.AsyncContinuationJobHandler;
+import org.camunda.bpm.engine.impl.jobexecutor.TimerCatchIntermediateEventJobHandler;
+import org.camunda.bpm.engine.impl.jobexecutor.TimerEventJobHandler;
+import org.camunda.bpm.engine.impl.jobexecutor.TimerExecuteNestedActivityJobHandler;
+import org.camunda.bpm.engine.impl.jobexecutor.TimerStartEventJobHandler;
+import org.camunda.bpm.engine.impl.jobexecutor.TimerStartEventSubprocessJobHandler;
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TracingPluginTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<SpanData> spans = new CopyOnWriteArrayList<>();
+    private SdkTracerProvider tracerProvider;
+    private InMemoryEngine engine;
+
+    @BeforeEach
+    void start() {
+        tracerProvider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(collecting(spans)))
+            .build();
+        TracingPlugin plugin = new TracingPlugin();
+        ReflectionTestUtils.setField(plugin, "tracer", tracerProvider.get("test"));
+        ReflectionTestUtils.setField(plugin, "jobTraceContexts", new JobTraceContexts(100));
+        ReflectionTestUtils.setField(plugin, "enabled", true);
+        engine = InMemoryEngine.start(new HashMap<>(), plugin);
+
+        engine.processEngine().getRepositoryService().createDeployment()
+            .addModelInstance("timer.bpmn", Bpmn.createExecutableProcess("timer")
+                .startEvent()
+                .userTask("review")
+                .boundaryEvent("overdue").timerWithDuration("PT1H")
+                .endEvent("escalated")
+                .moveToActivity("review")
+                .endEvent("reviewed")
+                .done())
+            .addModelInstance("async.bpmn", Bpmn.createExecutableProcess("async")
+                .startEvent()
+                .serviceTask("notify").camundaAsyncBefore().camundaExpression("${true}")
+                .endEvent()
+                .done())
+            .deploy();
+    }
+
+    @AfterEach
+    void close() {
+        engine.close();
+        tracerProvider.close();
+    }
+
+    @Test
+    void timerAndBatchHandlersAreNotWrapped() {
+        ProcessEngineConfigurationImpl configuration =
+            (ProcessEngineConfigurationImpl) engine.processEngine().getProcessEngineConfiguration();
+
+        assertThat(configuration.getJobHandlers().values())
+            .filteredOn(handler -> handler instanceof TracingJobHandler)
+            .extracting(handler -> handler.getType())
+            .contains(AsyncContinuationJobHandler.TYPE);
+        for (String type : List.of(TimerExecuteNestedActivityJobHandler.TYPE, TimerStartEventJobHandler.TYPE,
+            TimerCatchIntermediateEventJobHandler.TYPE, TimerStartEventSubprocessJobHandler.TYPE)) {
+            assertThat(configuration.getJobHandlers().get(type)).as(type).isInstanceOf(TimerEventJobHandler.class);
+        }
+        assertThat(configuration.getJobHandlers().values())
+            .filteredOn(handler -> handler instanceof BatchJobHandler)
+            .isNotEmpty();
+    }
+
+    @Test
+    void timerAndAsyncJobsRun() {
+        ProcessEngine processEngine = engine.processEngine();
+        RuntimeService runtimeService = processEngine.getRuntimeService();
+        ManagementService managementService = processEngine.getManagementService();
+
+        String timer = runtimeService.startProcessInstanceByKey("timer").getId();
+        Job timerJob = managementService.createJobQuery().processInstanceId(timer).singleResult();
+        // casts the job handler to TimerEventJobHandler
+        managementService.recalculateJobDuedate(timerJob.getId(), true);
+        managementService.executeJob(timerJob.getId());
+        assertThat(runtimeService.createProcessInstanceQuery().processInstanceId(timer).count()).isZero();
+
+        String async = runtimeService.startProcessInstanceByKey("async").getId();
+        Job asyncJob = managementService.createJobQuery().processInstanceId(async).singleResult();
+        managementService.executeJob(asyncJob.getId());
+        assertThat(runtimeService.createProcessInstanceQuery().processInstanceId(async).count()).isZero();
+
+        assertThat(spans).extracting(SpanData::getName).contains("job " + AsyncContinuationJobHandler.TYPE);
+    }
+
+    @Test
+    void fileExporterStopsAtMaxBytes() throws Exception {
+        Path file = directory.resolve("spans.jsonl");
+        try (SdkTracerProvider provider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(new FileSpanExporter(file, 1_000)))
+            .build()) {
+            for (int i = 0; i < 50; i++) {
+                provider.get("test").spanBuilder("span " + i).startSpan().end();
+            }
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).isNotEmpty().hasSizeLessThan(50);
+        assertThat(Files.size(file)).isLessThanOrEqualTo(1_000);
+    }
+
+    @Test
+    void otlpExporterRunsOnTheManagedOkHttpAndKotlin() {
+        engine.processEngine().getRuntimeService().startProcessInstanceByKey("timer");
+        assertThat(spans).isNotEmpty();
+
+        // nothing listens on port 1: the export fails, but only after OkHttp has sent the request
+        OtlpHttpSpanExporter exporter = OtlpHttpSpanExporter.builder()
+            .setEndpoint("http://localhost:1/v1/traces")
+            .setTimeout(2, TimeUnit.SECONDS)
+            .build();
+        CompletableResultCode result = exporter.export(spans).join(10, TimeUnit.SECONDS);
+        exporter.shutdown().join(10, TimeUnit.SECONDS);
+
+        assertThat(result.isDone()).isTrue();
+        assertThat(result.isSuccess()).isFalse();
+    }
+
+    private static SpanExporter collecting(List<SpanData> spans) {
+        return new SpanExporter() {
+            @Override
+            public CompletableResultCode export(Collection<SpanData> batch) {
+                spans.addAll(batch);
+                return CompletableResultCode.ofSuccess();
+            }
+
+            @Override
+            public CompletableResultCode flush() {
+                return CompletableResultCode.ofSuccess();
+            }
+
+            @Override
+            public CompletableResultCode shutdown() {
+                return CompletableResultCode.ofSuccess();
+            }
+        };
+    }
+}
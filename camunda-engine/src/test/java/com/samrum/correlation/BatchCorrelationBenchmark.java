@@ -0,0 +1,137 @@
+package com.samrum.correlation;
+
+import com.samrum.config.SchemaMigrationPlugin;
+import com.samrum.dto.CorrelationMessage;
+import com.zaxxer.hikari.HikariDataSource;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.camunda.bpm.engine.impl.persistence.StrongUuidGenerator;
+import org.camunda.bpm.engine.spring.SpringProcessEngineConfiguration;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Maintenance callback throughput on PostgreSQL: BatchCorrelationService
+ * against one correlation per message by the workOrderNumber variable, which
+ * is what a caller without the mapping table does.
+ *
+ * Not part of the regular build. Run against an empty, disposable PostgreSQL
+ * database - the public schema is dropped first:
+ *
+ *   mvn test -Dtest=BatchCorrelationBenchmark \
+ *     -Dsamrum.bench.jdbc-url=jdbc:postgresql://localhost:5432/bench \
+ *     -Dsamrum.bench.username=postgres -Dsamrum.bench.password=postgres
+ */
+@EnabledIfSystemProperty(named = "samrum.bench.jdbc-url", matches = ".+")
+class BatchCorrelationBenchmark {
+
+    private static final int INSTANCES = Integer.getInteger("samrum.bench.instances", 5_000);
+    private static final int BATCH_SIZE = Integer.getInteger("samrum.bench.batch-size", 1_000);
+    private static final int GROUP_SIZE = Integer.getInteger("samrum.bench.group-size", 100);
+
+    @Test
+    void compareBatchAndSingleCorrelation() {
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl(System.getProperty("samrum.bench.jdbc-url"));
+            dataSource.setUsername(System.getProperty("samrum.bench.username", "postgres"));
+            dataSource.setPassword(System.getProperty("samrum.bench.password", ""));
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("DROP SCHEMA public CASCADE; CREATE SCHEMA public");
+
+            WorkOrderExecutionStore store = new WorkOrderExecutionStore(jdbcTemplate);
+            // stands in for CreateWorkOrderDelegate without the number generator and journal
+            JavaDelegate createWorkOrder = execution -> {
+                String workOrderNumber = (String) execution.getVariable("workOrderNumber");
+                store.register(workOrderNumber, execution.getProcessInstanceId());
+            };
+
+            SchemaMigrationPlugin schemaMigrations = new SchemaMigrationPlugin();
+            ReflectionTestUtils.setField(schemaMigrations, "enabled", true);
+            SpringProcessEngineConfiguration configuration = new SpringProcessEngineConfiguration();
+            configuration.setProcessEngineName("correlation-bench");
+            configuration.setDataSource(dataSource);
+            configuration.setTransactionManager(new DataSourceTransactionManager(dataSource));
+            configuration.setDatabaseSchemaUpdate("true");
+            configuration.setHistory("full");
+            configuration.setJobExecutorActivate(false);
+            configuration.setIdGenerator(new StrongUuidGenerator());
+            configuration.setBeans(new HashMap<>(Map.of("createWorkOrderDelegate", createWorkOrder)));
+            configuration.setProcessEnginePlugins(List.of(schemaMigrations));
+            ProcessEngine engine = configuration.buildProcessEngine();
+            try {
+                engine.getRepositoryService().createDeployment()
+                    .addModelInstance("work-order.bpmn", Bpmn.createExecutableProcess("workOrder")
+                        .startEvent()
+                        .serviceTask("createWorkOrder").camundaDelegateExpression("${createWorkOrderDelegate}")
+                        .receiveTask("waitForTechnician").message("TechnicianAssigned")
+                        .userTask("install")
+                        .endEvent()
+                        .done())
+                    .deploy();
+                RuntimeService runtimeService = engine.getRuntimeService();
+                List<String> batched = startInstances(runtimeService, "WO-B");
+                List<String> single = startInstances(runtimeService, "WO-S");
+
+                BatchCorrelationService service = new BatchCorrelationService();
+                ReflectionTestUtils.setField(service, "processEngine", engine);
+                ReflectionTestUtils.setField(service, "runtimeService", runtimeService);
+                ReflectionTestUtils.setField(service, "store", store);
+                ReflectionTestUtils.setField(service, "groupSize", GROUP_SIZE);
+                ReflectionTestUtils.setField(service, "maxBatchSize", BATCH_SIZE);
+
+                long started = System.currentTimeMillis();
+                int correlated = 0;
+                for (int from = 0; from < batched.size(); from += BATCH_SIZE) {
+                    List<CorrelationMessage> messages = new ArrayList<>();
+                    for (String workOrderNumber : batched.subList(from, Math.min(batched.size(), from + BATCH_SIZE))) {
+                        messages.add(new CorrelationMessage(workOrderNumber, "TechnicianAssigned",
+                            Map.of("technician", "tech-1")));
+                    }
+                    correlated += (Integer) service.correlate(messages).get("correlated");
+                }
+                long batchMs = System.currentTimeMillis() - started;
+
+                started = System.currentTimeMillis();
+                for (String workOrderNumber : single) {
+                    runtimeService.createMessageCorrelation("TechnicianAssigned")
+                        .processInstanceVariableEquals("workOrderNumber", workOrderNumber)
+                        .setVariable("technician", "tech-1")
+                        .correlateWithResult();
+                }
+                long singleMs = System.currentTimeMillis() - started;
+
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("messages", INSTANCES);
+                result.put("batchSize", BATCH_SIZE);
+                result.put("groupSize", GROUP_SIZE);
+                result.put("batchMessagesPerSecond", INSTANCES * 1000L / Math.max(1L, batchMs));
+                result.put("singleMessagesPerSecond", INSTANCES * 1000L / Math.max(1L, singleMs));
+                System.out.println(result);
+                assertThat(correlated).isEqualTo(INSTANCES);
+                assertThat(runtimeService.createProcessInstanceQuery().activityIdIn("install").count())
+                    .isEqualTo(2L * INSTANCES);
+            } finally {
+                engine.close();
+            }
+        }
+    }
+
+    private static List<String> startInstances(RuntimeService runtimeService, String prefix) {
+        List<String> workOrderNumbers = new ArrayList<>();
+        for (int i = 0; i < INSTANCES; i++) {
+            String workOrderNumber = String.format("%s%08d", prefix, i);
+            runtimeService.startProcessInstanceByKey("workOrder", Map.of("workOrderNumber", workOrderNumber));
+            workOrderNumbers.add(workOrderNumber);
+        }
+        return workOrderNumbers;
+    }
+}
@@ -0,0 +1,147 @@
+package com.samrum.correlation;
+
+import com.samrum.InMemoryEngine;
+import com.samrum.audit.AuditJournal;
+import com.samrum.delegate.CreateWorkOrderDelegate;
+import com.samrum.rules.DoorRequestRuleRegistry;
+import com.samrum.dto.CorrelationMessage;
+import com.samrum.workorder.WorkOrderNumberGenerator;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Work orders created by CreateWorkOrderDelegate are correlated by
+ * BatchCorrelationService.
+ */
+class BatchCorrelationServiceTest {
+
+    @TempDir
+    Path auditDirectory;
+
+    private AuditJournal journal;
+    private InMemoryEngine engine;
+    private BatchCorrelationService service;
+
+    @BeforeEach
+    void start() throws Exception {
+        journal = new AuditJournal();
+        ReflectionTestUtils.setField(journal, "directory", auditDirectory.toString());
+        ReflectionTestUtils.setField(journal, "bufferCapacity", 1024);
+        ReflectionTestUtils.setField(journal, "segmentMaxBytes", 1L << 20);
+        ReflectionTestUtils.setField(journal, "fsyncIntervalMs", 50L);
+        journal.start();
+
+        DoorRequestRuleRegistry ruleRegistry = new DoorRequestRuleRegistry(new DefaultResourceLoader());
+        ReflectionTestUtils.setField(ruleRegistry, "location", "classpath:rules/door-request-rules.properties");
+        ruleRegistry.init();
+
+        CreateWorkOrderDelegate createWorkOrder = new CreateWorkOrderDelegate();
+        JavaDelegate failIfAsked = execution -> {
+            if (Boolean.TRUE.equals(execution.getVariable("fail"))) {
+                throw new IllegalStateException("maintenance system unavailable");
+            }
+        };
+        engine = InMemoryEngine.start(Map.of("createWorkOrderDelegate", createWorkOrder, "failIfAsked", failIfAsked));
+
+        WorkOrderNumberGenerator generator = new WorkOrderNumberGenerator(engine.jdbcTemplate(),
+            new DataSourceTransactionManager(engine.dataSource()));
+        ReflectionTestUtils.setField(generator, "blockSize", 100);
+        WorkOrderExecutionStore store = new WorkOrderExecutionStore(engine.jdbcTemplate());
+        ReflectionTestUtils.setField(createWorkOrder, "ruleRegistry", ruleRegistry);
+        ReflectionTestUtils.setField(createWorkOrder, "workOrderNumberGenerator", generator);
+        ReflectionTestUtils.setField(createWorkOrder, "auditJournal", journal);
+        ReflectionTestUtils.setField(createWorkOrder, "workOrderExecutionStore", store);
+
+        ProcessEngine processEngine = engine.processEngine();
+        processEngine.getRepositoryService().createDeployment()
+            .addModelInstance("work-order.bpmn", Bpmn.createExecutableProcess("workOrder")
+                .startEvent()
+                .serviceTask("createWorkOrder").camundaDelegateExpression("${createWorkOrderDelegate}")
+                .serviceTask("notifyMaintenance").camundaDelegateExpression("${failIfAsked}")
+                .receiveTask("waitForTechnician").message("TechnicianAssigned")
+                .userTask("install")
+                .endEvent()
+                .done())
+            .deploy();
+
+        service = new BatchCorrelationService();
+        ReflectionTestUtils.setField(service, "processEngine", processEngine);
+        ReflectionTestUtils.setField(service, "runtimeService", processEngine.getRuntimeService());
+        ReflectionTestUtils.setField(service, "store", store);
+        ReflectionTestUtils.setField(service, "groupSize", 2);
+        ReflectionTestUtils.setField(service, "maxBatchSize", 100);
+    }
+
+    @AfterEach
+    void stop() {
+        journal.stop();
+        engine.close();
+    }
+
+    @Test
+    void workOrdersCreatedByTheDelegateAreCorrelated() {
+        RuntimeService runtimeService = engine.processEngine().getRuntimeService();
+        Map<String, String> instanceByWorkOrder = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) {
+            String id = runtimeService.startProcessInstanceByKey("workOrder").getId();
+            instanceByWorkOrder.put((String) runtimeService.getVariable(id, "workOrderNumber"), id);
+        }
+
+        List<CorrelationMessage> messages = new ArrayList<>();
+        for (String workOrderNumber : instanceByWorkOrder.keySet()) {
+            messages.add(new CorrelationMessage(workOrderNumber, "TechnicianAssigned", Map.of("technician", "tech-7")));
+        }
+        String first = instanceByWorkOrder.keySet().iterator().next();
+        messages.add(new CorrelationMessage("WO-9999999999", "TechnicianAssigned", null));
+        messages.add(new CorrelationMessage(first, "PartsDelivered", null));
+
+        Map<String, Object> response = service.correlate(messages);
+
+        assertThat(response.get("correlated")).isEqualTo(5);
+        assertThat(response.get("groups")).isEqualTo(3);
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> unmatched = (List<Map<String, Object>>) response.get("unmatched");
+        assertThat(unmatched).extracting(entry -> entry.get("reason"))
+            .containsExactly(BatchCorrelationService.UNKNOWN_WORK_ORDER, BatchCorrelationService.NO_SUBSCRIPTION);
+        for (String id : instanceByWorkOrder.values()) {
+            assertThat(runtimeService.getActiveActivityIds(id)).containsExactly("install");
+            assertThat(runtimeService.getVariable(id, "technician")).isEqualTo("tech-7");
+        }
+    }
+
+    @Test
+    void workOrdersGetThePriorityOfTheRuleMatrix() {
+        RuntimeService runtimeService = engine.processEngine().getRuntimeService();
+        String urgent = runtimeService.startProcessInstanceByKey("workOrder",
+            Map.of("urgency", "HIGH", "budget", 30_000.0, "requestor", "requestor1")).getId();
+        String plain = runtimeService.startProcessInstanceByKey("workOrder").getId();
+
+        assertThat(runtimeService.getVariable(urgent, "assignedPriority")).isEqualTo("P1_CRITICAL");
+        assertThat(runtimeService.getVariable(plain, "assignedPriority")).isEqualTo("P3_MEDIUM");
+    }
+
+    @Test
+    void mappingIsRolledBackWithTheInstance() {
+        RuntimeService runtimeService = engine.processEngine().getRuntimeService();
+        assertThatThrownBy(() -> runtimeService.startProcessInstanceByKey("workOrder", Map.of("fail", true)))
+            .hasMessageContaining("maintenance system unavailable");
+
+        assertThat(engine.jdbcTemplate().queryForObject(
+            "SELECT COUNT(*) FROM SAMRUM_WORK_ORDER_EXECUTION", Integer.class)).isZero();
+    }
+}
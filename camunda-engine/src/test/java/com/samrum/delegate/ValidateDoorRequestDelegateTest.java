@@ -0,0 +1,119 @@
+package com.samrum.delegate;
+
+import com.samrum.InMemoryEngine;
+import com.samrum.audit.AuditJournal;
+import com.samrum.registry.CachingLocationRegistry;
+import com.samrum.registry.FileLocationRegistry;
+import com.samrum.rules.DoorRequestRuleRegistry;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValidateDoorRequestDelegateTest {
+
+    @TempDir
+    Path directory;
+
+    private AuditJournal journal;
+    private CachingLocationRegistry locationRegistry;
+    private InMemoryEngine engine;
+
+    @BeforeEach
+    void start() throws Exception {
+        journal = new AuditJournal();
+        ReflectionTestUtils.setField(journal, "directory", directory.toString());
+        ReflectionTestUtils.setField(journal, "bufferCapacity", 1024);
+        ReflectionTestUtils.setField(journal, "segmentMaxBytes", 1L << 20);
+        ReflectionTestUtils.setField(journal, "fsyncIntervalMs", 50L);
+        journal.start();
+
+        DoorRequestRuleRegistry ruleRegistry = new DoorRequestRuleRegistry(new DefaultResourceLoader());
+        ReflectionTestUtils.setField(ruleRegistry, "location", "classpath:rules/door-request-rules.properties");
+        ruleRegistry.init();
+
+        locationRegistry = new CachingLocationRegistry(
+            new FileLocationRegistry(new ClassPathResource("registry/locations.txt")), 60_000, 60_000, 100);
+        locationRegistry.start(0);
+
+        ValidateDoorRequestDelegate delegate = new ValidateDoorRequestDelegate();
+        ReflectionTestUtils.setField(delegate, "ruleRegistry", ruleRegistry);
+        ReflectionTestUtils.setField(delegate, "locationRegistry", locationRegistry);
+        ReflectionTestUtils.setField(delegate, "auditJournal", journal);
+
+        engine = InMemoryEngine.start(Map.of("validateDoorRequestDelegate", delegate));
+        engine.processEngine().getRepositoryService().createDeployment()
+            .addModelInstance("validate.bpmn", Bpmn.createExecutableProcess("validate")
+                .startEvent()
+                .serviceTask().camundaDelegateExpression("${validateDoorRequestDelegate}")
+                .userTask("decide")
+                .endEvent()
+                .done())
+            .deploy();
+    }
+
+    @AfterEach
+    void stop() {
+        journal.stop();
+        locationRegistry.close();
+        engine.close();
+    }
+
+    @Test
+    void validRequestWithHighBudgetNeedsAdditionalApproval() {
+        Map<String, Object> request = request("security_door", 75_000.0);
+        request.put("urgency", "low");
+        Map<String, Object> variables = validate(request);
+
+        assertThat(variables).containsEntry("valid", true)
+            .containsEntry("requiresAdditionalApproval", true)
+            .containsEntry("assignedPriority", "P3_MEDIUM")
+            .doesNotContainKey("rejectionReason");
+    }
+
+    @Test
+    void invalidRequestsNameTheFirstFailedRule() {
+        assertThat(validate(request("GARAGE_DOOR", 1_000.0)))
+            .containsEntry("valid", false)
+            .containsEntry("rejectionReason", "Invalid door type: GARAGE_DOOR");
+
+        assertThat(validate(request("SINGLE_STANDARD", 0.0)))
+            .containsEntry("rejectionReason", "Valid budget estimate is required");
+
+        Map<String, Object> unknownLocation = request("SINGLE_STANDARD", 1_000.0);
+        unknownLocation.put("location", "B09-F9-R999");
+        assertThat(validate(unknownLocation))
+            .containsEntry("rejectionReason", "Location not found in building registry: B09-F9-R999");
+
+        Map<String, Object> noRequestor = request("SINGLE_STANDARD", 1_000.0);
+        noRequestor.put("requestor", " ");
+        assertThat(validate(noRequestor))
+            .containsEntry("rejectionReason", "Requestor information is required");
+    }
+
+    private Map<String, Object> validate(Map<String, Object> request) {
+        RuntimeService runtimeService = engine.processEngine().getRuntimeService();
+        String id = runtimeService.startProcessInstanceByKey("validate", request).getId();
+        return runtimeService.getVariables(id);
+    }
+
+    private static Map<String, Object> request(String doorType, Double budget) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("doorType", doorType);
+        variables.put("location", "B01-F1-R101");
+        variables.put("budget", budget);
+        variables.put("requestor", "requestor1");
+        return variables;
+    }
+}
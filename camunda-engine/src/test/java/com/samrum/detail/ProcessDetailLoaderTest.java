@@ -0,0 +1,162 @@
+package com.samrum.detail;
+
+import com.samrum.InMemoryEngine;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.variable.Variables;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the connections and statements one detail load costs, through a
+ * counting proxy in front of the engine's DataSource.
+ */
+class ProcessDetailLoaderTest {
+
+    private static final Set<String> STATEMENT_METHODS = Set.of("prepareStatement", "createStatement", "prepareCall");
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger statements = new AtomicInteger();
+
+    private InMemoryEngine engine;
+    private ProcessDetailLoader loader;
+
+    @BeforeEach
+    void start() {
+        engine = InMemoryEngine.start(new HashMap<>(), new AbstractProcessEnginePlugin() {
+            @Override
+            public void preInit(ProcessEngineConfigurationImpl configuration) {
+                configuration.setDataSource(counting(configuration.getDataSource()));
+            }
+        });
+        engine.processEngine().getRepositoryService().createDeployment()
+            .addClasspathResource("processes/door-installation.bpmn")
+            .deploy();
+        loader = new ProcessDetailLoader();
+        ReflectionTestUtils.setField(loader, "processEngine", engine.processEngine());
+    }
+
+    @AfterEach
+    void close() {
+        engine.close();
+    }
+
+    @Test
+    void activeInstanceIsOneConnectionAndFourStatements() {
+        String id = startInstance();
+
+        ProcessDetail detail = countWhile(() -> loader.load(id, false).orElseThrow());
+
+        assertThat(connections).hasValue(1);
+        // instance, variables, tasks, timeline; no ACT_GE_BYTEARRAY read
+        assertThat(statements).hasValue(4);
+        assertThat(detail.isActive()).isTrue();
+        assertThat(detail.getDeferredVariables()).containsExactly("drawing");
+        assertThat(detail.getVariables()).containsEntry("projectId", "PROJ-1").doesNotContainKey("slaEscalation");
+        assertThat(detail.getCurrentTasks()).extracting(task -> task.getTaskDefinitionKey())
+            .containsExactly("designReview");
+    }
+
+    @Test
+    void fullValuesAddTheByteArrayRead() {
+        String id = startInstance();
+
+        ProcessDetail detail = countWhile(() -> loader.load(id, true).orElseThrow());
+
+        assertThat(connections).hasValue(1);
+        assertThat(statements).hasValue(5);
+        assertThat(detail.getDeferredVariables()).isEmpty();
+        assertThat(detail.getVariables().get("drawing")).isEqualTo(new byte[] {1, 2, 3});
+    }
+
+    @Test
+    void completedInstanceIsOneConnectionAndFourStatements() {
+        String id = startInstance();
+        engine.processEngine().getRuntimeService().deleteProcessInstance(id, "withdrawn");
+
+        ProcessDetail detail = countWhile(() -> loader.load(id, false).orElseThrow());
+
+        assertThat(connections).hasValue(1);
+        assertThat(statements).hasValue(4);
+        assertThat(detail.isActive()).isFalse();
+        assertThat(detail.getHistoricTasks()).extracting(task -> task.getTaskDefinitionKey())
+            .containsExactly("designReview");
+    }
+
+    @Test
+    void unknownInstanceIsOneStatement() {
+        assertThat(countWhile(() -> loader.load("unknown", false))).isEmpty();
+
+        assertThat(statements).hasValue(1);
+    }
+
+    private String startInstance() {
+        ProcessEngine processEngine = engine.processEngine();
+        RuntimeService runtimeService = processEngine.getRuntimeService();
+        TaskService taskService = processEngine.getTaskService();
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("projectId", "PROJ-1");
+        variables.put("doorType", "FIRE_DOOR");
+        variables.put("reviewerId", "engineer1");
+        variables.put("drawing", Variables.byteArrayValue(new byte[] {1, 2, 3}));
+        String id = runtimeService.startProcessInstanceByKey("doorInstallationProcess", variables).getId();
+        // a task-local variable is not part of the detail
+        String taskId = taskService.createTaskQuery().processInstanceId(id).singleResult().getId();
+        taskService.setVariableLocal(taskId, "slaEscalation", true);
+        return id;
+    }
+
+    private <T> T countWhile(Supplier<T> action) {
+        connections.set(0);
+        statements.set(0);
+        return action.get();
+    }
+
+    private DataSource counting(DataSource target) {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {DataSource.class},
+            (proxy, method, args) -> {
+                Object result = invoke(target, method, args);
+                if ("getConnection".equals(method.getName())) {
+                    connections.incrementAndGet();
+                    return counting((Connection) result);
+                }
+                return result;
+            });
+    }
+
+    private Connection counting(Connection target) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                if (STATEMENT_METHODS.contains(method.getName())) {
+                    statements.incrementAndGet();
+                }
+                return invoke(target, method, args);
+            });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
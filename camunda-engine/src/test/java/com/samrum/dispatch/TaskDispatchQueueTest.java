@@ -0,0 +1,184 @@
+package com.samrum.dispatch;
+
+import com.samrum.InMemoryEngine;
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The queue is fed by DispatchTaskListener through the parse listener, as
+ * TaskDispatchPlugin registers it.
+ */
+class TaskDispatchQueueTest {
+
+    private InMemoryEngine engine;
+    private TaskDispatchQueue queue;
+
+    @BeforeEach
+    void start() {
+        queue = new TaskDispatchQueue();
+        engine = InMemoryEngine.start(Map.of(), new AbstractProcessEnginePlugin() {
+            @Override
+            public void preInit(ProcessEngineConfigurationImpl configuration) {
+                configuration.setCustomPostBPMNParseListeners(new ArrayList<>(List.of(new DispatchParseListener(queue))));
+            }
+        });
+        wire(queue);
+        engine.processEngine().getRepositoryService().createDeployment()
+            .addModelInstance("dispatch.bpmn", Bpmn.createExecutableProcess("dispatch")
+                .startEvent()
+                .userTask("install").camundaCandidateGroups("${groups}").camundaDueDate("${dueDate}")
+                .endEvent()
+                .done())
+            .deploy();
+    }
+
+    @AfterEach
+    void close() {
+        engine.close();
+    }
+
+    @Test
+    void concurrentCallersAreHandedDistinctTasks() throws Exception {
+        Set<String> started = new HashSet<>();
+        for (int i = 0; i < 40; i++) {
+            started.add(start("technicians", null, i % 2 == 0 ? "P2_HIGH" : "P4_LOW"));
+        }
+        assertThat(queue.sizes()).containsEntry("technicians", 40);
+
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        List<Future<List<QueuedTask>>> handedOut = new ArrayList<>();
+        for (int c = 0; c < 4; c++) {
+            String userId = "tech-" + c;
+            handedOut.add(callers.submit(() -> {
+                List<QueuedTask> claimed = new ArrayList<>();
+                Optional<QueuedTask> task;
+                while ((task = queue.next("technicians", userId)).isPresent()) {
+                    claimed.add(task.get());
+                }
+                return claimed;
+            }));
+        }
+        List<String> claimedIds = new ArrayList<>();
+        for (Future<List<QueuedTask>> future : handedOut) {
+            future.get(60, TimeUnit.SECONDS).forEach(task -> claimedIds.add(task.getProcessInstanceId()));
+        }
+        callers.shutdown();
+
+        assertThat(claimedIds).hasSize(40).doesNotHaveDuplicates();
+        assertThat(new HashSet<>(claimedIds)).isEqualTo(started);
+        assertThat(engine.processEngine().getTaskService().createTaskQuery().taskUnassigned().count()).isZero();
+        assertThat(queue.sizes()).containsEntry("technicians", 0);
+    }
+
+    @Test
+    void tasksAreHandedOutByDueDateThenPriority() {
+        Date tomorrow = new Date(System.currentTimeMillis() + 86_400_000L);
+        String low = start("technicians", null, "P4_LOW");
+        String unknown = start("technicians", null, null);
+        String critical = start("technicians", null, "P1_CRITICAL");
+        String due = start("technicians", tomorrow, "P4_LOW");
+
+        List<String> order = new ArrayList<>();
+        Optional<QueuedTask> task;
+        while ((task = queue.next("technicians", "tech-1")).isPresent()) {
+            order.add(task.get().getProcessInstanceId());
+        }
+        assertThat(order).containsExactly(due, critical, low, unknown);
+    }
+
+    @Test
+    void aTaskThatChangedWhileClaimingIsRequeued() {
+        String id = start("technicians", null, "P3_MEDIUM");
+        TaskService taskService = engine.processEngine().getTaskService();
+        AtomicInteger claims = new AtomicInteger();
+        TaskService flaky = (TaskService) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[]{TaskService.class}, (proxy, method, args) -> {
+                if (method.getName().equals("claim") && claims.incrementAndGet() == 1) {
+                    throw new OptimisticLockingException("task updated concurrently");
+                }
+                try {
+                    return method.invoke(taskService, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        ReflectionTestUtils.setField(queue, "taskService", flaky);
+
+        Optional<QueuedTask> task = queue.next("technicians", "tech-1");
+
+        assertThat(task).map(QueuedTask::getProcessInstanceId).contains(id);
+        assertThat(claims).hasValue(2);
+        assertThat(taskService.createTaskQuery().processInstanceId(id).singleResult().getAssignee()).isEqualTo("tech-1");
+        assertThat(queue.sizes()).containsEntry("technicians", 0);
+    }
+
+    @Test
+    void rebuildMatchesTheListenerFedQueues() {
+        Date tomorrow = new Date(System.currentTimeMillis() + 86_400_000L);
+        start("technicians", null, "P2_HIGH");
+        start("technicians,quality-inspectors", tomorrow, "P4_LOW");
+        start("quality-inspectors", null, null);
+        String claimed = start("technicians", null, "P1_CRITICAL");
+        String completed = start("quality-inspectors", null, "P1_CRITICAL");
+        String unassigned = start("technicians", null, "P3_MEDIUM");
+
+        TaskService taskService = engine.processEngine().getTaskService();
+        taskService.claim(taskId(claimed), "tech-1");
+        taskService.complete(taskId(completed));
+        taskService.claim(taskId(unassigned), "tech-2");
+        taskService.setAssignee(taskId(unassigned), null);
+
+        TaskDispatchQueue rebuilt = new TaskDispatchQueue();
+        wire(rebuilt);
+        rebuilt.rebuild();
+
+        assertThat(rebuilt.sizes()).isEqualTo(queue.sizes()).containsEntry("technicians", 3);
+        for (String group : queue.sizes().keySet()) {
+            assertThat(describe(rebuilt.peek(group, 10))).isEqualTo(describe(queue.peek(group, 10)));
+        }
+    }
+
+    private String start(String groups, Date dueDate, String assignedPriority) {
+        RuntimeService runtimeService = engine.processEngine().getRuntimeService();
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("groups", groups);
+        variables.put("dueDate", dueDate);
+        variables.put(DispatchTaskListener.ASSIGNED_PRIORITY, assignedPriority);
+        return runtimeService.startProcessInstanceByKey("dispatch", variables).getId();
+    }
+
+    private String taskId(String processInstanceId) {
+        return engine.processEngine().getTaskService().createTaskQuery()
+            .processInstanceId(processInstanceId).singleResult().getId();
+    }
+
+    private void wire(TaskDispatchQueue target) {
+        ReflectionTestUtils.setField(target, "taskService", engine.processEngine().getTaskService());
+        ReflectionTestUtils.setField(target, "jdbcTemplate", engine.jdbcTemplate());
+        ReflectionTestUtils.setField(target, "maxClaimAttempts", 10);
+    }
+
+    private static List<String> describe(List<QueuedTask> tasks) {
+        return tasks.stream()
+            .map(task -> task.getTaskId() + " " + task.getAssignedPriority() + " " + task.getDueDate()
+                + " " + new TreeSet<>(task.getCandidateGroups()))
+            .collect(Collectors.toList());
+    }
+}
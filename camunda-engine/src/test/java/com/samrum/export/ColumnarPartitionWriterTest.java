@@ -0,0 +1,51 @@
+package com.samrum.export;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnarPartitionWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesOneEscapedValuePerLineAndColumn() throws IOException {
+        Path part = directory.resolve("part-1");
+        List<ExportTable.Column> columns = List.of(ExportTable.string("NAME_"), ExportTable.timestamp("END_TIME_"),
+            ExportTable.number("LONG_"), ExportTable.decimal("DOUBLE_"));
+
+        try (ColumnarPartitionWriter writer = new ColumnarPartitionWriter(part, columns)) {
+            writer.write(new Object[]{"Dörr A\tplan 2", 1_700_000_000_000L, 42L, 0.5});
+            writer.write(new Object[]{"line\nbreak\r\\end", null, null, null});
+            writer.write(new Object[]{null, 0L, -1L, 1.0E10});
+            writer.write(new Object[]{"\\N", 1L, 0L, -2.25});
+            assertThat(writer.getRows()).isEqualTo(4);
+        }
+
+        assertThat(Files.readAllLines(part.resolve("_columns")))
+            .containsExactly("NAME_\tSTRING", "END_TIME_\tTIMESTAMP", "LONG_\tLONG", "DOUBLE_\tDOUBLE");
+        assertThat(Files.readString(part.resolve("_rows"))).isEqualTo("4");
+        // a literal \N stays distinguishable from null
+        assertThat(HistoryExportServiceTest.column(part, "NAME_"))
+            .containsExactly("Dörr A\\tplan 2", "line\\nbreak\\r\\\\end", "\\N", "\\\\N");
+        assertThat(HistoryExportServiceTest.column(part, "END_TIME_")).containsExactly("1700000000000", "\\N", "0", "1");
+        assertThat(HistoryExportServiceTest.column(part, "LONG_")).containsExactly("42", "\\N", "-1", "0");
+        assertThat(HistoryExportServiceTest.column(part, "DOUBLE_")).containsExactly("0.5", "\\N", "1.0E10", "-2.25");
+    }
+
+    @Test
+    void anEmptyPartitionHasItsColumnsAndZeroRows() throws IOException {
+        Path part = directory.resolve("part-1");
+        new ColumnarPartitionWriter(part, List.of(ExportTable.string("ID_"))).close();
+
+        assertThat(Files.readString(part.resolve("_rows"))).isEqualTo("0");
+        assertThat(HistoryExportServiceTest.column(part, "ID_")).isEmpty();
+    }
+}
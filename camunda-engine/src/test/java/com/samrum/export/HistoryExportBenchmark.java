@@ -0,0 +1,142 @@
+package com.samrum.export;
+
+import com.samrum.config.SchemaMigrationPlugin;
+import com.samrum.fixture.FixtureGenerator;
+import com.zaxxer.hikari.HikariDataSource;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.impl.persistence.StrongUuidGenerator;
+import org.camunda.bpm.engine.spring.SpringProcessEngineConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Live heap of a full history export on PostgreSQL: a FixtureGenerator
+ * dataset (1M historic instances by default) is exported in one run while a
+ * sampler measures the heap after a full GC every half second. With the
+ * cursor streaming and one partition open at a time, the live heap stays
+ * flat however many rows are exported.
+ *
+ * Not part of the regular build. Loading the default dataset takes several
+ * minutes. Run against an empty, disposable PostgreSQL database - the public
+ * schema is dropped first:
+ *
+ *   mvn test -Dtest=HistoryExportBenchmark \
+ *     -Dsamrum.bench.jdbc-url=jdbc:postgresql://localhost:5432/bench \
+ *     -Dsamrum.bench.username=postgres -Dsamrum.bench.password=postgres \
+ *     -Dsamrum.bench.historic-instances=1000000
+ */
+@EnabledIfSystemProperty(named = "samrum.bench.jdbc-url", matches = ".+")
+class HistoryExportBenchmark {
+
+    private static final long HISTORIC_INSTANCES = Long.getLong("samrum.bench.historic-instances", 1_000_000L);
+    private static final int FETCH_SIZE = Integer.getInteger("samrum.bench.fetch-size", 1_000);
+    // growth of the live heap over the baseline that still counts as bounded
+    private static final long MAX_LIVE_GROWTH = 64L * 1024 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void exportKeepsTheLiveHeapFlat() throws Exception {
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl(System.getProperty("samrum.bench.jdbc-url"));
+            dataSource.setUsername(System.getProperty("samrum.bench.username", "postgres"));
+            dataSource.setPassword(System.getProperty("samrum.bench.password", ""));
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("DROP SCHEMA public CASCADE; CREATE SCHEMA public");
+
+            SchemaMigrationPlugin schemaMigrations = new SchemaMigrationPlugin();
+            ReflectionTestUtils.setField(schemaMigrations, "enabled", true);
+            SpringProcessEngineConfiguration configuration = new SpringProcessEngineConfiguration();
+            configuration.setProcessEngineName("export-bench");
+            configuration.setDataSource(dataSource);
+            configuration.setTransactionManager(new DataSourceTransactionManager(dataSource));
+            configuration.setDatabaseSchemaUpdate("true");
+            configuration.setHistory("full");
+            configuration.setJobExecutorActivate(false);
+            configuration.setIdGenerator(new StrongUuidGenerator());
+            configuration.setBeans(new HashMap<>());
+            configuration.setProcessEnginePlugins(List.of(schemaMigrations));
+            ProcessEngine engine = configuration.buildProcessEngine();
+            try {
+                engine.getRepositoryService().createDeployment()
+                    .addInputStream("door-installation.bpmn",
+                        new FileSystemResource("src/main/resources/processes/door-installation.bpmn").getInputStream())
+                    .addInputStream("door-management.bpmn",
+                        new FileSystemResource("../processes/door-management.bpmn").getInputStream())
+                    .deploy();
+                FixtureGenerator generator = new FixtureGenerator();
+                ReflectionTestUtils.setField(generator, "dataSource", dataSource);
+                ReflectionTestUtils.setField(generator, "repositoryService", engine.getRepositoryService());
+                ReflectionTestUtils.setField(generator, "activeInstances", 0L);
+                ReflectionTestUtils.setField(generator, "historicInstances", HISTORIC_INSTANCES);
+                ReflectionTestUtils.setField(generator, "batchSize", 1_000);
+                ReflectionTestUtils.setField(generator, "historyDays", 365);
+                ReflectionTestUtils.setField(generator, "seed", 42L);
+                generator.run();
+
+                HistoryExportService service = new HistoryExportService();
+                ReflectionTestUtils.setField(service, "dataSource", dataSource);
+                ReflectionTestUtils.setField(service, "transactionManager", configuration.getTransactionManager());
+                ReflectionTestUtils.setField(service, "enabled", true);
+                ReflectionTestUtils.setField(service, "directory", directory.toString());
+                ReflectionTestUtils.setField(service, "fetchSize", FETCH_SIZE);
+                ReflectionTestUtils.setField(service, "lagSeconds", 0L);
+                ReflectionTestUtils.setField(service, "variables",
+                    List.of("projectId", "doorType", "location", "budget", "urgency", "approvalDecision"));
+
+                MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+                System.gc();
+                long baseline = memory.getHeapMemoryUsage().getUsed();
+                AtomicLong maxLive = new AtomicLong(baseline);
+                AtomicBoolean exporting = new AtomicBoolean(true);
+                Thread sampler = new Thread(() -> {
+                    while (exporting.get()) {
+                        System.gc();
+                        maxLive.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                        try {
+                            Thread.sleep(500);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                }, "heap-sampler");
+                sampler.start();
+                Map<String, Object> result;
+                try {
+                    result = service.export();
+                } finally {
+                    exporting.set(false);
+                    sampler.join();
+                }
+
+                Map<String, Object> report = new LinkedHashMap<>(result);
+                report.put("historicInstances", HISTORIC_INSTANCES);
+                report.put("fetchSize", FETCH_SIZE);
+                report.put("baselineHeapMb", baseline / (1024 * 1024));
+                report.put("maxLiveHeapMb", maxLive.get() / (1024 * 1024));
+                System.out.println(report);
+                @SuppressWarnings("unchecked")
+                Map<String, Long> rows = (Map<String, Long>) result.get("rows");
+                assertThat(rows.get("process_instances")).isEqualTo(HISTORIC_INSTANCES);
+                assertThat(maxLive.get() - baseline).isLessThan(MAX_LIVE_GROWTH);
+            } finally {
+                engine.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.samrum.export;
+
+import com.samrum.InMemoryEngine;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.spring.SpringProcessEngineConfiguration;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Instances are finished on fixed past days by moving the engine clock;
+ * the export runs without lag.
+ */
+class HistoryExportServiceTest {
+
+    private static final LocalDate DAY_1 = LocalDate.now(ZoneOffset.UTC).minusDays(3);
+    private static final LocalDate DAY_2 = LocalDate.now(ZoneOffset.UTC).minusDays(2);
+
+    @TempDir
+    Path directory;
+
+    private InMemoryEngine engine;
+    private HistoryExportService service;
+    private int instances;
+
+    @BeforeEach
+    void start() {
+        engine = InMemoryEngine.start();
+        ProcessEngine processEngine = engine.processEngine();
+        processEngine.getRepositoryService().createDeployment()
+            .addModelInstance("door.bpmn", Bpmn.createExecutableProcess("door")
+                .startEvent("submitted")
+                .userTask("approve")
+                .endEvent("approved")
+                .done())
+            .deploy();
+
+        service = new HistoryExportService();
+        ReflectionTestUtils.setField(service, "dataSource", engine.dataSource());
+        ReflectionTestUtils.setField(service, "transactionManager",
+            ((SpringProcessEngineConfiguration) processEngine.getProcessEngineConfiguration()).getTransactionManager());
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "directory", directory.toString());
+        // a few rows per fetch, so the cursor is read in several round trips
+        ReflectionTestUtils.setField(service, "fetchSize", 2);
+        ReflectionTestUtils.setField(service, "lagSeconds", 0L);
+        ReflectionTestUtils.setField(service, "variables", List.of("projectId", "budget"));
+    }
+
+    @AfterEach
+    void close() {
+        ClockUtil.reset();
+        engine.close();
+    }
+
+    @Test
+    void columnFilesHoldTheRowsOfEachDay() throws IOException {
+        String first = finish(DAY_1, 10);
+        String second = finish(DAY_1, 14);
+        String third = finish(DAY_2, 9);
+
+        Map<String, Object> result = service.export();
+
+        assertThat(result.get("rows")).isEqualTo(Map.of("process_instances", 3L, "task_instances", 3L, "variables", 6L));
+        Path day1 = onlyPart("process_instances", DAY_1);
+        assertThat(Files.readString(day1.resolve("_rows"))).isEqualTo("2");
+        assertThat(Files.readAllLines(day1.resolve("_columns"))).startsWith("ID_\tSTRING", "BUSINESS_KEY_\tSTRING")
+            .contains("END_TIME_\tTIMESTAMP", "DURATION_\tLONG");
+        assertThat(column(day1, "ID_")).containsExactly(first, second);
+        assertThat(column(day1, "BUSINESS_KEY_")).containsExactly("DR-1", "DR-2");
+        assertThat(column(day1, "END_TIME_")).containsExactly(millis(DAY_1, 10) + 3_600_000 + "",
+            millis(DAY_1, 14) + 3_600_000 + "");
+        assertThat(column(day1, "DURATION_")).containsExactly("3600000", "3600000");
+        assertThat(column(day1, "END_ACT_ID_")).containsExactly("approved", "approved");
+        assertThat(column(day1, "START_USER_ID_")).containsExactly("\\N", "\\N");
+        assertThat(column(onlyPart("process_instances", DAY_2), "ID_")).containsExactly(third);
+
+        Path tasks = onlyPart("task_instances", DAY_1);
+        assertThat(column(tasks, "PROC_INST_ID_")).containsExactly(first, second);
+        assertThat(column(tasks, "TASK_DEF_KEY_")).containsExactly("approve", "approve");
+
+        Path variables = onlyPart("variables", DAY_2);
+        Map<String, String> values = new HashMap<>();
+        List<String> names = column(variables, "NAME_");
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            values.put(name, name.equals("budget") ? column(variables, "LONG_").get(i) : column(variables, "TEXT_").get(i));
+        }
+        assertThat(values).containsOnly(Map.entry("projectId", "P\\t3"), Map.entry("budget", "3000"));
+        assertThat(Long.parseLong(Files.readString(directory.resolve("_watermark"))))
+            .isGreaterThan(millis(DAY_2, 10));
+    }
+
+    @Test
+    void aCrashedRunLeavesNothingPublishedAndIsRepeatedFromTheWatermark() throws IOException {
+        String id = finish(DAY_1, 10);
+        // the variables table cannot be written, after the other tables were
+        Files.createFile(directory.resolve("variables"));
+
+        assertThatThrownBy(() -> service.export()).isInstanceOf(UncheckedIOException.class);
+        assertThat(inProgress()).isNotEmpty();
+        assertThat(publishedIds()).isEmpty();
+        assertThat(directory.resolve("_watermark")).doesNotExist();
+
+        Files.delete(directory.resolve("variables"));
+        service.export();
+
+        assertThat(inProgress()).isEmpty();
+        assertThat(publishedIds()).containsExactly(id);
+        assertThat(onlyPart("task_instances", DAY_1)).exists();
+        assertThat(onlyPart("variables", DAY_1)).exists();
+    }
+
+    @Test
+    void aRunStoppedWhilePublishingIsFinishedByTheNextRun() throws IOException {
+        String early = finish(DAY_1, 10);
+        // the watermark cannot be written, after the parts were renamed
+        Files.createDirectory(directory.resolve("_watermark.tmp"));
+
+        assertThatThrownBy(() -> service.export()).isInstanceOf(IOException.class);
+        assertThat(directory.resolve("_publishing")).exists();
+
+        Files.delete(directory.resolve("_watermark.tmp"));
+        ClockUtil.reset();
+        String late = finishNow();
+        service.export();
+
+        assertThat(directory.resolve("_publishing")).doesNotExist();
+        assertThat(publishedIds()).containsExactlyInAnyOrder(early, late);
+        assertThat(onlyPart("process_instances", DAY_1)).exists();
+    }
+
+    @Test
+    void reexportingADayReplacesItsPartsAndCanBeRepeated() throws IOException {
+        String kept = finish(DAY_1, 10);
+        String deleted = finish(DAY_1, 14);
+        String other = finish(DAY_2, 9);
+        service.export();
+        Path day2 = onlyPart("process_instances", DAY_2);
+        String watermark = Files.readString(directory.resolve("_watermark"));
+
+        engine.processEngine().getHistoryService().deleteHistoricProcessInstance(deleted);
+        service.reexport(DAY_1);
+        Path first = onlyPart("process_instances", DAY_1);
+        Map<String, Object> second = service.reexport(DAY_1);
+
+        Path day1 = onlyPart("process_instances", DAY_1);
+        assertThat(day1).isNotEqualTo(first);
+        assertThat(second.get("rows")).isEqualTo(Map.of("process_instances", 1L, "task_instances", 1L, "variables", 2L));
+        assertThat(column(day1, "ID_")).containsExactly(kept);
+        assertThat(column(onlyPart("task_instances", DAY_1), "PROC_INST_ID_")).containsExactly(kept);
+        assertThat(onlyPart("process_instances", DAY_2)).isEqualTo(day2);
+        assertThat(column(day2, "ID_")).containsExactly(other);
+        assertThat(Files.readString(directory.resolve("_watermark"))).isEqualTo(watermark);
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        assertThatThrownBy(() -> service.reexport(today)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Starts an instance at the hour of the day and completes it one hour later.
+     */
+    private String finish(LocalDate day, int hour) {
+        ClockUtil.setCurrentTime(new Date(millis(day, hour)));
+        String id = startInstance();
+        ClockUtil.setCurrentTime(new Date(millis(day, hour) + 3_600_000));
+        complete(id);
+        return id;
+    }
+
+    private String finishNow() {
+        String id = startInstance();
+        complete(id);
+        return id;
+    }
+
+    private String startInstance() {
+        instances++;
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("projectId", "P\t" + instances);
+        variables.put("budget", instances * 1000L);
+        variables.put("notExported", "x");
+        return engine.processEngine().getRuntimeService()
+            .startProcessInstanceByKey("door", "DR-" + instances, variables).getId();
+    }
+
+    private void complete(String processInstanceId) {
+        ProcessEngine processEngine = engine.processEngine();
+        processEngine.getTaskService().complete(processEngine.getTaskService().createTaskQuery()
+            .processInstanceId(processInstanceId).singleResult().getId());
+    }
+
+    private static long millis(LocalDate day, int hour) {
+        return day.atTime(hour, 0).toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private Path onlyPart(String table, LocalDate day) throws IOException {
+        try (Stream<Path> parts = Files.list(directory.resolve(table).resolve("day=" + day))) {
+            List<Path> list = parts.collect(Collectors.toList());
+            assertThat(list).hasSize(1);
+            assertThat(list.get(0).getFileName().toString()).startsWith("part-").doesNotEndWith(".inprogress");
+            return list.get(0);
+        }
+    }
+
+    private List<Path> inProgress() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(path -> path.getFileName().toString().endsWith(".inprogress"))
+                .collect(Collectors.toList());
+        }
+    }
+
+    private List<String> publishedIds() throws IOException {
+        List<String> ids = new ArrayList<>();
+        Path table = directory.resolve("process_instances");
+        if (!Files.exists(table)) {
+            return ids;
+        }
+        try (Stream<Path> paths = Files.walk(table, 2)) {
+            for (Path part : paths.filter(path -> path.getFileName().toString().startsWith("part-")
+                    && !path.getFileName().toString().endsWith(".inprogress")).collect(Collectors.toList())) {
+                ids.addAll(column(part, "ID_"));
+            }
+        }
+        return ids;
+    }
+
+    static List<String> column(Path part, String column) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(part.resolve(column + ".gz")))) {
+            List<String> lines = new ArrayList<>(
+                Arrays.asList(new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n", -1)));
+            // every value ends with a line break
+            lines.remove(lines.size() - 1);
+            return lines;
+        }
+    }
+}
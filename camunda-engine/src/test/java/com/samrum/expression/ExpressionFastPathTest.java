@@ -0,0 +1,137 @@
+package com.samrum.expression;
+
+import com.samrum.InMemoryEngine;
+import com.samrum.config.ExpressionProfilingPlugin;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.repository.DeploymentBuilder;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.camunda.bpm.model.bpmn.instance.ExclusiveGateway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the same conditions and assignees on an engine with the fast path and
+ * on one with plain JUEL and compares the outcomes.
+ */
+class ExpressionFastPathTest {
+
+    private static final String MISSING = "<missing>";
+
+    private static final List<String> CONDITIONS = List.of(
+        "${v}", "${v == 'A'}", "${v != 'A'}", "${ v == \"A\" }", "${v == 'true'}", "${v == '1'}", "${v != ''}");
+
+    private static final List<Object> VALUES = Arrays.asList(
+        "A", "B", "", "true", "1", null, Boolean.TRUE, Boolean.FALSE, 1, 1L, 1.0d, 'A', MISSING);
+
+    private ExpressionProfiler profiler;
+    private InMemoryEngine fast;
+    private InMemoryEngine juel;
+
+    @BeforeEach
+    void start() {
+        profiler = new ExpressionProfiler();
+        ReflectionTestUtils.setField(profiler, "profilingEnabled", true);
+        ReflectionTestUtils.setField(profiler, "fastPathEnabled", true);
+        ExpressionProfilingPlugin plugin = new ExpressionProfilingPlugin();
+        ReflectionTestUtils.setField(plugin, "profiler", profiler);
+
+        fast = InMemoryEngine.start(new HashMap<>(), plugin);
+        juel = InMemoryEngine.start();
+        for (InMemoryEngine engine : List.of(fast, juel)) {
+            deploy(engine.processEngine());
+        }
+    }
+
+    @AfterEach
+    void close() {
+        fast.close();
+        juel.close();
+    }
+
+    @Test
+    void conditionsMatchJuel() {
+        for (int i = 0; i < CONDITIONS.size(); i++) {
+            for (Object value : VALUES) {
+                assertThat(outcome(fast.processEngine(), "condition" + i, value))
+                    .as("%s with v=%s", CONDITIONS.get(i), describe(value))
+                    .isEqualTo(outcome(juel.processEngine(), "condition" + i, value));
+            }
+        }
+        assertThat(fastPathHits()).isPositive();
+    }
+
+    @Test
+    void assigneesMatchJuel() {
+        for (Object value : VALUES) {
+            assertThat(outcome(fast.processEngine(), "assignee", value))
+                .as("${v} with v=%s", describe(value))
+                .isEqualTo(outcome(juel.processEngine(), "assignee", value));
+        }
+        assertThat(fastPathHits()).isPositive();
+    }
+
+    @Test
+    void onlySimpleShapesHaveAFastPath() {
+        assertThat(ExpressionFastPath.of("${reviewerId}")).isNotNull();
+        assertThat(ExpressionFastPath.of(" ${approvalDecision == 'APPROVED'} ")).isNotNull();
+        assertThat(ExpressionFastPath.of("${execution}")).isNull();
+        assertThat(ExpressionFastPath.of("${task == 'A'}")).isNull();
+        assertThat(ExpressionFastPath.of("${budget > 25000}")).isNull();
+        assertThat(ExpressionFastPath.of("${a == 'x\\'y'}")).isNull();
+        assertThat(ExpressionFastPath.of("${bean.method()}")).isNull();
+        assertThat(ExpressionFastPath.of("reviewer")).isNull();
+    }
+
+    private static void deploy(ProcessEngine processEngine) {
+        DeploymentBuilder deployment = processEngine.getRepositoryService().createDeployment();
+        for (int i = 0; i < CONDITIONS.size(); i++) {
+            BpmnModelInstance model = Bpmn.createExecutableProcess("condition" + i)
+                .startEvent()
+                .exclusiveGateway("gateway")
+                .condition("matches", CONDITIONS.get(i)).userTask("matched").endEvent()
+                .moveToLastGateway()
+                .userTask("notMatched").endEvent()
+                .done();
+            ExclusiveGateway gateway = model.getModelElementById("gateway");
+            gateway.setDefault(gateway.getOutgoing().stream()
+                .filter(flow -> flow.getConditionExpression() == null).findFirst().orElseThrow());
+            deployment.addModelInstance("condition" + i + ".bpmn", model);
+        }
+        deployment.addModelInstance("assignee.bpmn", Bpmn.createExecutableProcess("assignee")
+            .startEvent().userTask("task").camundaAssignee("${v}").endEvent().done());
+        deployment.deploy();
+    }
+
+    /**
+     * Task the instance waits in and its assignee, or the failure.
+     */
+    private static String outcome(ProcessEngine processEngine, String processKey, Object value) {
+        Map<String, Object> variables = new HashMap<>();
+        if (value != MISSING) {
+            variables.put("v", value);
+        }
+        try {
+            String id = processEngine.getRuntimeService().startProcessInstanceByKey(processKey, variables).getId();
+            Task task = processEngine.getTaskService().createTaskQuery().processInstanceId(id).singleResult();
+            return task.getTaskDefinitionKey() + "/" + task.getAssignee();
+        } catch (RuntimeException e) {
+            return e.getClass().getName();
+        }
+    }
+
+    private long fastPathHits() {
+        return profiler.snapshot().stream().mapToLong(ExpressionStats::getFastPathCount).sum();
+    }
+
+    private static String describe(Object value) {
+        return value == null ? "null" : value + " (" + value.getClass().getSimpleName() + ")";
+    }
+}
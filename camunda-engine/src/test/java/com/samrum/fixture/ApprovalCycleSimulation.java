@@ -0,0 +1,131 @@
+package com.samrum.fixture;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Approval Cycle Simulation
+ *
+ * Monte Carlo comparison of the approval stage of door-management-process
+ * (facility, then security approval) with door-management-parallel-process
+ * (both at once, first rejection cancels the other). Task durations come from
+ * the same model the fixture generator uses; a rejection sends the request
+ * back through all approvals in both variants.
+ *
+ * Not part of the regular build:
+ *
+ *   mvn test -Dtest=ApprovalCycleSimulation \
+ *     -Dsamrum.simulation.runs=100000 -Dsamrum.simulation.rejection-rate=0.1
+ */
+@EnabledIfSystemProperty(named = "samrum.simulation.runs", matches = "\\d+")
+class ApprovalCycleSimulation {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ApprovalCycleSimulation.class);
+
+    private static final String FACILITY = "UserTask_FacilityApproval";
+    private static final String SECURITY = "UserTask_SecurityApproval";
+    private static final double HOUR = 60.0 * 60.0 * 1000.0;
+    private static final int MAX_ROUNDS = 20;
+
+    private final int runs = Integer.getInteger("samrum.simulation.runs", 100_000);
+    private final double rejectionRate =
+        Double.parseDouble(System.getProperty("samrum.simulation.rejection-rate", "0.1"));
+    private final long seed = Long.getLong("samrum.simulation.seed", 42L);
+
+    private final FixtureProfile profile = new FixtureProfile.DoorManagement();
+
+    @Test
+    void compareSequentialAndParallelApprovals() {
+        long[] sequential = new long[runs];
+        long[] parallel = new long[runs];
+
+        // same random stream per variant, so both see comparable workloads
+        Random sequentialRandom = new Random(seed);
+        Random parallelRandom = new Random(seed);
+        for (int i = 0; i < runs; i++) {
+            sequential[i] = sequential(sequentialRandom);
+            parallel[i] = parallel(parallelRandom);
+        }
+
+        LOG.info("📊 Approval stage cycle time over {} runs (rejection rate {} per approval)", runs, rejectionRate);
+        report("sequential", sequential);
+        report("parallel", parallel);
+        LOG.info("   parallel vs sequential: mean {}%, p95 {}%",
+            String.format("%+.1f", change(mean(sequential), mean(parallel))),
+            String.format("%+.1f", change(percentile(sequential, 0.95), percentile(parallel, 0.95))));
+        assertThat(mean(parallel)).isLessThan(mean(sequential));
+    }
+
+    long sequential(Random random) {
+        long total = 0;
+        for (int round = 0; round < MAX_ROUNDS; round++) {
+            total += profile.taskDurationMillis(random, FACILITY);
+            if (random.nextDouble() < rejectionRate) {
+                continue;
+            }
+            total += profile.taskDurationMillis(random, SECURITY);
+            if (random.nextDouble() < rejectionRate) {
+                continue;
+            }
+            break;
+        }
+        return total;
+    }
+
+    long parallel(Random random) {
+        long total = 0;
+        for (int round = 0; round < MAX_ROUNDS; round++) {
+            long facility = profile.taskDurationMillis(random, FACILITY);
+            boolean facilityRejected = random.nextDouble() < rejectionRate;
+            long security = profile.taskDurationMillis(random, SECURITY);
+            boolean securityRejected = random.nextDouble() < rejectionRate;
+
+            if (!facilityRejected && !securityRejected) {
+                total += Math.max(facility, security);
+                break;
+            }
+            // the first rejection interrupts the round
+            long rejectedAt = Long.MAX_VALUE;
+            if (facilityRejected) {
+                rejectedAt = facility;
+            }
+            if (securityRejected) {
+                rejectedAt = Math.min(rejectedAt, security);
+            }
+            total += rejectedAt;
+        }
+        return total;
+    }
+
+    private static void report(String variant, long[] cycleTimes) {
+        LOG.info("   {}: mean {} h, p50 {} h, p95 {} h", variant,
+            String.format("%.1f", mean(cycleTimes) / HOUR),
+            String.format("%.1f", percentile(cycleTimes, 0.50) / HOUR),
+            String.format("%.1f", percentile(cycleTimes, 0.95) / HOUR));
+    }
+
+    private static double mean(long[] values) {
+        double sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static double percentile(long[] values, double percentile) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private static double change(double before, double after) {
+        return (after - before) * 100.0 / before;
+    }
+}
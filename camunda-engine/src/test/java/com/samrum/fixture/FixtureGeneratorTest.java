@@ -0,0 +1,144 @@
+package com.samrum.fixture;
+
+import com.samrum.InMemoryEngine;
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.task.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A small FixtureGenerator profile on an in-memory engine: the rows written
+ * with JDBC have to read back through the engine API exactly like rows the
+ * engine wrote itself, and a generated instance has to run to its end.
+ */
+class FixtureGeneratorTest {
+
+    private static final long ACTIVE = 20;
+    private static final long HISTORIC = 30;
+
+    private InMemoryEngine engine;
+
+    @BeforeEach
+    void start() throws Exception {
+        JavaDelegate noop = execution -> { };
+        engine = InMemoryEngine.start(Map.of(
+            "approvalNotificationDelegate", noop,
+            "createWorkOrderDelegate", noop,
+            "rejectionNotificationDelegate", noop));
+        ProcessEngine processEngine = engine.processEngine();
+        processEngine.getRepositoryService().createDeployment()
+            .addInputStream("door-installation.bpmn",
+                new FileSystemResource("src/main/resources/processes/door-installation.bpmn").getInputStream())
+            .addInputStream("door-management.bpmn",
+                new FileSystemResource("../processes/door-management.bpmn").getInputStream())
+            .deploy();
+
+        FixtureGenerator generator = new FixtureGenerator();
+        ReflectionTestUtils.setField(generator, "dataSource", engine.dataSource());
+        ReflectionTestUtils.setField(generator, "repositoryService", processEngine.getRepositoryService());
+        ReflectionTestUtils.setField(generator, "activeInstances", ACTIVE);
+        ReflectionTestUtils.setField(generator, "historicInstances", HISTORIC);
+        // not a divisor of either count, so the last batch of each definition is a partial one
+        ReflectionTestUtils.setField(generator, "batchSize", 7);
+        ReflectionTestUtils.setField(generator, "historyDays", 30);
+        ReflectionTestUtils.setField(generator, "seed", 42L);
+        generator.run();
+    }
+
+    @AfterEach
+    void close() {
+        engine.close();
+    }
+
+    @Test
+    void generatedRowsReadBackThroughTheEngineApi() {
+        ProcessEngine processEngine = engine.processEngine();
+        RuntimeService runtimeService = processEngine.getRuntimeService();
+        TaskService taskService = processEngine.getTaskService();
+        HistoryService historyService = processEngine.getHistoryService();
+
+        for (String key : new String[]{"doorInstallationProcess", "door-management-process"}) {
+            assertThat(runtimeService.createProcessInstanceQuery().processDefinitionKey(key).count())
+                .as(key).isEqualTo(ACTIVE / 2);
+            assertThat(historyService.createHistoricProcessInstanceQuery().processDefinitionKey(key)
+                .finished().count()).as(key).isEqualTo(HISTORIC / 2);
+            assertThat(taskService.createTaskQuery().processDefinitionKey(key).count())
+                .as(key).isEqualTo(ACTIVE / 2);
+        }
+
+        assertThat(runtimeService.createProcessInstanceQuery().active().count()).isEqualTo(ACTIVE);
+        assertThat(historyService.createHistoricProcessInstanceQuery().unfinished().count()).isEqualTo(ACTIVE);
+        assertThat(historyService.createHistoricProcessInstanceQuery().count()).isEqualTo(ACTIVE + HISTORIC);
+        assertThat(taskService.createTaskQuery().count()).isEqualTo(ACTIVE);
+        assertThat(historyService.createHistoricTaskInstanceQuery().unfinished().count()).isEqualTo(ACTIVE);
+        assertThat(historyService.createHistoricActivityInstanceQuery().unfinished().count()).isEqualTo(ACTIVE);
+
+        // every open task except reviewDecision and UserTask_Reject has exactly one candidate group
+        long candidateTasks = 0;
+        for (String group : List.of("engineers", "designers", "facility-managers", "security-managers",
+                "work-order-managers", "technicians", "quality-inspectors")) {
+            candidateTasks += taskService.createTaskQuery().taskCandidateGroup(group).includeAssignedTasks().count();
+        }
+        assertThat(candidateTasks).isEqualTo(ACTIVE
+            - taskService.createTaskQuery().taskDefinitionKeyIn("reviewDecision", "UserTask_Reject").count());
+        assertThat(historyService.createHistoricTaskInstanceQuery().finished().count()).isPositive();
+
+        for (HistoricProcessInstance instance : historyService.createHistoricProcessInstanceQuery()
+                .processDefinitionKey("doorInstallationProcess").finished().list()) {
+            assertThat(instance.getEndActivityId()).isIn("approvedEnd", "rejectedEnd");
+            assertThat(instance.getEndTime()).isAfter(instance.getStartTime());
+            assertThat(historyService.createHistoricVariableInstanceQuery().processInstanceId(instance.getId())
+                .variableName("approvalDecision").singleResult().getValue()).isIn("APPROVED", "REJECTED");
+        }
+
+        for (ProcessInstance instance : runtimeService.createProcessInstanceQuery().list()) {
+            Task task = taskService.createTaskQuery().processInstanceId(instance.getId()).singleResult();
+            assertThat(task).isNotNull();
+            assertThat(runtimeService.getActivityInstance(instance.getId())
+                .getActivityInstances(task.getTaskDefinitionKey())).hasSize(1);
+        }
+    }
+
+    @Test
+    void aGeneratedInstanceRunsToItsEnd() {
+        ProcessEngine processEngine = engine.processEngine();
+        TaskService taskService = processEngine.getTaskService();
+        ProcessInstance instance = processEngine.getRuntimeService().createProcessInstanceQuery()
+            .processDefinitionKey("doorInstallationProcess").listPage(0, 1).get(0);
+        Map<String, Object> variables = processEngine.getRuntimeService().getVariables(instance.getId());
+        assertThat(variables).containsKeys("projectId", "doorType", "reviewerId", "designerId");
+
+        int completed = 0;
+        Task task;
+        while ((task = taskService.createTaskQuery().processInstanceId(instance.getId()).singleResult()) != null) {
+            if ("designReview".equals(task.getTaskDefinitionKey())) {
+                assertThat(task.getAssignee()).isEqualTo(variables.get("reviewerId"));
+            }
+            taskService.complete(task.getId(), Map.of("approvalDecision", "APPROVED"));
+            completed++;
+            assertThat(completed).as("tasks completed").isLessThan(10);
+        }
+
+        HistoricProcessInstance historic = processEngine.getHistoryService().createHistoricProcessInstanceQuery()
+            .processInstanceId(instance.getId()).singleResult();
+        assertThat(completed).isPositive();
+        assertThat(historic.getEndTime()).isNotNull();
+        assertThat(historic.getEndActivityId()).isEqualTo("approvedEnd");
+        assertThat(processEngine.getRuntimeService().createVariableInstanceQuery()
+            .processInstanceIdIn(instance.getId()).count()).isZero();
+    }
+}
@@ -0,0 +1,40 @@
+package com.samrum.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void isSizedForTheExpectedKeysAndRate() {
+        // m = -n ln p / (ln 2)^2 rounded up to whole words, k = m / n ln 2
+        BloomFilter filter = new BloomFilter(1_000_000, 0.01);
+        assertThat(filter.getBitCount()).isBetween(9_585_059L, 9_585_059L + 63).isEqualTo(149_767L * 64);
+        assertThat(filter.getHashCount()).isEqualTo(7);
+
+        BloomFilter strict = new BloomFilter(1_000_000, 0.0001);
+        assertThat(strict.getBitCount()).isEqualTo(2 * 149_767L * 64);
+        assertThat(strict.getHashCount()).isEqualTo(13);
+    }
+
+    @Test
+    void holdsEveryKeyAndMissesUnknownKeysAtTheConfiguredRate() {
+        int keys = 100_000;
+        BloomFilter filter = new BloomFilter(keys, 0.01);
+        for (int i = 0; i < keys; i++) {
+            filter.put("key:door:" + i);
+        }
+        for (int i = 0; i < keys; i++) {
+            assertThat(filter.mightContain("key:door:" + i)).isTrue();
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < keys; i++) {
+            if (filter.mightContain("key:other:" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives / (double) keys).isBetween(0.005, 0.015);
+    }
+}
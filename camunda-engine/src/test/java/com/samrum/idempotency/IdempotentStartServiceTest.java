@@ -0,0 +1,145 @@
+package com.samrum.idempotency;
+
+import com.samrum.InMemoryEngine;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.camunda.bpm.engine.spring.SpringProcessEngineConfiguration;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotentStartServiceTest {
+
+    private final AtomicBoolean failStart = new AtomicBoolean();
+    private InMemoryEngine engine;
+
+    @BeforeEach
+    void start() {
+        JavaDelegate validate = execution -> {
+            if (failStart.get()) {
+                throw new IllegalStateException("validation service unavailable");
+            }
+        };
+        engine = InMemoryEngine.start(Map.of("validateDelegate", validate));
+        engine.processEngine().getRepositoryService().createDeployment()
+            .addModelInstance("door.bpmn", Bpmn.createExecutableProcess("door")
+                .startEvent()
+                .serviceTask("validate").camundaDelegateExpression("${validateDelegate}")
+                .userTask("approve")
+                .endEvent()
+                .done())
+            .deploy();
+    }
+
+    @AfterEach
+    void close() {
+        engine.close();
+    }
+
+    @Test
+    void concurrentRetriesStartExactlyOneInstance() throws Exception {
+        IdempotentStartService service = service();
+        int retries = 8;
+        ExecutorService callers = Executors.newFixedThreadPool(retries);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<StartResult>> futures = new ArrayList<>();
+        for (int i = 0; i < retries; i++) {
+            futures.add(callers.submit(() -> {
+                go.await();
+                return service.start("req-1", "door", "DR-1", Map.of());
+            }));
+        }
+        go.countDown();
+        List<StartResult> results = new ArrayList<>();
+        for (Future<StartResult> future : futures) {
+            results.add(future.get(60, TimeUnit.SECONDS));
+        }
+        callers.shutdown();
+
+        assertThat(results.stream().filter(result -> !result.isDuplicate())).hasSize(1);
+        assertThat(results.stream().map(StartResult::getProcessInstanceId).collect(Collectors.toSet())).hasSize(1);
+        assertThat(engine.processEngine().getRuntimeService().createProcessInstanceQuery().count()).isEqualTo(1);
+        assertThat(keyRows()).isEqualTo(1);
+        assertThat(service.getDuplicateCount()).isEqualTo(retries - 1);
+    }
+
+    @Test
+    void aFailedStartLeavesNoKeyRow() {
+        IdempotentStartService service = service();
+        failStart.set(true);
+
+        assertThatThrownBy(() -> service.start("req-1", "door", "DR-1", Map.of()))
+            .isInstanceOf(IllegalStateException.class).hasMessage("validation service unavailable");
+        assertThat(keyRows()).isZero();
+        assertThat(engine.processEngine().getHistoryService().createHistoricProcessInstanceQuery().count()).isZero();
+
+        failStart.set(false);
+        StartResult retry = service.start("req-1", "door", "DR-1", Map.of());
+        assertThat(retry.isDuplicate()).isFalse();
+        assertThat(keyRows()).isEqualTo(1);
+    }
+
+    @Test
+    void aRetryAfterTheInstanceEndedGetsTheOriginalInstance() {
+        IdempotentStartService service = service();
+        StartResult first = service.start("req-1", "door", "DR-1", Map.of());
+        ProcessEngine processEngine = engine.processEngine();
+        String taskId = processEngine.getTaskService().createTaskQuery()
+            .processInstanceId(first.getProcessInstanceId()).singleResult().getId();
+        processEngine.getTaskService().complete(taskId);
+
+        // a restarted node loads the key into its filter from the table
+        for (IdempotentStartService node : List.of(service, service())) {
+            StartResult retry = node.start("req-1", "door", "DR-1", Map.of());
+            assertThat(retry.isDuplicate()).isTrue();
+            assertThat(retry.isEnded()).isTrue();
+            assertThat(retry.getProcessInstanceId()).isEqualTo(first.getProcessInstanceId());
+            assertThat(retry.getBusinessKey()).isEqualTo("DR-1");
+            assertThat(retry.getProcessDefinitionId()).isEqualTo(first.getProcessDefinitionId());
+        }
+        assertThat(processEngine.getHistoryService().createHistoricProcessInstanceQuery().count()).isEqualTo(1);
+    }
+
+    @Test
+    void businessKeysAreKeysOnlyWhenConfigured() {
+        IdempotentStartService service = service();
+        service.start(null, "door", "DR-1", Map.of());
+        service.start(null, "door", "DR-1", Map.of());
+        assertThat(keyRows()).isZero();
+
+        ReflectionTestUtils.setField(service, "businessKeyUnique", true);
+        StartResult first = service.start(null, "door", "DR-2", Map.of());
+        StartResult retry = service.start(null, "door", "DR-2", Map.of());
+        assertThat(retry.isDuplicate()).isTrue();
+        assertThat(retry.getProcessInstanceId()).isEqualTo(first.getProcessInstanceId());
+        assertThat(engine.processEngine().getRuntimeService().createProcessInstanceQuery().count()).isEqualTo(3);
+    }
+
+    private IdempotentStartService service() {
+        ProcessEngine processEngine = engine.processEngine();
+        IdempotentStartService service = new IdempotentStartService();
+        ReflectionTestUtils.setField(service, "runtimeService", processEngine.getRuntimeService());
+        ReflectionTestUtils.setField(service, "historyService", processEngine.getHistoryService());
+        ReflectionTestUtils.setField(service, "store", new IdempotencyKeyStore(engine.jdbcTemplate()));
+        ReflectionTestUtils.setField(service, "transactionManager",
+            ((SpringProcessEngineConfiguration) processEngine.getProcessEngineConfiguration()).getTransactionManager());
+        ReflectionTestUtils.setField(service, "expectedKeys", 10_000L);
+        ReflectionTestUtils.setField(service, "falsePositiveRate", 0.01);
+        service.loadKeys();
+        return service;
+    }
+
+    private int keyRows() {
+        return engine.jdbcTemplate().queryForObject("SELECT COUNT(*) FROM SAMRUM_IDEMPOTENCY_KEY", Integer.class);
+    }
+}
@@ -0,0 +1,141 @@
+package com.samrum.migration;
+
+import com.samrum.config.SchemaMigrationPlugin;
+import com.samrum.dto.MigrationRequest;
+import com.zaxxer.hikari.HikariDataSource;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.persistence.StrongUuidGenerator;
+import org.camunda.bpm.engine.spring.SpringProcessEngineConfiguration;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.camunda.bpm.model.bpmn.instance.Process;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Migrates samrum.bench.instances (default 100k) doorInstallationProcess
+ * instances waiting in designReview from version 1 to version 2 on
+ * PostgreSQL, with the default chunk size and parallelism.
+ *
+ * Not part of the regular build. Run against an empty, disposable PostgreSQL
+ * database - the public schema is dropped first:
+ *
+ *   mvn test -Dtest=ProcessMigrationBenchmark \
+ *     -Dsamrum.bench.jdbc-url=jdbc:postgresql://localhost:5432/bench \
+ *     -Dsamrum.bench.username=postgres -Dsamrum.bench.password=postgres
+ */
+@EnabledIfSystemProperty(named = "samrum.bench.jdbc-url", matches = ".+")
+class ProcessMigrationBenchmark {
+
+    private static final int INSTANCES = Integer.getInteger("samrum.bench.instances", 100_000);
+    private static final int CHUNK_SIZE = Integer.getInteger("samrum.bench.chunk-size", 200);
+    private static final int PARALLELISM = Integer.getInteger("samrum.bench.parallelism", 4);
+
+    @Test
+    void migrateInstances() throws Exception {
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl(System.getProperty("samrum.bench.jdbc-url"));
+            dataSource.setUsername(System.getProperty("samrum.bench.username", "postgres"));
+            dataSource.setPassword(System.getProperty("samrum.bench.password", ""));
+            dataSource.setMaximumPoolSize(PARALLELISM + 4);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("DROP SCHEMA public CASCADE; CREATE SCHEMA public");
+
+            SchemaMigrationPlugin schemaMigrations = new SchemaMigrationPlugin();
+            ReflectionTestUtils.setField(schemaMigrations, "enabled", true);
+            SpringProcessEngineConfiguration configuration = new SpringProcessEngineConfiguration();
+            configuration.setProcessEngineName("migration-bench");
+            configuration.setDataSource(dataSource);
+            configuration.setTransactionManager(new DataSourceTransactionManager(dataSource));
+            configuration.setDatabaseSchemaUpdate("true");
+            configuration.setHistory("full");
+            configuration.setJdbcBatchProcessing(true);
+            configuration.setJobExecutorActivate(false);
+            configuration.setIdGenerator(new StrongUuidGenerator());
+            configuration.setBeans(new HashMap<>());
+            configuration.setProcessEnginePlugins(List.of(schemaMigrations));
+            ProcessEngine engine = configuration.buildProcessEngine();
+            try {
+                BpmnModelInstance model = Bpmn.readModelFromStream(
+                    getClass().getClassLoader().getResourceAsStream("processes/door-installation.bpmn"));
+                String sourceId = deploy(engine, model);
+                startInstances(engine.getRuntimeService(), sourceId);
+                model.getModelElementsByType(Process.class).iterator().next().setName("Door Installation Process v2");
+                String targetId = deploy(engine, model);
+
+                ProcessMigrationService service = new ProcessMigrationService();
+                ReflectionTestUtils.setField(service, "runtimeService", engine.getRuntimeService());
+                ReflectionTestUtils.setField(service, "repositoryService", engine.getRepositoryService());
+                ReflectionTestUtils.setField(service, "store", new MigrationRunStore(jdbcTemplate));
+                ReflectionTestUtils.setField(service, "maxParallelism", 16);
+                ReflectionTestUtils.setField(service, "nodeId", "bench");
+                ReflectionTestUtils.setField(service, "leaseMs", 300_000L);
+
+                MigrationRequest request = new MigrationRequest();
+                request.setSourceProcessDefinitionId(sourceId);
+                request.setTargetProcessDefinitionId(targetId);
+                request.setChunkSize(CHUNK_SIZE);
+                request.setParallelism(PARALLELISM);
+                long started = System.currentTimeMillis();
+                MigrationRun run = service.start(request);
+                while (service.find(run.getId()).orElseThrow().getState() == MigrationRun.State.RUNNING) {
+                    Thread.sleep(200);
+                }
+                long elapsed = System.currentTimeMillis() - started;
+
+                MigrationRun done = service.find(run.getId()).orElseThrow();
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("instances", INSTANCES);
+                result.put("chunkSize", CHUNK_SIZE);
+                result.put("parallelism", PARALLELISM);
+                result.put("state", done.getState());
+                result.put("migrated", done.getMigrated());
+                result.put("seconds", elapsed / 1000.0);
+                result.put("instancesPerSecond", done.getMigrated() * 1000L / Math.max(1L, elapsed));
+                System.out.println(result);
+                assertThat(done.getState()).isEqualTo(MigrationRun.State.COMPLETED);
+                assertThat(done.getMigrated()).isEqualTo(INSTANCES);
+            } finally {
+                engine.close();
+            }
+        }
+    }
+
+    private static String deploy(ProcessEngine engine, BpmnModelInstance model) {
+        String deploymentId = engine.getRepositoryService().createDeployment()
+            .addModelInstance("door-installation.bpmn", model).deploy().getId();
+        return engine.getRepositoryService().createProcessDefinitionQuery()
+            .deploymentId(deploymentId).singleResult().getId();
+    }
+
+    private static void startInstances(RuntimeService runtimeService, String definitionId) throws Exception {
+        ExecutorService starters = Executors.newFixedThreadPool(PARALLELISM);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < PARALLELISM; t++) {
+            int offset = t;
+            futures.add(starters.submit(() -> {
+                for (int i = offset; i < INSTANCES; i += PARALLELISM) {
+                    Map<String, Object> variables = new HashMap<>();
+                    variables.put("projectId", "BENCH-" + i);
+                    variables.put("doorType", "FIRE_DOOR");
+                    variables.put("reviewerId", "reviewer" + (i % 50));
+                    variables.put("designerId", "designer" + (i % 50));
+                    runtimeService.startProcessInstanceById(definitionId, "BENCH-" + i, variables);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        starters.shutdown();
+    }
+}
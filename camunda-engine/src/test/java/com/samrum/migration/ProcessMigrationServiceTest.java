@@ -0,0 +1,163 @@
+package com.samrum.migration;
+
+import com.samrum.InMemoryEngine;
+import com.samrum.dto.MigrationRequest;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.repository.ProcessDefinition;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProcessMigrationServiceTest {
+
+    private static final long LEASE_MS = 60_000;
+
+    private InMemoryEngine engine;
+    private MigrationRunStore store;
+    private String sourceId;
+    private String targetId;
+
+    @BeforeEach
+    void deployTwoVersions() {
+        engine = InMemoryEngine.start();
+        store = new MigrationRunStore(engine.jdbcTemplate());
+
+        // v2 drops task b, so instances waiting in b cannot be migrated
+        BpmnModelInstance v1 = Bpmn.createExecutableProcess("migrationTest")
+            .startEvent()
+            .exclusiveGateway("route")
+            .condition("to a", "${route == 'a'}").userTask("a").endEvent()
+            .moveToLastGateway()
+            .condition("to b", "${route == 'b'}").userTask("b").endEvent()
+            .done();
+        BpmnModelInstance v2 = Bpmn.createExecutableProcess("migrationTest")
+            .startEvent().userTask("a").endEvent()
+            .done();
+        sourceId = deploy(v1).getId();
+        targetId = deploy(v2).getId();
+    }
+
+    @AfterEach
+    void close() {
+        engine.close();
+    }
+
+    @Test
+    void runWithFailuresIsRecordedAndReleased() throws Exception {
+        start("a", 30);
+        start("b", 7);
+        ProcessMigrationService service = service("node-1");
+
+        MigrationRequest request = new MigrationRequest();
+        request.setSourceProcessDefinitionId(sourceId);
+        request.setTargetProcessDefinitionId(targetId);
+        request.setChunkSize(5);
+        request.setParallelism(2);
+        MigrationRun run = service.start(request);
+
+        awaitIdle(service);
+        MigrationRun stored = store.find(run.getId()).orElseThrow();
+        assertThat(stored.getState()).isEqualTo(MigrationRun.State.COMPLETED_WITH_FAILURES);
+        assertThat(stored.getMigrated()).isEqualTo(30);
+        assertThat(stored.getFailed()).isEqualTo(7);
+        assertThat(stored.getEnded()).isNotNull();
+        assertThat(store.findRunning()).isEmpty();
+        assertThat(engine.processEngine().getRuntimeService().createProcessInstanceQuery()
+            .processDefinitionId(targetId).count()).isEqualTo(30);
+    }
+
+    @Test
+    void runningRunIsResumedOnlyOnceTheLeaseExpired() throws Exception {
+        start("a", 10);
+        MigrationRun run = new MigrationRun(UUID.randomUUID().toString(), sourceId, targetId, 4, 2, false, false,
+            10, 0, 0, MigrationRun.State.RUNNING, new Date(), null);
+        store.insert(run, "node-2", new Date(System.currentTimeMillis() + LEASE_MS));
+        ProcessMigrationService service = service("node-1");
+
+        service.resumeRunningMigrations();
+        assertThat(activeRuns(service)).isEmpty();
+        assertThat(owner(run.getId())).isEqualTo("node-2");
+
+        // node-2 stopped renewing its lease
+        engine.jdbcTemplate().update("UPDATE SAMRUM_MIGRATION_RUN SET LEASE_UNTIL_ = ? WHERE ID_ = ?",
+            new Date(System.currentTimeMillis() - 1000), run.getId());
+        service.resumeRunningMigrations();
+
+        awaitIdle(service);
+        assertThat(owner(run.getId())).isEqualTo("node-1");
+        MigrationRun stored = store.find(run.getId()).orElseThrow();
+        assertThat(stored.getState()).isEqualTo(MigrationRun.State.COMPLETED);
+        assertThat(stored.getMigrated()).isEqualTo(10);
+    }
+
+    @Test
+    void onlyOneNodeAcquiresAnExpiredRun() {
+        MigrationRun run = new MigrationRun(UUID.randomUUID().toString(), sourceId, targetId, 4, 2, false, false,
+            0, 0, 0, MigrationRun.State.RUNNING, new Date(), null);
+        store.insert(run, "node-3", new Date(System.currentTimeMillis() - 1000));
+        Date leaseUntil = new Date(System.currentTimeMillis() + LEASE_MS);
+
+        assertThat(store.acquire(run.getId(), "node-1", leaseUntil)).isTrue();
+        assertThat(store.acquire(run.getId(), "node-2", leaseUntil)).isFalse();
+        // the owner itself may re-acquire after a restart
+        assertThat(store.acquire(run.getId(), "node-1", leaseUntil)).isTrue();
+        // progress of a node that lost the run is not written
+        assertThat(store.update(run, "node-2", leaseUntil)).isFalse();
+    }
+
+    private ProcessMigrationService service(String nodeId) {
+        ProcessEngine processEngine = engine.processEngine();
+        ProcessMigrationService service = new ProcessMigrationService();
+        ReflectionTestUtils.setField(service, "runtimeService", processEngine.getRuntimeService());
+        ReflectionTestUtils.setField(service, "repositoryService", processEngine.getRepositoryService());
+        ReflectionTestUtils.setField(service, "store", store);
+        ReflectionTestUtils.setField(service, "defaultChunkSize", 200);
+        ReflectionTestUtils.setField(service, "defaultParallelism", 4);
+        ReflectionTestUtils.setField(service, "maxParallelism", 16);
+        ReflectionTestUtils.setField(service, "nodeId", nodeId);
+        ReflectionTestUtils.setField(service, "leaseMs", LEASE_MS);
+        service.init();
+        return service;
+    }
+
+    private ProcessDefinition deploy(BpmnModelInstance model) {
+        String deploymentId = engine.processEngine().getRepositoryService().createDeployment()
+            .addModelInstance("migration-test.bpmn", model)
+            .deploy().getId();
+        return engine.processEngine().getRepositoryService().createProcessDefinitionQuery()
+            .deploymentId(deploymentId).singleResult();
+    }
+
+    private void start(String route, int count) {
+        for (int i = 0; i < count; i++) {
+            engine.processEngine().getRuntimeService().startProcessInstanceById(sourceId, Map.of("route", route));
+        }
+    }
+
+    private String owner(String runId) {
+        return engine.jdbcTemplate().queryForObject("SELECT OWNER_ FROM SAMRUM_MIGRATION_RUN WHERE ID_ = ?",
+            String.class, runId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, MigrationRun> activeRuns(ProcessMigrationService service) {
+        return (Map<String, MigrationRun>) ReflectionTestUtils.getField(service, "activeRuns");
+    }
+
+    private static void awaitIdle(ProcessMigrationService service) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!activeRuns(service).isEmpty()) {
+            assertThat(System.currentTimeMillis()).as("migration finished in time").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.samrum.reassign;
+
+import com.samrum.InMemoryEngine;
+import com.samrum.dto.ReassignmentRequest;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkReassignmentServiceTest {
+
+    private InMemoryEngine engine;
+    private BulkReassignmentService service;
+
+    @BeforeEach
+    void start() {
+        engine = InMemoryEngine.start();
+        engine.processEngine().getRepositoryService().createDeployment()
+            .addClasspathResource("processes/door-installation.bpmn")
+            .addModelInstance("other.bpmn", Bpmn.createExecutableProcess("otherProcess")
+                .startEvent().userTask("work").endEvent().done())
+            .deploy();
+
+        service = new BulkReassignmentService();
+        ReflectionTestUtils.setField(service, "processEngine", engine.processEngine());
+        ReflectionTestUtils.setField(service, "defaultChunkSize", 2);
+        ReflectionTestUtils.setField(service, "processDefinitionKeys", new String[] {"doorInstallationProcess"});
+    }
+
+    @AfterEach
+    void close() {
+        engine.close();
+    }
+
+    @Test
+    void suspendedTasksAreSkippedAndReported() {
+        ProcessEngine processEngine = engine.processEngine();
+        RuntimeService runtimeService = processEngine.getRuntimeService();
+        TaskService taskService = processEngine.getTaskService();
+        List<String> doors = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            doors.add(runtimeService.startProcessInstanceByKey("doorInstallationProcess",
+                Map.of("reviewerId", "engineer1", "designerId", "designer1")).getId());
+        }
+        runtimeService.suspendProcessInstanceById(doors.get(2));
+        String suspendedTask = taskService.createTaskQuery().processInstanceId(doors.get(2)).singleResult().getId();
+
+        Map<String, Object> result = service.reassign(request("engineer1", "engineer2"));
+
+        assertThat(result.get("tasksReassigned")).isEqualTo(4L);
+        assertThat(result.get("suspendedTasksSkipped")).isEqualTo(1L);
+        assertThat(result.get("suspendedTaskIds")).isEqualTo(List.of(suspendedTask));
+        assertThat(taskService.createTaskQuery().taskAssignee("engineer2").count()).isEqualTo(4);
+        assertThat(taskService.createTaskQuery().taskAssignee("engineer1").singleResult().getId()).isEqualTo(suspendedTask);
+    }
+
+    @Test
+    void onlyProcessInstanceVariablesOfDoorProcessesAreRewritten() {
+        ProcessEngine processEngine = engine.processEngine();
+        RuntimeService runtimeService = processEngine.getRuntimeService();
+        TaskService taskService = processEngine.getTaskService();
+        List<String> doors = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            doors.add(runtimeService.startProcessInstanceByKey("doorInstallationProcess",
+                Map.of("reviewerId", "engineer1", "designerId", "designer1")).getId());
+        }
+        String other = runtimeService.startProcessInstanceByKey("otherProcess", Map.of("reviewerId", "engineer1")).getId();
+        Task task = taskService.createTaskQuery().processInstanceId(doors.get(0)).singleResult();
+        taskService.setVariableLocal(task.getId(), "reviewerId", "engineer1");
+
+        Map<String, Object> result = service.reassign(request("engineer1", "engineer2"));
+
+        assertThat(result.get("variablesUpdated")).isEqualTo(Map.of("reviewerId", 5L, "designerId", 0L));
+        for (String door : doors) {
+            assertThat(runtimeService.getVariable(door, "reviewerId")).isEqualTo("engineer2");
+        }
+        assertThat(taskService.getVariableLocal(task.getId(), "reviewerId")).isEqualTo("engineer1");
+        assertThat(runtimeService.getVariable(other, "reviewerId")).isEqualTo("engineer1");
+    }
+
+    private static ReassignmentRequest request(String from, String to) {
+        ReassignmentRequest request = new ReassignmentRequest();
+        request.setFromUserId(from);
+        request.setToUserId(to);
+        return request;
+    }
+}
@@ -0,0 +1,151 @@
+package com.samrum.registry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingLocationRegistryTest {
+
+    private final CountingSource source = new CountingSource();
+    private CachingLocationRegistry registry;
+
+    @AfterEach
+    void close() {
+        if (registry != null) {
+            registry.close();
+        }
+    }
+
+    @Test
+    void hitsAndMissesAreServedFromTheCache() {
+        registry = new CachingLocationRegistry(source, 60_000, 60_000, 100);
+
+        assertThat(registry.exists("B01-F1-R101")).isTrue();
+        assertThat(registry.exists(" B01-F1-R101 ")).isTrue();
+        assertThat(registry.exists("B09-F9-R999")).isFalse();
+        assertThat(registry.exists("B09-F9-R999")).isFalse();
+        assertThat(registry.exists(" ")).isFalse();
+
+        assertThat(source.singleLookups).containsExactly("B01-F1-R101", "B09-F9-R999");
+        assertThat(registry.size()).isEqualTo(2);
+    }
+
+    @Test
+    void preloadedLocationsNeverReachTheSource() {
+        registry = new CachingLocationRegistry(source, 60_000, 60_000, 100);
+        registry.start(0);
+
+        assertThat(registry.exists("B03-F3-R301")).isTrue();
+        assertThat(source.singleLookups).isEmpty();
+        assertThat(registry.size()).isEqualTo(10);
+    }
+
+    @Test
+    void oldestEntriesAreEvictedAtTheBound() {
+        registry = new CachingLocationRegistry(source, 60_000, 60_000, 3);
+        for (String location : List.of("B01-F0-R001", "B01-F0-R002", "B01-F1-R101", "B01-F1-R102")) {
+            registry.exists(location);
+        }
+        assertThat(registry.size()).isEqualTo(3);
+
+        registry.exists("B01-F1-R102");
+        registry.exists("B01-F0-R002");
+        assertThat(source.singleLookups).hasSize(4);
+
+        registry.exists("B01-F0-R001");
+        assertThat(source.singleLookups).hasSize(5).endsWith("B01-F0-R001");
+        assertThat(registry.size()).isEqualTo(3);
+    }
+
+    @Test
+    void bulkLookupResolvesAllMissesInOneSourceCall() {
+        registry = new CachingLocationRegistry(source, 60_000, 60_000, 100);
+        registry.exists("B01-F1-R101");
+
+        Map<String, Boolean> result = registry.existsAll(
+            List.of("B01-F1-R101", "B02-F1-R110", "B09-F9-R999", " B02-F1-R111", ""));
+
+        assertThat(result).containsExactly(
+            Map.entry("B01-F1-R101", true),
+            Map.entry("B02-F1-R110", true),
+            Map.entry("B09-F9-R999", false),
+            Map.entry(" B02-F1-R111", true),
+            Map.entry("", false));
+        assertThat(source.bulkLookups).containsExactly(List.of("B02-F1-R110", "B09-F9-R999", "B02-F1-R111"));
+
+        registry.existsAll(List.of("B02-F1-R110", "B09-F9-R999"));
+        assertThat(source.bulkLookups).hasSize(1);
+    }
+
+    @Test
+    void expiredEntriesAreServedStaleAndRefreshedInBulk() throws InterruptedException {
+        registry = new CachingLocationRegistry(source, 1, 1, 100);
+        registry.existsAll(List.of("B01-F1-R101", "B09-F9-R999"));
+        Thread.sleep(5);
+        source.known.add("B09-F9-R999");
+
+        assertThat(registry.exists("B09-F9-R999")).isFalse();
+        assertThat(registry.exists("B01-F1-R101")).isTrue();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (source.bulkLookups.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        assertThat(source.singleLookups).isEmpty();
+        assertThat(source.bulkLookups.subList(1, source.bulkLookups.size()).stream().mapToInt(List::size).sum())
+            .isEqualTo(2);
+        assertThat(registry.existsAll(List.of("B09-F9-R999"))).containsEntry("B09-F9-R999", true);
+    }
+
+    /**
+     * File registry that records the lookups reaching it.
+     */
+    private static final class CountingSource implements LocationRegistry {
+
+        final Set<String> known;
+        final List<String> singleLookups = new CopyOnWriteArrayList<>();
+        final List<List<String>> bulkLookups = new CopyOnWriteArrayList<>();
+
+        CountingSource() {
+            try {
+                known = new CopyOnWriteArraySet<>(
+                    new FileLocationRegistry(new ClassPathResource("registry/locations.txt")).allLocations());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public boolean exists(String location) {
+            singleLookups.add(location);
+            return known.contains(location);
+        }
+
+        @Override
+        public Map<String, Boolean> existsAll(Collection<String> locations) {
+            bulkLookups.add(List.copyOf(locations));
+            Map<String, Boolean> result = new HashMap<>();
+            for (String location : locations) {
+                result.put(location, known.contains(location));
+            }
+            return result;
+        }
+
+        @Override
+        public Set<String> allLocations() {
+            return known;
+        }
+    }
+}
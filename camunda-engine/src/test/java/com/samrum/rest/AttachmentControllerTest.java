@@ -0,0 +1,158 @@
+package com.samrum.rest;
+
+import com.samrum.InMemoryEngine;
+import com.samrum.attachment.ContentStore;
+import com.samrum.attachment.ProcessAttachmentService;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.DelegatingServletInputStream;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import javax.servlet.ServletInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AttachmentControllerTest {
+
+    private static final int MAX_BYTES = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private InMemoryEngine engine;
+    private AttachmentController controller;
+    private String processInstanceId;
+
+    @BeforeEach
+    void start() throws Exception {
+        engine = InMemoryEngine.start();
+        ProcessEngine processEngine = engine.processEngine();
+        processEngine.getRepositoryService().createDeployment()
+            .addModelInstance("drawing.bpmn", Bpmn.createExecutableProcess("drawing")
+                .startEvent().userTask("review").endEvent().done())
+            .deploy();
+        processInstanceId = processEngine.getRuntimeService().startProcessInstanceByKey("drawing").getId();
+
+        ContentStore contentStore = new ContentStore();
+        ReflectionTestUtils.setField(contentStore, "directory", directory.toString());
+        contentStore.init();
+        ProcessAttachmentService attachmentService = new ProcessAttachmentService();
+        ReflectionTestUtils.setField(attachmentService, "runtimeService", processEngine.getRuntimeService());
+        ReflectionTestUtils.setField(attachmentService, "taskService", processEngine.getTaskService());
+        ReflectionTestUtils.setField(attachmentService, "contentStore", contentStore);
+        ReflectionTestUtils.setField(attachmentService, "maxSize", DataSize.ofBytes(MAX_BYTES));
+        controller = new AttachmentController();
+        ReflectionTestUtils.setField(controller, "attachmentService", attachmentService);
+    }
+
+    @AfterEach
+    void close() {
+        engine.close();
+    }
+
+    @Test
+    void bodyUpToTheLimitIsStored() throws Exception {
+        ResponseEntity<Map<String, Object>> response = controller.uploadRaw(processInstanceId, "drawing.pdf", null,
+            request(new ByteArrayInputStream(new byte[MAX_BYTES]), MAX_BYTES));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(response.getBody()).containsEntry("size", (long) MAX_BYTES);
+    }
+
+    @Test
+    void declaredLengthOverTheLimitIsRejectedBeforeReading() throws Exception {
+        InputStream body = new InputStream() {
+            @Override
+            public int read() {
+                throw new AssertionError("body read");
+            }
+        };
+
+        ResponseEntity<Map<String, Object>> response = controller.uploadRaw(processInstanceId, "drawing.pdf", null,
+            request(body, MAX_BYTES + 1L));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        assertThat(engine.processEngine().getTaskService().getProcessInstanceAttachments(processInstanceId)).isEmpty();
+    }
+
+    @Test
+    void chunkedBodyOverTheLimitIsRejectedWithoutLeavingAFile() throws Exception {
+        // no Content-Length; reading stops shortly after the limit, not at the end of the body
+        InputStream endless = new InputStream() {
+            private long read;
+
+            @Override
+            public int read() {
+                read++;
+                if (read > 4L * MAX_BYTES) {
+                    throw new AssertionError("read past the limit");
+                }
+                return 'x';
+            }
+        };
+
+        ResponseEntity<Map<String, Object>> response = controller.uploadRaw(processInstanceId, "drawing.pdf", null,
+            request(endless, -1));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        assertThat(engine.processEngine().getTaskService().getProcessInstanceAttachments(processInstanceId)).isEmpty();
+        assertThat(storedFiles()).isZero();
+    }
+
+    @Test
+    void failedReadLeavesNoFile() throws Exception {
+        InputStream broken = new SequenceInputStream(new ByteArrayInputStream(new byte[1024]), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        });
+
+        assertThatThrownBy(() -> controller.uploadRaw(processInstanceId, "drawing.pdf", null, request(broken, 4096)))
+            .hasMessageContaining("connection reset");
+        assertThat(storedFiles()).isZero();
+    }
+
+    private static MockHttpServletRequest request(InputStream body, long contentLength) {
+        ServletInputStream servletInputStream = new DelegatingServletInputStream(body);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/") {
+            @Override
+            public ServletInputStream getInputStream() {
+                return servletInputStream;
+            }
+
+            @Override
+            public long getContentLengthLong() {
+                return contentLength;
+            }
+        };
+        request.setContentType("application/pdf");
+        return request;
+    }
+
+    /**
+     * Regular files in the store, including temp files of incoming uploads.
+     */
+    private long storedFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
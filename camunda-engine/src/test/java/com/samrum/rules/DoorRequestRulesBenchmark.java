@@ -0,0 +1,97 @@
+package com.samrum.rules;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH: compiled DoorRequestRules against the hard-coded checks they replaced
+ * (String[] scan with equalsIgnoreCase, switch on urgency.toUpperCase()).
+ *
+ * Not part of the regular build. Run after mvn test-compile:
+ *
+ *   mvn dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+ *   java -cp target/test-classes:target/classes:$(cat target/test.classpath) \
+ *     com.samrum.rules.DoorRequestRulesBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DoorRequestRulesBenchmark {
+
+    private static final String[] DOOR_TYPES = {
+        "single_standard", "EMERGENCY_EXIT", "Security_Door", "GARAGE_DOOR"
+    };
+    private static final String[] URGENCIES = {"critical", "HIGH", "Medium", "low", "SOMEDAY"};
+    private static final double[] BUDGETS = {1_000, 25_000, 30_000, 75_000};
+
+    private DoorRequestRules rules;
+    private int request;
+
+    @Setup
+    public void setUp() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = DoorRequestRulesBenchmark.class.getResourceAsStream("/rules/door-request-rules.properties")) {
+            properties.load(input);
+        }
+        rules = DoorRequestRules.compile(properties);
+    }
+
+    @Benchmark
+    public void hardCoded(Blackhole blackhole) {
+        int i = request++;
+        blackhole.consume(isValidDoorType(DOOR_TYPES[i & 3]));
+        blackhole.consume(calculatePriority(URGENCIES[i % URGENCIES.length], BUDGETS[i & 3]));
+    }
+
+    @Benchmark
+    public void compiled(Blackhole blackhole) {
+        int i = request++;
+        blackhole.consume(rules.isValidDoorType(DOOR_TYPES[i & 3]));
+        blackhole.consume(rules.priorityFor(URGENCIES[i % URGENCIES.length], BUDGETS[i & 3]));
+    }
+
+    private static boolean isValidDoorType(String doorType) {
+        String[] validTypes = {
+            "SINGLE_STANDARD", "DOUBLE_STANDARD", "FIRE_RATED_SINGLE", "FIRE_RATED_DOUBLE",
+            "SECURITY_DOOR", "ACCESS_CONTROL_DOOR", "EMERGENCY_EXIT"
+        };
+        for (String validType : validTypes) {
+            if (validType.equalsIgnoreCase(doorType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String calculatePriority(String urgency, Double budget) {
+        switch (urgency.toUpperCase()) {
+            case "CRITICAL":
+                return "P1_CRITICAL";
+            case "HIGH":
+                return budget > 25000 ? "P1_CRITICAL" : "P2_HIGH";
+            case "MEDIUM":
+                return budget > 25000 ? "P2_HIGH" : "P3_MEDIUM";
+            case "LOW":
+                return budget > 25000 ? "P3_MEDIUM" : "P4_LOW";
+            default:
+                return "P3_MEDIUM";
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(DoorRequestRulesBenchmark.class.getSimpleName())
+            .addProfiler("gc")
+            .build()).run();
+    }
+}
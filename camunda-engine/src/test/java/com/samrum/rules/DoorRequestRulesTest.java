@@ -0,0 +1,141 @@
+package com.samrum.rules;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DoorRequestRulesTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void lookupMatchesIgnoringCase() {
+        CaseInsensitiveLookup lookup = CaseInsensitiveLookup.of(List.of("SINGLE_STANDARD", "Fire_Rated_Single", "ß"));
+
+        assertThat(lookup.indexOf("single_standard")).isZero();
+        assertThat(lookup.indexOf("FIRE_RATED_SINGLE")).isEqualTo(1);
+        assertThat(lookup.indexOf("ß")).isEqualTo(2);
+        assertThat(lookup.indexOf("SINGLE_STANDARD ")).isEqualTo(-1);
+        assertThat(lookup.indexOf("SINGLE")).isEqualTo(-1);
+        assertThat(lookup.indexOf(null)).isEqualTo(-1);
+        assertThat(lookup.contains("")).isFalse();
+    }
+
+    @Test
+    void lookupFindsEveryKeyOfAFullTable() {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add("TYPE_" + i);
+        }
+        CaseInsensitiveLookup lookup = CaseInsensitiveLookup.of(keys);
+
+        for (int i = 0; i < keys.size(); i++) {
+            assertThat(lookup.indexOf("type_" + i)).isEqualTo(i);
+        }
+        assertThat(lookup.indexOf("TYPE_1000")).isEqualTo(-1);
+    }
+
+    @Test
+    void lookupRejectsKeysDifferingOnlyInCase() {
+        assertThatThrownBy(() -> CaseInsensitiveLookup.of(List.of("SECURITY_DOOR", "security_door")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Duplicate rule key");
+    }
+
+    @Test
+    void shippedRulesKeepTheFormerHardCodedBehaviour() throws IOException {
+        DoorRequestRules rules = DoorRequestRules.compile(shippedRules());
+
+        assertThat(rules.isValidDoorType("fire_rated_double")).isTrue();
+        assertThat(rules.isValidDoorType("GARAGE_DOOR")).isFalse();
+        assertThat(rules.isValidBudget(null)).isFalse();
+        assertThat(rules.isValidBudget(0.0)).isFalse();
+        assertThat(rules.isValidBudget(0.01)).isTrue();
+        assertThat(rules.requiresAdditionalApproval(50_000)).isFalse();
+        assertThat(rules.requiresAdditionalApproval(50_000.01)).isTrue();
+
+        assertThat(rules.priorityFor("CRITICAL", 100.0)).isEqualTo("P1_CRITICAL");
+        assertThat(rules.priorityFor("high", 25_000.0)).isEqualTo("P2_HIGH");
+        assertThat(rules.priorityFor("HIGH", 25_000.01)).isEqualTo("P1_CRITICAL");
+        assertThat(rules.priorityFor("LOW", null)).isEqualTo("P4_LOW");
+        assertThat(rules.priorityFor(null, 30_000.0)).isEqualTo("P2_HIGH");
+        assertThat(rules.priorityFor("SOMEDAY", 30_000.0)).isEqualTo("P3_MEDIUM");
+    }
+
+    @Test
+    void inconsistentRulesDoNotCompile() throws IOException {
+        Properties unordered = shippedRules();
+        unordered.setProperty("priority.budget-bands", "25000,10000");
+        assertThatThrownBy(() -> DoorRequestRules.compile(unordered)).hasMessageContaining("ascending");
+
+        Properties shortRow = shippedRules();
+        shortRow.setProperty("priority.matrix.LOW", "P4_LOW");
+        assertThatThrownBy(() -> DoorRequestRules.compile(shortRow)).hasMessageContaining("priority.matrix.LOW");
+
+        Properties noVersion = shippedRules();
+        noVersion.remove("rules.version");
+        assertThatThrownBy(() -> DoorRequestRules.compile(noVersion)).hasMessageContaining("rules.version");
+    }
+
+    @Test
+    void registryReloadsAChangedFileAndKeepsTheLastValidRules() throws Exception {
+        Path file = directory.resolve("rules.properties");
+        write(file, "1", "SINGLE_STANDARD");
+        DoorRequestRuleRegistry registry = new DoorRequestRuleRegistry(new DefaultResourceLoader());
+        ReflectionTestUtils.setField(registry, "location", file.toUri().toString());
+        ReflectionTestUtils.setField(registry, "reloadIntervalMs", 20L);
+        registry.init();
+        try {
+            assertThat(registry.current().getVersion()).isEqualTo("1");
+
+            write(file, "2", "SINGLE_STANDARD,GARAGE_DOOR");
+            file.toFile().setLastModified(System.currentTimeMillis() + 1_000);
+            awaitVersion(registry, "2");
+            assertThat(registry.current().isValidDoorType("garage_door")).isTrue();
+
+            Files.writeString(file, "rules.version=3\n");
+            file.toFile().setLastModified(System.currentTimeMillis() + 2_000);
+            Thread.sleep(200);
+            assertThat(registry.current().getVersion()).isEqualTo("2");
+        } finally {
+            registry.shutdown();
+        }
+    }
+
+    private static Properties shippedRules() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = DoorRequestRulesTest.class.getResourceAsStream("/rules/door-request-rules.properties")) {
+            properties.load(input);
+        }
+        return properties;
+    }
+
+    private static void write(Path file, String version, String doorTypes) throws IOException {
+        Files.writeString(file, "rules.version=" + version + "\n"
+            + "door-types=" + doorTypes + "\n"
+            + "budget.additional-approval-threshold=50000\n"
+            + "priority.fallback=P3_MEDIUM\n"
+            + "priority.matrix.MEDIUM=P3_MEDIUM\n");
+    }
+
+    private static void awaitVersion(DoorRequestRuleRegistry registry, String version) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!version.equals(registry.current().getVersion()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(registry.current().getVersion()).isEqualTo(version);
+    }
+}
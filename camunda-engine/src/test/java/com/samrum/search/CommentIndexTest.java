@@ -0,0 +1,182 @@
+package com.samrum.search;
+
+import com.samrum.InMemoryEngine;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.history.event.HistoricProcessInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricVariableUpdateEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.spring.SpringProcessEngineConfiguration;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * History events reach the index the way the Spring event bridge delivers
+ * them; rebuilds run synchronously on a second index over the same database.
+ */
+class CommentIndexTest {
+
+    private final List<CommentIndex> listening = new CopyOnWriteArrayList<>();
+    private InMemoryEngine engine;
+    private CommentIndex index;
+
+    @BeforeEach
+    void start() {
+        HistoryEventHandler bridge = new HistoryEventHandler() {
+            @Override
+            public void handleEvent(HistoryEvent event) {
+                for (CommentIndex target : listening) {
+                    if (event instanceof HistoricVariableUpdateEventEntity) {
+                        target.onVariable((HistoricVariableUpdateEventEntity) event);
+                    } else if (event instanceof HistoricProcessInstanceEventEntity) {
+                        target.onProcessInstance((HistoricProcessInstanceEventEntity) event);
+                    }
+                }
+            }
+
+            @Override
+            public void handleEvents(List<HistoryEvent> events) {
+                events.forEach(this::handleEvent);
+            }
+        };
+        engine = InMemoryEngine.start(Map.of(), new AbstractProcessEnginePlugin() {
+            @Override
+            public void preInit(ProcessEngineConfigurationImpl configuration) {
+                configuration.setCustomHistoryEventHandlers(List.of(bridge));
+            }
+        });
+        engine.processEngine().getRepositoryService().createDeployment()
+            .addModelInstance("review.bpmn", Bpmn.createExecutableProcess("commentReview")
+                .startEvent().userTask("review").endEvent("reviewed").done())
+            .deploy();
+        index = newIndex();
+        listening.add(index);
+    }
+
+    @AfterEach
+    void close() {
+        engine.close();
+    }
+
+    @Test
+    void bytesCommentsAreIndexedFromEventsAndRebuild() {
+        String text = "hinge " + "x".repeat(5000) + " misaligned";
+        String id = engine.processEngine().getRuntimeService().startProcessInstanceByKey("commentReview",
+            Map.of("comments", Variables.byteArrayValue(text.getBytes(StandardCharsets.UTF_8)))).getId();
+
+        assertThat(index.search("hinge misaligned", null, null, null, null, 10).getHits())
+            .extracting(CommentDoc::getProcessInstanceId).containsExactly(id);
+
+        CommentIndex rebuilt = rebuild(newIndex());
+        assertThat(rebuilt.search("hinge misaligned", null, null, null, null, 10).getHits())
+            .extracting(CommentDoc::getText).containsExactly(text);
+    }
+
+    @Test
+    void endedProcessesAreEvictedAfterTheRetention() {
+        RuntimeService runtimeService = engine.processEngine().getRuntimeService();
+        TaskService taskService = engine.processEngine().getTaskService();
+        String active = runtimeService.startProcessInstanceByKey("commentReview", Map.of("comments", "frame dented")).getId();
+        String ended = runtimeService.startProcessInstanceByKey("commentReview", Map.of("comments", "frame scratched")).getId();
+        taskService.complete(taskService.createTaskQuery().processInstanceId(ended).singleResult().getId());
+
+        index.prune();
+        assertThat(index.search("frame", null, "reviewed", null, null, 10).getHits())
+            .extracting(CommentDoc::getProcessInstanceId).containsExactly(ended);
+
+        ReflectionTestUtils.setField(index, "endedRetentionDays", 0);
+        index.prune();
+        assertThat(index.search("frame", null, null, null, null, 10).getHits())
+            .extracting(CommentDoc::getProcessInstanceId).containsExactly(active);
+        assertThat(index.getCommentCount()).isEqualTo(1);
+        assertThat(index.getProcessCount()).isEqualTo(1);
+        assertThat(index.getTermCount()).isEqualTo(2);
+
+        CommentIndex rebuilt = newIndex();
+        ReflectionTestUtils.setField(rebuilt, "endedRetentionDays", 0);
+        assertThat(rebuild(rebuilt).getProcessCount()).isEqualTo(1);
+    }
+
+    @Test
+    void pruneCompactsTheDocTable() {
+        RuntimeService runtimeService = engine.processEngine().getRuntimeService();
+        String id = runtimeService.startProcessInstanceByKey("commentReview", Map.of("comments", "revision 0")).getId();
+        for (int i = 1; i <= 1100; i++) {
+            runtimeService.setVariable(id, "comments", "revision " + i);
+        }
+        assertThat(docTableLength()).isGreaterThan(1024);
+
+        index.prune();
+
+        assertThat(docTableLength()).isEqualTo(1024);
+        assertThat(index.search("revision 1100", null, null, null, null, 10).getHits())
+            .extracting(CommentDoc::getText).containsExactly("revision 1100");
+        assertThat(index.search("1099", null, null, null, null, 10).getHits()).isEmpty();
+    }
+
+    @Test
+    void rebuildRacingUpdatesKeepsTheNewerTexts() throws Exception {
+        ProcessEngine processEngine = engine.processEngine();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ids.add(processEngine.getRuntimeService()
+                .startProcessInstanceByKey("commentReview", Map.of("comments", "stale")).getId());
+        }
+        CommentIndex racing = newIndex();
+        listening.add(racing);
+        ReflectionTestUtils.setField(racing, "rebuilding", true);
+
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(() -> rebuild(racing));
+        for (String id : ids) {
+            processEngine.getRuntimeService().setVariable(id, "comments", "fresh");
+        }
+        rebuild.get();
+
+        assertThat(racing.search("stale", null, null, null, null, 500).getTotalInstances()).isZero();
+        assertThat(racing.search("fresh", null, null, null, null, 500).getTotalInstances()).isEqualTo(ids.size());
+        assertThat(racing.getCommentCount()).isEqualTo(ids.size());
+    }
+
+    private CommentIndex newIndex() {
+        ProcessEngine processEngine = engine.processEngine();
+        CommentIndex commentIndex = new CommentIndex();
+        ReflectionTestUtils.setField(commentIndex, "historyService", processEngine.getHistoryService());
+        ReflectionTestUtils.setField(commentIndex, "dataSource", engine.dataSource());
+        ReflectionTestUtils.setField(commentIndex, "transactionManager",
+            ((SpringProcessEngineConfiguration) processEngine.getProcessEngineConfiguration()).getTransactionManager());
+        ReflectionTestUtils.setField(commentIndex, "variables", Set.of("comments", "rejectionReason"));
+        ReflectionTestUtils.setField(commentIndex, "fetchSize", 100);
+        ReflectionTestUtils.setField(commentIndex, "maxPrefixTerms", 10_000);
+        ReflectionTestUtils.setField(commentIndex, "endedRetentionDays", 90);
+        return commentIndex;
+    }
+
+    private static CommentIndex rebuild(CommentIndex commentIndex) {
+        ReflectionTestUtils.invokeMethod(commentIndex, "rebuild");
+        assertThat(commentIndex.isReady()).isTrue();
+        return commentIndex;
+    }
+
+    private int docTableLength() {
+        Object segment = ReflectionTestUtils.getField(index, "segment");
+        return ((CommentDoc[]) ReflectionTestUtils.getField(segment, "docs")).length;
+    }
+}
@@ -0,0 +1,180 @@
+package com.samrum.sla;
+
+import com.samrum.InMemoryEngine;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.spring.SpringProcessEngineConfiguration;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Monitors run without their ticker thread: lease checks and ticks are
+ * invoked directly, and tasks are picked up by the rebuild after the lease.
+ */
+class SlaMonitorTest {
+
+    private InMemoryEngine engine;
+    private final List<SlaMonitor> monitors = new ArrayList<>();
+
+    @BeforeEach
+    void start() {
+        engine = InMemoryEngine.start();
+        engine.processEngine().getRepositoryService().createDeployment()
+            .addModelInstance("sla.bpmn", Bpmn.createExecutableProcess("sla")
+                .startEvent()
+                .userTask("install").camundaAssignee("tech-1").camundaCandidateGroups("technicians")
+                .camundaDueDate("${dueDate}")
+                .endEvent()
+                .done())
+            .deploy();
+    }
+
+    @AfterEach
+    void close() {
+        monitors.forEach(SlaMonitor::stop);
+        engine.close();
+    }
+
+    @Test
+    void stagesRunInOrder() throws InterruptedException {
+        String taskId = overdueTask();
+        SlaMonitor monitor = monitor("node-a", "150ms", "300ms");
+        checkLease(monitor);
+        TaskService taskService = engine.processEngine().getTaskService();
+
+        tickUntilStage(monitor, taskId, 1);
+        Task task = task(taskId);
+        assertThat(taskService.getTaskComments(taskId)).hasSize(1);
+        assertThat(task.getPriority()).isEqualTo(Task.PRIORITY_NORMAL);
+        assertThat(task.getAssignee()).isEqualTo("tech-1");
+
+        tickUntilStage(monitor, taskId, 2);
+        task = task(taskId);
+        assertThat(task.getPriority()).isEqualTo(Task.PRIORITY_NORMAL + 20);
+        assertThat(task.getAssignee()).isEqualTo("tech-1");
+
+        tickUntilStage(monitor, taskId, 3);
+        task = task(taskId);
+        assertThat(task.getAssignee()).isNull();
+        assertThat(taskService.getTaskComments(taskId)).hasSize(1);
+        assertThat(taskService.getVariableLocal(taskId, SlaMonitor.STAGE_VARIABLE)).isEqualTo(3);
+        assertThat(monitor.getTimer(taskId)).isEmpty();
+    }
+
+    @Test
+    void aRebuiltMonitorContinuesWithTheNextStage() throws InterruptedException {
+        String taskId = overdueTask();
+        SlaMonitor first = monitor("node-a", "1h", "2h");
+        checkLease(first);
+        tickUntilStage(first, taskId, 1);
+        first.stop();
+
+        SlaMonitor second = monitor("node-a", "0ms", "1h");
+        checkLease(second);
+        assertThat(second.getTimer(taskId)).get().extracting(SlaTimer::getStage).isEqualTo(1);
+
+        tickUntilStage(second, taskId, 2);
+        assertThat(engine.processEngine().getTaskService().getTaskComments(taskId)).hasSize(1);
+        assertThat(task(taskId).getPriority()).isEqualTo(Task.PRIORITY_NORMAL + 20);
+    }
+
+    @Test
+    void onlyTheLeaseHolderEscalates() throws InterruptedException {
+        String taskId = overdueTask();
+        SlaMonitor a = monitor("node-a", "1h", "2h");
+        SlaMonitor b = monitor("node-b", "1h", "2h");
+        checkLease(a);
+        checkLease(b);
+        assertThat(a.getStatus()).containsEntry("leader", true);
+        assertThat(b.getStatus()).containsEntry("leader", false);
+        assertThat(b.getTimer(taskId)).isEmpty();
+
+        Thread.sleep(50);
+        tick(b);
+        assertThat(engine.processEngine().getTaskService().getTaskComments(taskId)).isEmpty();
+        tickUntilStage(a, taskId, 1);
+
+        // a's last renewal is 1 ms long; b takes over once it expired
+        ReflectionTestUtils.setField(a, "leaseMs", 1L);
+        checkLease(a);
+        Thread.sleep(10);
+        checkLease(b);
+        assertThat(b.getStatus()).containsEntry("leader", true);
+        assertThat(b.getTimer(taskId)).get().extracting(SlaTimer::getStage).isEqualTo(1);
+        checkLease(a);
+        assertThat(a.getStatus()).containsEntry("leader", false);
+        assertThat(a.getTimer(taskId)).isEmpty();
+    }
+
+    private String overdueTask() {
+        ProcessEngine processEngine = engine.processEngine();
+        String id = processEngine.getRuntimeService().startProcessInstanceByKey("sla",
+            Map.of("dueDate", new Date())).getId();
+        return processEngine.getTaskService().createTaskQuery().processInstanceId(id).singleResult().getId();
+    }
+
+    private SlaMonitor monitor(String nodeId, String priorityAfter, String reassignAfter) {
+        ProcessEngine processEngine = engine.processEngine();
+        SlaMonitor monitor = new SlaMonitor();
+        ReflectionTestUtils.setField(monitor, "processEngine", processEngine);
+        ReflectionTestUtils.setField(monitor, "taskService", processEngine.getTaskService());
+        ReflectionTestUtils.setField(monitor, "dataSource", engine.dataSource());
+        ReflectionTestUtils.setField(monitor, "transactionManager",
+            ((SpringProcessEngineConfiguration) processEngine.getProcessEngineConfiguration()).getTransactionManager());
+        ReflectionTestUtils.setField(monitor, "leaseStore", new SlaLeaseStore(engine.jdbcTemplate()));
+        ReflectionTestUtils.setField(monitor, "enabled", true);
+        ReflectionTestUtils.setField(monitor, "nodeId", nodeId);
+        ReflectionTestUtils.setField(monitor, "leaseMs", 60_000L);
+        ReflectionTestUtils.setField(monitor, "tickMillis", 10L);
+        ReflectionTestUtils.setField(monitor, "defaults", List.of());
+        ReflectionTestUtils.setField(monitor, "priorityAfter", priorityAfter);
+        ReflectionTestUtils.setField(monitor, "reassignAfter", reassignAfter);
+        ReflectionTestUtils.setField(monitor, "priorityBump", 20);
+        ReflectionTestUtils.setField(monitor, "escalationGroup", "");
+        ReflectionTestUtils.setField(monitor, "batchSize", 200);
+        ReflectionTestUtils.setField(monitor, "maxActionsPerTick", 1000);
+        ReflectionTestUtils.setField(monitor, "fetchSize", 100);
+        ReflectionTestUtils.setField(monitor, "rescanInterval", "30s");
+        ReflectionTestUtils.setField(monitor, "rescanOverlap", "5m");
+        monitor.init();
+        monitors.add(monitor);
+        return monitor;
+    }
+
+    private Task task(String taskId) {
+        return engine.processEngine().getTaskService().createTaskQuery().taskId(taskId).singleResult();
+    }
+
+    private void tickUntilStage(SlaMonitor monitor, String taskId, int stage) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (stage(taskId) < stage && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            tick(monitor);
+        }
+        assertThat(stage(taskId)).isEqualTo(stage);
+    }
+
+    private int stage(String taskId) {
+        Object stage = engine.processEngine().getTaskService().getVariableLocal(taskId, SlaMonitor.STAGE_VARIABLE);
+        return stage != null ? ((Number) stage).intValue() : 0;
+    }
+
+    private static void checkLease(SlaMonitor monitor) {
+        ReflectionTestUtils.invokeMethod(monitor, "checkLease");
+    }
+
+    private static void tick(SlaMonitor monitor) {
+        ReflectionTestUtils.invokeMethod(monitor, "tick");
+    }
+}
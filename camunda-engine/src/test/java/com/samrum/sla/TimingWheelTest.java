@@ -0,0 +1,71 @@
+package com.samrum.sla;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    @Test
+    void timersFireOnTheirTickAfterCascadingThroughEveryLevel() {
+        TimingWheel wheel = new TimingWheel(1, 0);
+        // level 0, 1, 2 and 3 (256, 65 536 and 16 777 216 ticks per slot below)
+        long[] fireTicks = {7, 300, 70_001, 16_800_003};
+        for (long fireTick : fireTicks) {
+            wheel.schedule(timer("t" + fireTick, fireTick));
+        }
+        assertThat(wheel.size()).isEqualTo(fireTicks.length);
+
+        List<String> fired = new ArrayList<>();
+        for (long fireTick : fireTicks) {
+            wheel.advanceTo(fireTick - 1, timer -> fired.add(timer.getTaskId()));
+            assertThat(fired).as("nothing fires before tick %d", fireTick).hasSize(indexOf(fireTicks, fireTick));
+
+            wheel.advanceTo(fireTick, timer -> fired.add(timer.getTaskId()));
+            assertThat(fired).last().isEqualTo("t" + fireTick);
+        }
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cancelledAndRescheduledTimersFireOnlyAtTheirNewTime() {
+        TimingWheel wheel = new TimingWheel(10, 1_000);
+        SlaTimer cancelled = timer("cancelled", 5_000);
+        SlaTimer moved = timer("moved", 900_000);
+        SlaTimer overdue = timer("overdue", 0);
+        wheel.schedule(cancelled);
+        wheel.schedule(moved);
+        wheel.schedule(overdue);
+
+        wheel.cancel(cancelled);
+        moved.setFireAt(2_000);
+        wheel.schedule(moved);
+
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(1_010, timer -> fired.add(timer.getTaskId()));
+        assertThat(fired).containsExactly("overdue");
+        wheel.advanceTo(1_990, timer -> fired.add(timer.getTaskId()));
+        assertThat(fired).containsExactly("overdue");
+        wheel.advanceTo(1_000_000, timer -> fired.add(timer.getTaskId()));
+        assertThat(fired).containsExactly("overdue", "moved");
+        assertThat(wheel.size()).isZero();
+    }
+
+    private static SlaTimer timer(String taskId, long fireAt) {
+        SlaTimer timer = new SlaTimer(taskId, "process", "task", fireAt, 0);
+        timer.setFireAt(fireAt);
+        return timer;
+    }
+
+    private static int indexOf(long[] values, long value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
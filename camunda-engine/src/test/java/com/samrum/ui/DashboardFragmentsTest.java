@@ -0,0 +1,125 @@
+package com.samrum.ui;
+
+import com.samrum.InMemoryEngine;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.history.event.HistoricProcessInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricTaskInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.task.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * History events reach the fragments the way the Spring event bridge
+ * delivers them; the TTLs are long, so only eviction refreshes a fragment.
+ */
+class DashboardFragmentsTest {
+
+    private InMemoryEngine engine;
+    private DashboardFragments fragments;
+
+    @BeforeEach
+    void start() {
+        fragments = new DashboardFragments();
+        HistoryEventHandler bridge = new HistoryEventHandler() {
+            @Override
+            public void handleEvent(HistoryEvent event) {
+                if (event instanceof HistoricProcessInstanceEventEntity) {
+                    fragments.onProcessInstance((HistoricProcessInstanceEventEntity) event);
+                } else if (event instanceof HistoricTaskInstanceEventEntity) {
+                    fragments.onTaskInstance((HistoricTaskInstanceEventEntity) event);
+                }
+            }
+
+            @Override
+            public void handleEvents(List<HistoryEvent> events) {
+                events.forEach(this::handleEvent);
+            }
+        };
+        engine = InMemoryEngine.start(Map.of(), new AbstractProcessEnginePlugin() {
+            @Override
+            public void preInit(ProcessEngineConfigurationImpl configuration) {
+                configuration.setCustomHistoryEventHandlers(List.of(bridge));
+            }
+        });
+        ProcessEngine processEngine = engine.processEngine();
+        processEngine.getRepositoryService().createDeployment()
+            .addClasspathResource("processes/door-installation.bpmn")
+            .deploy();
+
+        ReflectionTestUtils.setField(fragments, "runtimeService", processEngine.getRuntimeService());
+        ReflectionTestUtils.setField(fragments, "taskService", processEngine.getTaskService());
+        ReflectionTestUtils.setField(fragments, "historyService", processEngine.getHistoryService());
+        ReflectionTestUtils.setField(fragments, "ttlMillis", 600_000L);
+        ReflectionTestUtils.setField(fragments, "historyTtlMillis", 600_000L);
+    }
+
+    @AfterEach
+    void close() {
+        engine.close();
+    }
+
+    @Test
+    void claimAndCompleteRefreshTaskFragments() {
+        ProcessEngine processEngine = engine.processEngine();
+        TaskService taskService = processEngine.getTaskService();
+        String id = processEngine.getRuntimeService()
+            .startProcessInstanceByKey(DashboardFragments.PROCESS_DEFINITION_KEY, unassigned()).getId();
+        Task task = taskService.createTaskQuery().processInstanceId(id).singleResult();
+
+        assertThat(fragments.stats()).containsEntry("assignedTasks", 0L);
+        assertThat(fragments.taskRows()).extracting(row -> row.get("assignee")).containsExactly((Object) null);
+        assertThat(fragments.activeProcessRows()).extracting(row -> row.get("taskCount")).containsExactly(1L);
+
+        taskService.claim(task.getId(), "engineer1");
+        assertThat(fragments.stats()).containsEntry("assignedTasks", 1L);
+        assertThat(fragments.taskRows()).extracting(row -> row.get("assignee")).containsExactly("engineer1");
+
+        taskService.setAssignee(task.getId(), "engineer2");
+        assertThat(fragments.taskRows()).extracting(row -> row.get("assignee")).containsExactly("engineer2");
+
+        taskService.complete(task.getId(), Map.of("approvalDecision", "APPROVED"));
+        long open = taskService.createTaskQuery().processInstanceId(id).count();
+        assertThat(fragments.taskRows()).hasSize((int) open);
+        assertThat(fragments.stats()).containsEntry("totalTasks", open);
+    }
+
+    @Test
+    void taskEventsOfOtherProcessesKeepTheFragments() {
+        ProcessEngine processEngine = engine.processEngine();
+        processEngine.getRuntimeService()
+            .startProcessInstanceByKey(DashboardFragments.PROCESS_DEFINITION_KEY, unassigned());
+        fragments.taskRows();
+        long misses = fragments.getCache().getMisses();
+
+        Task standalone = processEngine.getTaskService().newTask();
+        processEngine.getTaskService().saveTask(standalone);
+        processEngine.getTaskService().claim(standalone.getId(), "engineer1");
+        fragments.taskRows();
+
+        assertThat(fragments.getCache().getMisses()).isEqualTo(misses);
+    }
+
+    /**
+     * Door installation variables with no reviewer, so the review task starts unassigned.
+     */
+    private static Map<String, Object> unassigned() {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("projectId", "PROJ-1");
+        variables.put("doorType", "FIRE_DOOR");
+        variables.put("reviewerId", null);
+        return variables;
+    }
+}
@@ -0,0 +1,79 @@
+package com.samrum.workorder;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH: WorkOrderNumberGenerator against the number format it replaced
+ * (timestamp + 4 hex characters of a random UUID).
+ *
+ * Not part of the regular build. Run after mvn test-compile:
+ *
+ *   mvn dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+ *   java -cp target/test-classes:target/classes:$(cat target/test.classpath) \
+ *     com.samrum.workorder.WorkOrderNumberBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkOrderNumberBenchmark {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private WorkOrderNumberGenerator generator;
+
+    @Setup
+    public void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:work-order-bench;DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("db/samrum/h2/V2__sequence_table.sql")).execute(dataSource);
+        generator = new WorkOrderNumberGenerator(new JdbcTemplate(dataSource), new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(generator, "blockSize", 1000);
+    }
+
+    @Benchmark
+    public String timestampAndUuid() {
+        String timestamp = LocalDateTime.now().format(FORMATTER);
+        String uniqueId = UUID.randomUUID().toString().substring(0, 4).toUpperCase();
+        return String.format("WO-%s-%s", timestamp, uniqueId);
+    }
+
+    @Benchmark
+    public String blockAllocated() {
+        return generator.next();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String timestampAndUuid4Threads() {
+        return timestampAndUuid();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String blockAllocated4Threads() {
+        return generator.next();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(WorkOrderNumberBenchmark.class.getSimpleName())
+            .addProfiler("gc")
+            .build()).run();
+    }
+}
@@ -0,0 +1,113 @@
+package com.samrum.workorder;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WorkOrderNumberGeneratorTest {
+
+    private static final int NODES = 2;
+    private static final int THREADS_PER_NODE = 4;
+    private static final int NUMBERS_PER_THREAD = 250_000;
+
+    private JdbcDataSource dataSource;
+
+    @BeforeEach
+    void createSequenceTable() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("db/samrum/h2/V2__sequence_table.sql")).execute(dataSource);
+    }
+
+    private WorkOrderNumberGenerator generator(int blockSize) {
+        WorkOrderNumberGenerator generator = new WorkOrderNumberGenerator(new JdbcTemplate(dataSource),
+            new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(generator, "blockSize", blockSize);
+        return generator;
+    }
+
+    @Test
+    void numbersAreUniqueAcrossThreadsAndNodes() throws Exception {
+        // two generators on one table stand in for two cluster nodes
+        List<WorkOrderNumberGenerator> nodes = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            nodes.add(generator(1000));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(NODES * THREADS_PER_NODE);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int i = 0; i < NODES * THREADS_PER_NODE; i++) {
+            WorkOrderNumberGenerator generator = nodes.get(i % NODES);
+            futures.add(executor.submit(() -> {
+                long[] values = new long[NUMBERS_PER_THREAD];
+                start.await();
+                for (int n = 0; n < values.length; n++) {
+                    values[n] = generator.nextValue();
+                }
+                return values;
+            }));
+        }
+        start.countDown();
+
+        long[] all = new long[NODES * THREADS_PER_NODE * NUMBERS_PER_THREAD];
+        int offset = 0;
+        for (Future<long[]> future : futures) {
+            long[] values = future.get(2, TimeUnit.MINUTES);
+            System.arraycopy(values, 0, all, offset, values.length);
+            offset += values.length;
+        }
+        executor.shutdown();
+
+        Arrays.sort(all);
+        assertThat(all[0]).isPositive();
+        for (int i = 1; i < all.length; i++) {
+            if (all[i] == all[i - 1]) {
+                throw new AssertionError("Work order number handed out twice: " + all[i]);
+            }
+        }
+        // blocks are only lost to the ones still open on each node
+        assertThat(all[all.length - 1]).isLessThan(all.length + NODES * 1000L);
+    }
+
+    @Test
+    void newGeneratorContinuesAfterReservedBlocks() {
+        WorkOrderNumberGenerator first = generator(10);
+        assertThat(first.next()).isEqualTo("WO-0000000001");
+        assertThat(first.next()).isEqualTo("WO-0000000002");
+
+        // a restarted node never reuses the rest of the previous block
+        assertThat(generator(10).next()).isEqualTo("WO-0000000011");
+    }
+
+    @Test
+    void formatPadsToTenDigits() {
+        assertThat(WorkOrderNumberGenerator.format(0)).isEqualTo("WO-0000000000");
+        assertThat(WorkOrderNumberGenerator.format(1234567)).isEqualTo("WO-0001234567");
+        assertThat(WorkOrderNumberGenerator.format(9_999_999_999L)).isEqualTo("WO-9999999999");
+        assertThatThrownBy(() -> WorkOrderNumberGenerator.format(10_000_000_000L))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void missingSequenceRowFails() {
+        new JdbcTemplate(dataSource).update("DELETE FROM SAMRUM_SEQUENCE");
+        assertThatThrownBy(() -> generator(10).next())
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining(WorkOrderNumberGenerator.SEQUENCE_NAME);
+    }
+}